@@ -0,0 +1,104 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.benchmark;
+
+import com.github.adrienKoumgangT.transactionProcessing.schedule.main.CompactGraphSchedule;
+import com.github.adrienKoumgangT.transactionProcessing.schedule.main.IncrementalScheduleHandler;
+import com.github.adrienKoumgangT.transactionProcessing.schedule.main.ScheduleHandler;
+import com.github.adrienKoumgangT.transactionProcessing.schedule.main.ScheduleResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <h1>Mesures de performance du moteur d'ordonnancement</h1>
+ *
+ * <p>
+ * Mesure, sur des graphes synthétiques ({@link SyntheticDag}) de chaque forme et de plusieurs tailles :
+ * <ul>
+ *     <li>{@link #build()} : construction de la vue compacte par {@code ScheduleBuilder};</li>
+ *     <li>{@link #topologicalSort()} : tri topologique (passe avant, dates au plus tot comprises);</li>
+ *     <li>{@link #cpm()} : passes avant et arrière complètes;</li>
+ *     <li>{@link #cpmParallel()} : passes par vagues sur le pool commun;</li>
+ *     <li>{@link #incremental()} : une modification de durée propagée par {@link IncrementalScheduleHandler}.</li>
+ * </ul>
+ * Chaque mesure tourne dans des JVM séparées, après des itérations de chauffe; JMH consomme les
+ * résultats pour que le compilateur ne puisse pas éliminer les calculs.
+ * </p>
+ *
+ * <p>
+ * Usage : {@code mvn -B package}, puis {@code java -jar benchmarks/target/benchmarks.jar -prof gc},
+ * le profileur {@code gc} rapportant les octets alloués par opération (fils du pool compris).
+ * Les tailles se choisissent par {@code -p size=1000,100000}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = "-Xmx8g")
+public class ScheduleBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param
+    public SyntheticDag.Shape shape;
+
+    private SyntheticDag dag;
+    private ScheduleHandler handler;
+    private IncrementalScheduleHandler incremental;
+    private ForkJoinPool pool;
+    private SplittableRandom random;
+    private long[] ids;
+
+    @Setup
+    public void setUp() {
+        dag = SyntheticDag.generate(shape, size, SEED);
+        CompactGraphSchedule graph = dag.toBuilder().buildCompact();
+        handler = new ScheduleHandler(graph);
+        incremental = new IncrementalScheduleHandler(graph);
+        pool = ForkJoinPool.commonPool();
+        random = new SplittableRandom(SEED);
+        ids = dag.getIds();
+    }
+
+    @Benchmark
+    public CompactGraphSchedule build() {
+        return dag.toBuilder().buildCompact();
+    }
+
+    @Benchmark
+    public int[] topologicalSort() {
+        return handler.topologicalOrder();
+    }
+
+    @Benchmark
+    public ScheduleResult cpm() {
+        return handler.compute();
+    }
+
+    @Benchmark
+    public ScheduleResult cpmParallel() {
+        return handler.compute(pool);
+    }
+
+    @Benchmark
+    public long incremental() {
+        incremental.setDuree(ids[random.nextInt(ids.length)], 1 + random.nextInt(100));
+        return incremental.getMakespan();
+    }
+}
@@ -0,0 +1,205 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.benchmark;
+
+import com.github.adrienKoumgangT.transactionProcessing.schedule.main.ScheduleBuilder;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * <p>
+ * Graphe acyclique synthétique pour les mesures de performance, sous forme de tableaux bruts
+ * (identifiants, durées, arcs) afin de pouvoir mesurer la construction elle-meme.
+ * </p>
+ * <p>
+ * Les générateurs sont déterministes pour une graine donnée.
+ * </p>
+ */
+public final class SyntheticDag {
+
+    /**
+     * Formes de graphes disponibles.
+     */
+    public enum Shape {
+        /** une seule chaine : profondeur maximale, aucune largeur */
+        CHAIN,
+        /** une racine, n - 2 feuilles indépendantes et un puits : largeur maximale */
+        FAN_OUT,
+        /** couches aléatoires de largeur ~ racine de n, trois prédécesseurs dans la couche précédente */
+        RANDOM_LAYERED,
+        /** composition série-parallèle aléatoire */
+        SERIES_PARALLEL
+    }
+
+    private final String name;
+    private final long[] ids;
+    private final long[] durees;
+    private final long[] from;
+    private final long[] to;
+
+    private SyntheticDag(String name, long[] ids, long[] durees, long[] from, long[] to) {
+        this.name = name;
+        this.ids = ids;
+        this.durees = durees;
+        this.from = from;
+        this.to = to;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int taskCount() {
+        return ids.length;
+    }
+
+    public int edgeCount() {
+        return from.length;
+    }
+
+    public long[] getIds() {
+        return ids;
+    }
+
+    public long[] getDurees() {
+        return durees;
+    }
+
+    /**
+     * @return un builder pré-dimensionné contenant ce graphe
+     */
+    public ScheduleBuilder toBuilder() {
+        return new ScheduleBuilder(ids.length, from.length).addTasks(ids, durees).addPrecedences(from, to);
+    }
+
+    public static SyntheticDag generate(Shape shape, int n, long seed) {
+        switch (shape) {
+            case CHAIN:
+                return chain(n, seed);
+            case FAN_OUT:
+                return fanOut(n, seed);
+            case RANDOM_LAYERED:
+                return randomLayered(n, seed);
+            case SERIES_PARALLEL:
+                return seriesParallel(n, seed);
+            default:
+                throw new IllegalArgumentException("unknown shape " + shape);
+        }
+    }
+
+    public static SyntheticDag chain(int n, long seed) {
+        Edges edges = new Edges(n);
+        for (int i = 1; i < n; i++) {
+            edges.add(i - 1, i);
+        }
+        return edges.toDag("chain-" + n, n, seed);
+    }
+
+    public static SyntheticDag fanOut(int n, long seed) {
+        Edges edges = new Edges(2 * n);
+        for (int i = 1; i < n - 1; i++) {
+            edges.add(0, i);
+            edges.add(i, n - 1);
+        }
+        return edges.toDag("fan-out-" + n, n, seed);
+    }
+
+    public static SyntheticDag randomLayered(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int width = Math.max(1, (int) Math.sqrt(n));
+        Edges edges = new Edges(3L * n);
+        for (int i = width; i < n; i++) {
+            int layerStart = (i / width - 1) * width;
+            for (int k = 0; k < 3; k++) {
+                edges.add(layerStart + random.nextInt(width), i);
+            }
+        }
+        return edges.toDag("random-layered-" + n, n, seed);
+    }
+
+    /**
+     * Partage récursivement l'intervalle de taches : chaque bloc est soit une mise en série de
+     * deux sous-blocs, soit une mise en parallèle entre une tache d'entrée et une tache de sortie.
+     * La pile explicite évite toute récursion sur les grands graphes.
+     */
+    public static SyntheticDag seriesParallel(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Edges edges = new Edges(2L * n);
+        // bloc [start, end) : entrée = start, sortie = end - 1
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n;
+        while (top > 0) {
+            int end = stack[--top];
+            int start = stack[--top];
+            int size = end - start;
+            if (size <= 2) {
+                if (size == 2) {
+                    edges.add(start, start + 1);
+                }
+                continue;
+            }
+            if (top + 8 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (random.nextBoolean()) {
+                // série : [start, middle) puis [middle, end)
+                int middle = start + 1 + random.nextInt(size - 1);
+                edges.add(middle - 1, middle);
+                stack[top++] = start;
+                stack[top++] = middle;
+                stack[top++] = middle;
+                stack[top++] = end;
+            } else {
+                // parallèle : entrée start, sortie end - 1, deux branches entre les deux
+                int inner = size - 2;
+                int middle = start + 1 + (inner == 1 ? 1 : 1 + random.nextInt(inner - 1));
+                edges.add(start, start + 1);
+                edges.add(middle - 1, end - 1);
+                if (middle < end - 1) {
+                    edges.add(start, middle);
+                    edges.add(end - 2, end - 1);
+                    stack[top++] = middle;
+                    stack[top++] = end - 1;
+                }
+                stack[top++] = start + 1;
+                stack[top++] = middle;
+            }
+        }
+        return edges.toDag("series-parallel-" + n, n, seed);
+    }
+
+    private static final class Edges {
+
+        private long[] from;
+        private long[] to;
+        private int count;
+
+        Edges(long expected) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16, expected));
+            this.from = new long[capacity];
+            this.to = new long[capacity];
+        }
+
+        void add(long predecessor, long successor) {
+            if (count == from.length) {
+                from = Arrays.copyOf(from, count * 2);
+                to = Arrays.copyOf(to, count * 2);
+            }
+            from[count] = predecessor;
+            to[count] = successor;
+            count++;
+        }
+
+        SyntheticDag toDag(String name, int n, long seed) {
+            SplittableRandom random = new SplittableRandom(seed ^ 0x9E3779B97F4A7C15L);
+            long[] ids = new long[n];
+            long[] durees = new long[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = i;
+                durees[i] = 1 + random.nextInt(100);
+            }
+            return new SyntheticDag(name, ids, durees, Arrays.copyOf(from, count), Arrays.copyOf(to, count));
+        }
+    }
+}
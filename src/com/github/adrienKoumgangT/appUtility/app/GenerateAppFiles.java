@@ -1,4 +1,90 @@
 package com.github.adrienKoumgangT.appUtility.app;
 
+import com.github.adrienKoumgangT.appUtility.database.DBDaoGenerator;
+import com.github.adrienKoumgangT.appUtility.database.DBTable;
+import com.github.adrienKoumgangT.appUtility.database.GenerateDBFiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>
+ * Génère le code Java d'application des tables d'un dossier de fichiers {@code .sql} (lus comme par
+ * {@link GenerateDBFiles}) : pour chaque table, sa classe d'accès JDBC {@code <Table>Dao} (voir
+ * {@link DBDaoGenerator}), dans le dossier du paquetage sous le dossier des sources.
+ * </p>
+ * <p>
+ * Un fichier dont le texte n'a pas changé n'est pas réécrit et garde sa date de modification, pour
+ * ne pas forcer la recompilation des sources qui en dépendent.
+ * </p>
+ */
 public class GenerateAppFiles {
+
+    private final DBDaoGenerator daoGenerator;
+
+    /**
+     * @param packageName paquetage des classes générées
+     */
+    public GenerateAppFiles(String packageName) {
+        this(new DBDaoGenerator(packageName));
+    }
+
+    public GenerateAppFiles(DBDaoGenerator daoGenerator) {
+        this.daoGenerator = daoGenerator;
+    }
+
+    /**
+     * Génère les classes d'accès de toutes les tables créées par les fichiers {@code .sql} du dossier.
+     *
+     * @param sourceDirectory dossier du paquetage des classes générées, créé au besoin
+     * @return le nombre de fichiers écrits
+     * @throws IllegalArgumentException si deux tables produiraient la même classe
+     */
+    public int generate(Path sqlDirectory, Path sourceDirectory) throws IOException {
+        List<DBTable> tables = new GenerateDBFiles().read(sqlDirectory);
+        Map<String, DBTable> byFile = new HashMap<>();
+        for (DBTable table : tables) {
+            DBTable other = byFile.put(DBDaoGenerator.fileName(table).toLowerCase(Locale.ROOT), table);
+            if (other != null) {
+                throw new IllegalArgumentException("tables " + other.getName() + " and " + table.getName()
+                        + " map to the same class " + DBDaoGenerator.className(table));
+            }
+        }
+        Files.createDirectories(sourceDirectory);
+        int written = 0;
+        StringBuilder out = new StringBuilder(32 * 1024);
+        for (DBTable table : tables) {
+            out.setLength(0);
+            daoGenerator.generate(table, out);
+            byte[] content = out.toString().getBytes(StandardCharsets.UTF_8);
+            Path file = sourceDirectory.resolve(DBDaoGenerator.fileName(table));
+            if (!Files.exists(file) || !Arrays.equals(Files.readAllBytes(file), content)) {
+                Files.write(file, content);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Usage : {@code GenerateAppFiles <dossier des fichiers .sql> <dossier des sources> <paquetage>}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("usage: GenerateAppFiles <sql directory> <source directory> <package>");
+            System.exit(2);
+        }
+        String packageName = args[2];
+        Path sourceDirectory = Path.of(args[1]).resolve(packageName.replace('.', '/'));
+        long start = System.nanoTime();
+        int count = new GenerateAppFiles(packageName).generate(Path.of(args[0]), sourceDirectory);
+        System.out.printf(Locale.ROOT, "%d files written in %d ms%n", count, (System.nanoTime() - start) / 1_000_000);
+    }
 }
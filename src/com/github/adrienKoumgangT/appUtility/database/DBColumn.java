@@ -1,5 +1,7 @@
 package com.github.adrienKoumgangT.appUtility.database;
 
+import java.util.List;
+
 public class DBColumn {
 
     private String name;
@@ -14,6 +16,13 @@ public class DBColumn {
     private String onUpdate;
     private String collation;
 
+    private Integer length;
+    private Integer scale;
+    private Boolean unsigned = false;
+    private String charset;
+    private List<String> values = List.of();
+    private String generationExpression;
+
     public DBColumn(
             String name,
             String comment,
@@ -38,6 +47,43 @@ public class DBColumn {
         this.collation          = collation;
     }
 
+    /**
+     * @param length               longueur ou précision déclarée ({@code VARCHAR(M)}, {@code DECIMAL(M, D)},
+     *                             {@code DATETIME(fsp)}...), {@code null} si absente
+     * @param scale                nombre de décimales ({@code D} de {@code DECIMAL(M, D)}), {@code null} si absent
+     * @param unsigned             {@code true} pour un type numérique {@code UNSIGNED}
+     * @param charset              jeu de caractères propre à la colonne, {@code null} pour celui de la table
+     * @param values               valeurs permises d'un {@code ENUM} ou d'un {@code SET}, sans les guillemets
+     * @param generationExpression expression d'une colonne générée, sans les parenthèses englobantes
+     */
+    public DBColumn(
+            String name,
+            String comment,
+            DBDataType dataType,
+            Boolean notNull,
+            Long autoIncrement,
+            DBColumnKind columnKind,
+            String defaultExpression,
+            Boolean hidden,
+            String onUpdate,
+            String collation,
+            Integer length,
+            Integer scale,
+            Boolean unsigned,
+            String charset,
+            List<String> values,
+            String generationExpression
+    ) {
+        this(name, comment, dataType, notNull, autoIncrement, columnKind, defaultExpression, hidden, onUpdate,
+                collation);
+        this.length                 = length;
+        this.scale                  = scale;
+        this.unsigned               = unsigned;
+        this.charset                = charset;
+        this.values                 = values;
+        this.generationExpression   = generationExpression;
+    }
+
     public String getName() {
         return name;
     }
@@ -61,4 +107,115 @@ public class DBColumn {
     public void setDataType(DBDataType dataType) {
         this.dataType = dataType;
     }
+
+    public Boolean getNotNull() {
+        return notNull;
+    }
+
+    public void setNotNull(Boolean notNull) {
+        this.notNull = notNull;
+    }
+
+    /**
+     * @return la valeur de départ de l'auto-incrément, {@code null} si la colonne n'est pas auto-incrémentée
+     */
+    public Long getAutoIncrement() {
+        return autoIncrement;
+    }
+
+    public void setAutoIncrement(Long autoIncrement) {
+        this.autoIncrement = autoIncrement;
+    }
+
+    public DBColumnKind getColumnKind() {
+        return columnKind;
+    }
+
+    public void setColumnKind(DBColumnKind columnKind) {
+        this.columnKind = columnKind;
+    }
+
+    /**
+     * @return l'expression par défaut telle qu'écrite dans le DDL (par exemple {@code 'abc'},
+     * {@code CURRENT_TIMESTAMP} ou {@code (uuid())}), {@code null} si absente
+     */
+    public String getDefaultExpression() {
+        return defaultExpression;
+    }
+
+    public void setDefaultExpression(String defaultExpression) {
+        this.defaultExpression = defaultExpression;
+    }
+
+    public Boolean getHidden() {
+        return hidden;
+    }
+
+    public void setHidden(Boolean hidden) {
+        this.hidden = hidden;
+    }
+
+    public String getOnUpdate() {
+        return onUpdate;
+    }
+
+    public void setOnUpdate(String onUpdate) {
+        this.onUpdate = onUpdate;
+    }
+
+    public String getCollation() {
+        return collation;
+    }
+
+    public void setCollation(String collation) {
+        this.collation = collation;
+    }
+
+    public Integer getLength() {
+        return length;
+    }
+
+    public void setLength(Integer length) {
+        this.length = length;
+    }
+
+    public Integer getScale() {
+        return scale;
+    }
+
+    public void setScale(Integer scale) {
+        this.scale = scale;
+    }
+
+    public Boolean getUnsigned() {
+        return unsigned;
+    }
+
+    public void setUnsigned(Boolean unsigned) {
+        this.unsigned = unsigned;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+
+    public void setValues(List<String> values) {
+        this.values = values;
+    }
+
+    public String getGenerationExpression() {
+        return generationExpression;
+    }
+
+    public void setGenerationExpression(String generationExpression) {
+        this.generationExpression = generationExpression;
+    }
 }
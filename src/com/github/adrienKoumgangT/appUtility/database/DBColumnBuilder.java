@@ -1,5 +1,7 @@
 package com.github.adrienKoumgangT.appUtility.database;
 
+import java.util.List;
+
 public class DBColumnBuilder {
 
     private String name = null;
@@ -14,5 +16,101 @@ public class DBColumnBuilder {
     private String onUpdate = null;
     private String collation = null;
 
+    private Integer length = null;
+    private Integer scale = null;
+    private Boolean unsigned = false;
+    private String charset = null;
+    private List<String> values = List.of();
+    private String generationExpression = null;
+
+    public DBColumnBuilder setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public DBColumnBuilder setComment(String comment) {
+        this.comment = comment;
+        return this;
+    }
+
+    public DBColumnBuilder setDataType(DBDataType dataType) {
+        this.dataType = dataType;
+        return this;
+    }
+
+    public DBColumnBuilder setNotNull(Boolean notNull) {
+        this.notNull = notNull;
+        return this;
+    }
+
+    public DBColumnBuilder setAutoIncrement(Long autoIncrement) {
+        this.autoIncrement = autoIncrement;
+        return this;
+    }
+
+    public DBColumnBuilder setColumnKind(DBColumnKind columnKind) {
+        this.columnKind = columnKind;
+        return this;
+    }
+
+    public DBColumnBuilder setDefaultExpression(String defaultExpression) {
+        this.defaultExpression = defaultExpression;
+        return this;
+    }
+
+    public DBColumnBuilder setHidden(Boolean hidden) {
+        this.hidden = hidden;
+        return this;
+    }
+
+    public DBColumnBuilder setOnUpdate(String onUpdate) {
+        this.onUpdate = onUpdate;
+        return this;
+    }
+
+    public DBColumnBuilder setCollation(String collation) {
+        this.collation = collation;
+        return this;
+    }
+
+    public DBColumnBuilder setLength(Integer length) {
+        this.length = length;
+        return this;
+    }
+
+    public DBColumnBuilder setScale(Integer scale) {
+        this.scale = scale;
+        return this;
+    }
+
+    public DBColumnBuilder setUnsigned(Boolean unsigned) {
+        this.unsigned = unsigned;
+        return this;
+    }
+
+    public DBColumnBuilder setCharset(String charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    public DBColumnBuilder setValues(List<String> values) {
+        this.values = List.copyOf(values);
+        return this;
+    }
+
+    public DBColumnBuilder setGenerationExpression(String generationExpression) {
+        this.generationExpression = generationExpression;
+        return this;
+    }
 
+    /**
+     * @throws IllegalStateException si le nom de la colonne n'a pas été donné
+     */
+    public DBColumn build() {
+        if (name == null) {
+            throw new IllegalStateException("column name is required");
+        }
+        return new DBColumn(name, comment, dataType, notNull, autoIncrement, columnKind, defaultExpression,
+                hidden, onUpdate, collation, length, scale, unsigned, charset, values, generationExpression);
+    }
 }
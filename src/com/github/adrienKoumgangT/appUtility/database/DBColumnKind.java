@@ -3,7 +3,7 @@ package com.github.adrienKoumgangT.appUtility.database;
 public enum DBColumnKind {
     NORMAL ("NORMAL"),
     GENERATED_VIRTUAL ("GENERATED_VIRTUAL"),
-    GENERATED_STORED ("NORMAL")
+    GENERATED_STORED ("GENERATED_STORED")
     ;
 
     private final String key;
@@ -0,0 +1,670 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <p>
+ * Colonne d'une {@link DBMemoryTable} : les valeurs de toutes les lignes dans un tableau typé choisi
+ * d'après le {@link DBDataType} de la colonne, et un bitmap des valeurs nulles.
+ * <ul>
+ *     <li>types entiers ({@code BIT}, {@code TINYINT} à {@code BIGINT}, {@code YEAR}) : {@code long[]};</li>
+ *     <li>{@code FLOAT}, {@code DOUBLE}, {@code REAL} : {@code double[]};</li>
+ *     <li>
+ *         {@code CHAR}, {@code VARCHAR}, {@code ENUM}, {@code SET} : chaines encodées par dictionnaire,
+ *         un {@code int[]} de codes et la liste des chaines distinctes;
+ *     </li>
+ *     <li>autres types : {@code Object[]}, {@link BigDecimal} pour {@code DECIMAL}.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * {@link #coerce(Object)} convertit une valeur Java en valeur stockée avec les contrôles du mode strict
+ * de MySQL ({@code NOT NULL}, bornes des entiers, longueur des chaines, membres d'un {@code ENUM} ou
+ * d'un {@code SET}); les autres méthodes ne reçoivent que des valeurs ainsi converties. Les chaines se
+ * comparent sans tenir compte de la casse, sauf pour une collation {@code _bin} ou binaire.
+ * </p>
+ */
+abstract class DBColumnVector {
+
+    final DBColumn column;
+    private long[] nulls;
+
+    DBColumnVector(DBColumn column, int capacity) {
+        this.column = column;
+        this.nulls = new long[words(capacity)];
+    }
+
+    static DBColumnVector of(DBTable table, DBColumn column, int capacity) {
+        switch (column.getDataType()) {
+            case BIT:
+            case TINYINT:
+            case BOOL:
+            case BOOLEAN:
+            case SMALLINT:
+            case MEDIUMINT:
+            case INT:
+            case INTEGER:
+            case BIGINT:
+            case YEAR:
+                return new LongVector(column, capacity);
+            case FLOAT:
+            case DOUBLE:
+            case DOUBLE_PRECISION:
+            case REAL:
+                return new DoubleVector(column, capacity);
+            case CHAR:
+            case VARCHAR:
+            case ENUM:
+            case SET:
+                String collation = column.getCollation() != null ? column.getCollation()
+                        : column.getCharset() != null ? column.getCharset() : table.getCollation();
+                boolean binary = collation != null && (collation.toLowerCase(Locale.ROOT).endsWith("_bin")
+                        || collation.equalsIgnoreCase("binary"));
+                return new DictionaryVector(column, capacity, !binary);
+            default:
+                return new ObjectVector(column, capacity);
+        }
+    }
+
+    /**
+     * @return la valeur à stocker, {@code null} pour NULL
+     * @throws IllegalArgumentException si MySQL en mode strict refuse la valeur
+     */
+    final Object coerce(Object value) {
+        if (value == null) {
+            if (Boolean.TRUE.equals(column.getNotNull())) {
+                throw error("Column '%s' cannot be null");
+            }
+            return null;
+        }
+        return convert(value);
+    }
+
+    final void set(int row, Object coerced) {
+        if (coerced == null) {
+            nulls[row >>> 6] |= 1L << row;
+        } else {
+            nulls[row >>> 6] &= ~(1L << row);
+            store(row, coerced);
+        }
+    }
+
+    final Object get(int row) {
+        return isNull(row) ? null : load(row);
+    }
+
+    final boolean isNull(int row) {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * @return vrai si la valeur de la ligne est la valeur convertie, NULL étant égal à NULL
+     */
+    final boolean sameAs(int row, Object coerced) {
+        if (isNull(row) || coerced == null) {
+            return isNull(row) && coerced == null;
+        }
+        return compare(row, coerced) == 0;
+    }
+
+    final void move(int from, int to) {
+        if (isNull(from)) {
+            nulls[to >>> 6] |= 1L << to;
+        } else {
+            nulls[to >>> 6] &= ~(1L << to);
+            copy(from, to);
+        }
+    }
+
+    void grow(int capacity) {
+        nulls = Arrays.copyOf(nulls, words(capacity));
+    }
+
+    /**
+     * @return le bitmap des valeurs nulles, bit {@code row % 64} du mot {@code row / 64}
+     */
+    final long[] nullWords() {
+        return nulls;
+    }
+
+    abstract Object convert(Object value);
+
+    abstract void store(int row, Object coerced);
+
+    abstract Object load(int row);
+
+    abstract void copy(int from, int to);
+
+    /** empreinte de la valeur non nulle de la ligne, égale à celle de la même valeur convertie */
+    abstract int hash(int row);
+
+    abstract int hashValue(Object coerced);
+
+    /** compare la valeur non nulle de la ligne à une valeur convertie non nulle */
+    abstract int compare(int row, Object coerced);
+
+    abstract int compareRows(int a, int b);
+
+    final IllegalArgumentException error(String format) {
+        return new IllegalArgumentException(String.format(format, column.getName()));
+    }
+
+    private static int words(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    // finaliseur de SplitMix64
+    static int mix(long key) {
+        long h = key;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    static final class LongVector extends DBColumnVector {
+
+        private static final BigInteger UNSIGNED_BIGINT_MAX = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+        private long[] values;
+        private final boolean unsigned;
+        private final long min;
+        private final long max;
+
+        LongVector(DBColumn column, int capacity) {
+            super(column, capacity);
+            this.values = new long[capacity];
+            this.unsigned = Boolean.TRUE.equals(column.getUnsigned()) || column.getDataType() == DBDataType.BIT;
+            int bits;
+            switch (column.getDataType()) {
+                case BIT:
+                    bits = column.getLength() != null ? column.getLength() : 1;
+                    break;
+                case TINYINT:
+                case BOOL:
+                case BOOLEAN:
+                    bits = 8;
+                    break;
+                case SMALLINT:
+                    bits = 16;
+                    break;
+                case MEDIUMINT:
+                    bits = 24;
+                    break;
+                case INT:
+                case INTEGER:
+                    bits = 32;
+                    break;
+                default:
+                    bits = 64;
+                    break;
+            }
+            if (column.getDataType() == DBDataType.YEAR) {
+                this.min = 0;
+                this.max = 2155;
+            } else if (bits == 64) {
+                this.min = unsigned ? 0 : Long.MIN_VALUE;
+                this.max = unsigned ? -1 : Long.MAX_VALUE;
+            } else if (unsigned) {
+                this.min = 0;
+                this.max = (1L << bits) - 1;
+            } else {
+                this.min = -(1L << (bits - 1));
+                this.max = (1L << (bits - 1)) - 1;
+            }
+        }
+
+        @Override
+        Object convert(Object value) {
+            BigInteger integer;
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                integer = BigInteger.valueOf(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                integer = (Boolean) value ? BigInteger.ONE : BigInteger.ZERO;
+            } else if (value instanceof BigInteger) {
+                integer = (BigInteger) value;
+            } else {
+                BigDecimal decimal;
+                try {
+                    decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString().trim());
+                } catch (NumberFormatException e) {
+                    throw error("Incorrect integer value for column '%s'");
+                }
+                integer = decimal.setScale(0, RoundingMode.HALF_UP).toBigIntegerExact();
+            }
+            long result;
+            if (unsigned && max == -1) {
+                if (integer.signum() < 0 || integer.compareTo(UNSIGNED_BIGINT_MAX) > 0) {
+                    throw error("Out of range value for column '%s'");
+                }
+                result = integer.longValue();
+            } else {
+                if (integer.bitLength() > 63 || integer.longValue() < min || integer.longValue() > max) {
+                    throw error("Out of range value for column '%s'");
+                }
+                result = integer.longValue();
+                if (column.getDataType() == DBDataType.YEAR && result != 0) {
+                    // année sur deux chiffres : 1 à 69 pour 2001 à 2069, 70 à 99 pour 1970 à 1999
+                    result += result < 70 ? 2000 : result < 100 ? 1900 : 0;
+                    if (result < 1901) {
+                        throw error("Out of range value for column '%s'");
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        void store(int row, Object coerced) {
+            values[row] = (Long) coerced;
+        }
+
+        @Override
+        Object load(int row) {
+            return values[row];
+        }
+
+        long[] values() {
+            return values;
+        }
+
+        boolean isUnsigned() {
+            return unsigned;
+        }
+
+        @Override
+        void copy(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            super.grow(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        int hash(int row) {
+            return mix(values[row]);
+        }
+
+        @Override
+        int hashValue(Object coerced) {
+            return mix((Long) coerced);
+        }
+
+        @Override
+        int compare(int row, Object coerced) {
+            return compare(values[row], (Long) coerced);
+        }
+
+        @Override
+        int compareRows(int a, int b) {
+            return compare(values[a], values[b]);
+        }
+
+        private int compare(long a, long b) {
+            return unsigned ? Long.compareUnsigned(a, b) : Long.compare(a, b);
+        }
+    }
+
+    static final class DoubleVector extends DBColumnVector {
+
+        private double[] values;
+        private final boolean single;
+
+        DoubleVector(DBColumn column, int capacity) {
+            super(column, capacity);
+            this.values = new double[capacity];
+            this.single = column.getDataType().maxSize(column, 1) == 4;
+        }
+
+        @Override
+        Object convert(Object value) {
+            double result;
+            if (value instanceof Number) {
+                result = ((Number) value).doubleValue();
+            } else {
+                try {
+                    result = Double.parseDouble(value.toString().trim());
+                } catch (NumberFormatException e) {
+                    throw error("Incorrect double value for column '%s'");
+                }
+            }
+            if (Double.isNaN(result) || Double.isInfinite(result)) {
+                throw error("Out of range value for column '%s'");
+            }
+            if (Boolean.TRUE.equals(column.getUnsigned()) && result < 0) {
+                throw error("Out of range value for column '%s'");
+            }
+            return single ? (double) (float) result : result;
+        }
+
+        @Override
+        void store(int row, Object coerced) {
+            values[row] = (Double) coerced;
+        }
+
+        @Override
+        Object load(int row) {
+            return values[row];
+        }
+
+        @Override
+        void copy(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            super.grow(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        double[] values() {
+            return values;
+        }
+
+        @Override
+        int hash(int row) {
+            return hashValue(values[row]);
+        }
+
+        @Override
+        int hashValue(Object coerced) {
+            double value = (Double) coerced;
+            // 0.0 et -0.0 sont égaux
+            return mix(Double.doubleToLongBits(value == 0 ? 0 : value));
+        }
+
+        @Override
+        int compare(int row, Object coerced) {
+            return Double.compare(values[row] == 0 ? 0 : values[row], (Double) coerced == 0 ? 0 : (Double) coerced);
+        }
+
+        @Override
+        int compareRows(int a, int b) {
+            return Double.compare(values[a] == 0 ? 0 : values[a], values[b] == 0 ? 0 : values[b]);
+        }
+    }
+
+    static final class DictionaryVector extends DBColumnVector {
+
+        private int[] codes;
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private int[] hashes = new int[16];
+        private final boolean caseInsensitive;
+        private final List<String> members;
+
+        DictionaryVector(DBColumn column, int capacity, boolean caseInsensitive) {
+            super(column, capacity);
+            this.codes = new int[capacity];
+            this.caseInsensitive = caseInsensitive;
+            this.members = column.getValues();
+        }
+
+        @Override
+        Object convert(Object value) {
+            DBDataType type = column.getDataType();
+            String text;
+            if (type == DBDataType.ENUM) {
+                text = member(value);
+            } else if (type == DBDataType.SET) {
+                text = members(value.toString());
+            } else {
+                text = value.toString();
+                if (type == DBDataType.CHAR) {
+                    // CHAR est complété d'espaces à l'écriture, retirés à la lecture
+                    int end = text.length();
+                    while (end > 0 && text.charAt(end - 1) == ' ') {
+                        end--;
+                    }
+                    text = text.substring(0, end);
+                }
+                int length = column.getLength() != null ? column.getLength() : type == DBDataType.CHAR ? 1 : Integer.MAX_VALUE;
+                if (text.codePointCount(0, text.length()) > length) {
+                    throw error("Data too long for column '%s'");
+                }
+            }
+            return text;
+        }
+
+        private String member(Object value) {
+            if (members == null) {
+                return value.toString();
+            }
+            if (value instanceof Number) {
+                // un ENUM accepte aussi le rang de la valeur, à partir de 1
+                int index = ((Number) value).intValue();
+                if (index < 1 || index > members.size()) {
+                    throw error("Data truncated for column '%s'");
+                }
+                return members.get(index - 1);
+            }
+            String text = value.toString();
+            for (String member : members) {
+                if (caseInsensitive ? member.equalsIgnoreCase(text) : member.equals(text)) {
+                    return member;
+                }
+            }
+            throw error("Data truncated for column '%s'");
+        }
+
+        // membres d'un SET, sans doublon et dans l'ordre de la déclaration
+        private String members(String text) {
+            if (members == null || text.isEmpty()) {
+                return text;
+            }
+            boolean[] present = new boolean[members.size()];
+            for (String part : text.split(",", -1)) {
+                present[members.indexOf(member(part))] = true;
+            }
+            StringBuilder out = new StringBuilder(text.length());
+            for (int i = 0; i < present.length; i++) {
+                if (present[i]) {
+                    out.append(out.length() > 0 ? "," : "").append(members.get(i));
+                }
+            }
+            return out.toString();
+        }
+
+        @Override
+        void store(int row, Object coerced) {
+            String text = (String) coerced;
+            Integer code = dictionary.get(text);
+            if (code == null) {
+                code = strings.size();
+                strings.add(text);
+                dictionary.put(text, code);
+                if (code == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, code * 2);
+                }
+                hashes[code] = hashValue(text);
+            }
+            codes[row] = code;
+        }
+
+        @Override
+        Object load(int row) {
+            return strings.get(codes[row]);
+        }
+
+        @Override
+        void copy(int from, int to) {
+            codes[to] = codes[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            super.grow(capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        int[] codes() {
+            return codes;
+        }
+
+        int dictionarySize() {
+            return strings.size();
+        }
+
+        String string(int code) {
+            return strings.get(code);
+        }
+
+        @Override
+        int hash(int row) {
+            return hashes[codes[row]];
+        }
+
+        @Override
+        int hashValue(Object coerced) {
+            String text = (String) coerced;
+            return caseInsensitive ? text.toLowerCase(Locale.ROOT).hashCode() : text.hashCode();
+        }
+
+        @Override
+        int compare(int row, Object coerced) {
+            return compare(strings.get(codes[row]), (String) coerced);
+        }
+
+        @Override
+        int compareRows(int a, int b) {
+            return codes[a] == codes[b] ? 0 : compare(strings.get(codes[a]), strings.get(codes[b]));
+        }
+
+        /** ordre des chaines de la colonne : rang de déclaration pour un ENUM, collation sinon */
+        int compare(String a, String b) {
+            if (column.getDataType() == DBDataType.ENUM && members != null) {
+                // un ENUM se trie par rang de déclaration
+                return Integer.compare(members.indexOf(a), members.indexOf(b));
+            }
+            return collate(a, b);
+        }
+
+        /** comparaison des chaines sous la collation de la colonne, ENUM compris (conditions de WHERE) */
+        int collate(String a, String b) {
+            return caseInsensitive ? a.compareToIgnoreCase(b) : a.compareTo(b);
+        }
+    }
+
+    static final class ObjectVector extends DBColumnVector {
+
+        private Object[] values;
+        private final long maxBytes;
+
+        ObjectVector(DBColumn column, int capacity) {
+            super(column, capacity);
+            this.values = new Object[capacity];
+            DBDataType type = column.getDataType();
+            this.maxBytes = type.getStorage() == DBDataType.Storage.LOB || type.getStorage() == DBDataType.Storage.VARIABLE_LENGTH
+                    || type.getStorage() == DBDataType.Storage.FIXED_LENGTH ? type.maxSize(column, 1) : Long.MAX_VALUE;
+        }
+
+        @Override
+        Object convert(Object value) {
+            switch (column.getDataType()) {
+                case DECIMAL:
+                case DEC:
+                case NUMERIC:
+                case FIXED:
+                    return decimal(value);
+                default:
+                    break;
+            }
+            long length = value instanceof byte[] ? ((byte[]) value).length
+                    : value instanceof String && maxBytes != Long.MAX_VALUE
+                    ? ((String) value).getBytes(StandardCharsets.UTF_8).length : 0;
+            if (length > maxBytes) {
+                throw error("Data too long for column '%s'");
+            }
+            return value instanceof byte[] ? ((byte[]) value).clone() : value;
+        }
+
+        private BigDecimal decimal(Object value) {
+            BigDecimal decimal;
+            try {
+                decimal = value instanceof BigDecimal ? (BigDecimal) value
+                        : value instanceof Long || value instanceof Integer ? BigDecimal.valueOf(((Number) value).longValue())
+                        : new BigDecimal(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw error("Incorrect decimal value for column '%s'");
+            }
+            int precision = column.getLength() != null ? column.getLength() : 10;
+            int scale = column.getScale() != null ? column.getScale() : 0;
+            decimal = decimal.setScale(scale, RoundingMode.HALF_UP);
+            if (decimal.precision() - decimal.scale() > precision - scale
+                    || (Boolean.TRUE.equals(column.getUnsigned()) && decimal.signum() < 0)) {
+                throw error("Out of range value for column '%s'");
+            }
+            return decimal;
+        }
+
+        @Override
+        void store(int row, Object coerced) {
+            values[row] = coerced;
+        }
+
+        @Override
+        Object load(int row) {
+            Object value = values[row];
+            return value instanceof byte[] ? ((byte[]) value).clone() : value;
+        }
+
+        @Override
+        void copy(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            super.grow(capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        int hash(int row) {
+            return hashValue(values[row]);
+        }
+
+        @Override
+        int hashValue(Object coerced) {
+            if (coerced instanceof byte[]) {
+                return Arrays.hashCode((byte[]) coerced);
+            }
+            if (coerced instanceof BigDecimal) {
+                return ((BigDecimal) coerced).stripTrailingZeros().hashCode();
+            }
+            return coerced.hashCode();
+        }
+
+        @Override
+        int compare(int row, Object coerced) {
+            return compare(values[row], coerced);
+        }
+
+        @Override
+        int compareRows(int a, int b) {
+            return compare(values[a], values[b]);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static int compare(Object a, Object b) {
+            if (a instanceof byte[] && b instanceof byte[]) {
+                return Arrays.compareUnsigned((byte[]) a, (byte[]) b);
+            }
+            if (a instanceof Comparable && a.getClass() == b.getClass()) {
+                return ((Comparable) a).compareTo(b);
+            }
+            return a.toString().compareTo(b.toString());
+        }
+    }
+}
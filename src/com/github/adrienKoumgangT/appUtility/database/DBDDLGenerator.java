@@ -0,0 +1,243 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.List;
+
+/**
+ * <h1>Génération du DDL MySQL</h1>
+ *
+ * <p>
+ * Écrit l'instruction {@code CREATE TABLE} d'un {@link DBTable} (colonnes, clés, options et
+ * partitionnement), dans la forme qu'accepte {@link DBTableParser} : relire le texte produit redonne
+ * le même modèle. Les expressions conservées telles qu'écrites dans le DDL d'origine
+ * ({@code DEFAULT}, colonnes générées, partitionnement, valeurs des partitions) sont recopiées.
+ * </p>
+ * <p>
+ * La clause {@code PARTITION BY} ({@link #appendPartitioning(DBTable, StringBuilder)}) reprend la
+ * méthode, l'expression, le nombre de partitions, le sous-partitionnement et la liste des partitions
+ * et sous-partitions déclarées; elle sert aussi à repartitionner une table existante par
+ * {@code ALTER TABLE ... PARTITION BY ...}.
+ * </p>
+ */
+public class DBDDLGenerator {
+
+    private static final String INDENT = "  ";
+
+    public void appendCreateTable(DBTable table, StringBuilder out) {
+        out.append("CREATE TABLE ");
+        DBRoutineGenerator.appendIdentifier(out, table.getName()).append(" (\n");
+        boolean first = true;
+        for (DBColumn column : table.getColumns()) {
+            out.append(first ? "" : ",\n").append(INDENT);
+            appendColumn(column, out);
+            first = false;
+        }
+        for (DBKey key : table.getKeys()) {
+            out.append(first ? "" : ",\n").append(INDENT);
+            appendKey(key, out);
+            first = false;
+        }
+        out.append("\n)");
+        appendTableOptions(table, out);
+        if (table.getPartitionMethod() != null) {
+            out.append('\n');
+            appendPartitioning(table, out);
+        }
+        out.append(";\n");
+    }
+
+    /**
+     * Ajoute la définition d'une colonne, telle qu'elle suit son nom dans {@code CREATE TABLE} ou
+     * {@code ALTER TABLE ... ADD COLUMN}, nom compris.
+     */
+    public void appendColumn(DBColumn column, StringBuilder out) {
+        DBRoutineGenerator.appendIdentifier(out, column.getName()).append(' ');
+        DBRoutineGenerator.appendType(out, column);
+        if (column.getCharset() != null) {
+            out.append(" CHARACTER SET ").append(column.getCharset());
+        }
+        if (column.getCollation() != null) {
+            out.append(" COLLATE ").append(column.getCollation());
+        }
+        if (column.getColumnKind() != null && column.getColumnKind() != DBColumnKind.NORMAL) {
+            out.append(" GENERATED ALWAYS AS (").append(column.getGenerationExpression()).append(')')
+                    .append(column.getColumnKind() == DBColumnKind.GENERATED_STORED ? " STORED" : " VIRTUAL");
+        }
+        if (Boolean.TRUE.equals(column.getNotNull())) {
+            out.append(" NOT NULL");
+        }
+        if (column.getDefaultExpression() != null) {
+            out.append(" DEFAULT ").append(column.getDefaultExpression());
+        }
+        if (column.getOnUpdate() != null) {
+            out.append(" ON UPDATE ").append(column.getOnUpdate());
+        }
+        if (column.getAutoIncrement() != null) {
+            out.append(" AUTO_INCREMENT");
+        }
+        if (Boolean.TRUE.equals(column.getHidden())) {
+            out.append(" INVISIBLE");
+        }
+        if (column.getComment() != null) {
+            out.append(" COMMENT ");
+            DBRoutineGenerator.appendString(out, column.getComment());
+        }
+    }
+
+    /**
+     * Ajoute la définition d'une clé, telle qu'elle s'écrit dans {@code CREATE TABLE} ou après
+     * {@code ALTER TABLE ... ADD}.
+     */
+    public void appendKey(DBKey key, StringBuilder out) {
+        switch (key.getKeyType()) {
+            case PRIMARY_KEY:
+                out.append("PRIMARY KEY ");
+                break;
+            case UNIQUE_KEY:
+                appendNamed(out, "UNIQUE KEY ", key.getName());
+                break;
+            case FULLTEXT_INDEX:
+                appendNamed(out, "FULLTEXT KEY ", key.getName());
+                break;
+            case SPATIAL_INDEX:
+                appendNamed(out, "SPATIAL KEY ", key.getName());
+                break;
+            case FOREIGN_KEY:
+                if (key.getName() != null) {
+                    out.append("CONSTRAINT ");
+                    DBRoutineGenerator.appendIdentifier(out, key.getName()).append(' ');
+                }
+                out.append("FOREIGN KEY ");
+                break;
+            default:
+                appendNamed(out, "KEY ", key.getName());
+                break;
+        }
+        appendParts(key, out);
+        if (key.getKeyType() == DBKeyType.FOREIGN_KEY) {
+            out.append(" REFERENCES ");
+            DBRoutineGenerator.appendIdentifier(out, key.getReferencedTable()).append(" (");
+            appendNames(key.getReferencedColumns(), out);
+            out.append(')');
+            if (key.getOnDelete() != null) {
+                out.append(" ON DELETE ").append(key.getOnDelete());
+            }
+            if (key.getOnUpdate() != null) {
+                out.append(" ON UPDATE ").append(key.getOnUpdate());
+            }
+        }
+    }
+
+    private static void appendNamed(StringBuilder out, String keyword, String name) {
+        out.append(keyword);
+        if (name != null) {
+            DBRoutineGenerator.appendIdentifier(out, name).append(' ');
+        }
+    }
+
+    /**
+     * Ajoute les parties d'une clé entre parenthèses : colonnes (avec leur longueur indexée) et expressions.
+     */
+    public void appendParts(DBKey key, StringBuilder out) {
+        out.append('(');
+        for (int part = 0; part < key.getColumns().size(); part++) {
+            if (part > 0) {
+                out.append(',');
+            }
+            if (key.isFunctional(part)) {
+                out.append(key.getColumns().get(part));
+            } else {
+                DBRoutineGenerator.appendIdentifier(out, key.getColumns().get(part));
+                if (key.getPrefixLength(part) != null) {
+                    out.append('(').append(key.getPrefixLength(part)).append(')');
+                }
+            }
+        }
+        out.append(')');
+    }
+
+    private static void appendNames(List<String> names, StringBuilder out) {
+        for (int i = 0; i < names.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            DBRoutineGenerator.appendIdentifier(out, names.get(i));
+        }
+    }
+
+    private static void appendTableOptions(DBTable table, StringBuilder out) {
+        if (table.getEngine() != null) {
+            out.append(" ENGINE=").append(table.getEngine());
+        }
+        if (table.getCharset() != null) {
+            out.append(" DEFAULT CHARSET=").append(table.getCharset());
+        }
+        if (table.getCollation() != null) {
+            out.append(" COLLATE=").append(table.getCollation());
+        }
+        if (table.getComment() != null) {
+            out.append(" COMMENT=");
+            DBRoutineGenerator.appendString(out, table.getComment());
+        }
+    }
+
+    /**
+     * Ajoute la clause {@code PARTITION BY} de la table, sur plusieurs lignes : méthode et expression,
+     * {@code PARTITIONS n}, {@code SUBPARTITION BY ...}, puis la liste des partitions déclarées. N'ajoute
+     * rien si la table n'est pas partitionnée.
+     */
+    public void appendPartitioning(DBTable table, StringBuilder out) {
+        if (table.getPartitionMethod() == null) {
+            return;
+        }
+        out.append("PARTITION BY ").append(table.getPartitionMethod())
+                .append(" (").append(table.getPartitionExpression()).append(')');
+        if (table.getPartitionCount() != null) {
+            out.append("\nPARTITIONS ").append(table.getPartitionCount());
+        }
+        if (table.getSubPartitionMethod() != null) {
+            out.append("\nSUBPARTITION BY ").append(table.getSubPartitionMethod())
+                    .append(" (").append(table.getSubPartitionExpression()).append(')');
+            if (table.getSubPartitionCount() != null) {
+                out.append("\nSUBPARTITIONS ").append(table.getSubPartitionCount());
+            }
+        }
+        List<DBPartition> partitions = table.getPartitions();
+        if (partitions.isEmpty()) {
+            return;
+        }
+        out.append("\n(");
+        for (int i = 0; i < partitions.size(); i++) {
+            out.append(i > 0 ? ",\n " : "");
+            appendPartitionDefinition(partitions.get(i), out);
+        }
+        out.append(')');
+    }
+
+    /**
+     * Ajoute la définition d'une partition et de ses sous-partitions, telle qu'elle s'écrit dans la
+     * liste de {@code PARTITION BY} ou après {@code ALTER TABLE ... ADD PARTITION (}.
+     */
+    public void appendPartitionDefinition(DBPartition partition, StringBuilder out) {
+        appendPartition("PARTITION ", partition, out);
+        List<DBPartition> subPartitions = partition.getSubPartitions();
+        if (!subPartitions.isEmpty()) {
+            out.append("\n (");
+            for (int j = 0; j < subPartitions.size(); j++) {
+                out.append(j > 0 ? ",\n  " : "");
+                appendPartition("SUBPARTITION ", subPartitions.get(j), out);
+            }
+            out.append(')');
+        }
+    }
+
+    private static void appendPartition(String keyword, DBPartition partition, StringBuilder out) {
+        out.append(keyword);
+        DBRoutineGenerator.appendIdentifier(out, partition.getName());
+        if (partition.getValues() != null) {
+            out.append(" VALUES ").append(partition.getValues());
+        }
+        if (partition.getOptions() != null) {
+            out.append(' ').append(partition.getOptions());
+        }
+    }
+}
@@ -0,0 +1,640 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <h1>Génération des classes d'accès Java (DAO)</h1>
+ *
+ * <p>
+ * Génère, pour une table, le source d'une classe JDBC {@code <Table>Dao} qui fait, en SQL direct, le
+ * travail des procédures de {@link DBRoutineGenerator} : {@code get}, {@code list},
+ * {@code listPage}, {@code set}, {@code delete} et leurs variantes par lots {@code setBatch} et
+ * {@code deleteBatch} ({@code addBatch}/{@code executeBatch}; avec l'option
+ * {@code rewriteBatchedStatements=true} de MySQL Connector/J, un lot d'insertions part en une seule
+ * instruction de plusieurs lignes). Les colonnes recherchées, écrites et paginées sont celles des
+ * procédures ({@link DBRoutineGenerator.RoutineContext}).
+ * </p>
+ * <p>
+ * Le code généré est écrit colonne par colonne, sans réflexion ni {@code getObject} : chaque colonne
+ * est lue et liée par l'accesseur JDBC de son type ({@code getLong}, {@code setString}...), vers un
+ * champ primitif si elle est {@code NOT NULL}, vers le type enveloppe, testé par {@code wasNull},
+ * sinon. Une instance de DAO est liée à une connexion : chaque instruction y est préparée à sa
+ * première utilisation puis réutilisée, jusqu'à {@code close()}.
+ * </p>
+ * <h3>Types Java :</h3>
+ * <ul>
+ *     <li>{@code BOOL}, {@code BIT(1)} : {@code boolean}; autres {@code BIT} : {@code long};</li>
+ *     <li>entiers : {@code int}, {@code long} pour {@code INT UNSIGNED} et {@code BIGINT},
+ *     {@link java.math.BigDecimal} pour {@code BIGINT UNSIGNED}; {@code YEAR} : {@code int};</li>
+ *     <li>{@code FLOAT} : {@code float}, {@code DOUBLE} : {@code double}, décimaux : {@link java.math.BigDecimal};</li>
+ *     <li>{@code DATE}, {@code TIME}, {@code DATETIME} et {@code TIMESTAMP} : les types de {@code java.sql};</li>
+ *     <li>chaines, {@code ENUM}, {@code SET}, {@code JSON} : {@link String}; binaires et types spatiaux : {@code byte[]}.</li>
+ * </ul>
+ * <p>
+ * Les noms de la classe et des champs sont tirés de ceux de la table et des colonnes, en casse
+ * chameau ({@code user_id} devient {@code userId}); un nom réservé reçoit un {@code _} final.
+ * </p>
+ * <h3>Noms utilisables dans un gabarit, en plus de ceux de {@link DBRoutineGenerator} :</h3>
+ * <ul>
+ *     <li>emplacements de table : {@code package}, {@code class}, {@code comment} (nom de la table
+ *     pour un commentaire Java); {@code table} et {@code column} sont ici échappés pour une chaine Java;</li>
+ *     <li>emplacements de colonne : {@code field}, {@code javaType} (type enveloppe si la colonne
+ *     peut être nulle), {@code primitive}, {@code getter}, {@code setter}, {@code sqlType}
+ *     (constante de {@link java.sql.Types}), {@code position} (rang à partir de 1);</li>
+ *     <li>condition de colonne : {@code boxed} (type primitif d'une colonne qui peut être nulle).</li>
+ * </ul>
+ */
+public class DBDaoGenerator {
+
+    public static final String CLASS_SUFFIX = "Dao";
+    public static final String JAVA_EXTENSION = ".java";
+
+    /** Type Java d'une colonne et accesseurs JDBC correspondants. */
+    private enum JavaType {
+        BOOLEAN("boolean", "Boolean", "Boolean", "BOOLEAN"),
+        INT("int", "Integer", "Int", "INTEGER"),
+        LONG("long", "Long", "Long", "BIGINT"),
+        FLOAT("float", "Float", "Float", "REAL"),
+        DOUBLE("double", "Double", "Double", "DOUBLE"),
+        DECIMAL(null, "BigDecimal", "BigDecimal", "DECIMAL"),
+        STRING(null, "String", "String", "VARCHAR"),
+        BYTES(null, "byte[]", "Bytes", "VARBINARY"),
+        DATE(null, "Date", "Date", "DATE"),
+        TIME(null, "Time", "Time", "TIME"),
+        TIMESTAMP(null, "Timestamp", "Timestamp", "TIMESTAMP");
+
+        /** type primitif, {@code null} pour un type référence */
+        final String primitive;
+        final String reference;
+        final String accessor;
+        final String sqlType;
+
+        JavaType(String primitive, String reference, String accessor, String sqlType) {
+            this.primitive = primitive;
+            this.reference = reference;
+            this.accessor = accessor;
+            this.sqlType = sqlType;
+        }
+    }
+
+    // liaison d'une colonne au paramètre suivant de l'instruction "statement"
+    private static String bind(String owner) {
+        return "{{?boxed}}if (" + owner + "{{field}} == null) {\n"
+                + "            statement.setNull(parameter++, Types.{{sqlType}});\n"
+                + "        } else {\n"
+                + "            statement.{{setter}}(parameter++, " + owner + "{{field}});\n"
+                + "        }{{/boxed}}"
+                + "{{^boxed}}statement.{{setter}}(parameter++, " + owner + "{{field}});{{/boxed}}\n";
+    }
+
+    private static final String READ = ""
+            + "{{?boxed}}{{primitive}} {{field}} = result.{{getter}}({{position}});\n"
+            + "        row.{{field}} = result.wasNull() ? null : {{field}};{{/boxed}}"
+            + "{{^boxed}}row.{{field}} = result.{{getter}}({{position}});{{/boxed}}\n";
+
+    private static final String WHERE_LOOKUP = "WHERE {{#lookup}}{{column}} = ?{{|}} AND {{/lookup}}";
+    private static final String PRIMARY_KEY = "{{#primaryKey}}{{column}}{{|}}, {{/primaryKey}}";
+
+    public static final String TEMPLATE = ""
+            + "package {{package}};\n\n"
+            + "import java.math.BigDecimal;\n"
+            + "import java.sql.Connection;\n"
+            + "import java.sql.Date;\n"
+            + "import java.sql.PreparedStatement;\n"
+            + "import java.sql.ResultSet;\n"
+            + "import java.sql.SQLException;\n"
+            + "import java.sql.Statement;\n"
+            + "import java.sql.Time;\n"
+            + "import java.sql.Timestamp;\n"
+            + "import java.sql.Types;\n"
+            + "import java.util.ArrayList;\n"
+            + "import java.util.List;\n\n"
+            + "/**\n"
+            + " * Data access for table {{comment}}, generated from its DDL: do not edit.\n"
+            + " * <p>\n"
+            + " * One instance per connection: statements are prepared on first use and reused until\n"
+            + " * {@link #close()}. Instances are not thread-safe.\n"
+            + " * </p>\n"
+            + " */\n"
+            + "public final class {{class}} implements AutoCloseable {\n\n"
+            + "    /** A row of table {{comment}}. */\n"
+            + "    public static final class Row {\n"
+            + "{{#columns}}        public {{javaType}} {{field}};\n{{/columns}}"
+            + "    }\n\n"
+            + "    private static final String COLUMNS = \"{{#columns}}{{column}}{{|}}, {{/columns}}\";\n"
+            + "    private static final String LIST = \"SELECT \" + COLUMNS + \" FROM {{table}}"
+            + "{{?hasPrimaryKey}} ORDER BY " + PRIMARY_KEY + "{{/hasPrimaryKey}}\";\n"
+            + "{{?hasPrimaryKey}}"
+            + "    private static final String FIRST_PAGE = \"SELECT \" + COLUMNS + \" FROM {{table}}"
+            + " ORDER BY " + PRIMARY_KEY + " LIMIT ?\";\n"
+            + "    private static final String NEXT_PAGE = \"SELECT \" + COLUMNS + \" FROM {{table}}"
+            + " WHERE (" + PRIMARY_KEY + ") > ({{#primaryKey}}?{{|}}, {{/primaryKey}})"
+            + " ORDER BY " + PRIMARY_KEY + " LIMIT ?\";\n"
+            + "{{/hasPrimaryKey}}"
+            + "{{?identified}}"
+            + "    private static final String GET = \"SELECT \" + COLUMNS + \" FROM {{table}} " + WHERE_LOOKUP + "\";\n"
+            + "    private static final String DELETE = \"DELETE FROM {{table}} " + WHERE_LOOKUP + "\";\n"
+            + "{{?generatedId}}"
+            + "    private static final String INSERT = \"INSERT INTO {{table}} ({{#values}}{{column}}{{|}}, {{/values}})"
+            + " VALUES ({{#values}}?{{|}}, {{/values}})\";\n"
+            + "{{?hasValues}}"
+            + "    private static final String UPDATE = \"UPDATE {{table}} SET {{#values}}{{column}} = ?{{|}}, {{/values}}"
+            + " WHERE {{#identifier}}{{column}} = ?{{|}} AND {{/identifier}}\";\n"
+            + "{{/hasValues}}"
+            + "{{/generatedId}}"
+            + "{{^generatedId}}"
+            + "    private static final String UPSERT = \"INSERT INTO {{table}} ({{#inserted}}{{column}}{{|}}, {{/inserted}})"
+            + " VALUES ({{#inserted}}?{{|}}, {{/inserted}})"
+            + "{{?hasValues}} ON DUPLICATE KEY UPDATE {{#values}}{{column}} = VALUES({{column}}){{|}}, {{/values}}{{/hasValues}}\";\n"
+            + "{{/generatedId}}"
+            + "{{/identified}}\n"
+            + "    private final Connection connection;\n"
+            + "    private final List<PreparedStatement> prepared = new ArrayList<>();\n"
+            + "    private PreparedStatement list;\n"
+            + "{{?hasPrimaryKey}}    private PreparedStatement firstPage;\n    private PreparedStatement nextPage;\n{{/hasPrimaryKey}}"
+            + "{{?identified}}    private PreparedStatement get;\n    private PreparedStatement delete;\n"
+            + "{{?generatedId}}    private PreparedStatement insert;\n{{?hasValues}}    private PreparedStatement update;\n{{/hasValues}}{{/generatedId}}"
+            + "{{^generatedId}}    private PreparedStatement upsert;\n{{/generatedId}}"
+            + "{{/identified}}\n"
+            + "    public {{class}}(Connection connection) {\n"
+            + "        this.connection = connection;\n"
+            + "    }\n\n"
+            // ---- lecture
+            + "{{?identified}}"
+            + "    /**\n"
+            + "     * @return the row with this identifier, {@code null} if there is none\n"
+            + "     */\n"
+            + "    public Row get({{#lookup}}{{javaType}} {{field}}{{|}}, {{/lookup}}) throws SQLException {\n"
+            + "        PreparedStatement statement = get != null ? get : (get = prepare(GET));\n"
+            + "        int parameter = 1;\n"
+            + "{{#lookup}}        " + bind("") + "{{/lookup}}"
+            + "        try (ResultSet result = statement.executeQuery()) {\n"
+            + "            return result.next() ? read(result) : null;\n"
+            + "        }\n"
+            + "    }\n\n"
+            + "{{/identified}}"
+            + "    /**\n"
+            + "     * @return all rows{{?hasPrimaryKey}}, in primary key order{{/hasPrimaryKey}}\n"
+            + "     */\n"
+            + "    public List<Row> list() throws SQLException {\n"
+            + "        return readAll(list != null ? list : (list = prepare(LIST)));\n"
+            + "    }\n\n"
+            + "{{?hasPrimaryKey}}"
+            + "    /**\n"
+            + "     * Keyset pagination on the primary key.\n"
+            + "     *\n"
+            + "     * @param after last row of the previous page, {@code null} for the first page\n"
+            + "     * @return at most {@code limit} rows following {@code after}, in primary key order\n"
+            + "     */\n"
+            + "    public List<Row> listPage(Row after, int limit) throws SQLException {\n"
+            + "        PreparedStatement statement;\n"
+            + "        int parameter;\n"
+            + "        if (after == null) {\n"
+            + "            statement = firstPage != null ? firstPage : (firstPage = prepare(FIRST_PAGE));\n"
+            + "            parameter = 1;\n"
+            + "        } else {\n"
+            + "            statement = nextPage != null ? nextPage : (nextPage = prepare(NEXT_PAGE));\n"
+            + "            parameter = bindPrimaryKey(statement, after);\n"
+            + "        }\n"
+            + "        statement.setInt(parameter, limit);\n"
+            + "        return readAll(statement);\n"
+            + "    }\n\n"
+            + "{{/hasPrimaryKey}}"
+            // ---- écriture
+            + "{{?identified}}"
+            + "    /**\n"
+            + "{{?generatedId}}"
+            + "     * Inserts the row if its identifier is {@code null}, and then sets the generated identifier;\n"
+            + "     * updates the row with this identifier otherwise.\n"
+            + "{{/generatedId}}"
+            + "{{^generatedId}}"
+            + "     * Inserts the row, or updates the row with the same identifier.\n"
+            + "{{/generatedId}}"
+            + "     *\n"
+            + "     * @return the number of affected rows, as counted by MySQL\n"
+            + "     */\n"
+            + "    public int set(Row row) throws SQLException {\n"
+            + "{{?generatedId}}"
+            + "        if ({{#identifier}}row.{{field}}{{/identifier}} == null) {\n"
+            + "            PreparedStatement statement = insert != null ? insert : (insert = prepareInsert());\n"
+            + "            bindInsert(statement, row);\n"
+            + "            int count = statement.executeUpdate();\n"
+            + "            readKeys(statement, List.of(row));\n"
+            + "            return count;\n"
+            + "        }\n"
+            + "{{?hasValues}}"
+            + "        PreparedStatement statement = update != null ? update : (update = prepare(UPDATE));\n"
+            + "        bindUpdate(statement, row);\n"
+            + "        return statement.executeUpdate();\n"
+            + "{{/hasValues}}"
+            + "{{^hasValues}}"
+            + "        return 0;\n"
+            + "{{/hasValues}}"
+            + "{{/generatedId}}"
+            + "{{^generatedId}}"
+            + "        PreparedStatement statement = upsert != null ? upsert : (upsert = prepare(UPSERT));\n"
+            + "        bindInsert(statement, row);\n"
+            + "        return statement.executeUpdate();\n"
+            + "{{/generatedId}}"
+            + "    }\n\n"
+            + "    /**\n"
+            + "     * {@link #set(Row)} for each row, sent as JDBC batches"
+            + "{{?generatedId}}: the inserts, then the updates{{/generatedId}}.\n"
+            + "     *\n"
+            + "     * @return the number of affected rows of each row, in order\n"
+            + "     */\n"
+            + "    public int[] setBatch(List<Row> rows) throws SQLException {\n"
+            + "{{?generatedId}}"
+            + "        int[] counts = new int[rows.size()];\n"
+            + "        List<Row> inserted = new ArrayList<>();\n"
+            + "        List<Integer> insertedAt = new ArrayList<>();\n"
+            + "        List<Integer> updatedAt = new ArrayList<>();\n"
+            + "        for (int i = 0; i < rows.size(); i++) {\n"
+            + "            Row row = rows.get(i);\n"
+            + "            if ({{#identifier}}row.{{field}}{{/identifier}} == null) {\n"
+            + "                PreparedStatement statement = insert != null ? insert : (insert = prepareInsert());\n"
+            + "                bindInsert(statement, row);\n"
+            + "                statement.addBatch();\n"
+            + "                inserted.add(row);\n"
+            + "                insertedAt.add(i);\n"
+            + "            } else {\n"
+            + "{{?hasValues}}"
+            + "                PreparedStatement statement = update != null ? update : (update = prepare(UPDATE));\n"
+            + "                bindUpdate(statement, row);\n"
+            + "                statement.addBatch();\n"
+            + "{{/hasValues}}"
+            + "                updatedAt.add(i);\n"
+            + "            }\n"
+            + "        }\n"
+            + "        if (!inserted.isEmpty()) {\n"
+            + "            scatter(counts, insertedAt, insert.executeBatch());\n"
+            + "            readKeys(insert, inserted);\n"
+            + "        }\n"
+            + "{{?hasValues}}"
+            + "        if (!updatedAt.isEmpty()) {\n"
+            + "            scatter(counts, updatedAt, update.executeBatch());\n"
+            + "        }\n"
+            + "{{/hasValues}}"
+            + "        return counts;\n"
+            + "{{/generatedId}}"
+            + "{{^generatedId}}"
+            + "        PreparedStatement statement = upsert != null ? upsert : (upsert = prepare(UPSERT));\n"
+            + "        for (Row row : rows) {\n"
+            + "            bindInsert(statement, row);\n"
+            + "            statement.addBatch();\n"
+            + "        }\n"
+            + "        return rows.isEmpty() ? new int[0] : statement.executeBatch();\n"
+            + "{{/generatedId}}"
+            + "    }\n\n"
+            + "    /**\n"
+            + "     * @return the number of deleted rows\n"
+            + "     */\n"
+            + "    public int delete({{#lookup}}{{javaType}} {{field}}{{|}}, {{/lookup}}) throws SQLException {\n"
+            + "        PreparedStatement statement = delete != null ? delete : (delete = prepare(DELETE));\n"
+            + "        int parameter = 1;\n"
+            + "{{#lookup}}        " + bind("") + "{{/lookup}}"
+            + "        return statement.executeUpdate();\n"
+            + "    }\n\n"
+            + "    /**\n"
+            + "     * Deletes the row with the identifier of each row, as one JDBC batch.\n"
+            + "     *\n"
+            + "     * @return the number of deleted rows of each row, in order\n"
+            + "     */\n"
+            + "    public int[] deleteBatch(List<Row> rows) throws SQLException {\n"
+            + "        PreparedStatement statement = delete != null ? delete : (delete = prepare(DELETE));\n"
+            + "        for (Row row : rows) {\n"
+            + "            int parameter = 1;\n"
+            + "{{#lookup}}            " + bind("row.").replace("\n        ", "\n            ") + "{{/lookup}}"
+            + "            statement.addBatch();\n"
+            + "        }\n"
+            + "        return rows.isEmpty() ? new int[0] : statement.executeBatch();\n"
+            + "    }\n\n"
+            + "{{/identified}}"
+            // ---- fermeture et utilitaires
+            + "    /**\n"
+            + "     * Closes the prepared statements; the connection stays open.\n"
+            + "     */\n"
+            + "    @Override\n"
+            + "    public void close() throws SQLException {\n"
+            + "        SQLException failure = null;\n"
+            + "        for (PreparedStatement statement : prepared) {\n"
+            + "            try {\n"
+            + "                statement.close();\n"
+            + "            } catch (SQLException e) {\n"
+            + "                if (failure == null) {\n"
+            + "                    failure = e;\n"
+            + "                } else {\n"
+            + "                    failure.addSuppressed(e);\n"
+            + "                }\n"
+            + "            }\n"
+            + "        }\n"
+            + "        prepared.clear();\n"
+            + "        list = null;\n"
+            + "{{?hasPrimaryKey}}        firstPage = null;\n        nextPage = null;\n{{/hasPrimaryKey}}"
+            + "{{?identified}}        get = null;\n        delete = null;\n"
+            + "{{?generatedId}}        insert = null;\n{{?hasValues}}        update = null;\n{{/hasValues}}{{/generatedId}}"
+            + "{{^generatedId}}        upsert = null;\n{{/generatedId}}"
+            + "{{/identified}}"
+            + "        if (failure != null) {\n"
+            + "            throw failure;\n"
+            + "        }\n"
+            + "    }\n\n"
+            + "    private PreparedStatement prepare(String sql) throws SQLException {\n"
+            + "        PreparedStatement statement = connection.prepareStatement(sql);\n"
+            + "        prepared.add(statement);\n"
+            + "        return statement;\n"
+            + "    }\n\n"
+            + "{{?identified}}"
+            + "{{?generatedId}}"
+            + "    private PreparedStatement prepareInsert() throws SQLException {\n"
+            + "        PreparedStatement statement = connection.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);\n"
+            + "        prepared.add(statement);\n"
+            + "        return statement;\n"
+            + "    }\n\n"
+            + "    private static void readKeys(PreparedStatement statement, List<Row> rows) throws SQLException {\n"
+            + "        try (ResultSet keys = statement.getGeneratedKeys()) {\n"
+            + "            for (int i = 0; i < rows.size() && keys.next(); i++) {\n"
+            + "                rows.get(i).{{#identifier}}{{field}} = keys.{{getter}}(1){{/identifier}};\n"
+            + "            }\n"
+            + "        }\n"
+            + "    }\n\n"
+            + "    private static void scatter(int[] counts, List<Integer> positions, int[] batch) {\n"
+            + "        for (int i = 0; i < batch.length; i++) {\n"
+            + "            counts[positions.get(i)] = batch[i];\n"
+            + "        }\n"
+            + "    }\n\n"
+            + "    private static void bindInsert(PreparedStatement statement, Row row) throws SQLException {\n"
+            + "        int parameter = 1;\n"
+            + "{{#values}}        " + bind("row.") + "{{/values}}"
+            + "    }\n\n"
+            + "{{?hasValues}}"
+            + "    private static void bindUpdate(PreparedStatement statement, Row row) throws SQLException {\n"
+            + "        int parameter = 1;\n"
+            + "{{#values}}        " + bind("row.") + "{{/values}}"
+            + "{{#identifier}}        " + bind("row.") + "{{/identifier}}"
+            + "    }\n\n"
+            + "{{/hasValues}}"
+            + "{{/generatedId}}"
+            + "{{^generatedId}}"
+            + "    private static void bindInsert(PreparedStatement statement, Row row) throws SQLException {\n"
+            + "        int parameter = 1;\n"
+            + "{{#inserted}}        " + bind("row.") + "{{/inserted}}"
+            + "    }\n\n"
+            + "{{/generatedId}}"
+            + "{{/identified}}"
+            + "{{?hasPrimaryKey}}"
+            + "    private static int bindPrimaryKey(PreparedStatement statement, Row row) throws SQLException {\n"
+            + "        int parameter = 1;\n"
+            + "{{#primaryKey}}        " + bind("row.") + "{{/primaryKey}}"
+            + "        return parameter;\n"
+            + "    }\n\n"
+            + "{{/hasPrimaryKey}}"
+            + "    private static List<Row> readAll(PreparedStatement statement) throws SQLException {\n"
+            + "        List<Row> rows = new ArrayList<>();\n"
+            + "        try (ResultSet result = statement.executeQuery()) {\n"
+            + "            while (result.next()) {\n"
+            + "                rows.add(read(result));\n"
+            + "            }\n"
+            + "        }\n"
+            + "        return rows;\n"
+            + "    }\n\n"
+            + "    private static Row read(ResultSet result) throws SQLException {\n"
+            + "        Row row = new Row();\n"
+            + "{{#columns}}        " + READ + "{{/columns}}"
+            + "        return row;\n"
+            + "    }\n"
+            + "}\n";
+
+    /**
+     * Contexte d'une table : celui des procédures, plus les noms et types Java de ses colonnes.
+     */
+    public static final class DaoContext extends DBTemplate.Context {
+
+        private final String packageName;
+        private final DBRoutineGenerator.RoutineContext routines;
+        private final Map<DBColumn, String> fields = new IdentityHashMap<>();
+        private final Map<DBColumn, JavaType> types = new IdentityHashMap<>();
+
+        DaoContext(DBTable table, String packageName) {
+            super(table);
+            this.packageName = packageName;
+            this.routines = new DBRoutineGenerator.RoutineContext(table);
+            Set<String> used = new HashSet<>(RESERVED);
+            for (DBColumn column : table.getColumns()) {
+                String field = javaName(column.getName(), false);
+                if (used.contains(field)) {
+                    field += '_';
+                }
+                for (int i = 2; !used.add(field); i++) {
+                    field = javaName(column.getName(), false) + '_' + i;
+                }
+                fields.put(column, field);
+                types.put(column, javaType(column));
+            }
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public DBRoutineGenerator.RoutineContext getRoutines() {
+            return routines;
+        }
+
+        /**
+         * @return le nom du champ de la colonne dans la classe {@code Row}
+         */
+        public String getField(DBColumn column) {
+            return fields.get(column);
+        }
+
+        private JavaType type() {
+            return types.get(getColumn());
+        }
+
+        private boolean isNullable() {
+            DBColumn column = getColumn();
+            return !Boolean.TRUE.equals(column.getNotNull()) || column.getAutoIncrement() != null;
+        }
+    }
+
+    /** mots réservés de Java, noms des champs et des variables locales du code généré */
+    private static final Set<String> RESERVED = Set.of("abstract", "assert", "boolean", "break", "byte", "case",
+            "catch", "char", "class", "const", "continue", "default", "do", "double", "else", "enum", "extends",
+            "final", "finally", "float", "for", "goto", "if", "implements", "import", "instanceof", "int",
+            "interface", "long", "native", "new", "package", "private", "protected", "public", "return", "short",
+            "static", "strictfp", "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try",
+            "void", "volatile", "while", "true", "false", "null", "var", "record", "yield", "_",
+            "statement", "parameter", "result", "row", "rows", "after", "limit", "count", "counts", "inserted",
+            "insertedAt", "updatedAt", "keys", "failure", "i", "connection", "prepared", "list", "firstPage",
+            "nextPage", "get", "delete", "insert", "update", "upsert");
+
+    public static final DBTemplate.Bindings<DaoContext> BINDINGS = new DBTemplate.Bindings<DaoContext>()
+            .setSlot("package", (context, out) -> out.append(context.packageName))
+            .setSlot("class", (context, out) -> out.append(className(context.getTable())))
+            .setSlot("comment", (context, out) -> appendComment(out, context.getTable().getName()))
+            .setSlot("table", (context, out) -> appendJavaString(out,
+                    DBRoutineGenerator.appendIdentifier(new StringBuilder(), context.getTable().getName())))
+            .setSlot("column", (context, out) -> appendJavaString(out,
+                    DBRoutineGenerator.appendIdentifier(new StringBuilder(), context.getColumn().getName())))
+            .setSlot("field", (context, out) -> out.append(context.getField(context.getColumn())))
+            .setSlot("javaType", (context, out) -> out.append(context.type().primitive != null && !context.isNullable()
+                    ? context.type().primitive : context.type().reference))
+            .setSlot("primitive", (context, out) -> out.append(context.type().primitive))
+            .setSlot("getter", (context, out) -> out.append("get").append(context.type().accessor))
+            .setSlot("setter", (context, out) -> out.append("set").append(context.type().accessor))
+            .setSlot("sqlType", (context, out) -> out.append(context.type().sqlType))
+            .setSlot("position", (context, out) -> out.append(context.getIndex() + 1))
+            .setList("columns", context -> context.getTable().getColumns())
+            .setList("identifier", context -> context.routines.getIdentifier())
+            .setList("lookup", context -> context.routines.getLookup())
+            .setList("values", context -> context.routines.getValues())
+            .setList("inserted", context -> context.routines.getInserted())
+            .setList("primaryKey", context -> context.routines.getPrimaryKey())
+            .setList("writable", context -> context.routines.getWritable())
+            .setCondition("identified", context -> !context.routines.getIdentifier().isEmpty())
+            .setCondition("generatedId", context -> context.routines.isGeneratedId())
+            .setCondition("hasValues", context -> !context.routines.getValues().isEmpty())
+            .setCondition("hasPrimaryKey", context -> !context.routines.getPrimaryKey().isEmpty())
+            .setCondition("boxed", context -> context.type().primitive != null && context.isNullable());
+
+    private static final DBTemplate<DaoContext> DEFAULT_TEMPLATE = DBTemplate.compile(TEMPLATE, BINDINGS);
+
+    private final String packageName;
+    private final DBTemplate<DaoContext> template;
+
+    /**
+     * @param packageName paquetage des classes générées
+     */
+    public DBDaoGenerator(String packageName) {
+        this.packageName = packageName;
+        this.template = DEFAULT_TEMPLATE;
+    }
+
+    /**
+     * @param template gabarit du source d'une classe, compilé une fois avec {@link #BINDINGS}
+     * @throws IllegalArgumentException si le gabarit est mal formé
+     */
+    public DBDaoGenerator(String packageName, String template) {
+        this.packageName = packageName;
+        this.template = DBTemplate.compile(template, BINDINGS);
+    }
+
+    /**
+     * Ajoute le source de la classe d'accès de la table.
+     */
+    public void generate(DBTable table, StringBuilder out) {
+        template.render(new DaoContext(table, packageName), out);
+    }
+
+    /**
+     * @return le nom de la classe d'accès de la table, par exemple {@code UserAccountDao} pour {@code user_account}
+     */
+    public static String className(DBTable table) {
+        return javaName(table.getName(), true) + CLASS_SUFFIX;
+    }
+
+    /**
+     * @return le nom du fichier source de la classe d'accès de la table
+     */
+    public static String fileName(DBTable table) {
+        return className(table) + JAVA_EXTENSION;
+    }
+
+    // casse chameau : les caractères hors identifiant Java séparent les mots
+    private static String javaName(String name, boolean capitalized) {
+        StringBuilder out = new StringBuilder(name.length() + 1);
+        boolean upper = capitalized;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!Character.isJavaIdentifierPart(c) || c == '_' || c == '$') {
+                upper = out.length() > 0 || capitalized;
+                continue;
+            }
+            if (out.length() == 0 && !Character.isJavaIdentifierStart(c)) {
+                out.append(capitalized ? 'T' : '_');
+            }
+            out.append(upper ? Character.toUpperCase(c) : out.length() == 0 ? Character.toLowerCase(c) : c);
+            upper = false;
+        }
+        if (out.length() == 0) {
+            out.append(capitalized ? "Table" : "column");
+        }
+        return out.toString();
+    }
+
+    private static JavaType javaType(DBColumn column) {
+        boolean unsigned = Boolean.TRUE.equals(column.getUnsigned());
+        switch (column.getDataType()) {
+            case BIT:
+                return column.getLength() == null || column.getLength() == 1 ? JavaType.BOOLEAN : JavaType.LONG;
+            case BOOL:
+            case BOOLEAN:
+                return JavaType.BOOLEAN;
+            case TINYINT:
+            case SMALLINT:
+            case MEDIUMINT:
+            case YEAR:
+                return JavaType.INT;
+            case INT:
+            case INTEGER:
+                return unsigned ? JavaType.LONG : JavaType.INT;
+            case BIGINT:
+                return unsigned ? JavaType.DECIMAL : JavaType.LONG;
+            case DECIMAL:
+            case DEC:
+            case NUMERIC:
+            case FIXED:
+                return JavaType.DECIMAL;
+            case FLOAT:
+                return column.getLength() != null && column.getScale() == null && column.getLength() > 24
+                        ? JavaType.DOUBLE : JavaType.FLOAT;
+            case DOUBLE:
+            case DOUBLE_PRECISION:
+            case REAL:
+                return JavaType.DOUBLE;
+            case DATE:
+                return JavaType.DATE;
+            case TIME:
+                return JavaType.TIME;
+            case DATETIME:
+            case TIMESTAMP:
+                return JavaType.TIMESTAMP;
+            default:
+                DBDataType type = column.getDataType();
+                return DBLoadGenerator.isBinary(type) || DBLoadGenerator.isSpatial(type) ? JavaType.BYTES : JavaType.STRING;
+        }
+    }
+
+    // contenu d'une chaine Java, sans les guillemets
+    private static void appendJavaString(StringBuilder out, CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < ' ' || c > '~') {
+                out.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    // nom de table dans un commentaire Java, sans fin de commentaire ni échappement unicode
+    private static void appendComment(StringBuilder out, String name) {
+        out.append("{@code ");
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '/' && i > 0 && name.charAt(i - 1) == '*' || c == '\\' || c == '{' || c == '}' || c < ' ') {
+                out.append('_');
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('}');
+    }
+}
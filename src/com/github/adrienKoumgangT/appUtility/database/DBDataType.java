@@ -1,11 +1,20 @@
 package com.github.adrienKoumgangT.appUtility.database;
 
+import java.util.Locale;
+
 /**
  * Cette énumération permet de lister les possibles types
  * contenu dans MySQL. (liste non exhaustive).
  * Pour plus de détails en ce qui concerne les types de données
  * en MySQL, voir <a href="https://dev.mysql.com/doc/refman/8.0/en/data-types.html">MySQL Data Types</a>.
  *
+ * <p>
+ * Chaque type porte la façon dont InnoDB le stocke ({@link Storage}) : largeur fixe, taille du
+ * préfixe de longueur des types variables, et longueur comptée en caractères pour {@code CHAR} et
+ * {@code VARCHAR}, dont la largeur dépend du jeu de caractères. {@link DBStorageEstimator} s'en
+ * sert pour estimer la taille des lignes et des index d'une table.
+ * </p>
+ *
  * @author Adrien Koumgang Tegantchouang
  * @version December 2022
  * @since MySQL 8.0
@@ -21,7 +30,7 @@ public enum DBDataType {
      * The default is 1 if _M_ is omitted.
      * </p>
      */
-    BIT ("BIT"),
+    BIT ("BIT", Storage.PACKED, 0),
     /**
      * <h3>TINYINT [(M)] [UNSIGNED] [ZEROFILL] :</h3>
      * <p>
@@ -29,7 +38,7 @@ public enum DBDataType {
      * The unsigned range is 0 to 255.
      * </p>
      */
-    TINYINT ("TINYINT"),
+    TINYINT ("TINYINT", Storage.FIXED, 1),
     /**
      * <h3>BOOL, BOOLEAN :</h3>
      * <p>
@@ -40,8 +49,8 @@ public enum DBDataType {
      * aliases for 1 and 0, respectively.
      * </p>
      */
-    BOOL ("BOOL"),
-    BOOLEAN ("BOOLEAN"),
+    BOOL ("BOOL", Storage.FIXED, 1),
+    BOOLEAN ("BOOLEAN", Storage.FIXED, 1),
     /**
      * <h3>SMALLINT [(M)] [UNSIGNED} [ZEROFILL] :</h3>
      * <p>
@@ -49,7 +58,7 @@ public enum DBDataType {
      * The unsigned range is 0 to 16777215.
      * </p>
      */
-    SMALLINT ("SMALLINT"),
+    SMALLINT ("SMALLINT", Storage.FIXED, 2),
     /**
      * <h3>MEDIUMINT [(M)] [UNSIGNED] [ZEROFILL] :</h3>
      * <p>
@@ -57,7 +66,7 @@ public enum DBDataType {
      * The unsigned range is 0 to 16777215.
      * </p>
      */
-    MEDIUMINT ("MEDIUMINT"),
+    MEDIUMINT ("MEDIUMINT", Storage.FIXED, 3),
     /**
      * <h3>INT [(M)] [UNSIGNED] [ZEROFILL] :</h3>
      * <p>
@@ -66,14 +75,14 @@ public enum DBDataType {
      * The unsigned range is 0 to 4294967295.
      * </p>
      */
-    INT ("INT"),
+    INT ("INT", Storage.FIXED, 4),
     /**
      * <h3>INTEGER [(M)] [UNSIGNED] [ZEROFILL] :</h3>
      * <p>
      * This type is synonym for "INT".
      * </p>
      */
-    INTEGER ("INTEGER"),
+    INTEGER ("INTEGER", Storage.FIXED, 4),
     /**
      * <h3>BIGINT [(M)] [UNSIGNED] [ZEROFILL] :</h3>
      * <p>
@@ -82,7 +91,7 @@ public enum DBDataType {
      * The unsigned range is 0 to 18446744073709551615.
      * </p>
      */
-    BIGINT ("BIGINT"),
+    BIGINT ("BIGINT", Storage.FIXED, 8),
     /**
      * <h3>DECIMAL [(M[, D])] [UNSIGNED] [ZEROFILL] :</h3>
      * <p>
@@ -91,7 +100,7 @@ public enum DBDataType {
      * the decimal point (the scale).
      * </p>
      */
-    DECIMAL ("DECIMAL"),
+    DECIMAL ("DECIMAL", Storage.PACKED, 0),
     /**
      * <h3>DEC [(M[, D])] [UNSIGNED] [ZEROFILL],
      * NUMERIC [(M[, D])] [UNSIGNED] [ZEROFILL],
@@ -102,9 +111,9 @@ public enum DBDataType {
      * for compatibility with other database systems.
      * </p>
      */
-    DEC ("DEC"),
-    NUMERIC ("NUMERIC"),
-    FIXED ("FIXED"),
+    DEC ("DEC", Storage.PACKED, 0),
+    NUMERIC ("NUMERIC", Storage.PACKED, 0),
+    FIXED ("FIXED", Storage.PACKED, 0),
     /**
      * <h3>FLOAT [(M, D)] [UNSIGNED] [ZEROFILL] :</h3>
      * <p>
@@ -123,7 +132,7 @@ public enum DBDataType {
      *     is accurate to approximately 7 decimal places.
      * </p>
      */
-    FLOAT ("FLOAT"),
+    FLOAT ("FLOAT", Storage.PACKED, 0),
     /**
      * <h3> DOUBLE [(M, D)] [UNSIGNED] [ZEROFILL] : </h3>
      * <p>
@@ -141,7 +150,7 @@ public enum DBDataType {
      *     accurate to approximately 15 decimal places.
      * </p>
      */
-    DOUBLE ("DOUBLE"),
+    DOUBLE ("DOUBLE", Storage.FIXED, 8),
     /**
      * <h3>DOUBLE PRECISION [(M, D)] [UNSIGNED] [ZEROFILL] :</h3>
      * <h3>REAL [(M, D)] [UNSIGNED] [ZEROFILL] :</h3>
@@ -151,8 +160,8 @@ public enum DBDataType {
      *     REAL is a synonym for FLOAT rather than DOUBLE.
      * </p>
      */
-    DOUBLE_PRECISION ("DOUBLE PRECISION"),
-    REAL ("REAL"),
+    DOUBLE_PRECISION ("DOUBLE PRECISION", Storage.FIXED, 8),
+    REAL ("REAL", Storage.FIXED, 8),
 
     // DATE AND TIME DATA TYPES
 
@@ -164,7 +173,7 @@ public enum DBDataType {
      *     assignment of values to DATE columns using either strings or numbers.
      * </p>
      */
-    DATE ("DATE"),
+    DATE ("DATE", Storage.FIXED, 3),
     /**
      * <h3>DATETIME [(fsp)]</h3>
      * <p>
@@ -179,7 +188,7 @@ public enum DBDataType {
      *     If omitted, the default precision is 0.
      * </p>
      */
-    DATETIME ("DATETIME"),
+    DATETIME ("DATETIME", Storage.TEMPORAL, 5),
     /**
      * <h3>TIMESTAMP [(fsp)]</h3>
      * <p>
@@ -198,7 +207,7 @@ public enum DBDataType {
      *     is no fractional part. If omitted, the default precision is 0.
      * </p>
      */
-    TIMESTAMP ("TIMESTAMP"),
+    TIMESTAMP ("TIMESTAMP", Storage.TEMPORAL, 4),
     /**
      * <h3>TIME [(fsp)] :</h3>
      * <p>
@@ -213,7 +222,7 @@ public enum DBDataType {
      *     is no fractional part. If omitted, the default precision is 0.
      * </p>
      */
-    TIME ("TIME"),
+    TIME ("TIME", Storage.TEMPORAL, 3),
     /**
      * <h3>YEAR [(4)]</h3>
      * <p>
@@ -222,7 +231,7 @@ public enum DBDataType {
      *     Values display as 1901 to 2155, or 0000.
      * </p>
      */
-    YEAR ("YEAR"),
+    YEAR ("YEAR", Storage.FIXED, 1),
 
     // STRING DATA TYPE
 
@@ -246,7 +255,7 @@ public enum DBDataType {
      *     This is a compatibility feature.
      * </p>
      */
-    CHAR ("CHAR"),
+    CHAR ("CHAR", Storage.FIXED_LENGTH, 0, true),
     /**
      * <h3>[NATIONAL] VARCHAR (M) [CHARACTER SET charset_name] [COLLATE collation_name]</h3>
      * <p>
@@ -266,7 +275,7 @@ public enum DBDataType {
      *     NVARCHAR is shorthand for NATIONAL VARCHAR.
      *</p>
      */
-    VARCHAR ("VARCHAR"),
+    VARCHAR ("VARCHAR", Storage.VARIABLE_LENGTH, 1, true),
     /**
      * <h3>BINARY [(M)]</h3>
      * <p>
@@ -275,7 +284,7 @@ public enum DBDataType {
      *     length in bytes. If omitted, _M_ defaults to 1.
      * </p>
      */
-    BINARY ("BINARY"),
+    BINARY ("BINARY", Storage.FIXED_LENGTH, 0),
     /**
      * <h3>VARBINARY (M)</h3>
      * <p>
@@ -284,7 +293,7 @@ public enum DBDataType {
      *     _M_ represents the maximum column length in bytes.
      * </p>
      */
-    VARBINARY ("VARBINARY"),
+    VARBINARY ("VARBINARY", Storage.VARIABLE_LENGTH, 1),
     /**
      * <h3>TINYBLOB</h3>
      * <p>
@@ -293,7 +302,7 @@ public enum DBDataType {
      *     the number of bytes in the value.
      * </p>
      */
-    TINYBLOB ("TINYBLOB"),
+    TINYBLOB ("TINYBLOB", Storage.LOB, 1),
     /**
      * <h3>TINYTEXT [CHARACTER SET charset_name] [COLLATE collation_name]</h3>
      * <p>
@@ -302,7 +311,7 @@ public enum DBDataType {
      *     the number of bytes in the value.
      * </p>
      */
-    TINYTEXT ("TINYTEXT"),
+    TINYTEXT ("TINYTEXT", Storage.LOB, 1),
     /**
      * <h3>BLOB [(M)]</h3>
      * <p>
@@ -316,7 +325,7 @@ public enum DBDataType {
      *     BLOB type large enough to hold values _M_ bytes long.
      * </p>
      */
-    BLOB ("BLOB"),
+    BLOB ("BLOB", Storage.LOB, 2),
     /**
      * <h3>TEXT [(M)] [CHARACTER SET charset_name] [COLLATE collation_name]</h3>
      * <p>
@@ -331,7 +340,7 @@ public enum DBDataType {
      *     to hold values _M_ characters long.
      * </p>
      */
-    TEXT ("TEXT"),
+    TEXT ("TEXT", Storage.LOB, 2),
     /**
      * <h3>MEDIUMBLOB</h3>
      * <p>
@@ -340,7 +349,7 @@ public enum DBDataType {
      *     the number of bytes in the value.
      * </p>
      */
-    MEDIUMBLOB ("MEDIUMBLOB"),
+    MEDIUMBLOB ("MEDIUMBLOB", Storage.LOB, 3),
     /**
      * <h3>MEDIUMTEXT [CHARACTER SET charset_name] [COLLATE collation_name]</h3>
      * <p>
@@ -350,7 +359,7 @@ public enum DBDataType {
      *     the number of bytes in the value.
      * </p>
      */
-    MEDIUMTEXT ("MEDIUMTEXT"),
+    MEDIUMTEXT ("MEDIUMTEXT", Storage.LOB, 3),
     /**
      * <h3>LONGBLOB</h3>
      * <p>
@@ -361,7 +370,7 @@ public enum DBDataType {
      *     the number of bytes in the value.
      * </p>
      */
-    LONGBLOB ("LONGBLOB"),
+    LONGBLOB ("LONGBLOB", Storage.LOB, 4),
     /**
      * <h3>LONGTEXT [CHARACTER SET charset_name] [COLLATE collation_name]</h3>
      * <p>
@@ -372,7 +381,7 @@ public enum DBDataType {
      *     indicates number of bytes in the value.
      * </p>
      */
-    LONGTEXT ("LONGTEXT"),
+    LONGTEXT ("LONGTEXT", Storage.LOB, 4),
     /**
      * <h3>ENUM('value1','value2',...) [CHARACTER SET charset_name] (COLLATE collation_name]</h3>
      * <p>
@@ -391,7 +400,7 @@ public enum DBDataType {
      *     in the character set.
      * </p>
      */
-    ENUM ("ENUM"),
+    ENUM ("ENUM", Storage.PACKED, 0),
     /**
      * <h3>SET('value1,'value2',...) [CHARACTER SET charset_name] [COLLATE collation_name]</h3>
      * <p>
@@ -408,7 +417,7 @@ public enum DBDataType {
      *     _w_ is the number of bytes required for the maximum-length character in the character set.
      * </p>
      */
-    SET ("SET"),
+    SET ("SET", Storage.PACKED, 0),
 
     // SPATIAL DATA TYPES
 
@@ -419,15 +428,15 @@ public enum DBDataType {
      * The other single-value types (POINT, LINESTRING, and POLYGON)
      * restrict their values to a particular geometry type.
      */
-    GEOMERTY ("GEOMETRY"),
-    POINT ("POINT"),
-    LINESTRING ("LINESTRING"),
-    POLYGON ("POLYGON"),
+    GEOMERTY ("GEOMETRY", Storage.LOB, 4),
+    POINT ("POINT", Storage.LOB, 4),
+    LINESTRING ("LINESTRING", Storage.LOB, 4),
+    POLYGON ("POLYGON", Storage.LOB, 4),
 
     /// The other spatial data types hold collections of values:
-    MULTIPOINT ("MULTIPOINT"),
-    MULTILINESTRING ("MULTILINESTRING"),
-    MULTIPOLYGON ("MULTIPOLYGON"),
+    MULTIPOINT ("MULTIPOINT", Storage.LOB, 4),
+    MULTILINESTRING ("MULTILINESTRING", Storage.LOB, 4),
+    MULTIPOLYGON ("MULTIPOLYGON", Storage.LOB, 4),
     /**
      * <p>
      *     GEOMETRYCOLLECTION can store a collection of objects of any type.
@@ -435,20 +444,177 @@ public enum DBDataType {
      *     restrict collection members to those having a particular geometry type.
      * </p>
      */
-    GEOMETRYCOLLECTION ("GEOMETRYCOLLECTION"),
+    GEOMETRYCOLLECTION ("GEOMETRYCOLLECTION", Storage.LOB, 4),
 
     // JSON DATA TYPE
 
-    JSON ("JSON")
+    JSON ("JSON", Storage.LOB, 4)
     ;
 
+    /**
+     * Façon dont InnoDB stocke une valeur du type (format de ligne {@code DYNAMIC} ou {@code COMPACT}).
+     */
+    public enum Storage {
+        /** largeur fixe de {@link #getFixedSize()} octets */
+        FIXED,
+        /** {@link #getFixedSize()} octets, plus (fsp + 1) / 2 octets pour les fractions de seconde */
+        TEMPORAL,
+        /** largeur fixe qui dépend de la déclaration : nombre de bits, précision ou nombre de valeurs */
+        PACKED,
+        /** M caractères (ou octets), sans préfixe de longueur */
+        FIXED_LENGTH,
+        /** préfixe de longueur d'un octet (deux au-delà de 255 octets), puis au plus M caractères (ou octets) */
+        VARIABLE_LENGTH,
+        /**
+         * préfixe de longueur de 1 à 4 octets selon le type, puis la valeur, qui peut être rangée
+         * hors de la ligne; seuls le préfixe et un pointeur de 8 octets comptent dans la limite de
+         * 65 535 octets d'une ligne
+         */
+        LOB
+    }
+
+    /** taille maximale d'une ligne pour le serveur MySQL, colonnes LOB comptées pour leur seul pointeur */
+    public static final int MAX_ROW_SIZE = 65535;
+    /** jeu de caractères par défaut de MySQL 8.0 */
+    public static final String DEFAULT_CHARSET = "utf8mb4";
+
+    /** octets pour 0 à 8 chiffres décimaux d'un DECIMAL, chaque groupe de 9 chiffres prenant 4 octets */
+    private static final int[] DECIMAL_DIGIT_BYTES = {0, 1, 1, 2, 2, 3, 3, 4, 4, 4};
+
     private final String key;
+    private final Storage storage;
+    private final int size;
+    private final boolean characters;
+
+    DBDataType(String key, Storage storage, int size) {
+        this(key, storage, size, false);
+    }
 
-    DBDataType(String key) {
+    DBDataType(String key, Storage storage, int size, boolean characters) {
         this.key = key;
+        this.storage = storage;
+        this.size = size;
+        this.characters = characters;
     }
 
     public String getKey() {
         return this.key;
     }
+
+    public Storage getStorage() {
+        return storage;
+    }
+
+    /**
+     * @return la largeur en octets d'un type {@link Storage#FIXED} ou {@link Storage#TEMPORAL}
+     * (sans fractions de seconde), 0 pour les autres
+     */
+    public int getFixedSize() {
+        return storage == Storage.FIXED || storage == Storage.TEMPORAL ? size : 0;
+    }
+
+    /**
+     * @param maxSize taille maximale de la valeur, voir {@link #maxSize(DBColumn, int)}
+     * @return la taille en octets du préfixe de longueur, 0 pour un type de largeur fixe
+     */
+    public int getLengthPrefix(long maxSize) {
+        switch (storage) {
+            case VARIABLE_LENGTH:
+                return maxSize > 255 ? 2 : 1;
+            case LOB:
+                return size;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return vrai si la longueur déclarée est en caractères, dont la largeur dépend du jeu de
+     * caractères de la colonne ({@code CHAR} et {@code VARCHAR})
+     */
+    public boolean isCharacterString() {
+        return characters;
+    }
+
+    /**
+     * @return vrai si la valeur peut être rangée hors de la ligne, dans des pages de débordement
+     */
+    public boolean isOffPageCapable() {
+        return storage == Storage.VARIABLE_LENGTH || storage == Storage.LOB;
+    }
+
+    /**
+     * Taille maximale d'une valeur de la colonne, sans le préfixe de longueur. Pour un type LOB, c'est
+     * la taille maximale de la valeur elle-même, quel que soit l'endroit où elle est rangée.
+     *
+     * @param bytesPerCharacter largeur maximale d'un caractère du jeu de caractères de la colonne,
+     *                          voir {@link #bytesPerCharacter(String)}
+     */
+    public long maxSize(DBColumn column, int bytesPerCharacter) {
+        Integer length = column.getLength();
+        switch (storage) {
+            case FIXED:
+                return size;
+            case TEMPORAL:
+                return size + (length != null ? (length + 1) / 2 : 0);
+            case PACKED:
+                return packedSize(column);
+            case FIXED_LENGTH:
+                return (long) (length != null ? length : 1) * (characters ? bytesPerCharacter : 1);
+            case VARIABLE_LENGTH:
+                return (long) (length != null ? length : 0) * (characters ? bytesPerCharacter : 1);
+            default:
+                return (1L << (8 * size)) - 1;
+        }
+    }
+
+    private long packedSize(DBColumn column) {
+        Integer length = column.getLength();
+        Integer scale = column.getScale();
+        switch (this) {
+            case BIT:
+                return (length != null ? length + 7 : 8) / 8;
+            case FLOAT:
+                // FLOAT(p) : simple précision jusqu'à 24 bits de mantisse, double au-delà
+                return length != null && scale == null && length > 24 ? 8 : 4;
+            case ENUM:
+                return column.getValues() != null && column.getValues().size() > 255 ? 2 : 1;
+            case SET:
+                int bytes = column.getValues() != null ? (column.getValues().size() + 7) / 8 : 1;
+                return bytes > 4 ? 8 : Math.max(bytes, 1);
+            default:
+                int precision = length != null ? length : 10;
+                int fraction = scale != null ? scale : 0;
+                int integer = precision - fraction;
+                return integer / 9 * 4 + DECIMAL_DIGIT_BYTES[integer % 9]
+                        + fraction / 9 * 4 + DECIMAL_DIGIT_BYTES[fraction % 9];
+        }
+    }
+
+    /**
+     * @param charsetOrCollation nom d'un jeu de caractères ({@code latin1}) ou d'une collation
+     *                           ({@code utf8mb4_bin}); {@code null} pour le jeu par défaut
+     * @return la largeur maximale en octets d'un caractère, 4 pour un jeu inconnu
+     */
+    public static int bytesPerCharacter(String charsetOrCollation) {
+        String charset = charsetOrCollation != null ? charsetOrCollation : DEFAULT_CHARSET;
+        int underscore = charset.indexOf('_');
+        if (underscore > 0) {
+            charset = charset.substring(0, underscore);
+        }
+        switch (charset.toLowerCase(Locale.ROOT)) {
+            case "latin1": case "latin2": case "latin5": case "latin7": case "ascii": case "binary":
+            case "cp1250": case "cp1251": case "cp1256": case "cp1257": case "cp850": case "cp852":
+            case "cp866": case "dec8": case "greek": case "hebrew": case "hp8": case "keybcs2":
+            case "koi8r": case "koi8u": case "macce": case "macroman": case "swe7": case "tis620":
+            case "armscii8": case "geostd8":
+                return 1;
+            case "ucs2": case "big5": case "gbk": case "gb2312": case "sjis": case "cp932": case "euckr":
+                return 2;
+            case "utf8": case "utf8mb3": case "ujis": case "eucjpms":
+                return 3;
+            default:
+                return 4;
+        }
+    }
 }
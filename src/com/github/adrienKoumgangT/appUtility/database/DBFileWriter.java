@@ -0,0 +1,152 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Écriture des fichiers générés au moyen de tampons réutilisés : chaque thread garde son
+ * {@link StringBuilder}, son encodeur UTF-8 et un {@link ByteBuffer} direct, de sorte qu'un fichier
+ * coûte une génération dans un tampon déjà alloué puis quelques écritures sur un {@link FileChannel},
+ * sans objet d'écriture intermédiaire.
+ * </p>
+ * <p>
+ * Le {@link StringBuilder} renvoyé par {@link #buffer()} n'est valable que jusqu'au prochain appel sur
+ * le même thread.
+ * </p>
+ */
+final class DBFileWriter {
+
+    static final int BYTE_BUFFER_SIZE = 64 * 1024;
+    /** au-delà, le tampon de caractères d'un thread est rendu au ramasse-miettes après usage */
+    static final int MAX_RETAINED_CHARS = 1024 * 1024;
+
+    private static final ThreadLocal<DBFileWriter> LOCAL = ThreadLocal.withInitial(DBFileWriter::new);
+
+    private StringBuilder chars = new StringBuilder(8 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+    /** contenu actuel du fichier, alloué à la première comparaison */
+    private ByteBuffer existing;
+    private long compared;
+
+    private DBFileWriter() {
+    }
+
+    /**
+     * @return le tampon de caractères du thread courant, vidé
+     */
+    static StringBuilder buffer() {
+        DBFileWriter writer = LOCAL.get();
+        if (writer.chars.capacity() > MAX_RETAINED_CHARS) {
+            writer.chars = new StringBuilder(8 * 1024);
+        }
+        writer.chars.setLength(0);
+        return writer.chars;
+    }
+
+    /**
+     * Écrit le texte en UTF-8 dans le fichier, qui est créé ou remplacé.
+     */
+    static void write(Path file, CharSequence content) throws IOException {
+        DBFileWriter writer = LOCAL.get();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writer.encode(CharBuffer.wrap(content), bytes -> {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Écrit le texte comme {@link #write(Path, CharSequence)}, sauf si le fichier a déjà exactement ce
+     * contenu : il n'est alors pas ouvert en écriture et sa date de modification est conservée.
+     *
+     * @return {@code true} si le fichier a été écrit
+     */
+    static boolean writeIfChanged(Path file, CharSequence content) throws IOException {
+        if (LOCAL.get().sameContent(file, CharBuffer.wrap(content))) {
+            return false;
+        }
+        write(file, content);
+        return true;
+    }
+
+    // compare le texte encodé au fichier, morceau par morceau, en s'arrêtant à la première différence
+    private boolean sameContent(Path file, CharBuffer content) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        try (channel) {
+            long size = channel.size();
+            if (existing == null) {
+                existing = ByteBuffer.allocateDirect(BYTE_BUFFER_SIZE);
+            }
+            compared = 0;
+            boolean same = encode(content, bytes -> {
+                compared += bytes.remaining();
+                if (compared > size) {
+                    return false;
+                }
+                existing.clear().limit(bytes.remaining());
+                while (existing.hasRemaining()) {
+                    if (channel.read(existing) < 0) {
+                        return false;
+                    }
+                }
+                return existing.flip().equals(bytes);
+            });
+            return same && compared == size;
+        }
+    }
+
+    /** reçoit chaque morceau encodé, entre sa position et sa limite; renvoie {@code false} pour arrêter */
+    private interface Sink {
+        boolean accept(ByteBuffer bytes) throws IOException;
+    }
+
+    /**
+     * @return {@code false} si le destinataire a arrêté l'encodage avant la fin
+     */
+    private boolean encode(CharBuffer in, Sink sink) throws IOException {
+        encoder.reset();
+        bytes.clear();
+        CoderResult result;
+        do {
+            result = encoder.encode(in, bytes, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isOverflow() && !drain(sink)) {
+                return false;
+            }
+        } while (!result.isUnderflow());
+        while (encoder.flush(bytes).isOverflow()) {
+            if (!drain(sink)) {
+                return false;
+            }
+        }
+        return drain(sink);
+    }
+
+    private boolean drain(Sink sink) throws IOException {
+        bytes.flip();
+        boolean more = sink.accept(bytes);
+        bytes.clear();
+        return more;
+    }
+}
@@ -0,0 +1,322 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * <h1>Conseil d'index</h1>
+ *
+ * <p>
+ * Vérifie qu'un index B-tree sert chacun des chemins d'accès d'une table :
+ * <ul>
+ *     <li>la recherche par identifiant des procédures GET, SET et DEL ({@link DBRoutineGenerator});</li>
+ *     <li>le parcours ordonné par clé primaire de la procédure de pagination.</li>
+ * </ul>
+ * Une clé étrangère n'est pas un chemin à servir : si aucun index ne commence par ses colonnes, InnoDB
+ * en crée un implicitement, nommé d'après la contrainte. Cet index implicite est compté parmi les index
+ * existants, pour les chemins comme pour la recherche d'index redondants.
+ * Pour un chemin qu'aucun index ne sert, l'index composé des colonnes du chemin est proposé. Il est
+ * dit couvrant lorsque toutes les colonnes lues par le chemin y sont, un index secondaire InnoDB
+ * contenant aussi les colonnes de la clé primaire : la lecture se fait alors sans accès aux lignes.
+ * </p>
+ * <p>
+ * Un index non unique dont les parties sont les premières parties d'un autre index (ou les mêmes
+ * qu'un index déclaré avant lui) est signalé comme redondant : l'autre index sert les mêmes
+ * recherches, et chaque index ralentit les écritures. Les index {@code FULLTEXT} et {@code SPATIAL}
+ * ne servent aucun de ces chemins et ne sont pas comparés.
+ * </p>
+ */
+public class DBIndexAdvisor {
+
+    /** longueur maximale d'un identifiant MySQL */
+    public static final int MAX_NAME_LENGTH = 64;
+
+    /**
+     * Conseils pour une table : index proposés et avertissements.
+     */
+    public static final class Advice {
+
+        private final DBTable table;
+        private final List<DBKey> indexes = new ArrayList<>();
+        private final List<String> reasons = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+
+        private Advice(DBTable table) {
+            this.table = table;
+        }
+
+        public DBTable getTable() {
+            return table;
+        }
+
+        /**
+         * @return les index proposés, de type {@link DBKeyType#INDEX}
+         */
+        public List<DBKey> getIndexes() {
+            return Collections.unmodifiableList(indexes);
+        }
+
+        /**
+         * @return pour chaque index proposé, le chemin qu'il sert et s'il le couvre
+         */
+        public List<String> getReasons() {
+            return Collections.unmodifiableList(reasons);
+        }
+
+        public List<String> getWarnings() {
+            return Collections.unmodifiableList(warnings);
+        }
+
+        public boolean isEmpty() {
+            return indexes.isEmpty() && warnings.isEmpty();
+        }
+
+        /**
+         * Ajoute les conseils en commentaires SQL : les avertissements, puis un {@code ALTER TABLE} par
+         * index proposé, construit sans verrouiller la table ({@code ALGORITHM=INPLACE, LOCK=NONE}).
+         * Rien n'est exécuté : rejouer le script ne doit pas échouer sur un nom d'index déjà créé, et
+         * l'index est à ajouter par une migration. N'ajoute rien s'il n'y a aucun conseil.
+         */
+        public StringBuilder appendTo(StringBuilder out) {
+            if (isEmpty()) {
+                return out;
+            }
+            out.append("\n-- index advisor\n");
+            for (String warning : warnings) {
+                out.append("-- warning: ").append(warning).append('\n');
+            }
+            for (int i = 0; i < indexes.size(); i++) {
+                DBKey index = indexes.get(i);
+                out.append("-- ALTER TABLE ");
+                DBRoutineGenerator.appendIdentifier(out, table.getName()).append(" ADD INDEX ");
+                DBRoutineGenerator.appendIdentifier(out, index.getName()).append(' ');
+                appendParts(out, index).append(", ALGORITHM=INPLACE, LOCK=NONE; -- ").append(reasons.get(i)).append('\n');
+            }
+            return out;
+        }
+    }
+
+    private static final class LookupPath {
+
+        final String purpose;
+        /** colonnes comparées par égalité, dans n'importe quel ordre en tête de l'index */
+        final List<DBColumn> equality;
+        /** colonnes qui suivent, dans cet ordre */
+        final List<DBColumn> order;
+        final List<DBColumn> read;
+
+        LookupPath(String purpose, List<DBColumn> equality, List<DBColumn> order, List<DBColumn> read) {
+            this.purpose = purpose;
+            this.equality = equality;
+            this.order = order;
+            this.read = read;
+        }
+    }
+
+    public Advice advise(DBTable table) {
+        Advice advice = new Advice(table);
+        List<DBKey> indexes = new ArrayList<>();
+        for (DBKey key : table.getKeys()) {
+            if (key.getKeyType().isBTree()) {
+                indexes.add(key);
+            }
+        }
+        DBKey primary = table.getPrimaryKey();
+        List<DBColumn> primaryColumns = primary != null ? resolve(table, primary) : null;
+
+        for (DBKey key : table.getKeys()) {
+            if (key.getKeyType() == DBKeyType.FOREIGN_KEY && !key.getColumns().isEmpty()) {
+                List<DBColumn> columns = resolve(table, key);
+                if (columns != null && !served(new LookupPath(null, List.of(), columns, columns), indexes)) {
+                    String name = key.getName() != null ? key.getName() : key.getColumns().get(0);
+                    indexes.add(new DBKey(DBKeyType.INDEX, name, key.getColumns()));
+                }
+            }
+        }
+
+        List<LookupPath> paths = new ArrayList<>();
+        List<DBColumn> identifier = DBRoutineGenerator.identifierColumns(table);
+        if (!identifier.isEmpty()) {
+            paths.add(new LookupPath("GET/SET/DEL lookup", identifier, List.of(), table.getColumns()));
+        }
+        if (primaryColumns != null) {
+            paths.add(new LookupPath("keyset pagination", List.of(), primaryColumns, table.getColumns()));
+        } else {
+            advice.warnings.add("no primary key: InnoDB clusters the rows on a hidden row id and "
+                    + DBRoutineGenerator.LIST_PAGE_PREFIX + table.getName() + " is not generated");
+        }
+
+        for (LookupPath path : paths) {
+            if (served(path, indexes)) {
+                continue;
+            }
+            List<String> names = new ArrayList<>(path.equality.size() + path.order.size());
+            for (DBColumn column : path.equality) {
+                names.add(column.getName());
+            }
+            for (DBColumn column : path.order) {
+                names.add(column.getName());
+            }
+            DBKey index = new DBKey(DBKeyType.INDEX, indexName(table, names, indexes), names);
+            indexes.add(index);
+            advice.indexes.add(index);
+            advice.reasons.add("for " + path.purpose + (covers(index, path, primaryColumns) ? ", covering" : ""));
+        }
+
+        for (int i = 0; i < indexes.size(); i++) {
+            DBKey index = indexes.get(i);
+            if (index.getKeyType() != DBKeyType.INDEX || advice.indexes.contains(index)) {
+                continue;
+            }
+            for (int j = 0; j < indexes.size(); j++) {
+                DBKey other = indexes.get(j);
+                if (j == i || advice.indexes.contains(other) || !isPrefix(index, other)) {
+                    continue;
+                }
+                boolean same = index.getColumns().size() == other.getColumns().size();
+                if (!same || j < i || other.getKeyType() != DBKeyType.INDEX) {
+                    advice.warnings.add("index " + describe(index) + (same ? " duplicates " : " is a prefix of ")
+                            + describe(other) + " and is redundant");
+                    break;
+                }
+            }
+        }
+        return advice;
+    }
+
+    // un index sert le chemin si ses premières parties entières sont les colonnes d'égalité puis celles d'ordre
+    private static boolean served(LookupPath path, List<DBKey> indexes) {
+        int length = path.equality.size() + path.order.size();
+        for (DBKey index : indexes) {
+            if (index.getColumns().size() < length) {
+                continue;
+            }
+            boolean serves = true;
+            for (int part = 0; part < length && serves; part++) {
+                if (index.isFunctional(part) || index.getPrefixLength(part) != null) {
+                    serves = false;
+                } else if (part < path.equality.size()) {
+                    serves = contains(path.equality, index.getColumns().get(part));
+                } else {
+                    serves = path.order.get(part - path.equality.size()).getName()
+                            .equalsIgnoreCase(index.getColumns().get(part));
+                }
+            }
+            if (serves) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean covers(DBKey index, LookupPath path, List<DBColumn> primaryColumns) {
+        for (DBColumn column : path.read) {
+            boolean found = false;
+            for (int part = 0; part < index.getColumns().size() && !found; part++) {
+                found = index.getPrefixLength(part) == null && column.getName().equalsIgnoreCase(index.getColumns().get(part));
+            }
+            if (!found && (primaryColumns == null || !primaryColumns.contains(column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPrefix(DBKey index, DBKey other) {
+        int length = index.getColumns().size();
+        if (length > other.getColumns().size()) {
+            return false;
+        }
+        for (int part = 0; part < length; part++) {
+            if (!index.getColumns().get(part).equalsIgnoreCase(other.getColumns().get(part))
+                    || !Objects.equals(index.getPrefixLength(part), other.getPrefixLength(part))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(List<DBColumn> columns, String name) {
+        for (DBColumn column : columns) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<DBColumn> resolve(DBTable table, DBKey key) {
+        List<DBColumn> columns = new ArrayList<>(key.getColumns().size());
+        for (String name : key.getColumns()) {
+            DBColumn column = table.getColumn(name);
+            if (column == null) {
+                return null;
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    // idx_<table>_<colonnes>, tronqué à 64 caractères et suffixé au besoin pour ne pas reprendre un nom existant
+    private static String indexName(DBTable table, List<String> columns, List<DBKey> indexes) {
+        StringBuilder name = new StringBuilder("idx_").append(table.getName());
+        for (String column : columns) {
+            name.append('_').append(column);
+        }
+        String base = name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name.toString();
+        String candidate = base;
+        for (int suffix = 2; taken(candidate, table, indexes); suffix++) {
+            String end = "_" + suffix;
+            candidate = base.substring(0, Math.min(base.length(), MAX_NAME_LENGTH - end.length())) + end;
+        }
+        return candidate;
+    }
+
+    private static boolean taken(String name, DBTable table, List<DBKey> indexes) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (DBKey key : table.getKeys()) {
+            if (key.getName() != null && key.getName().toLowerCase(Locale.ROOT).equals(lower)) {
+                return true;
+            }
+        }
+        for (DBKey key : indexes) {
+            if (key.getName() != null && key.getName().toLowerCase(Locale.ROOT).equals(lower)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(DBKey index) {
+        StringBuilder out = new StringBuilder();
+        if (index.getKeyType() == DBKeyType.PRIMARY_KEY) {
+            out.append("PRIMARY");
+        } else if (index.getName() != null) {
+            DBRoutineGenerator.appendIdentifier(out, index.getName());
+        } else {
+            out.append("unnamed index");
+        }
+        return appendParts(out.append(' '), index).toString();
+    }
+
+    private static StringBuilder appendParts(StringBuilder out, DBKey index) {
+        out.append('(');
+        for (int part = 0; part < index.getColumns().size(); part++) {
+            if (part > 0) {
+                out.append(", ");
+            }
+            if (index.isFunctional(part)) {
+                out.append(index.getColumns().get(part));
+            } else {
+                DBRoutineGenerator.appendIdentifier(out, index.getColumns().get(part));
+                if (index.getPrefixLength(part) != null) {
+                    out.append('(').append(index.getPrefixLength(part)).append(')');
+                }
+            }
+        }
+        return out.append(')');
+    }
+}
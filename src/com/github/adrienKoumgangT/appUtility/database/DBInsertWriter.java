@@ -0,0 +1,393 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <h1>Écriture de scripts d'insertion en masse</h1>
+ *
+ * <p>
+ * Écrit les lignes d'une table, au fil de l'eau, dans des fichiers SQL d'instructions
+ * {@code INSERT INTO ... VALUES (...), (...), ...} de plusieurs lignes chacune : une instruction
+ * contient autant de lignes que le permet {@code max_allowed_packet}, la taille maximale d'un paquet
+ * reçu par le serveur (l'instruction et l'octet de commande {@code COM_QUERY} qui la précède), et un
+ * fichier est fermé dès qu'il dépasse la taille demandée, pour que les fichiers d'un gros chargement
+ * puissent être rejoués séparément ou en parallèle. Chaque fichier désactive l'autocommit et les
+ * vérifications d'unicité et de clés étrangères, se termine par un {@code COMMIT}, puis rétablit les
+ * valeurs qu'avait la session.
+ * </p>
+ * <p>
+ * Chaque ligne est encodée en UTF-8 dans un tableau d'octets réutilisé d'une ligne à l'autre (agrandi
+ * au besoin), puis copiée dans un {@link ByteBuffer} direct de la taille d'une instruction, alloué une
+ * fois par écrivain et vidé sur un {@link FileChannel} à chaque fin d'instruction : connaitre la taille
+ * de la ligne avant de la copier permet de commencer une nouvelle instruction si elle ne tient plus
+ * dans la courante. L'écriture d'une ligne n'alloue ni chaine ni tampon, hors valeurs converties par
+ * {@code toString()}.
+ * </p>
+ * <p>
+ * Les valeurs d'une ligne sont celles des colonnes de {@link DBRoutineGenerator.RoutineContext#getWritable()},
+ * dans cet ordre, comme pour {@link DBMemoryTable#setBatch(List)} :
+ * <ul>
+ *     <li>{@code null} : {@code NULL};</li>
+ *     <li>{@link Number} et {@link Boolean} : un littéral numérique; les nombres non finis sont refusés;</li>
+ *     <li>{@code byte[]} : un littéral hexadécimal {@code X'...'};</li>
+ *     <li>une chaine pour une colonne spatiale : la géométrie en WKT, convertie par {@code ST_GeomFromText};</li>
+ *     <li>toute autre valeur : sa forme {@code toString()}, en chaine échappée (un {@link LocalDateTime}
+ *     avec une espace entre la date et l'heure).</li>
+ * </ul>
+ * Les valeurs ne sont pas vérifiées par rapport aux types des colonnes : le serveur le fait. Pour le
+ * chargement le plus rapide, depuis un fichier de données, voir {@link DBLoadGenerator}.
+ * </p>
+ */
+public class DBInsertWriter implements Closeable {
+
+    /** valeur par défaut de {@code max_allowed_packet} depuis MySQL 8.0 */
+    public static final int DEFAULT_MAX_ALLOWED_PACKET = 64 * 1024 * 1024;
+    /** plus petite valeur de {@code max_allowed_packet} acceptée par MySQL */
+    public static final int MIN_MAX_ALLOWED_PACKET = 1024;
+    public static final long DEFAULT_MAX_FILE_SIZE = 1024L * 1024 * 1024;
+    public static final String DATA_EXTENSION = ".data";
+
+    private static final byte[] PRELUDE = bytes("SET @saved_autocommit = @@autocommit, @saved_unique_checks = @@unique_checks,"
+            + " @saved_foreign_key_checks = @@foreign_key_checks;\n"
+            + "SET autocommit = 0, unique_checks = 0, foreign_key_checks = 0;\n");
+    private static final byte[] COMMIT = bytes("COMMIT;\n"
+            + "SET autocommit = @saved_autocommit, unique_checks = @saved_unique_checks,"
+            + " foreign_key_checks = @saved_foreign_key_checks;\n");
+    private static final byte[] SEPARATOR = bytes(",\n");
+    private static final byte[] END = bytes(";\n");
+    private static final byte[] NULL = bytes("NULL");
+    private static final byte[] HEX = bytes("0123456789ABCDEF");
+
+    private final DBTable table;
+    private final List<DBColumn> columns;
+    private final boolean[] spatial;
+    private final Path directory;
+    private final long maxFileSize;
+    private final int maxAllowedPacket;
+    private final byte[] header;
+    private final ByteBuffer buffer;
+    private final List<Path> files = new ArrayList<>();
+
+    /** ligne en cours d'encodage, agrandie au besoin */
+    private byte[] row = new byte[256];
+    private int length;
+
+    private FileChannel channel;
+    private long fileSize;
+    private int statementRows;
+    private long rowCount;
+
+    public DBInsertWriter(DBTable table, Path directory) {
+        this(table, directory, DEFAULT_MAX_ALLOWED_PACKET, DEFAULT_MAX_FILE_SIZE);
+    }
+
+    /**
+     * @param directory        dossier des fichiers, qui doit exister; les fichiers s'appellent
+     *                         {@code <table>.data.00001.sql}, {@code <table>.data.00002.sql}...
+     * @param maxAllowedPacket valeur de {@code max_allowed_packet} du serveur, en octets : aucune
+     *                         instruction ne la dépasse, octet de commande compris
+     * @param maxFileSize      taille au-delà de laquelle un fichier est fermé à la fin de l'instruction
+     *                         en cours; un fichier peut la dépasser d'au plus une instruction
+     * @throws IllegalArgumentException si {@code maxAllowedPacket} est trop petit pour l'en-tête d'une
+     *                                  instruction ou si la table n'a pas de colonne à écrire
+     */
+    public DBInsertWriter(DBTable table, Path directory, int maxAllowedPacket, long maxFileSize) {
+        if (maxAllowedPacket < MIN_MAX_ALLOWED_PACKET) {
+            throw new IllegalArgumentException("max_allowed_packet must be at least " + MIN_MAX_ALLOWED_PACKET);
+        }
+        this.table = table;
+        this.columns = new DBRoutineGenerator.RoutineContext(table).getWritable();
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException("table " + table.getName() + " has no writable column");
+        }
+        this.spatial = new boolean[columns.size()];
+        StringBuilder out = new StringBuilder(64 + columns.size() * 24).append("INSERT INTO ");
+        DBRoutineGenerator.appendIdentifier(out, table.getName()).append(" (");
+        for (int i = 0; i < columns.size(); i++) {
+            spatial[i] = DBLoadGenerator.isSpatial(columns.get(i).getDataType());
+            DBRoutineGenerator.appendIdentifier(out.append(i > 0 ? ", " : ""), columns.get(i).getName());
+        }
+        this.header = bytes(out.append(") VALUES\n").toString());
+        // le paquet porte l'octet de commande COM_QUERY, puis l'instruction
+        int maxStatement = maxAllowedPacket - 1;
+        if (header.length + END.length >= maxStatement) {
+            throw new IllegalArgumentException("max_allowed_packet is too small for an INSERT into " + table.getName());
+        }
+        this.directory = directory;
+        this.maxFileSize = maxFileSize;
+        this.maxAllowedPacket = maxAllowedPacket;
+        this.buffer = ByteBuffer.allocateDirect(maxStatement);
+    }
+
+    /**
+     * Ajoute une ligne à l'instruction en cours, ou commence une nouvelle instruction si elle
+     * ferait dépasser {@code max_allowed_packet}.
+     *
+     * @param values valeurs des colonnes, dans l'ordre de {@link DBRoutineGenerator.RoutineContext#getWritable()}
+     * @throws IllegalArgumentException si le nombre de valeurs n'est pas celui des colonnes, si une
+     *                                  valeur n'est pas représentable ou si la ligne seule dépasse
+     *                                  {@code max_allowed_packet}
+     */
+    public void add(Object... values) throws IOException {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Column count doesn't match value count at row " + (rowCount + 1));
+        }
+        length = 0;
+        put((byte) '(');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                put((byte) ',');
+            }
+            appendValue(values[i], spatial[i]);
+        }
+        put((byte) ')');
+
+        if (statementRows > 0 && buffer.position() + SEPARATOR.length + length + END.length > buffer.capacity()) {
+            endStatement();
+        }
+        if (statementRows == 0) {
+            if (header.length + length + END.length > buffer.capacity()) {
+                throw new IllegalArgumentException("row " + (rowCount + 1) + " of table " + table.getName()
+                        + " does not fit in max_allowed_packet (" + maxAllowedPacket + " bytes)");
+            }
+            if (channel == null) {
+                openFile();
+            }
+            buffer.put(header);
+        } else {
+            buffer.put(SEPARATOR);
+        }
+        buffer.put(row, 0, length);
+        statementRows++;
+        rowCount++;
+    }
+
+    /**
+     * @return le nombre de lignes ajoutées
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return les fichiers écrits jusqu'ici, dans l'ordre
+     */
+    public List<Path> getFiles() {
+        return List.copyOf(files);
+    }
+
+    /**
+     * Termine l'instruction et le fichier en cours. Sans aucune ligne ajoutée, aucun fichier n'est créé.
+     */
+    @Override
+    public void close() throws IOException {
+        if (statementRows > 0) {
+            endStatement();
+        }
+        if (channel != null) {
+            closeFile();
+        }
+    }
+
+    private void endStatement() throws IOException {
+        buffer.put(END);
+        drain();
+        statementRows = 0;
+        if (fileSize >= maxFileSize) {
+            closeFile();
+        }
+    }
+
+    private void openFile() throws IOException {
+        Path file = directory.resolve(String.format(Locale.ROOT, "%s%s.%05d%s", DBLoadGenerator.baseName(table), DATA_EXTENSION,
+                files.size() + 1, GenerateDBFiles.SQL_EXTENSION));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        files.add(file);
+        fileSize = 0;
+        buffer.put(PRELUDE);
+        drain();
+    }
+
+    private void closeFile() throws IOException {
+        buffer.put(COMMIT);
+        drain();
+        try {
+            channel.close();
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        fileSize += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ---- encodage d'une valeur dans la ligne en cours
+
+    private void appendValue(Object value, boolean spatial) {
+        if (value == null) {
+            put(NULL);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            appendLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            put((byte) ((Boolean) value ? '1' : '0'));
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                throw new IllegalArgumentException("value " + value + " at row " + (rowCount + 1) + " is not finite");
+            }
+            appendAscii(value.toString());
+        } else if (value instanceof BigDecimal) {
+            appendAscii(((BigDecimal) value).toPlainString());
+        } else if (value instanceof BigInteger) {
+            appendAscii(value.toString());
+        } else if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            ensure(bytes.length * 2 + 3);
+            row[length++] = 'X';
+            row[length++] = '\'';
+            for (byte b : bytes) {
+                row[length++] = HEX[(b >> 4) & 0xF];
+                row[length++] = HEX[b & 0xF];
+            }
+            row[length++] = '\'';
+        } else {
+            String text = value instanceof LocalDateTime ? value.toString().replace('T', ' ') : value.toString();
+            if (spatial) {
+                appendAscii("ST_GeomFromText(");
+                appendString(text);
+                put((byte) ')');
+            } else {
+                appendString(text);
+            }
+        }
+    }
+
+    private void appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            appendAscii(Long.toString(value));
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            row[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            row[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void appendAscii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            row[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    // chaine entre apostrophes, échappée comme mysql_real_escape_string, encodée en UTF-8
+    private void appendString(String text) {
+        ensure(text.length() * 3 + 2);
+        row[length++] = '\'';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                byte escape = escape(c);
+                if (escape != 0) {
+                    row[length++] = '\\';
+                    row[length++] = escape;
+                } else {
+                    row[length++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                row[length++] = (byte) (0xC0 | (c >> 6));
+                row[length++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (!Character.isHighSurrogate(c) || i + 1 == text.length() || !Character.isLowSurrogate(text.charAt(i + 1))) {
+                    throw new IllegalArgumentException("Incorrect string value at row " + (rowCount + 1)
+                            + ": unpaired surrogate at index " + i);
+                }
+                int code = Character.toCodePoint(c, text.charAt(++i));
+                row[length++] = (byte) (0xF0 | (code >> 18));
+                row[length++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+                row[length++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+                row[length++] = (byte) (0x80 | (code & 0x3F));
+            } else {
+                row[length++] = (byte) (0xE0 | (c >> 12));
+                row[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                row[length++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        row[length++] = '\'';
+    }
+
+    private static byte escape(char c) {
+        switch (c) {
+            case 0:
+                return '0';
+            case '\n':
+                return 'n';
+            case '\r':
+                return 'r';
+            case '\\':
+                return '\\';
+            case '\'':
+                return '\'';
+            case 0x1A:
+                return 'Z';
+            default:
+                return 0;
+        }
+    }
+
+    private void put(byte b) {
+        ensure(1);
+        row[length++] = b;
+    }
+
+    private void put(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, row, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensure(int more) {
+        if (length + more > row.length) {
+            long size = Math.max((long) row.length * 2, (long) length + more);
+            if (size > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("row " + (rowCount + 1) + " of table " + table.getName()
+                        + " is too large");
+            }
+            row = Arrays.copyOf(row, (int) size);
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Clé ou index d'une table : clé primaire, clé unique, clé étrangère ou simple index.
+ * Les colonnes sont données dans l'ordre de la clé. Une partie fonctionnelle ({@code (expr)})
+ * est conservée telle qu'écrite, parenthèses comprises, à la place d'un nom de colonne. Une partie
+ * indexant seulement le début d'une colonne ({@code nom(10)}) a sa longueur dans
+ * {@link #getPrefixLengths()}.
+ * </p>
+ * <p>
+ * Pour une clé étrangère, {@link #getReferencedTable()} et {@link #getReferencedColumns()}
+ * désignent la clé référencée; ils sont {@code null} pour les autres types.
+ * </p>
+ */
+public class DBKey {
+
+    private DBKeyType keyType;
+    private String name;
+    private List<String> columns;
+    private List<Integer> prefixLengths;
+
+    private String referencedTable;
+    private List<String> referencedColumns;
+    private String onDelete;
+    private String onUpdate;
+
+    public DBKey(DBKeyType keyType, String name, List<String> columns) {
+        this(keyType, name, columns, null, null, null, null);
+    }
+
+    /**
+     * @param prefixLengths longueur indexée de chaque partie, {@code null} pour une partie entière;
+     *                      la liste elle-même peut être {@code null} si aucune partie n'est partielle
+     */
+    public DBKey(DBKeyType keyType, String name, List<String> columns, List<Integer> prefixLengths) {
+        this(keyType, name, columns, null, null, null, null);
+        this.prefixLengths = prefixLengths;
+    }
+
+    public DBKey(
+            DBKeyType keyType,
+            String name,
+            List<String> columns,
+            String referencedTable,
+            List<String> referencedColumns,
+            String onDelete,
+            String onUpdate
+    ) {
+        this.keyType            = keyType;
+        this.name               = name;
+        this.columns            = columns;
+        this.referencedTable    = referencedTable;
+        this.referencedColumns  = referencedColumns;
+        this.onDelete           = onDelete;
+        this.onUpdate           = onUpdate;
+    }
+
+    public DBKeyType getKeyType() {
+        return keyType;
+    }
+
+    public void setKeyType(DBKeyType keyType) {
+        this.keyType = keyType;
+    }
+
+    /**
+     * @return le nom de la clé, {@code null} s'il n'est pas donné dans le DDL
+     */
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public List<Integer> getPrefixLengths() {
+        return prefixLengths;
+    }
+
+    public void setPrefixLengths(List<Integer> prefixLengths) {
+        this.prefixLengths = prefixLengths;
+    }
+
+    /**
+     * @return la longueur indexée de la partie donnée, {@code null} si la partie est entière
+     */
+    public Integer getPrefixLength(int part) {
+        return prefixLengths == null ? null : prefixLengths.get(part);
+    }
+
+    /**
+     * @return {@code true} si la partie donnée est une expression et non une colonne
+     */
+    public boolean isFunctional(int part) {
+        return columns.get(part).startsWith("(");
+    }
+
+    public String getReferencedTable() {
+        return referencedTable;
+    }
+
+    public void setReferencedTable(String referencedTable) {
+        this.referencedTable = referencedTable;
+    }
+
+    public List<String> getReferencedColumns() {
+        return referencedColumns;
+    }
+
+    public void setReferencedColumns(List<String> referencedColumns) {
+        this.referencedColumns = referencedColumns;
+    }
+
+    /**
+     * @return l'action {@code ON DELETE} d'une clé étrangère (par exemple {@code CASCADE}), ou {@code null}
+     */
+    public String getOnDelete() {
+        return onDelete;
+    }
+
+    public void setOnDelete(String onDelete) {
+        this.onDelete = onDelete;
+    }
+
+    public String getOnUpdate() {
+        return onUpdate;
+    }
+
+    public void setOnUpdate(String onUpdate) {
+        this.onUpdate = onUpdate;
+    }
+}
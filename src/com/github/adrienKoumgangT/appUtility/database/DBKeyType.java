@@ -7,7 +7,10 @@ public enum DBKeyType {
     ALTERNATE_KEY ("ALTERNATE_KEY"),
     FOREIGN_KEY ("FOREIGN KEY"),
     COMPOSITE_KEY ("COMPOSITE KEY"),
-    UNIQUE_KEY ("UNIQUE KEY")
+    UNIQUE_KEY ("UNIQUE KEY"),
+    INDEX ("INDEX"),
+    FULLTEXT_INDEX ("FULLTEXT INDEX"),
+    SPATIAL_INDEX ("SPATIAL INDEX")
     ;
 
     private final String key;
@@ -19,4 +22,19 @@ public enum DBKeyType {
     public String getKey() {
         return this.key;
     }
+
+    /**
+     * @return {@code true} pour une clé stockée dans un index de la table (clé étrangère exclue)
+     */
+    public boolean isIndex() {
+        return isBTree() || this == FULLTEXT_INDEX || this == SPATIAL_INDEX;
+    }
+
+    /**
+     * @return {@code true} pour une clé stockée dans un index B-tree, utilisable pour une recherche
+     * par égalité ou un parcours ordonné sur ses premières colonnes
+     */
+    public boolean isBTree() {
+        return this == PRIMARY_KEY || this == UNIQUE_KEY || this == INDEX;
+    }
 }
@@ -0,0 +1,202 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <h1>Script de chargement en masse</h1>
+ *
+ * <p>
+ * Génère, pour une table, le script {@code <table>.load.sql} qui la remplit par un seul
+ * {@code LOAD DATA INFILE} depuis le fichier {@code <table>.tsv}, plusieurs fois plus rapide qu'une
+ * insertion ligne à ligne : les lignes sont lues par le serveur sans aller-retour avec le client ni
+ * analyse d'une instruction par ligne. Les vérifications d'unicité des index secondaires et des clés
+ * étrangères sont suspendues le temps du chargement, puis rétablies à leur valeur précédente.
+ * </p>
+ * <p>
+ * Le fichier de données a le format par défaut de {@code SELECT ... INTO OUTFILE} : texte UTF-8, une
+ * ligne par ligne de la table terminée par {@code \n}, champs séparés par une tabulation, {@code \N}
+ * pour {@code NULL}, tabulations, fins de ligne et barres obliques inverses des valeurs échappées par
+ * {@code \}. Il contient les colonnes de
+ * {@link DBRoutineGenerator.RoutineContext#getWritable()} : toutes sauf les colonnes générées, que
+ * MySQL calcule. Quelques types ne se lisent pas tels quels depuis du texte et passent par une
+ * variable convertie par la clause {@code SET} :
+ * <ul>
+ *     <li>{@code BIT} : la valeur en chiffres binaires, par exemple {@code 0101};</li>
+ *     <li>{@code BINARY}, {@code VARBINARY} et {@code BLOB} : les octets en hexadécimal, que le jeu de
+ *     caractères du fichier ne peut pas altérer;</li>
+ *     <li>types spatiaux : la géométrie en WKT, par exemple {@code POINT(1 2)}.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Des lignes triées selon la clé primaire se chargent plus vite : InnoDB remplit alors les pages de
+ * l'index en cluster les unes après les autres, au lieu de les découper (voir {@link DBStorageEstimator}).
+ * Pour les chargements passant par des instructions {@code INSERT}, voir {@link DBInsertWriter}.
+ * </p>
+ */
+public class DBLoadGenerator {
+
+    public static final String LOAD_EXTENSION = ".load.sql";
+    public static final String DATA_EXTENSION = ".tsv";
+    public static final String FILE_CHARSET = "utf8mb4";
+
+    private static final String INDENT = "  ";
+
+    private final String dataDirectory;
+    private volatile String fingerprint;
+
+    public DBLoadGenerator() {
+        this("");
+    }
+
+    /**
+     * @param dataDirectory dossier des fichiers de données, préfixé tel quel à leur nom (avec son
+     *                      séparateur final); vide pour un nom relatif, résolu par le serveur dans le
+     *                      dossier de la base de données courante
+     */
+    public DBLoadGenerator(String dataDirectory) {
+        this.dataDirectory = dataDirectory;
+    }
+
+    /**
+     * Ajoute le script de chargement de la table.
+     */
+    public void generate(DBTable table, StringBuilder out) {
+        List<DBColumn> columns = new DBRoutineGenerator.RoutineContext(table).getWritable();
+        out.append("-- Bulk load of ");
+        DBRoutineGenerator.appendIdentifier(out, table.getName()).append(" from ").append(dataFileName(table))
+                .append(": UTF-8, tab-separated, one row per line, \\N for NULL.\n");
+        if (columns.isEmpty()) {
+            out.append("-- The table has no column to load.\n");
+            return;
+        }
+        out.append("-- Columns: ");
+        for (int i = 0; i < columns.size(); i++) {
+            out.append(i > 0 ? ", " : "").append(columns.get(i).getName());
+            String format = format(columns.get(i).getDataType());
+            if (format != null) {
+                out.append(" (").append(format).append(')');
+            }
+        }
+        out.append(".\n");
+        out.append("-- Rows sorted by primary key load fastest.\n\n");
+
+        out.append("SET @saved_unique_checks = @@unique_checks, @saved_foreign_key_checks = @@foreign_key_checks;\n");
+        out.append("SET unique_checks = 0, foreign_key_checks = 0;\n\n");
+        out.append("LOAD DATA INFILE ");
+        DBRoutineGenerator.appendString(out, dataDirectory + dataFileName(table)).append('\n');
+        out.append(INDENT).append("INTO TABLE ");
+        DBRoutineGenerator.appendIdentifier(out, table.getName()).append('\n');
+        out.append(INDENT).append("CHARACTER SET ").append(FILE_CHARSET).append('\n');
+        out.append(INDENT).append("FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'\n");
+        out.append(INDENT).append("LINES TERMINATED BY '\\n'\n");
+        out.append(INDENT).append('(');
+        List<DBColumn> converted = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            DBColumn column = columns.get(i);
+            out.append(i > 0 ? ", " : "");
+            if (conversion(column.getDataType()) != null) {
+                out.append('@');
+                converted.add(column);
+            }
+            DBRoutineGenerator.appendIdentifier(out, column.getName());
+        }
+        out.append(')');
+        for (int i = 0; i < converted.size(); i++) {
+            DBColumn column = converted.get(i);
+            out.append(i == 0 ? "\n" + INDENT + "SET " : ",\n" + INDENT + "    ");
+            DBRoutineGenerator.appendIdentifier(out, column.getName()).append(" = ");
+            String[] parts = conversion(column.getDataType()).split("\\?", -1);
+            out.append(parts[0]).append('@');
+            DBRoutineGenerator.appendIdentifier(out, column.getName()).append(parts[1]);
+        }
+        out.append(";\n\n");
+        out.append("SET unique_checks = @saved_unique_checks, foreign_key_checks = @saved_foreign_key_checks;\n");
+    }
+
+    /**
+     * L'empreinte couvre le code qui écrit les scripts (les classes du générateur et
+     * {@link DBRoutineGenerator}, dont il reprend les colonnes écrites et la mise entre guillemets) et
+     * le dossier des fichiers de données, recopié dans chaque script.
+     *
+     * @return l'empreinte du générateur, calculée au premier appel
+     */
+    public String fingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            fingerprint = result = DBManifest.digest(
+                    DBManifest.codeDigest(getClass(), DBRoutineGenerator.class) + '\n' + dataDirectory);
+        }
+        return result;
+    }
+
+    /**
+     * @return le nom du script de chargement de la table, voir {@link GenerateDBFiles#fileName(DBTable)}
+     */
+    public static String loadFileName(DBTable table) {
+        return baseName(table) + LOAD_EXTENSION;
+    }
+
+    /**
+     * @return le nom du fichier de données lu par le script de chargement de la table
+     */
+    public static String dataFileName(DBTable table) {
+        return baseName(table) + DATA_EXTENSION;
+    }
+
+    static String baseName(DBTable table) {
+        String name = GenerateDBFiles.fileName(table);
+        return name.substring(0, name.length() - GenerateDBFiles.SQL_EXTENSION.length());
+    }
+
+    static boolean isSpatial(DBDataType type) {
+        switch (type) {
+            case GEOMERTY:
+            case POINT:
+            case LINESTRING:
+            case POLYGON:
+            case MULTIPOINT:
+            case MULTILINESTRING:
+            case MULTIPOLYGON:
+            case GEOMETRYCOLLECTION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    static boolean isBinary(DBDataType type) {
+        switch (type) {
+            case BINARY:
+            case VARBINARY:
+            case TINYBLOB:
+            case BLOB:
+            case MEDIUMBLOB:
+            case LONGBLOB:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // expression de la clause SET, '?' marquant la variable lue; null si la colonne est lue directement
+    private static String conversion(DBDataType type) {
+        if (type == DBDataType.BIT) {
+            return "CAST(CONV(?, 2, 10) AS UNSIGNED)";
+        }
+        if (isBinary(type)) {
+            return "UNHEX(?)";
+        }
+        return isSpatial(type) ? "ST_GeomFromText(?)" : null;
+    }
+
+    private static String format(DBDataType type) {
+        if (type == DBDataType.BIT) {
+            return "binary digits";
+        }
+        if (isBinary(type)) {
+            return "hexadecimal";
+        }
+        return isSpatial(type) ? "WKT" : null;
+    }
+}
@@ -0,0 +1,273 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * Manifeste d'un dossier généré par {@link GenerateDBFiles} : l'empreinte du générateur et, pour
+ * chaque fichier, l'empreinte du modèle {@link DBTable} dont il est issu. Un fichier dont les deux
+ * empreintes n'ont pas changé n'a pas besoin d'être régénéré.
+ * </p>
+ * <p>
+ * L'empreinte d'une table est un SHA-256 de sa forme normalisée : tous les champs du modèle, dans un
+ * ordre fixe et préfixés par leur longueur. Deux DDL qui ne diffèrent que par les commentaires SQL ou
+ * par la mise en forme hors des expressions conservées telles qu'écrites ont donc la même empreinte.
+ * </p>
+ * <p>
+ * Format du fichier : une ligne {@code generator <empreinte>}, puis une ligne
+ * {@code <empreinte> <nom du fichier>} par fichier, triées par nom. Un manifeste illisible est traité
+ * comme absent, ce qui force une régénération complète.
+ * </p>
+ */
+final class DBManifest {
+
+    static final String FILE_NAME = ".dbfiles.manifest";
+
+    private static final String GENERATOR = "generator ";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String generator;
+    private final Map<String, String> hashes = new TreeMap<>();
+
+    DBManifest(String generator) {
+        this.generator = generator;
+    }
+
+    String generator() {
+        return generator;
+    }
+
+    /**
+     * @return l'empreinte enregistrée pour le fichier, {@code null} s'il n'est pas dans le manifeste
+     */
+    String hash(String fileName) {
+        return hashes.get(fileName);
+    }
+
+    void put(String fileName, String hash) {
+        hashes.put(fileName, hash);
+    }
+
+    Iterable<String> fileNames() {
+        return hashes.keySet();
+    }
+
+    /**
+     * @return le manifeste du dossier, vide (sans empreinte de générateur) s'il n'existe pas ou est illisible
+     */
+    static DBManifest read(Path directory) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(directory.resolve(FILE_NAME), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return new DBManifest(null);
+        }
+        if (lines.isEmpty() || !lines.get(0).startsWith(GENERATOR)) {
+            return new DBManifest(null);
+        }
+        DBManifest manifest = new DBManifest(lines.get(0).substring(GENERATOR.length()));
+        for (String line : lines.subList(1, lines.size())) {
+            int space = line.indexOf(' ');
+            if (space <= 0) {
+                return new DBManifest(null);
+            }
+            manifest.put(line.substring(space + 1), line.substring(0, space));
+        }
+        return manifest;
+    }
+
+    /**
+     * Écrit le manifeste dans le dossier en remplaçant l'ancien d'un seul coup, de sorte qu'une
+     * génération interrompue ne laisse jamais un manifeste partiel.
+     */
+    void write(Path directory) throws IOException {
+        StringBuilder out = new StringBuilder(64 + hashes.size() * 96);
+        out.append(GENERATOR).append(generator).append('\n');
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            out.append(entry.getValue()).append(' ').append(entry.getKey()).append('\n');
+        }
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        Files.write(temporary, out.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DBManifest)) {
+            return false;
+        }
+        DBManifest other = (DBManifest) o;
+        return Objects.equals(generator, other.generator) && hashes.equals(other.hashes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(generator, hashes);
+    }
+
+    /**
+     * @return l'empreinte de la forme normalisée de la table
+     */
+    static String hash(DBTable table) {
+        StringBuilder out = new StringBuilder(256 + table.getColumns().size() * 64);
+        field(out, table.getName());
+        field(out, table.getComment());
+        field(out, table.getEngine());
+        field(out, table.getCollation());
+        field(out, table.getCharset());
+        field(out, table.getPartitionMethod());
+        field(out, table.getPartitionExpression());
+        field(out, table.getPartitionCount());
+        field(out, table.getSubPartitionMethod());
+        field(out, table.getSubPartitionExpression());
+        field(out, table.getSubPartitionCount());
+        out.append(table.getPartitions().size()).append('[');
+        for (DBPartition partition : table.getPartitions()) {
+            partition(out, partition);
+            out.append(partition.getSubPartitions().size()).append('[');
+            for (DBPartition subPartition : partition.getSubPartitions()) {
+                partition(out, subPartition);
+            }
+        }
+        out.append(table.getColumns().size()).append('[');
+        for (DBColumn column : table.getColumns()) {
+            field(out, column.getName());
+            field(out, column.getComment());
+            field(out, column.getDataType());
+            field(out, column.getNotNull());
+            field(out, column.getAutoIncrement());
+            field(out, column.getColumnKind());
+            field(out, column.getDefaultExpression());
+            field(out, column.getHidden());
+            field(out, column.getOnUpdate());
+            field(out, column.getCollation());
+            field(out, column.getLength());
+            field(out, column.getScale());
+            field(out, column.getUnsigned());
+            field(out, column.getCharset());
+            list(out, column.getValues());
+            field(out, column.getGenerationExpression());
+        }
+        out.append(table.getKeys().size()).append('[');
+        for (DBKey key : table.getKeys()) {
+            field(out, key.getKeyType());
+            field(out, key.getName());
+            list(out, key.getColumns());
+            if (key.getPrefixLengths() == null) {
+                out.append('-');
+            } else {
+                out.append(key.getPrefixLengths().size()).append('[');
+                for (Integer length : key.getPrefixLengths()) {
+                    field(out, length);
+                }
+            }
+            field(out, key.getReferencedTable());
+            list(out, key.getReferencedColumns());
+            field(out, key.getOnDelete());
+            field(out, key.getOnUpdate());
+        }
+        return digest(out);
+    }
+
+    /**
+     * @return l'empreinte SHA-256 du texte encodé en UTF-8, en hexadécimal
+     */
+    static String digest(CharSequence text) {
+        return hex(sha256().digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Empreinte du code d'un générateur : les fichiers {@code .class} de chaque classe donnée, de ses
+     * classes imbriquées (lambdas comprises, compilées dans leur classe) et de ses superclasses hors
+     * du JDK. Toute modification du code qui produit le texte la change, quelle que soit la table.
+     *
+     * @return l'empreinte SHA-256 des fichiers de classe, en hexadécimal
+     * @throws IllegalStateException si le fichier d'une classe n'est pas lisible par son chargeur
+     */
+    static String codeDigest(Class<?>... classes) {
+        Set<Class<?>> seen = new LinkedHashSet<>();
+        for (Class<?> type : classes) {
+            for (Class<?> c = type; c != null && !c.getName().startsWith("java."); c = c.getSuperclass()) {
+                seen.addAll(Arrays.asList(c.getNestHost().getNestMembers()));
+            }
+        }
+        MessageDigest sha = sha256();
+        for (Class<?> c : seen) {
+            String resource = c.getName().substring(c.getName().lastIndexOf('.') + 1) + ".class";
+            try (InputStream in = c.getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IllegalStateException("class file of " + c.getName() + " is not available");
+                }
+                sha.update(c.getName().getBytes(StandardCharsets.UTF_8));
+                sha.update(in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return hex(sha.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String hex(byte[] hash) {
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    // longueur puis valeur, pour qu'aucune suite de champs ne puisse en imiter une autre; '-' pour null
+    private static void field(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append('-');
+            return;
+        }
+        String text = value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+        out.append(text.length()).append(':').append(text);
+    }
+
+    private static void partition(StringBuilder out, DBPartition partition) {
+        field(out, partition.getName());
+        field(out, partition.getValues());
+        field(out, partition.getOptions());
+    }
+
+    private static void list(StringBuilder out, List<String> values) {
+        if (values == null) {
+            out.append('-');
+            return;
+        }
+        out.append(values.size()).append('[');
+        for (String value : values) {
+            field(out, value);
+        }
+    }
+}
@@ -0,0 +1,620 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>Table en mémoire</h1>
+ *
+ * <p>
+ * Exécute, sans serveur MySQL, les procédures que {@link DBRoutineGenerator} produit pour une table :
+ * GET, LIST, LIST_PAGE, SET, SET par lot et DEL, avec les mêmes paramètres dans le même ordre
+ * (ceux de {@link DBRoutineGenerator.RoutineContext}) et le même résultat. Une procédure que le
+ * générateur ne produit pas pour la table (GET sans identifiant, pagination sans clé primaire...)
+ * lève une {@link IllegalStateException}.
+ * </p>
+ * <p>
+ * Le stockage est en colonnes ({@link DBColumnVector}) : un tableau typé par colonne ({@code long[]}
+ * pour les entiers, {@code double[]} pour les flottants, chaines encodées par dictionnaire pour
+ * {@code CHAR}, {@code VARCHAR}, {@code ENUM} et {@code SET}) et un bitmap des valeurs nulles. Une
+ * table de hachage à adressage ouvert associe l'identifiant (clé primaire, ou première clé unique)
+ * à la ligne; une ligne supprimée est remplacée par la dernière, et LIST rend les lignes dans l'ordre
+ * de la clé primaire, comme l'index cluster d'InnoDB, ou à défaut dans l'ordre d'insertion.
+ * </p>
+ *
+ * <h3>Fidélité à MySQL :</h3>
+ * <ul>
+ *     <li>
+ *         les valeurs sont contrôlées comme en mode strict ({@code NOT NULL}, bornes des entiers,
+ *         longueur des chaines, membres d'un {@code ENUM}), et une erreur lève une
+ *         {@link IllegalArgumentException} au message de MySQL, sans rien modifier;
+ *     </li>
+ *     <li>
+ *         SET et le SET par lot rendent le nombre de lignes affectées de MySQL : 1 par insertion, 2 par
+ *         mise à jour qui change la ligne, 0 sinon;
+ *     </li>
+ *     <li>
+ *         un identifiant auto-incrémenté nul ou égal à 0 reçoit la valeur suivante, lue ensuite par
+ *         {@link #getLastInsertId()};
+ *     </li>
+ *     <li>
+ *         seul l'identifiant est contrôlé comme clé unique, et les colonnes générées valent
+ *         {@code NULL}, leurs expressions n'étant pas évaluées.
+ *     </li>
+ * </ul>
+ * <p>
+ * Une instance n'est pas partagée entre threads; {@link #truncate()} la vide pour le test suivant.
+ * </p>
+ */
+public class DBMemoryTable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final DBTable table;
+    private final DBRoutineGenerator.RoutineContext routines;
+    private final DBColumnVector[] vectors;
+    /** positions des colonnes de l'identifiant, puis des autres colonnes de la recherche de GET et DEL */
+    private final int[] identifier;
+    private final int[] lookup;
+    private final int[] values;
+    private final int[] writable;
+    private final int[] primaryKey;
+    private final int autoIncrement;
+    private final long firstAutoIncrement;
+
+    private int size;
+    private long[] sequence;
+    private long nextSequence;
+    private long nextAutoIncrement;
+    private long lastInsertId;
+    /** ligne + 1 par case, 0 pour une case vide */
+    private int[] slots;
+    private int indexed;
+
+    public DBMemoryTable(DBTable table) {
+        this.table = table;
+        this.routines = new DBRoutineGenerator.RoutineContext(table);
+        List<DBColumn> columns = table.getColumns();
+        this.vectors = new DBColumnVector[columns.size()];
+        int autoIncrementPosition = -1;
+        long start = 1;
+        for (int i = 0; i < vectors.length; i++) {
+            DBColumn column = columns.get(i);
+            vectors[i] = DBColumnVector.of(table, column, INITIAL_CAPACITY);
+            if (column.getAutoIncrement() != null && autoIncrementPosition < 0) {
+                autoIncrementPosition = i;
+                start = Math.max(1, column.getAutoIncrement());
+            }
+        }
+        this.identifier = positions(routines.getIdentifier());
+        this.lookup = positions(routines.getLookup());
+        this.values = positions(routines.getValues());
+        this.writable = positions(routines.getWritable());
+        this.primaryKey = positions(routines.getPrimaryKey());
+        this.autoIncrement = autoIncrementPosition;
+        this.firstAutoIncrement = start;
+        truncate();
+    }
+
+    private int[] positions(List<DBColumn> columns) {
+        int[] positions = new int[columns.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = table.getColumns().indexOf(columns.get(i));
+        }
+        return positions;
+    }
+
+    public DBTable getTable() {
+        return table;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return la position de la colonne dans les lignes rendues, -1 si la table n'a pas cette colonne
+     */
+    public int getColumnIndex(String name) {
+        DBColumn column = table.getColumn(name);
+        return column == null ? -1 : table.getColumns().indexOf(column);
+    }
+
+    /**
+     * @return la valeur donnée à la colonne auto-incrémentée par la dernière insertion, comme
+     * {@code LAST_INSERT_ID()}; 0 s'il n'y en a pas eu
+     */
+    public long getLastInsertId() {
+        return lastInsertId;
+    }
+
+    /**
+     * Supprime toutes les lignes et remet le compteur auto-incrémenté à sa valeur initiale, comme
+     * {@code TRUNCATE TABLE}.
+     */
+    public void truncate() {
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = DBColumnVector.of(table, table.getColumns().get(i), INITIAL_CAPACITY);
+        }
+        this.size = 0;
+        this.sequence = new long[INITIAL_CAPACITY];
+        this.nextSequence = 0;
+        this.nextAutoIncrement = firstAutoIncrement;
+        this.lastInsertId = 0;
+        this.slots = new int[INITIAL_CAPACITY * 2];
+        this.indexed = 0;
+    }
+
+    /**
+     * GET : la ligne de l'identifiant (et des colonnes de partitionnement), {@code null} si elle n'existe pas.
+     *
+     * @param arguments paramètres de la procédure, dans l'ordre de {@link DBRoutineGenerator.RoutineContext#getLookup()}
+     */
+    public Object[] get(Object... arguments) {
+        int row = lookup(DBRoutineGenerator.GET_PREFIX, arguments);
+        return row < 0 ? null : row(row);
+    }
+
+    /**
+     * LIST : toutes les lignes.
+     */
+    public List<Object[]> list() {
+        int[] rows = ordered();
+        List<Object[]> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(row(row));
+        }
+        return result;
+    }
+
+    /**
+     * LIST_PAGE : au plus {@code limit} lignes dont la clé primaire suit {@code after}, dans l'ordre de la
+     * clé primaire; la première page si {@code after} ou sa première valeur est nul.
+     *
+     * @param after valeurs de la clé primaire de la dernière ligne de la page précédente
+     */
+    public List<Object[]> listPage(Object[] after, long limit) {
+        if (primaryKey.length == 0) {
+            throw missing(DBRoutineGenerator.LIST_PAGE_PREFIX);
+        }
+        if (after != null && after.length != primaryKey.length) {
+            throw arguments(DBRoutineGenerator.LIST_PAGE_PREFIX, primaryKey.length + 1, after.length + 1);
+        }
+        if (limit < 0 || limit > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("Out of range value for column 'p_limit'");
+        }
+        Object[] bound = null;
+        if (after != null && after[0] != null) {
+            bound = new Object[primaryKey.length];
+            for (int i = 0; i < bound.length; i++) {
+                if (after[i] == null) {
+                    // une comparaison de lignes avec NULL n'est jamais vraie
+                    return new ArrayList<>();
+                }
+                bound[i] = vectors[primaryKey[i]].convert(after[i]);
+            }
+        }
+        List<Object[]> result = new ArrayList<>();
+        for (int row : ordered()) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (bound == null || compare(row, primaryKey, bound) > 0) {
+                result.add(row(row));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * SET : insère la ligne ou met à jour celle de l'identifiant. Avec un identifiant auto-incrémenté, un
+     * identifiant nul insère une ligne (sa valeur est alors {@link #getLastInsertId()}) et un identifiant
+     * non nul met à jour la ligne, s'il y en a une.
+     *
+     * @param arguments l'identifiant puis les valeurs, dans l'ordre de
+     *                  {@link DBRoutineGenerator.RoutineContext#getIdentifier()} et
+     *                  {@link DBRoutineGenerator.RoutineContext#getValues()}
+     * @return le nombre de lignes affectées
+     */
+    public int set(Object... arguments) {
+        if (identifier.length == 0) {
+            throw missing(DBRoutineGenerator.SET_PREFIX);
+        }
+        int expected = identifier.length + values.length;
+        if (arguments.length != expected) {
+            throw arguments(DBRoutineGenerator.SET_PREFIX, expected, arguments.length);
+        }
+        Object[] row = new Object[vectors.length];
+        for (int i = 0; i < identifier.length; i++) {
+            row[identifier[i]] = arguments[i];
+        }
+        for (int i = 0; i < values.length; i++) {
+            row[values[i]] = arguments[identifier.length + i];
+        }
+        if (routines.isGeneratedId() && arguments[0] != null) {
+            // UPDATE ... WHERE identifiant = p_id, sans insertion
+            Object[] key = coerceKey(row);
+            int found = find(key, hash(key));
+            if (found < 0 || values.length == 0) {
+                return 0;
+            }
+            coerce(row, values);
+            return update(found, row, null) ? 1 : 0;
+        }
+        int[] columns = routines.isGeneratedId() ? values : concat(identifier, values);
+        coerce(row, columns);
+        return write(List.<Object[]>of(row));
+    }
+
+    /**
+     * SET par lot : insère ou met à jour chaque ligne, en une seule instruction qui n'écrit rien si l'une
+     * des lignes est refusée.
+     *
+     * @param rows valeurs de chaque ligne, dans l'ordre de {@link DBRoutineGenerator.RoutineContext#getWritable()}
+     * @return le nombre de lignes affectées
+     */
+    public int setBatch(List<Object[]> rows) {
+        if (identifier.length == 0) {
+            throw missing(DBRoutineGenerator.SET_BATCH_PREFIX);
+        }
+        List<Object[]> coerced = new ArrayList<>(rows.size());
+        for (Object[] values : rows) {
+            if (values.length != writable.length) {
+                throw new IllegalArgumentException("expected " + writable.length + " values per row, got " + values.length);
+            }
+            Object[] row = new Object[vectors.length];
+            for (int i = 0; i < writable.length; i++) {
+                row[writable[i]] = values[i];
+            }
+            coerce(row, writable);
+            coerced.add(row);
+        }
+        return write(coerced);
+    }
+
+    /**
+     * DEL : supprime la ligne de l'identifiant (et des colonnes de partitionnement).
+     *
+     * @param arguments paramètres de la procédure, dans l'ordre de {@link DBRoutineGenerator.RoutineContext#getLookup()}
+     * @return le nombre de lignes supprimées, 0 ou 1
+     */
+    public int delete(Object... arguments) {
+        int row = lookup(DBRoutineGenerator.DEL_PREFIX, arguments);
+        if (row < 0) {
+            return 0;
+        }
+        remove(row);
+        return 1;
+    }
+
+    /**
+     * @return la colonne à la position donnée, pour les opérateurs de {@link DBScan}
+     */
+    DBColumnVector vector(int column) {
+        return vectors[column];
+    }
+
+    private int lookup(String prefix, Object[] arguments) {
+        if (identifier.length == 0) {
+            throw missing(prefix);
+        }
+        if (arguments.length != lookup.length) {
+            throw arguments(prefix, lookup.length, arguments.length);
+        }
+        Object[] coerced = new Object[lookup.length];
+        for (int i = 0; i < coerced.length; i++) {
+            if (arguments[i] == null) {
+                // colonne = NULL n'est jamais vrai
+                return -1;
+            }
+            coerced[i] = vectors[lookup[i]].convert(arguments[i]);
+        }
+        Object[] key = Arrays.copyOf(coerced, identifier.length);
+        int row = find(key, hash(key));
+        for (int i = identifier.length; i < lookup.length && row >= 0; i++) {
+            DBColumnVector vector = vectors[lookup[i]];
+            if (vector.isNull(row) || vector.compare(row, coerced[i]) != 0) {
+                row = -1;
+            }
+        }
+        return row;
+    }
+
+    // INSERT ... ON DUPLICATE KEY UPDATE des valeurs, ou INSERT seul si la table n'a que l'identifiant
+    private int write(List<Object[]> rows) {
+        int affected = 0;
+        int firstRow = size;
+        long savedAutoIncrement = nextAutoIncrement;
+        long firstGenerated = 0;
+        // anciennes valeurs {ligne, colonne, valeur} des mises à jour, pour annuler toute l'instruction
+        List<Object[]> undo = new ArrayList<>();
+        try {
+            for (Object[] row : rows) {
+                if (autoIncrement >= 0 && row[autoIncrement] == null) {
+                    row[autoIncrement] = vectors[autoIncrement].coerce(nextAutoIncrement);
+                    if (firstGenerated == 0) {
+                        firstGenerated = nextAutoIncrement;
+                    }
+                }
+                Object[] key = key(row);
+                int hash = hash(key);
+                int found = hasNull(key) ? -1 : find(key, hash);
+                if (found >= 0) {
+                    if (values.length == 0) {
+                        throw new IllegalArgumentException("Duplicate entry '" + describe(key) + "' for key '"
+                                + (table.getPrimaryKey() != null ? "PRIMARY" : identifierKeyName()) + "'");
+                    }
+                    affected += update(found, row, undo) ? 2 : 0;
+                } else {
+                    insert(row, key, hash);
+                    affected++;
+                }
+                if (autoIncrement >= 0 && row[autoIncrement] != null) {
+                    long value = (Long) row[autoIncrement];
+                    if (Long.compareUnsigned(value, nextAutoIncrement) >= 0) {
+                        nextAutoIncrement = value + 1;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int i = undo.size() - 1; i >= 0; i--) {
+                Object[] entry = undo.get(i);
+                vectors[(Integer) entry[1]].set((Integer) entry[0], entry[2]);
+            }
+            while (size > firstRow) {
+                remove(size - 1);
+            }
+            nextAutoIncrement = savedAutoIncrement;
+            throw e;
+        }
+        if (firstGenerated != 0) {
+            lastInsertId = firstGenerated;
+        }
+        return affected;
+    }
+
+    private void coerce(Object[] row, int[] columns) {
+        for (int column : columns) {
+            boolean generated = column == autoIncrement && (row[column] == null
+                    || (row[column] instanceof Number && ((Number) row[column]).doubleValue() == 0));
+            row[column] = generated ? null : vectors[column].coerce(row[column]);
+        }
+    }
+
+    private Object[] coerceKey(Object[] row) {
+        Object[] key = new Object[identifier.length];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = vectors[identifier[i]].convert(row[identifier[i]]);
+        }
+        return key;
+    }
+
+    private boolean update(int row, Object[] values, List<Object[]> undo) {
+        boolean changed = false;
+        for (int column : this.values) {
+            if (!vectors[column].sameAs(row, values[column])) {
+                if (undo != null) {
+                    undo.add(new Object[] {row, column, vectors[column].get(row)});
+                }
+                vectors[column].set(row, values[column]);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private void insert(Object[] values, Object[] key, int hash) {
+        if (size == sequence.length) {
+            int capacity = size * 2;
+            for (DBColumnVector vector : vectors) {
+                vector.grow(capacity);
+            }
+            sequence = Arrays.copyOf(sequence, capacity);
+        }
+        int row = size++;
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i].set(row, values[i]);
+        }
+        sequence[row] = nextSequence++;
+        if (!hasNull(key)) {
+            if (++indexed * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+            int slot = hash & (slots.length - 1);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            slots[slot] = row + 1;
+        }
+    }
+
+    // la dernière ligne prend la place de la ligne supprimée
+    private void remove(int row) {
+        if (isIndexed(row)) {
+            unindex(row);
+        }
+        int last = size - 1;
+        if (row != last) {
+            if (isIndexed(last)) {
+                slots[slotOf(last)] = row + 1;
+            }
+            for (DBColumnVector vector : vectors) {
+                vector.move(last, row);
+            }
+            sequence[row] = sequence[last];
+        }
+        size--;
+    }
+
+    private int find(Object[] key, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            boolean same = true;
+            for (int i = 0; i < identifier.length && same; i++) {
+                same = vectors[identifier[i]].compare(row, key[i]) == 0;
+            }
+            if (same) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    private int slotOf(int row) {
+        int mask = slots.length - 1;
+        int slot = hashRow(row) & mask;
+        while (slots[slot] != row + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // suppression par décalage arrière : aucune case marquée, les recherches restent courtes
+    private void unindex(int row) {
+        int mask = slots.length - 1;
+        int hole = slotOf(row);
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            int home = hashRow(slots[next] - 1) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        slots[hole] = 0;
+        indexed--;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        for (int entry : old) {
+            if (entry != 0) {
+                int slot = hashRow(entry - 1) & (capacity - 1);
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+
+    private boolean isIndexed(int row) {
+        for (int column : identifier) {
+            if (vectors[column].isNull(row)) {
+                return false;
+            }
+        }
+        return identifier.length > 0;
+    }
+
+    private int hashRow(int row) {
+        int hash = 1;
+        for (int column : identifier) {
+            hash = 31 * hash + vectors[column].hash(row);
+        }
+        return DBColumnVector.mix(hash);
+    }
+
+    private int hash(Object[] key) {
+        int hash = 1;
+        for (int i = 0; i < identifier.length; i++) {
+            hash = 31 * hash + (key[i] == null ? 0 : vectors[identifier[i]].hashValue(key[i]));
+        }
+        return DBColumnVector.mix(hash);
+    }
+
+    private Object[] key(Object[] row) {
+        Object[] key = new Object[identifier.length];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = row[identifier[i]];
+        }
+        return key;
+    }
+
+    private static boolean hasNull(Object[] key) {
+        for (Object value : key) {
+            if (value == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // lignes dans l'ordre de la clé primaire, ou d'insertion sans clé primaire
+    private int[] ordered() {
+        Integer[] rows = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = i;
+        }
+        if (primaryKey.length > 0) {
+            Arrays.sort(rows, (a, b) -> {
+                for (int column : primaryKey) {
+                    int order = vectors[column].compareRows(a, b);
+                    if (order != 0) {
+                        return order;
+                    }
+                }
+                return 0;
+            });
+        } else {
+            Arrays.sort(rows, (a, b) -> Long.compare(sequence[a], sequence[b]));
+        }
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = rows[i];
+        }
+        return result;
+    }
+
+    private int compare(int row, int[] columns, Object[] bound) {
+        for (int i = 0; i < columns.length; i++) {
+            int order = vectors[columns[i]].compare(row, bound[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return 0;
+    }
+
+    private Object[] row(int row) {
+        Object[] result = new Object[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            result[i] = vectors[i].get(row);
+        }
+        return result;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private String identifierKeyName() {
+        for (DBKey key : table.getKeys()) {
+            if (key.getKeyType() == DBKeyType.UNIQUE_KEY && key.getName() != null) {
+                return key.getName();
+            }
+        }
+        return "unique";
+    }
+
+    private static String describe(Object[] key) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < key.length; i++) {
+            out.append(i > 0 ? "-" : "").append(key[i]);
+        }
+        return out.toString();
+    }
+
+    private IllegalStateException missing(String prefix) {
+        return new IllegalStateException("PROCEDURE " + prefix + table.getName() + " does not exist");
+    }
+
+    private IllegalArgumentException arguments(String prefix, int expected, int actual) {
+        return new IllegalArgumentException("Incorrect number of arguments for PROCEDURE " + prefix
+                + table.getName() + "; expected " + expected + ", got " + actual);
+    }
+}
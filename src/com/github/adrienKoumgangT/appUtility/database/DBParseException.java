@@ -0,0 +1,40 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.nio.file.Path;
+
+/**
+ * <p>
+ * Levée lorsque le texte SQL lu par {@link DBTableParser} n'est pas un DDL MySQL reconnu.
+ * La position (ligne et colonne, à partir de 1) désigne le lexème fautif.
+ * </p>
+ */
+public class DBParseException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int line;
+    private final int column;
+
+    public DBParseException(String message, int line, int column) {
+        super(message + " at line " + line + ", column " + column);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * Rattache une erreur au fichier dont provient le texte analysé.
+     */
+    public DBParseException(Path file, DBParseException cause) {
+        super(file + ": " + cause.getMessage(), cause);
+        this.line = cause.line;
+        this.column = cause.column;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Partition (ou sous-partition) déclarée d'une table partitionnée. Les valeurs et les options sont
+ * conservées telles qu'écrites dans le DDL, par exemple {@code LESS THAN (2024)},
+ * {@code LESS THAN MAXVALUE} ou {@code IN (1,2,3)} pour les valeurs et {@code ENGINE = InnoDB}
+ * pour les options.
+ * </p>
+ */
+public class DBPartition {
+
+    private String name;
+    private String values;
+    private String options;
+    private List<DBPartition> subPartitions;
+
+    public DBPartition(String name) {
+        this(name, null, null);
+    }
+
+    /**
+     * @param values  clause suivant {@code VALUES}, {@code null} pour une partition {@code HASH} ou
+     *                {@code KEY} et pour une sous-partition
+     * @param options options de la partition, {@code null} si absentes
+     */
+    public DBPartition(String name, String values, String options) {
+        this.name           = name;
+        this.values         = values;
+        this.options        = options;
+        this.subPartitions  = new ArrayList<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getValues() {
+        return values;
+    }
+
+    public void setValues(String values) {
+        this.values = values;
+    }
+
+    public String getOptions() {
+        return options;
+    }
+
+    public void setOptions(String options) {
+        this.options = options;
+    }
+
+    /**
+     * @return les sous-partitions déclarées, vide si elles ne sont données que par leur nombre
+     */
+    public List<DBPartition> getSubPartitions() {
+        return subPartitions;
+    }
+
+    public void setSubPartitions(List<DBPartition> subPartitions) {
+        this.subPartitions = subPartitions;
+    }
+}
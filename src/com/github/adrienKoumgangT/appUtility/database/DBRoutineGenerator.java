@@ -0,0 +1,517 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Génère, pour une table, le script SQL décrit dans {@link GenerateDBFiles} : la vue
+ * {@code v_<table>} et les procédures {@code get_<table>}, {@code list_<table>}, {@code set_<table>}
+ * et {@code del_<table>}, ainsi que leurs variantes pour les grandes tables :
+ * <ul>
+ *     <li>
+ *         {@code list_page_<table>} : pagination par clé (keyset) sur la clé primaire. La page suivante
+ *         commence après la clé de la dernière ligne reçue ({@code NULL} pour la première page) : le
+ *         coût d'une page ne dépend pas de sa position, contrairement à {@code OFFSET}.
+ *     </li>
+ *     <li>
+ *         {@code set_batch_<table>} : SET de plusieurs lignes en une instruction, à partir d'un
+ *         tableau JSON d'objets dont les clés sont les noms des colonnes, lu par {@code JSON_TABLE}
+ *         puis inséré ou mis à jour par un seul {@code INSERT ... SELECT ... ON DUPLICATE KEY UPDATE}.
+ *         Une clé absente d'un objet vaut {@code NULL}; un identifiant auto-incrémenté {@code NULL}
+ *         crée une ligne.
+ *     </li>
+ * </ul>
+ * </p>
+ * <p>
+ * L'identifiant d'une ligne est la clé primaire, ou à défaut la première clé unique sur des colonnes.
+ * Une table sans identifiant n'a que la vue et la procédure LIST, une table sans clé primaire n'a
+ * pas de pagination. Les colonnes générées ne sont jamais écrites par SET. Pour une table
+ * partitionnée, GET et DEL prennent aussi en paramètre les colonnes de partitionnement absentes de
+ * l'identifiant, pour que MySQL puisse limiter la recherche à une seule partition.
+ * </p>
+ * <p>
+ * Le script est produit par un {@link DBTemplate} compilé une fois ({@link #TEMPLATE} par défaut) et
+ * ajouté à un {@link StringBuilder} fourni par l'appelant, pour que celui-ci puisse le réutiliser d'une
+ * table à l'autre.
+ * </p>
+ * <h3>Noms utilisables dans un gabarit :</h3>
+ * <ul>
+ *     <li>emplacements de table : {@code name} (nom brut), {@code table}, {@code view}, {@code get},
+ *     {@code list}, {@code set}, {@code del}, {@code listPage}, {@code setBatch} (identifiants entre
+ *     accents graves), {@code firstAfter} (paramètre, entre accents graves, de la première colonne
+ *     de la clé primaire),
+ *     {@code indexes} (conseils de {@link DBIndexAdvisor} : index manquants et redondants);</li>
+ *     <li>emplacements de colonne : {@code column}, {@code param}, {@code after} (paramètre de
+ *     pagination), tous trois entre accents graves, {@code type}, {@code jsonType} (type de la colonne dans {@code JSON_TABLE}),
+ *     {@code jsonPath};</li>
+ *     <li>listes : {@code columns}, {@code identifier}, {@code lookup} (identifiant et colonnes de
+ *     partitionnement, comparées par GET et DEL), {@code primaryKey}, {@code values} (colonnes
+ *     écrites par SET hors identifiant), {@code inserted} (colonnes de l'INSERT de SET),
+ *     {@code writable} (colonnes non générées);</li>
+ *     <li>conditions : {@code identified}, {@code generatedId} (identifiant auto-incrémenté),
+ *     {@code hasValues}, {@code hasPrimaryKey}.</li>
+ * </ul>
+ * <p>
+ * {@link #fingerprint()} identifie le texte produit, pour que la génération incrémentale de
+ * {@link GenerateDBFiles} sache quand ce texte a changé sans avoir à le produire pour chaque table.
+ * </p>
+ */
+public class DBRoutineGenerator {
+
+    public static final String VIEW_PREFIX = "v_";
+    public static final String GET_PREFIX = "get_";
+    public static final String LIST_PREFIX = "list_";
+    public static final String SET_PREFIX = "set_";
+    public static final String DEL_PREFIX = "del_";
+    public static final String LIST_PAGE_PREFIX = "list_page_";
+    public static final String SET_BATCH_PREFIX = "set_batch_";
+    public static final String PARAMETER_PREFIX = "p_";
+    public static final String AFTER_PREFIX = "p_after_";
+
+    private static final String IDENTIFIER_PARAMETERS =
+            "{{#identifier}}{{?generatedId}}INOUT{{/generatedId}}{{^generatedId}}IN{{/generatedId}} "
+            + "{{param}} {{type}}{{|}},\n    {{/identifier}}";
+    private static final String WHERE_IDENTIFIER =
+            "WHERE {{#identifier}}{{column}} = {{param}}{{|}} AND {{/identifier}}";
+    private static final String LOOKUP_PARAMETERS =
+            "{{#lookup}}IN {{param}} {{type}}{{|}},\n    {{/lookup}}";
+    private static final String WHERE_LOOKUP =
+            "WHERE {{#lookup}}{{column}} = {{param}}{{|}} AND {{/lookup}}";
+
+    public static final String VIEW_TEMPLATE = ""
+            + "-- {{name}} : generated view and routines\n\n"
+            + "CREATE OR REPLACE VIEW {{view}} AS\n"
+            + "SELECT {{#columns}}{{column}}{{|}},\n       {{/columns}}\n"
+            + "FROM {{table}};\n\n";
+
+    public static final String GET_TEMPLATE = ""
+            + "DROP PROCEDURE IF EXISTS {{get}}$$\n"
+            + "CREATE PROCEDURE {{get}}(" + LOOKUP_PARAMETERS + ")\n"
+            + "BEGIN\n"
+            + "    SELECT * FROM {{view}}\n"
+            + "    " + WHERE_LOOKUP + ";\n"
+            + "END$$\n\n";
+
+    public static final String LIST_TEMPLATE = ""
+            + "DROP PROCEDURE IF EXISTS {{list}}$$\n"
+            + "CREATE PROCEDURE {{list}}()\n"
+            + "BEGIN\n"
+            + "    SELECT * FROM {{view}};\n"
+            + "END$$\n\n";
+
+    /**
+     * Identifiant auto-incrémenté : {@code INOUT}, insertion s'il est nul puis relecture par
+     * {@code LAST_INSERT_ID()}, mise à jour sinon. Autre identifiant : insertion ou mise à jour
+     * selon que la ligne existe ({@code ON DUPLICATE KEY UPDATE}).
+     */
+    public static final String SET_TEMPLATE = ""
+            + "DROP PROCEDURE IF EXISTS {{set}}$$\n"
+            + "CREATE PROCEDURE {{set}}(" + IDENTIFIER_PARAMETERS
+            + "{{?hasValues}},\n    {{#values}}IN {{param}} {{type}}{{|}},\n    {{/values}}{{/hasValues}})\n"
+            + "BEGIN\n"
+            + "{{?generatedId}}"
+            + "    IF {{#identifier}}{{param}}{{/identifier}} IS NULL THEN\n"
+            + "        INSERT INTO {{table}} ({{#values}}{{column}}{{|}}, {{/values}})\n"
+            + "        VALUES ({{#values}}{{param}}{{|}}, {{/values}});\n"
+            + "        SET {{#identifier}}{{param}}{{/identifier}} = LAST_INSERT_ID();\n"
+            + "{{?hasValues}}"
+            + "    ELSE\n"
+            + "        UPDATE {{table}}\n"
+            + "        SET {{#values}}{{column}} = {{param}}{{|}},\n            {{/values}}\n"
+            + "        " + WHERE_IDENTIFIER + ";\n"
+            + "{{/hasValues}}"
+            + "    END IF;\n"
+            + "{{/generatedId}}"
+            + "{{^generatedId}}"
+            + "    INSERT INTO {{table}} ({{#inserted}}{{column}}{{|}}, {{/inserted}})\n"
+            + "    VALUES ({{#inserted}}{{param}}{{|}}, {{/inserted}})"
+            + "{{?hasValues}}\n"
+            + "    ON DUPLICATE KEY UPDATE {{#values}}{{column}} = VALUES({{column}}){{|}},\n        {{/values}}"
+            + "{{/hasValues}};\n"
+            + "{{/generatedId}}"
+            + "END$$\n\n";
+
+    public static final String DEL_TEMPLATE = ""
+            + "DROP PROCEDURE IF EXISTS {{del}}$$\n"
+            + "CREATE PROCEDURE {{del}}(" + LOOKUP_PARAMETERS + ")\n"
+            + "BEGIN\n"
+            + "    DELETE FROM {{table}}\n"
+            + "    " + WHERE_LOOKUP + ";\n"
+            + "END$$\n\n";
+
+    public static final String LIST_PAGE_TEMPLATE = ""
+            + "DROP PROCEDURE IF EXISTS {{listPage}}$$\n"
+            + "CREATE PROCEDURE {{listPage}}({{#primaryKey}}IN {{after}} {{type}},\n    {{/primaryKey}}"
+            + "IN p_limit INT UNSIGNED)\n"
+            + "BEGIN\n"
+            + "    IF {{firstAfter}} IS NULL THEN\n"
+            + "        SELECT * FROM {{view}}\n"
+            + "        ORDER BY {{#primaryKey}}{{column}}{{|}}, {{/primaryKey}}\n"
+            + "        LIMIT p_limit;\n"
+            + "    ELSE\n"
+            + "        SELECT * FROM {{view}}\n"
+            + "        WHERE ({{#primaryKey}}{{column}}{{|}}, {{/primaryKey}})"
+            + " > ({{#primaryKey}}{{after}}{{|}}, {{/primaryKey}})\n"
+            + "        ORDER BY {{#primaryKey}}{{column}}{{|}}, {{/primaryKey}}\n"
+            + "        LIMIT p_limit;\n"
+            + "    END IF;\n"
+            + "END$$\n\n";
+
+    public static final String SET_BATCH_TEMPLATE = ""
+            + "DROP PROCEDURE IF EXISTS {{setBatch}}$$\n"
+            + "CREATE PROCEDURE {{setBatch}}(IN p_rows JSON)\n"
+            + "BEGIN\n"
+            + "    INSERT INTO {{table}} ({{#writable}}{{column}}{{|}}, {{/writable}})\n"
+            + "    SELECT {{#writable}}j.{{column}}{{|}}, {{/writable}}\n"
+            + "    FROM JSON_TABLE(p_rows, '$[*]' COLUMNS (\n"
+            + "        {{#writable}}{{column}} {{jsonType}} PATH {{jsonPath}}{{|}},\n        {{/writable}}\n"
+            + "    )) AS j"
+            + "{{?hasValues}}\n"
+            + "    ON DUPLICATE KEY UPDATE {{#values}}{{column}} = VALUES({{column}}){{|}},\n        {{/values}}"
+            + "{{/hasValues}};\n"
+            + "END$$\n\n";
+
+    /** script complet d'une table : vue, puis procédures entre {@code DELIMITER $$} et {@code DELIMITER ;} */
+    public static final String TEMPLATE = VIEW_TEMPLATE
+            + "DELIMITER $$\n\n"
+            + "{{?identified}}" + GET_TEMPLATE + "{{/identified}}"
+            + LIST_TEMPLATE
+            + "{{?hasPrimaryKey}}" + LIST_PAGE_TEMPLATE + "{{/hasPrimaryKey}}"
+            + "{{?identified}}" + SET_TEMPLATE + SET_BATCH_TEMPLATE + DEL_TEMPLATE + "{{/identified}}"
+            + "{{^identified}}-- no primary or unique key: GET, SET and DEL are not generated\n\n{{/identified}}"
+            + "DELIMITER ;\n"
+            + "{{indexes}}";
+
+    private static final DBIndexAdvisor ADVISOR = new DBIndexAdvisor();
+
+    /** noms utilisables dans un gabarit de ce générateur */
+    public static final DBTemplate.Bindings<RoutineContext> BINDINGS = new DBTemplate.Bindings<RoutineContext>()
+            .setSlot("name", (context, out) -> out.append(context.getTable().getName()))
+            .setSlot("table", (context, out) -> appendIdentifier(out, "", context.getTable().getName()))
+            .setSlot("view", (context, out) -> appendIdentifier(out, VIEW_PREFIX, context.getTable().getName()))
+            .setSlot("get", (context, out) -> appendIdentifier(out, GET_PREFIX, context.getTable().getName()))
+            .setSlot("list", (context, out) -> appendIdentifier(out, LIST_PREFIX, context.getTable().getName()))
+            .setSlot("set", (context, out) -> appendIdentifier(out, SET_PREFIX, context.getTable().getName()))
+            .setSlot("del", (context, out) -> appendIdentifier(out, DEL_PREFIX, context.getTable().getName()))
+            .setSlot("listPage", (context, out) -> appendIdentifier(out, LIST_PAGE_PREFIX, context.getTable().getName()))
+            .setSlot("setBatch", (context, out) -> appendIdentifier(out, SET_BATCH_PREFIX, context.getTable().getName()))
+            .setSlot("firstAfter", (context, out) -> appendIdentifier(out, AFTER_PREFIX, context.primaryKey.get(0).getName()))
+            .setSlot("indexes", (context, out) -> ADVISOR.advise(context.getTable()).appendTo(out))
+            .setSlot("column", (context, out) -> appendIdentifier(out, "", context.getColumn().getName()))
+            .setSlot("param", (context, out) -> appendIdentifier(out, PARAMETER_PREFIX, context.getColumn().getName()))
+            .setSlot("after", (context, out) -> appendIdentifier(out, AFTER_PREFIX, context.getColumn().getName()))
+            .setSlot("type", (context, out) -> appendType(out, context.getColumn()))
+            .setSlot("jsonType", (context, out) -> appendJsonType(out, context.getColumn()))
+            .setSlot("jsonPath", (context, out) -> appendJsonPath(out, context.getColumn()))
+            .setList("columns", context -> context.getTable().getColumns())
+            .setList("identifier", context -> context.identifier)
+            .setList("lookup", context -> context.lookup)
+            .setList("values", context -> context.values)
+            .setList("inserted", context -> context.inserted)
+            .setList("primaryKey", context -> context.primaryKey)
+            .setList("writable", context -> context.writable)
+            .setCondition("identified", context -> !context.identifier.isEmpty())
+            .setCondition("generatedId", context -> context.generatedId)
+            .setCondition("hasValues", context -> !context.values.isEmpty())
+            .setCondition("hasPrimaryKey", context -> !context.primaryKey.isEmpty());
+
+    private static final DBTemplate<RoutineContext> DEFAULT_TEMPLATE = DBTemplate.compile(TEMPLATE, BINDINGS);
+
+    /**
+     * Ce qui est calculé une fois par table pour le rendu.
+     */
+    public static final class RoutineContext extends DBTemplate.Context {
+
+        private final List<DBColumn> identifier;
+        private final List<DBColumn> lookup;
+        private final List<DBColumn> values;
+        private final List<DBColumn> inserted;
+        private final List<DBColumn> primaryKey;
+        private final List<DBColumn> writable;
+        private final boolean generatedId;
+
+        RoutineContext(DBTable table) {
+            super(table);
+            this.identifier = identifierColumns(table);
+            this.generatedId = identifier.size() == 1 && identifier.get(0).getAutoIncrement() != null;
+            this.lookup = lookupColumns(table, identifier);
+            DBKey key = table.getPrimaryKey();
+            List<DBColumn> primary = key != null ? resolve(table, key) : null;
+            this.primaryKey = primary != null ? primary : List.of();
+            this.values = new ArrayList<>();
+            this.writable = new ArrayList<>();
+            for (DBColumn column : table.getColumns()) {
+                if (column.getColumnKind() == DBColumnKind.NORMAL) {
+                    writable.add(column);
+                    if (!identifier.contains(column)) {
+                        values.add(column);
+                    }
+                }
+            }
+            if (generatedId) {
+                this.inserted = values;
+            } else {
+                this.inserted = new ArrayList<>(identifier.size() + values.size());
+                inserted.addAll(identifier);
+                inserted.addAll(values);
+            }
+        }
+
+        /**
+         * @return les paramètres de SET et DEL et les colonnes de leur recherche, vide sans identifiant
+         */
+        public List<DBColumn> getIdentifier() {
+            return identifier;
+        }
+
+        /**
+         * @return les paramètres de GET et DEL : l'identifiant et les colonnes de partitionnement
+         */
+        public List<DBColumn> getLookup() {
+            return lookup;
+        }
+
+        /**
+         * @return les colonnes écrites par SET hors identifiant, dans l'ordre de ses paramètres
+         */
+        public List<DBColumn> getValues() {
+            return values;
+        }
+
+        /**
+         * @return les colonnes de l'INSERT de SET
+         */
+        public List<DBColumn> getInserted() {
+            return inserted;
+        }
+
+        /**
+         * @return les colonnes de la clé primaire, ordre de la pagination; vide sans clé primaire
+         */
+        public List<DBColumn> getPrimaryKey() {
+            return primaryKey;
+        }
+
+        /**
+         * @return les colonnes non générées, écrites par le SET par lot
+         */
+        public List<DBColumn> getWritable() {
+            return writable;
+        }
+
+        /**
+         * @return vrai si l'identifiant est une colonne auto-incrémentée, paramètre {@code INOUT} de SET
+         */
+        public boolean isGeneratedId() {
+            return generatedId;
+        }
+    }
+
+    private final DBTemplate<RoutineContext> template;
+    private volatile String fingerprint;
+
+    public DBRoutineGenerator() {
+        this.template = DEFAULT_TEMPLATE;
+    }
+
+    /**
+     * @param template gabarit du script d'une table, compilé une fois avec {@link #BINDINGS}
+     * @throws IllegalArgumentException si le gabarit est mal formé
+     */
+    public DBRoutineGenerator(String template) {
+        this.template = DBTemplate.compile(template, BINDINGS);
+    }
+
+    /**
+     * Ajoute le script complet de la table.
+     */
+    public void generate(DBTable table, StringBuilder out) {
+        template.render(new RoutineContext(table), out);
+    }
+
+    /**
+     * L'empreinte couvre le source du gabarit et le code qui le remplit : les classes du générateur
+     * (sous-classe comprise) et {@link DBTemplate}. Toute modification de l'un ou de l'autre la change,
+     * quelle que soit la branche du générateur qu'elle touche.
+     *
+     * @return l'empreinte du générateur, calculée au premier appel
+     */
+    public String fingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            StringBuilder out = new StringBuilder(TEMPLATE.length() + 128)
+                    .append(DBManifest.codeDigest(getClass(), DBTemplate.class)).append('\n')
+                    .append(template.getSource());
+            fingerprint = result = DBManifest.digest(out);
+        }
+        return result;
+    }
+
+    /**
+     * Colonnes comparées par GET et DEL : l'identifiant, puis les colonnes de partitionnement qui n'en
+     * font pas partie. Avec la clé de partitionnement dans le prédicat, MySQL n'ouvre que la partition
+     * qui contient la ligne (élagage des partitions) au lieu de chercher l'identifiant dans chacune.
+     *
+     * @return une liste vide si la table n'a pas d'identifiant
+     */
+    public static List<DBColumn> lookupColumns(DBTable table, List<DBColumn> identifier) {
+        if (identifier.isEmpty() || table.getPartitionMethod() == null) {
+            return identifier;
+        }
+        List<DBColumn> columns = new ArrayList<>(identifier);
+        for (DBColumn column : table.getPartitionColumns()) {
+            if (!columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * @return les colonnes de la clé primaire, ou à défaut de la première clé unique dont toutes
+     * les parties sont des colonnes; une liste vide si la table n'a pas d'identifiant
+     */
+    public static List<DBColumn> identifierColumns(DBTable table) {
+        DBKey primary = table.getPrimaryKey();
+        if (primary != null) {
+            List<DBColumn> columns = resolve(table, primary);
+            if (columns != null) {
+                return columns;
+            }
+        }
+        for (DBKey key : table.getKeys()) {
+            if (key.getKeyType() == DBKeyType.UNIQUE_KEY) {
+                List<DBColumn> columns = resolve(table, key);
+                if (columns != null) {
+                    return columns;
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private static List<DBColumn> resolve(DBTable table, DBKey key) {
+        List<DBColumn> columns = new ArrayList<>(key.getColumns().size());
+        for (String name : key.getColumns()) {
+            DBColumn column = table.getColumn(name);
+            if (column == null) {
+                return null;
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    /**
+     * Ajoute le type SQL de la colonne tel qu'il s'écrit dans un DDL ou une liste de paramètres,
+     * par exemple {@code DECIMAL(12,2) UNSIGNED} ou {@code ENUM('a','b')}.
+     */
+    public static StringBuilder appendType(StringBuilder out, DBColumn column) {
+        out.append(column.getDataType().getKey());
+        List<String> values = column.getValues();
+        if (values != null && !values.isEmpty()) {
+            out.append('(');
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                appendString(out, values.get(i));
+            }
+            out.append(')');
+        } else if (column.getLength() != null) {
+            out.append('(').append(column.getLength());
+            if (column.getScale() != null) {
+                out.append(',').append(column.getScale());
+            }
+            out.append(')');
+        }
+        if (Boolean.TRUE.equals(column.getUnsigned())) {
+            out.append(" UNSIGNED");
+        }
+        return out;
+    }
+
+    /**
+     * Ajoute le type d'une colonne de {@code JSON_TABLE} : celui de la colonne, sauf pour
+     * {@code ENUM} et {@code SET} lus comme un {@code VARCHAR} assez long pour toute valeur permise,
+     * la conversion étant faite par l'insertion.
+     */
+    static StringBuilder appendJsonType(StringBuilder out, DBColumn column) {
+        DBDataType type = column.getDataType();
+        if (type != DBDataType.ENUM && type != DBDataType.SET) {
+            return appendType(out, column);
+        }
+        int length = 0;
+        for (String value : column.getValues()) {
+            length = type == DBDataType.ENUM ? Math.max(length, value.length()) : length + value.length() + 1;
+        }
+        return out.append(DBDataType.VARCHAR.getKey()).append('(').append(Math.max(length, 1)).append(')');
+    }
+
+    /**
+     * Ajoute le chemin JSON de la clé portant le nom de la colonne, par exemple {@code '$."nom"'}.
+     */
+    static StringBuilder appendJsonPath(StringBuilder out, DBColumn column) {
+        out.append("'$.\"");
+        String name = column.getName();
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            // échappement JSONPath (\" ou \\), dont chaque \ est lui-même doublé dans la chaine SQL
+            if (c == '"') {
+                out.append("\\\\");
+            } else if (c == '\\') {
+                out.append("\\\\\\");
+            } else if (c == '\'') {
+                out.append('\'');
+            }
+            out.append(c);
+        }
+        return out.append("\"'");
+    }
+
+    /**
+     * Ajoute un identifiant entre accents graves, en doublant ceux qu'il contient.
+     */
+    public static StringBuilder appendIdentifier(StringBuilder out, String name) {
+        return appendIdentifier(out, "", name);
+    }
+
+    /**
+     * Ajoute entre accents graves l'identifiant formé du préfixe et du nom, sans les concaténer.
+     */
+    public static StringBuilder appendIdentifier(StringBuilder out, String prefix, String name) {
+        out.append('`');
+        appendEscaped(out, prefix);
+        appendEscaped(out, name);
+        return out.append('`');
+    }
+
+    private static void appendEscaped(StringBuilder out, String name) {
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '`') {
+                out.append('`');
+            }
+            out.append(c);
+        }
+    }
+
+    /**
+     * Ajoute une chaine SQL entre apostrophes, en doublant celles qu'elle contient et en échappant
+     * les barres obliques inverses.
+     */
+    public static StringBuilder appendString(StringBuilder out, String value) {
+        out.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\'') {
+                out.append('\'');
+            } else if (c == '\\') {
+                out.append('\\');
+            }
+            out.append(c);
+        }
+        return out.append('\'');
+    }
+}
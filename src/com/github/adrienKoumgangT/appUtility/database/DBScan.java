@@ -0,0 +1,701 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * <h1>Parcours par lots d'une table en mémoire</h1>
+ *
+ * <p>
+ * Filtre, projette et agrège les lignes d'une {@link DBMemoryTable} par lots de {@link #BATCH_SIZE}
+ * lignes, directement sur les tableaux typés de ses colonnes : chaque lot a un bitmap de sélection
+ * (un bit par ligne), que chaque condition réduit par un ET avec le bitmap de ses lignes vraies, puis
+ * avec le complément du bitmap des valeurs nulles. Un mot de sélection nul saute les 64 lignes
+ * suivantes pour les conditions restantes et pour les agrégats.
+ * </p>
+ * <p>
+ * Les boucles internes sont sans branchement, pour que le compilateur JIT puisse les dérouler et les
+ * vectoriser :
+ * <ul>
+ *     <li>
+ *         une comparaison sur un entier est ramenée à un intervalle {@code [min, max]}, testé par une
+ *         seule comparaison non signée de {@code valeur - min} avec {@code max - min};
+ *     </li>
+ *     <li>
+ *         une condition sur une chaine encodée par dictionnaire est évaluée une fois par chaine
+ *         distincte, puis lue pour chaque ligne dans une table indexée par le code;
+ *     </li>
+ *     <li>une somme ajoute chaque valeur masquée par son bit de sélection.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Les conditions suivent la logique de SQL : une comparaison avec une valeur nulle n'est jamais vraie,
+ * et les agrégats ignorent les valeurs nulles. Comme dans MySQL, une condition, {@link #min(String)} et
+ * {@link #max(String)} comparent un ENUM ou un SET en tant que chaine, sous la collation de la colonne;
+ * le rang de déclaration d'un ENUM ne sert qu'à l'ordre des regroupements. Les regroupements ({@link #countBy(String)},
+ * {@link #sumBy(String, String)}) portent sur une colonne encodée par dictionnaire, en comptant par
+ * code avant de fusionner les chaines égales pour la collation; les lignes dont la clé est nulle n'y
+ * sont pas comptées.
+ * </p>
+ * <p>
+ * Les conditions s'accumulent : {@code new DBScan(table).where("age", Comparison.GE, 18).where("state", "on").count()}.
+ * Un parcours relit la table à chaque opération terminale.
+ * </p>
+ */
+public class DBScan {
+
+    public static final int BATCH_SIZE = 1024;
+    private static final int WORDS = BATCH_SIZE / 64;
+    private static final BigInteger UNSIGNED_MAX = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    public enum Comparison {
+        EQ, NE, LT, LE, GT, GE
+    }
+
+    /**
+     * Condition liée aux tableaux courants des colonnes, le temps d'un parcours.
+     */
+    private interface Filter {
+        /** garde dans la sélection les lignes de [from, to) qui vérifient la condition */
+        void apply(int from, int to, long[] selection);
+    }
+
+    private interface Condition {
+        Filter bind(DBMemoryTable table);
+    }
+
+    private final DBMemoryTable table;
+    private final List<Condition> conditions = new ArrayList<>();
+
+    public DBScan(DBMemoryTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Garde les lignes dont la colonne se compare ainsi à la valeur, convertie vers le type de la colonne.
+     *
+     * @throws IllegalArgumentException si la colonne n'existe pas ou si la valeur n'est pas convertible
+     */
+    public DBScan where(String column, Comparison comparison, Object value) {
+        int position = position(column);
+        DBColumnVector vector = table.vector(position);
+        if (value == null) {
+            // colonne op NULL n'est jamais vrai
+            conditions.add(t -> (from, to, selection) -> clear(selection));
+        } else if (vector instanceof DBColumnVector.LongVector) {
+            conditions.add(longRange(position, comparison, value));
+        } else if (vector instanceof DBColumnVector.DoubleVector) {
+            double number = ((Number) vector.convert(value)).doubleValue();
+            conditions.add(doubleRange(position, comparison, number));
+        } else if (vector instanceof DBColumnVector.DictionaryVector) {
+            String text = value.toString();
+            conditions.add(t -> {
+                DBColumnVector.DictionaryVector dictionary = (DBColumnVector.DictionaryVector) t.vector(position);
+                boolean[] match = new boolean[dictionary.dictionarySize()];
+                for (int code = 0; code < match.length; code++) {
+                    match[code] = test(comparison, dictionary.collate(dictionary.string(code), text));
+                }
+                return codes(dictionary, match);
+            });
+        } else {
+            Object coerced = vector.convert(value);
+            conditions.add(t -> objects(t.vector(position), comparison, coerced));
+        }
+        return this;
+    }
+
+    /**
+     * Garde les lignes dont la colonne est égale à la valeur.
+     */
+    public DBScan where(String column, Object value) {
+        return where(column, Comparison.EQ, value);
+    }
+
+    /**
+     * Garde les lignes dont la colonne est comprise entre les deux bornes, incluses ({@code BETWEEN}).
+     */
+    public DBScan between(String column, Object min, Object max) {
+        return where(column, Comparison.GE, min).where(column, Comparison.LE, max);
+    }
+
+    /**
+     * Garde les lignes dont la colonne, encodée par dictionnaire, est l'une des valeurs ({@code IN}).
+     *
+     * @throws IllegalArgumentException si la colonne n'est pas une chaine encodée par dictionnaire
+     */
+    public DBScan whereIn(String column, Collection<String> values) {
+        int position = position(column);
+        if (!(table.vector(position) instanceof DBColumnVector.DictionaryVector)) {
+            throw new IllegalArgumentException("column '" + column + "' is not dictionary-encoded");
+        }
+        List<String> wanted = List.copyOf(values);
+        conditions.add(t -> {
+            DBColumnVector.DictionaryVector dictionary = (DBColumnVector.DictionaryVector) t.vector(position);
+            boolean[] match = new boolean[dictionary.dictionarySize()];
+            for (int code = 0; code < match.length; code++) {
+                for (int i = 0; i < wanted.size() && !match[code]; i++) {
+                    match[code] = dictionary.collate(dictionary.string(code), wanted.get(i)) == 0;
+                }
+            }
+            return codes(dictionary, match);
+        });
+        return this;
+    }
+
+    public DBScan whereNull(String column) {
+        int position = position(column);
+        conditions.add(t -> {
+            long[] nulls = t.vector(position).nullWords();
+            return (from, to, selection) -> {
+                for (int w = 0, words = words(from, to); w < words; w++) {
+                    selection[w] &= nulls[(from >>> 6) + w];
+                }
+            };
+        });
+        return this;
+    }
+
+    public DBScan whereNotNull(String column) {
+        int position = position(column);
+        conditions.add(t -> {
+            long[] nulls = t.vector(position).nullWords();
+            return (from, to, selection) -> notNull(nulls, from, to, selection);
+        });
+        return this;
+    }
+
+    // ---- opérations terminales
+
+    public long count() {
+        long[] count = new long[1];
+        scan((from, to, selection) -> {
+            for (long word : selection) {
+                count[0] += Long.bitCount(word);
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * @return la somme des valeurs non nulles d'une colonne entière signée, 0 s'il n'y en a pas
+     * @throws IllegalArgumentException si la colonne n'est pas entière ou est {@code UNSIGNED} (voir {@link #sum(String)})
+     * @throws ArithmeticException si la somme dépasse un {@code long}
+     */
+    public long sumLong(String column) {
+        int position = position(column);
+        if (!(table.vector(position) instanceof DBColumnVector.LongVector)) {
+            throw new IllegalArgumentException("column '" + column + "' is not an integer column");
+        }
+        if (((DBColumnVector.LongVector) table.vector(position)).isUnsigned()) {
+            throw new IllegalArgumentException("column '" + column + "' is unsigned");
+        }
+        return integerSum(position).longValueExact();
+    }
+
+    /**
+     * Comme {@code SUM} de MySQL, qui passe en {@code DECIMAL} pour les entiers, la somme d'une colonne
+     * entière est exacte avant sa conversion en {@code double}, quelles que soient les sommes partielles.
+     *
+     * @return la somme des valeurs non nulles d'une colonne numérique, 0 s'il n'y en a pas
+     */
+    public double sum(String column) {
+        int position = position(column);
+        DBColumnVector vector = table.vector(position);
+        if (vector instanceof DBColumnVector.LongVector) {
+            return integerSum(position).doubleValue();
+        }
+        if (!(vector instanceof DBColumnVector.DoubleVector)) {
+            double[] sum = new double[1];
+            forEachValue(position, value -> sum[0] += ((Number) value).doubleValue());
+            return sum[0];
+        }
+        double[] values = ((DBColumnVector.DoubleVector) vector).values();
+        long[] nulls = vector.nullWords();
+        double[] sum = new double[1];
+        scan((from, to, selection) -> {
+            notNull(nulls, from, to, selection);
+            double batch = 0;
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                long word = selection[w];
+                if (word == 0) {
+                    continue;
+                }
+                int base = from + w * 64;
+                int n = Math.min(64, to - base);
+                for (int j = 0; j < n; j++) {
+                    batch += ((word >>> j) & 1) != 0 ? values[base + j] : 0.0;
+                }
+            }
+            sum[0] += batch;
+        });
+        return sum[0];
+    }
+
+    /*
+     * Somme exacte sur 128 bits (mot haut, mot bas) : chaque valeur masquée s'ajoute au mot bas, la
+     * retenue non signée et, pour une colonne signée, l'extension du signe s'ajoutent au mot haut.
+     */
+    private BigInteger integerSum(int position) {
+        DBColumnVector.LongVector vector = (DBColumnVector.LongVector) table.vector(position);
+        long[] values = vector.values();
+        long[] nulls = vector.nullWords();
+        long sign = vector.isUnsigned() ? 0 : -1L;
+        long[] sum = new long[2];
+        scan((from, to, selection) -> {
+            notNull(nulls, from, to, selection);
+            long high = sum[0];
+            long low = sum[1];
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                long word = selection[w];
+                if (word == 0) {
+                    continue;
+                }
+                int base = from + w * 64;
+                int n = Math.min(64, to - base);
+                for (int j = 0; j < n; j++) {
+                    long value = values[base + j] & -((word >>> j) & 1);
+                    long next = low + value;
+                    high += ((value >> 63) & sign) + (Long.compareUnsigned(next, low) < 0 ? 1 : 0);
+                    low = next;
+                }
+            }
+            sum[0] = high;
+            sum[1] = low;
+        });
+        return BigInteger.valueOf(sum[0]).shiftLeft(64).add(new BigInteger(Long.toUnsignedString(sum[1])));
+    }
+
+    private static double unsigned(long bits) {
+        return bits >= 0 ? bits : (bits >>> 1) * 2.0 + (bits & 1);
+    }
+
+    /**
+     * @return la moyenne des valeurs non nulles d'une colonne numérique, {@code null} s'il n'y en a pas
+     */
+    public Double avg(String column) {
+        long count = copy().whereNotNull(column).count();
+        return count == 0 ? null : sum(column) / count;
+    }
+
+    /**
+     * @return la plus petite valeur non nulle de la colonne, {@code null} s'il n'y en a pas; comme dans
+     * MySQL, un ENUM ou un SET se compare par sa chaine, sous la collation de la colonne
+     */
+    public Object min(String column) {
+        return extreme(column, -1);
+    }
+
+    /**
+     * @return la plus grande valeur non nulle de la colonne, {@code null} s'il n'y en a pas
+     */
+    public Object max(String column) {
+        return extreme(column, 1);
+    }
+
+    private Object extreme(String column, int sign) {
+        int position = position(column);
+        DBColumnVector vector = table.vector(position);
+        DBColumnVector.DictionaryVector strings = vector instanceof DBColumnVector.DictionaryVector
+                ? (DBColumnVector.DictionaryVector) vector : null;
+        long[] nulls = vector.nullWords();
+        int[] best = {-1};
+        scan((from, to, selection) -> {
+            notNull(nulls, from, to, selection);
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                for (long word = selection[w]; word != 0; word &= word - 1) {
+                    int row = from + w * 64 + Long.numberOfTrailingZeros(word);
+                    int order = best[0] < 0 ? 0 : strings != null
+                            ? strings.collate(strings.string(strings.codes()[row]), strings.string(strings.codes()[best[0]]))
+                            : vector.compareRows(row, best[0]);
+                    if (best[0] < 0 || Integer.signum(order) == sign) {
+                        best[0] = row;
+                    }
+                }
+            }
+        });
+        return best[0] < 0 ? null : vector.get(best[0]);
+    }
+
+    /**
+     * {@code SELECT column, COUNT(*) ... GROUP BY column} sur une colonne encodée par dictionnaire.
+     *
+     * @return le nombre de lignes par valeur, dans l'ordre de la colonne
+     */
+    public Map<String, Long> countBy(String column) {
+        int position = position(column);
+        DBColumnVector.DictionaryVector vector = dictionary(column, position);
+        int[] codes = vector.codes();
+        long[] nulls = vector.nullWords();
+        long[] counts = new long[vector.dictionarySize()];
+        scan((from, to, selection) -> {
+            notNull(nulls, from, to, selection);
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                for (long word = selection[w]; word != 0; word &= word - 1) {
+                    counts[codes[from + w * 64 + Long.numberOfTrailingZeros(word)]]++;
+                }
+            }
+        });
+        Map<String, Long> result = new TreeMap<>(vector::compare);
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.merge(vector.string(code), counts[code], Long::sum);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@code SELECT key, SUM(value) ... GROUP BY key} sur une colonne clé encodée par dictionnaire.
+     *
+     * @return la somme des valeurs non nulles par clé, dans l'ordre de la colonne clé; {@code null}, comme
+     * dans MySQL, pour une clé dont toutes les valeurs sont nulles
+     */
+    public Map<String, Double> sumBy(String keyColumn, String valueColumn) {
+        int keyPosition = position(keyColumn);
+        DBColumnVector.DictionaryVector keys = dictionary(keyColumn, keyPosition);
+        DBColumnVector values = table.vector(position(valueColumn));
+        if (!(values instanceof DBColumnVector.LongVector) && !(values instanceof DBColumnVector.DoubleVector)) {
+            throw new IllegalArgumentException("column '" + valueColumn + "' is not numeric");
+        }
+        int[] codes = keys.codes();
+        long[] keyNulls = keys.nullWords();
+        long[] valueNulls = values.nullWords();
+        double[] sums = new double[keys.dictionarySize()];
+        boolean[] seen = new boolean[sums.length];
+        boolean[] counted = new boolean[sums.length];
+        long[] longs = values instanceof DBColumnVector.LongVector ? ((DBColumnVector.LongVector) values).values() : null;
+        double[] doubles = longs == null ? ((DBColumnVector.DoubleVector) values).values() : null;
+        boolean unsigned = longs != null && ((DBColumnVector.LongVector) values).isUnsigned();
+        scan((from, to, selection) -> {
+            notNull(keyNulls, from, to, selection);
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                long present = selection[w] & ~valueNulls[(from >>> 6) + w];
+                for (long word = selection[w]; word != 0; word &= word - 1) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    int row = from + w * 64 + bit;
+                    int code = codes[row];
+                    seen[code] = true;
+                    double value = longs == null ? doubles[row] : unsigned ? unsigned(longs[row]) : longs[row];
+                    boolean notNull = ((present >>> bit) & 1) != 0;
+                    counted[code] |= notNull;
+                    sums[code] += notNull ? value : 0.0;
+                }
+            }
+        });
+        Map<String, Double> result = new TreeMap<>(keys::compare);
+        for (int code = 0; code < sums.length; code++) {
+            if (!seen[code]) {
+                continue;
+            }
+            // Map.merge refuse une valeur nulle : fusion des chaines égales pour la collation à la main
+            String key = keys.string(code);
+            Double sum = counted[code] ? sums[code] : null;
+            Double previous = result.get(key);
+            if (previous == null) {
+                result.put(key, sum);
+            } else if (sum != null) {
+                result.put(key, previous + sum);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Projection : les valeurs des colonnes demandées pour les lignes gardées, dans l'ordre des lignes
+     * de la table, au plus {@code limit}.
+     */
+    public List<Object[]> select(long limit, String... columns) {
+        int[] positions = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            positions[i] = position(columns[i]);
+        }
+        List<Object[]> result = new ArrayList<>();
+        scan((from, to, selection) -> {
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                for (long word = selection[w]; word != 0 && result.size() < limit; word &= word - 1) {
+                    int row = from + w * 64 + Long.numberOfTrailingZeros(word);
+                    Object[] values = new Object[positions.length];
+                    for (int i = 0; i < positions.length; i++) {
+                        values[i] = table.vector(positions[i]).get(row);
+                    }
+                    result.add(values);
+                }
+            }
+        });
+        return result;
+    }
+
+    // ---- parcours
+
+    private void scan(Filter aggregate) {
+        List<Filter> filters = new ArrayList<>(conditions.size());
+        for (Condition condition : conditions) {
+            filters.add(condition.bind(table));
+        }
+        long[] selection = new long[WORDS];
+        int size = table.size();
+        for (int from = 0; from < size; from += BATCH_SIZE) {
+            int to = Math.min(size, from + BATCH_SIZE);
+            int rows = to - from;
+            for (int w = 0; w < selection.length; w++) {
+                int n = Math.max(0, Math.min(64, rows - w * 64));
+                selection[w] = n == 64 ? -1L : (1L << n) - 1;
+            }
+            boolean any = true;
+            for (int i = 0; i < filters.size() && any; i++) {
+                filters.get(i).apply(from, to, selection);
+                any = !isEmpty(selection);
+            }
+            if (any) {
+                aggregate.apply(from, to, selection);
+            }
+        }
+    }
+
+    private void forEachValue(int position, Consumer<Object> action) {
+        DBColumnVector vector = table.vector(position);
+        long[] nulls = vector.nullWords();
+        scan((from, to, selection) -> {
+            notNull(nulls, from, to, selection);
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                for (long word = selection[w]; word != 0; word &= word - 1) {
+                    action.accept(vector.load(from + w * 64 + Long.numberOfTrailingZeros(word)));
+                }
+            }
+        });
+    }
+
+    private DBScan copy() {
+        DBScan copy = new DBScan(table);
+        copy.conditions.addAll(conditions);
+        return copy;
+    }
+
+    // ---- conditions
+
+    // comparaison ramenée à l'intervalle [min, max] des valeurs de la colonne, complémenté pour NE
+    private Condition longRange(int position, Comparison comparison, Object value) {
+        BigDecimal number;
+        try {
+            number = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Incorrect integer value '" + value + "'");
+        }
+        boolean unsigned = ((DBColumnVector.LongVector) table.vector(position)).isUnsigned();
+        BigInteger domainMin = unsigned ? BigInteger.ZERO : BigInteger.valueOf(Long.MIN_VALUE);
+        BigInteger domainMax = unsigned ? UNSIGNED_MAX : BigInteger.valueOf(Long.MAX_VALUE);
+        BigInteger floor = number.setScale(0, RoundingMode.FLOOR).toBigIntegerExact();
+        BigInteger ceil = number.setScale(0, RoundingMode.CEILING).toBigIntegerExact();
+        BigInteger low = domainMin;
+        BigInteger high = domainMax;
+        boolean negate = comparison == Comparison.NE;
+        switch (comparison) {
+            case NE:
+            case EQ:
+                low = ceil;
+                high = floor;
+                break;
+            case LT:
+                high = ceil.subtract(BigInteger.ONE);
+                break;
+            case LE:
+                high = floor;
+                break;
+            case GT:
+                low = floor.add(BigInteger.ONE);
+                break;
+            default:
+                low = ceil;
+                break;
+        }
+        low = low.max(domainMin);
+        high = high.min(domainMax);
+        if (low.compareTo(high) > 0) {
+            // intervalle vide : aucune ligne, ou pour NE toute valeur non nulle
+            boolean all = negate;
+            return t -> {
+                long[] nulls = t.vector(position).nullWords();
+                return (from, to, selection) -> {
+                    if (all) {
+                        notNull(nulls, from, to, selection);
+                    } else {
+                        clear(selection);
+                    }
+                };
+            };
+        }
+        // l'espace non signé est décalé de 2^63 pour comparer en signé, puis l'écart à min en non signé
+        long flip = unsigned ? Long.MIN_VALUE : 0;
+        long min = low.longValue() ^ flip;
+        long width = (high.longValue() ^ flip) - min;
+        long outside = negate ? -1L : 0;
+        return t -> {
+            DBColumnVector.LongVector vector = (DBColumnVector.LongVector) t.vector(position);
+            long[] values = vector.values();
+            long[] nulls = vector.nullWords();
+            return (from, to, selection) -> {
+                for (int w = 0, words = words(from, to); w < words; w++) {
+                    long word = selection[w];
+                    if (word == 0) {
+                        continue;
+                    }
+                    int base = from + w * 64;
+                    int n = Math.min(64, to - base);
+                    long bits = 0;
+                    for (int j = 0; j < n; j++) {
+                        long offset = ((values[base + j] ^ flip) - min) + Long.MIN_VALUE;
+                        bits |= (offset <= width + Long.MIN_VALUE ? 1L : 0L) << j;
+                    }
+                    selection[w] = word & (bits ^ outside) & ~nulls[(base >>> 6)];
+                }
+            };
+        };
+    }
+
+    private static Condition doubleRange(int position, Comparison comparison, double value) {
+        double low = Double.NEGATIVE_INFINITY;
+        double high = Double.POSITIVE_INFINITY;
+        switch (comparison) {
+            case EQ:
+            case NE:
+                low = high = value;
+                break;
+            case LT:
+                high = Math.nextDown(value);
+                break;
+            case LE:
+                high = value;
+                break;
+            case GT:
+                low = Math.nextUp(value);
+                break;
+            default:
+                low = value;
+                break;
+        }
+        double min = low;
+        double max = high;
+        long inside = comparison == Comparison.NE ? 0 : -1L;
+        return t -> {
+            DBColumnVector.DoubleVector vector = (DBColumnVector.DoubleVector) t.vector(position);
+            double[] values = vector.values();
+            long[] nulls = vector.nullWords();
+            return (from, to, selection) -> {
+                for (int w = 0, words = words(from, to); w < words; w++) {
+                    long word = selection[w];
+                    if (word == 0) {
+                        continue;
+                    }
+                    int base = from + w * 64;
+                    int n = Math.min(64, to - base);
+                    long bits = 0;
+                    for (int j = 0; j < n; j++) {
+                        double x = values[base + j];
+                        bits |= ((x >= min) & (x <= max) ? 1L : 0L) << j;
+                    }
+                    selection[w] = word & (bits ^ ~inside) & ~nulls[(base >>> 6)];
+                }
+            };
+        };
+    }
+
+    private static Filter codes(DBColumnVector.DictionaryVector dictionary, boolean[] match) {
+        int[] codes = dictionary.codes();
+        long[] nulls = dictionary.nullWords();
+        return (from, to, selection) -> {
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                long word = selection[w];
+                if (word == 0) {
+                    continue;
+                }
+                int base = from + w * 64;
+                int n = Math.min(64, to - base);
+                long bits = 0;
+                for (int j = 0; j < n; j++) {
+                    bits |= (match[codes[base + j]] ? 1L : 0L) << j;
+                }
+                selection[w] = word & bits & ~nulls[(base >>> 6)];
+            }
+        };
+    }
+
+    private static Filter objects(DBColumnVector vector, Comparison comparison, Object value) {
+        return (from, to, selection) -> {
+            for (int w = 0, words = words(from, to); w < words; w++) {
+                long keep = 0;
+                for (long word = selection[w]; word != 0; word &= word - 1) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    int row = from + w * 64 + bit;
+                    if (!vector.isNull(row) && test(comparison, vector.compare(row, value))) {
+                        keep |= 1L << bit;
+                    }
+                }
+                selection[w] = keep;
+            }
+        };
+    }
+
+    private static boolean test(Comparison comparison, int order) {
+        switch (comparison) {
+            case EQ:
+                return order == 0;
+            case NE:
+                return order != 0;
+            case LT:
+                return order < 0;
+            case LE:
+                return order <= 0;
+            case GT:
+                return order > 0;
+            default:
+                return order >= 0;
+        }
+    }
+
+    private static void notNull(long[] nulls, int from, int to, long[] selection) {
+        for (int w = 0, words = words(from, to); w < words; w++) {
+            selection[w] &= ~nulls[(from >>> 6) + w];
+        }
+    }
+
+    private static void clear(long[] selection) {
+        for (int w = 0; w < selection.length; w++) {
+            selection[w] = 0;
+        }
+    }
+
+    // mots de sélection couverts par les lignes [from, to)
+    private static int words(int from, int to) {
+        return (to - from + 63) >>> 6;
+    }
+
+    private static boolean isEmpty(long[] selection) {
+        long any = 0;
+        for (long word : selection) {
+            any |= word;
+        }
+        return any == 0;
+    }
+
+    private DBColumnVector.DictionaryVector dictionary(String column, int position) {
+        if (!(table.vector(position) instanceof DBColumnVector.DictionaryVector)) {
+            throw new IllegalArgumentException("column '" + column + "' is not dictionary-encoded");
+        }
+        return (DBColumnVector.DictionaryVector) table.vector(position);
+    }
+
+    private int position(String column) {
+        int position = table.getColumnIndex(column);
+        if (position < 0) {
+            throw new IllegalArgumentException("unknown column '" + column + "' in table " + table.getTable().getName());
+        }
+        return position;
+    }
+}
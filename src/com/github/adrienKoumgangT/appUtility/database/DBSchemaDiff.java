@@ -0,0 +1,1305 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <h1>Migration d'une table</h1>
+ *
+ * <p>
+ * Compare deux versions d'une table et produit les {@code ALTER TABLE} qui font passer de l'une à
+ * l'autre en verrouillant le moins possible. Chaque modification est classée selon l'algorithme le
+ * moins coûteux que MySQL 8.0 accepte pour elle :
+ * <ul>
+ *     <li>
+ *         {@code INSTANT}, qui ne change que le dictionnaire de données : ajout d'une colonne (à la fin
+ *         à partir de 8.0.12, à n'importe quelle position à partir de 8.0.29), suppression d'une colonne
+ *         (8.0.29), ajout ou suppression d'une colonne {@link DBColumnKind#GENERATED_VIRTUAL} sans index,
+ *         changement de valeur par défaut ou de visibilité, valeurs ajoutées à la fin d'un {@code ENUM}
+ *         ou d'un {@code SET} sans en changer la taille;
+ *     </li>
+ *     <li>
+ *         {@code INPLACE, LOCK=NONE}, qui laisse lire et écrire pendant l'opération : index secondaires
+ *         ajoutés, supprimés ou renommés, {@code VARCHAR} allongé sans changer la taille de son préfixe
+ *         de longueur, et, en reconstruisant la table, clé primaire, nullité et ordre des colonnes;
+ *     </li>
+ *     <li>
+ *         {@code COPY}, ou {@code INPLACE} avec {@code LOCK=SHARED}, qui bloquent les écritures pendant
+ *         toute l'opération : changement de type ou de jeu de caractères, colonne
+ *         {@link DBColumnKind#GENERATED_STORED}, changement de moteur, clé étrangère ajoutée (vérifiée
+ *         ligne par ligne), index {@code FULLTEXT} ou {@code SPATIAL} ajouté, repartitionnement.
+ *     </li>
+ * </ul>
+ * Les modifications sont regroupées en un {@code ALTER TABLE} par algorithme, dans un ordre où chaque
+ * instruction trouve la table dans l'état qu'elle attend : index supprimés, puis modifications
+ * {@code INSTANT}, {@code INPLACE}, bloquantes, et enfin opérations de partitionnement, qui ne se
+ * combinent pas avec les autres. Une clé sur une colonne ajoutée par une instruction plus tardive
+ * rejoint cette instruction, après la colonne.
+ * </p>
+ * <p>
+ * Dès qu'une modification bloque les écritures, la migration est accompagnée d'un avertissement et
+ * d'un plan de copie par morceaux, à exécuter à la place des {@code ALTER TABLE} : une table
+ * {@code _<table>_new} est créée dans la nouvelle version, des déclencheurs y reportent les écritures
+ * de la table, une procédure y copie les lignes par tranches de clé, puis {@code RENAME TABLE} échange
+ * les deux tables en une seule opération. Le plan demande une clé primaire (ou une clé unique sur des
+ * colonnes {@code NOT NULL}) conservée dans la nouvelle version.
+ * </p>
+ * <p>
+ * Les colonnes et les index sont appariés par leur nom : une colonne renommée est vue comme une
+ * colonne supprimée puis ajoutée. Les règles {@code INSTANT} dépendent de la version du serveur
+ * ({@link #DBSchemaDiff(int)}); le nombre de versions de ligne créées par des ajouts ou suppressions
+ * {@code INSTANT} est limité à 64 par table, après quoi MySQL exige une reconstruction.
+ * </p>
+ */
+public class DBSchemaDiff {
+
+    /** version de MySQL à partir de laquelle {@code ALGORITHM=INSTANT} existe */
+    public static final int INSTANT_VERSION = 80012;
+    /** version de MySQL à partir de laquelle une colonne s'ajoute à toute position et se supprime en {@code INSTANT} */
+    public static final int INSTANT_ANYWHERE_VERSION = 80029;
+
+    /** lignes copiées par tranche dans l'appel généré de la procédure de copie */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    /** pause en secondes entre deux tranches, qui laisse les répliques rattraper la source */
+    public static final double DEFAULT_CHUNK_PAUSE = 0.1;
+
+    private static final String INDENT = "  ";
+
+    public enum Algorithm {
+        INSTANT,
+        INPLACE,
+        COPY
+    }
+
+    // dans l'ordre des instructions produites
+    private enum Phase {
+        DROP_KEYS(Algorithm.INPLACE, "NONE"),
+        INSTANT(Algorithm.INSTANT, null),
+        INPLACE(Algorithm.INPLACE, "NONE"),
+        SHARED(Algorithm.INPLACE, "SHARED"),
+        COPY(Algorithm.COPY, "SHARED"),
+        ADD_PARTITION(Algorithm.INPLACE, "NONE"),
+        DROP_PARTITION(Algorithm.INPLACE, null),
+        PARTITION_BY(Algorithm.COPY, null);
+
+        final Algorithm algorithm;
+        final String lock;
+
+        Phase(Algorithm algorithm, String lock) {
+            this.algorithm = algorithm;
+            this.lock = lock;
+        }
+
+        boolean isPartitioning() {
+            return this == ADD_PARTITION || this == DROP_PARTITION || this == PARTITION_BY;
+        }
+    }
+
+    /**
+     * Une modification : clause d'{@code ALTER TABLE} et algorithme qu'elle permet.
+     */
+    public static final class Change {
+
+        private final Phase phase;
+        private final boolean rebuild;
+        private final String clause;
+        private final String description;
+
+        private Change(Phase phase, boolean rebuild, String clause, String description) {
+            this.phase = phase;
+            this.rebuild = rebuild;
+            this.clause = clause;
+            this.description = description;
+        }
+
+        public Algorithm getAlgorithm() {
+            return phase.algorithm;
+        }
+
+        /**
+         * @return {@code true} si l'opération reconstruit la table (toujours pour {@code COPY})
+         */
+        public boolean isRebuild() {
+            return rebuild || phase.algorithm == Algorithm.COPY;
+        }
+
+        /**
+         * @return {@code true} si les écritures sur la table sont bloquées pendant toute l'opération
+         */
+        public boolean isBlocking() {
+            return "SHARED".equals(phase.lock) || phase == Phase.PARTITION_BY;
+        }
+
+        /**
+         * @return la clause telle qu'elle s'écrit après {@code ALTER TABLE <table>}
+         */
+        public String getClause() {
+            return clause;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        private String label() {
+            if (isBlocking()) {
+                return phase.algorithm + ", blocks writes";
+            }
+            return rebuild ? phase.algorithm + ", rebuilds the table" : phase.algorithm.toString();
+        }
+    }
+
+    /**
+     * Migration d'une table : modifications, avertissements et, si une modification bloque les
+     * écritures, plan de copie par morceaux.
+     */
+    public static final class Migration {
+
+        private final DBTable before;
+        private final DBTable after;
+        private final List<Change> changes = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+        private String copyPlan;
+
+        private Migration(DBTable before, DBTable after) {
+            this.before = before;
+            this.after = after;
+        }
+
+        public DBTable getBefore() {
+            return before;
+        }
+
+        public DBTable getAfter() {
+            return after;
+        }
+
+        /**
+         * @return les modifications dans l'ordre d'exécution
+         */
+        public List<Change> getChanges() {
+            return Collections.unmodifiableList(changes);
+        }
+
+        public List<String> getWarnings() {
+            return Collections.unmodifiableList(warnings);
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty() && warnings.isEmpty();
+        }
+
+        /**
+         * @return {@code true} si une modification copie la table ou bloque ses écritures
+         */
+        public boolean requiresCopy() {
+            for (Change change : changes) {
+                if (change.isBlocking()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return le script de copie par morceaux, ou {@code null} si aucune modification ne bloque
+         * les écritures ou si la table n'a pas de clé pour découper la copie
+         */
+        public String getCopyPlan() {
+            return copyPlan;
+        }
+
+        /**
+         * Ajoute les avertissements en commentaires SQL, puis les {@code ALTER TABLE}, chacun précédé
+         * des modifications qu'il fait et de leur algorithme, puis le plan de copie s'il y en a un.
+         * N'ajoute rien si les deux versions sont identiques.
+         */
+        public StringBuilder appendTo(StringBuilder out) {
+            if (isEmpty()) {
+                return out;
+            }
+            out.append("\n-- migration of ");
+            DBRoutineGenerator.appendIdentifier(out, before.getName()).append('\n');
+            for (String warning : warnings) {
+                out.append("-- warning: ").append(warning).append('\n');
+            }
+            appendAlters(out);
+            if (copyPlan != null) {
+                out.append('\n').append(copyPlan);
+            }
+            return out;
+        }
+
+        /**
+         * Ajoute les seuls {@code ALTER TABLE}.
+         */
+        public StringBuilder appendAlters(StringBuilder out) {
+            int start = 0;
+            while (start < changes.size()) {
+                Phase phase = changes.get(start).phase;
+                int end = start + 1;
+                while (!phase.isPartitioning() && end < changes.size() && changes.get(end).phase == phase) {
+                    end++;
+                }
+                List<Change> statement = changes.subList(start, end);
+                for (Change change : statement) {
+                    out.append("-- ").append(change.label()).append(": ").append(change.description).append('\n');
+                }
+                if (statement.get(0).isBlocking()) {
+                    out.append("-- warning: blocks writes to the table until it ends")
+                            .append(copyPlan != null ? "; see the copy-and-swap plan below\n" : "\n");
+                }
+                out.append("ALTER TABLE ");
+                DBRoutineGenerator.appendIdentifier(out, before.getName());
+                if (phase.isPartitioning()) {
+                    // une opération de partitionnement suit les options, sans rien après elle
+                    if (phase != Phase.PARTITION_BY) {
+                        appendOptions(out.append(' '), phase).append(',');
+                    }
+                    out.append('\n').append(statement.get(0).clause);
+                } else {
+                    for (Change change : statement) {
+                        out.append('\n').append(INDENT).append(change.clause).append(',');
+                    }
+                    appendOptions(out.append('\n').append(INDENT), phase);
+                }
+                out.append(";\n");
+                start = end;
+            }
+            return out;
+        }
+
+        private static StringBuilder appendOptions(StringBuilder out, Phase phase) {
+            out.append("ALGORITHM=").append(phase.algorithm);
+            return phase.lock != null ? out.append(", LOCK=").append(phase.lock) : out;
+        }
+    }
+
+    private final int serverVersion;
+    private final DBDDLGenerator ddlGenerator = new DBDDLGenerator();
+
+    public DBSchemaDiff() {
+        this(INSTANT_ANYWHERE_VERSION);
+    }
+
+    /**
+     * @param serverVersion version du serveur cible, majeure × 10 000 + mineure × 100 + correctif :
+     *                      80029 pour MySQL 8.0.29
+     * @throws IllegalArgumentException pour une version antérieure à MySQL 8.0
+     */
+    public DBSchemaDiff(int serverVersion) {
+        if (serverVersion < 80000) {
+            throw new IllegalArgumentException("MySQL 8.0 or later is required: " + serverVersion);
+        }
+        this.serverVersion = serverVersion;
+    }
+
+    /**
+     * Compare deux versions d'une même table. Le nom de la table est celui de {@code before}.
+     */
+    public Migration diff(DBTable before, DBTable after) {
+        Migration migration = new Migration(before, after);
+        boolean fulltext = hasKey(before, DBKeyType.FULLTEXT_INDEX);
+        DBKey oldPrimary = before.getPrimaryKey();
+
+        // colonnes virtuelles non indexées redéfinies : supprimées puis ajoutées, en INSTANT
+        List<String> replaced = new ArrayList<>();
+        for (DBColumn column : after.getColumns()) {
+            DBColumn old = before.getColumn(column.getName());
+            if (old != null && kind(old) == DBColumnKind.GENERATED_VIRTUAL && kind(column) == DBColumnKind.GENERATED_VIRTUAL
+                    && !(sameType(old, column) && Objects.equals(trim(old.getGenerationExpression()),
+                    trim(column.getGenerationExpression())))
+                    && !isIndexed(before, old.getName()) && !isIndexed(after, column.getName())) {
+                replaced.add(column.getName().toLowerCase(Locale.ROOT));
+            }
+        }
+
+        // index conservés, remplacés, renommés, supprimés et ajoutés
+        List<DBKey> oldKeys = new ArrayList<>(before.getKeys());
+        List<DBKey> newKeys = new ArrayList<>();
+        List<DBKey> replacedKeys = new ArrayList<>();
+        for (DBKey key : after.getKeys()) {
+            DBKey old = matchingKey(oldKeys, key);
+            if (old == null) {
+                newKeys.add(key);
+            } else {
+                oldKeys.remove(old);
+                if (!sameKey(old, key)) {
+                    replacedKeys.add(old);
+                    replacedKeys.add(key);
+                }
+            }
+        }
+        List<DBKey[]> renamedKeys = new ArrayList<>();
+        for (DBKey key : new ArrayList<>(newKeys)) {
+            if (key.getName() == null || !key.getKeyType().isIndex() || key.getKeyType() == DBKeyType.PRIMARY_KEY) {
+                continue;
+            }
+            for (DBKey old : oldKeys) {
+                if (old.getName() != null && old.getKeyType() == key.getKeyType() && sameKey(old, key)) {
+                    oldKeys.remove(old);
+                    newKeys.remove(key);
+                    renamedKeys.add(new DBKey[] {old, key});
+                    break;
+                }
+            }
+        }
+
+        boolean convert = false;
+        String[] oldCharset = tableCharset(before);
+        String[] newCharset = tableCharset(after);
+        if (!Objects.equals(oldCharset[0], newCharset[0]) || !Objects.equals(oldCharset[1], newCharset[1])) {
+            for (DBColumn column : after.getColumns()) {
+                DBColumn old = before.getColumn(column.getName());
+                convert |= old != null && isTextual(old.getDataType()) && inherits(old) && inherits(column);
+            }
+        }
+
+        for (DBKey key : oldKeys) {
+            if (key.getKeyType() != DBKeyType.PRIMARY_KEY && dropKey(migration, key, true)) {
+                add(migration, Phase.DROP_KEYS, false, dropClause(key), "drop " + describe(key));
+            }
+        }
+
+        for (DBColumn old : before.getColumns()) {
+            boolean dropped = after.getColumn(old.getName()) == null;
+            if (!dropped && !replaced.contains(old.getName().toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            String clause = "DROP COLUMN " + quote(old.getName());
+            String description = dropped ? "drop column " + quote(old.getName())
+                    : "drop virtual column " + quote(old.getName()) + " to redefine it";
+            if (dropped && (contains(oldPrimary, old.getName()) || containsColumn(replacedKeys, old.getName()))) {
+                add(migration, Phase.INPLACE, true, clause, description + ", part of a changed key");
+            } else if (kind(old) == DBColumnKind.GENERATED_VIRTUAL) {
+                add(migration, instant(INSTANT_VERSION), false, clause, description);
+            } else if (kind(old) == DBColumnKind.GENERATED_STORED || fulltext) {
+                add(migration, Phase.INPLACE, true, clause, description + (fulltext ? ", table has a FULLTEXT index" : ""));
+            } else {
+                Phase phase = instant(INSTANT_ANYWHERE_VERSION);
+                add(migration, phase, phase != Phase.INSTANT, clause, description);
+            }
+        }
+
+        // colonnes conservées dont l'ordre relatif change : celles hors de la plus longue sous-suite déjà ordonnée
+        List<DBColumn> kept = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        List<DBColumn> oldKept = new ArrayList<>();
+        for (DBColumn old : before.getColumns()) {
+            if (after.getColumn(old.getName()) != null && !replaced.contains(old.getName().toLowerCase(Locale.ROOT))) {
+                oldKept.add(old);
+            }
+        }
+        for (DBColumn column : after.getColumns()) {
+            DBColumn old = before.getColumn(column.getName());
+            if (old != null && oldKept.contains(old)) {
+                kept.add(column);
+                positions.add(oldKept.indexOf(old));
+            }
+        }
+        boolean[] stable = longestIncreasing(positions);
+        boolean reorder = false;
+        for (boolean inPlace : stable) {
+            reorder |= !inPlace;
+        }
+
+        // phase de l'instruction qui ajoute chaque colonne : une clé sur une colonne ajoutée ne peut la précéder
+        Map<String, Phase> added = new HashMap<>();
+        List<DBColumn> columns = after.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            DBColumn column = columns.get(i);
+            int index = kept.indexOf(column);
+            if (index >= 0) {
+                diffColumn(migration, before.getColumn(column.getName()), column, stable[index] ? null : position(columns, i),
+                        convert, fulltext);
+                continue;
+            }
+            boolean trailing = true;
+            for (int j = i + 1; j < columns.size() && trailing; j++) {
+                trailing = !kept.contains(columns.get(j));
+            }
+            StringBuilder clause = new StringBuilder("ADD COLUMN ");
+            ddlGenerator.appendColumn(column, clause);
+            if (!trailing || reorder) {
+                clause.append(position(columns, i));
+            }
+            String description = (replaced.contains(column.getName().toLowerCase(Locale.ROOT)) ? "redefine virtual column "
+                    : "add column ") + quote(column.getName()) + (trailing ? " at the end" : "");
+            if (kind(column) == DBColumnKind.GENERATED_STORED) {
+                add(migration, Phase.COPY, true, clause.toString(), description + ", STORED generated column");
+            } else if (column.getAutoIncrement() != null) {
+                add(migration, Phase.SHARED, true, clause.toString(), description + ", AUTO_INCREMENT column");
+            } else if (reorder || fulltext) {
+                add(migration, Phase.INPLACE, true, clause.toString(),
+                        description + (fulltext ? ", table has a FULLTEXT index" : ", columns are reordered"));
+            } else {
+                Phase phase = instant(kind(column) == DBColumnKind.GENERATED_VIRTUAL || trailing
+                        ? INSTANT_VERSION : INSTANT_ANYWHERE_VERSION);
+                add(migration, phase, phase != Phase.INSTANT && kind(column) != DBColumnKind.GENERATED_VIRTUAL,
+                        clause.toString(), description);
+            }
+            added.put(column.getName().toLowerCase(Locale.ROOT), migration.changes.get(migration.changes.size() - 1).phase);
+        }
+
+        DBKey newPrimary = after.getPrimaryKey();
+        if (oldPrimary != null && newPrimary == null) {
+            add(migration, Phase.COPY, true, "DROP PRIMARY KEY", "drop the primary key without adding another");
+        } else if (newPrimary != null && (oldPrimary == null || !sameKey(oldPrimary, newPrimary))) {
+            StringBuilder clause = new StringBuilder(oldPrimary != null ? "DROP PRIMARY KEY, ADD " : "ADD ");
+            ddlGenerator.appendKey(newPrimary, clause);
+            addAfterColumns(migration, added, newPrimary, Phase.INPLACE, true, clause.toString(),
+                    (oldPrimary != null ? "change " : "add ") + describe(newPrimary));
+        }
+        for (int i = 0; i < replacedKeys.size(); i += 2) {
+            DBKey old = replacedKeys.get(i);
+            DBKey key = replacedKeys.get(i + 1);
+            if (key.getKeyType() == DBKeyType.PRIMARY_KEY) {
+                continue;
+            }
+            if (dropKey(migration, old, false)) {
+                // un index redéfini est supprimé dans l'instruction qui l'ajoute : une clé étrangère qui s'en sert n'en est jamais privée
+                add(migration, key.getKeyType() == DBKeyType.FOREIGN_KEY ? Phase.DROP_KEYS : Phase.INPLACE, false,
+                        dropClause(old), "drop " + describe(old) + " to redefine it");
+            }
+            addKey(migration, added, key, fulltext);
+        }
+        for (DBKey[] pair : renamedKeys) {
+            add(migration, Phase.INPLACE, false, "RENAME INDEX " + quote(pair[0].getName()) + " TO " + quote(pair[1].getName()),
+                    "rename " + describe(pair[0]) + " to " + quote(pair[1].getName()));
+        }
+        for (DBKey key : newKeys) {
+            if (key.getKeyType() != DBKeyType.PRIMARY_KEY) {
+                addKey(migration, added, key, fulltext);
+            }
+        }
+
+        diffOptions(migration, before, after, convert, newCharset);
+        diffPartitioning(migration, before, after);
+
+        migration.changes.sort((a, b) -> Integer.compare(a.phase.ordinal(), b.phase.ordinal()));
+        if (migration.requiresCopy()) {
+            migration.copyPlan = copyPlan(migration);
+        }
+        return migration;
+    }
+
+    private void diffColumn(Migration migration, DBColumn old, DBColumn column, String position, boolean convert,
+                            boolean fulltext) {
+        String name = quote(column.getName());
+        List<String> reasons = new ArrayList<>();
+        Phase phase = Phase.INSTANT;
+        boolean rebuild = false;
+        boolean modify = position != null;
+        if (position != null) {
+            reasons.add("move after the reordered columns");
+            phase = Phase.INPLACE;
+            rebuild = true;
+        }
+
+        if (kind(old) != kind(column)) {
+            reasons.add("change " + kind(old) + " to " + kind(column));
+            phase = Phase.COPY;
+            modify = true;
+        } else if (kind(column) != DBColumnKind.NORMAL && !Objects.equals(trim(old.getGenerationExpression()),
+                trim(column.getGenerationExpression()))) {
+            reasons.add("change the expression of a " + (kind(column) == DBColumnKind.GENERATED_STORED
+                    ? "STORED" : "indexed VIRTUAL") + " column");
+            phase = Phase.COPY;
+            modify = true;
+        }
+        if (!sameType(old, column)) {
+            modify = true;
+            DBDataType type = column.getDataType();
+            if (type == old.getDataType() && (type == DBDataType.ENUM || type == DBDataType.SET)
+                    && startsWith(column.getValues(), old.getValues())
+                    && type.maxSize(old, 1) == type.maxSize(column, 1)) {
+                reasons.add("append " + type + " values");
+                phase = max(phase, instant(INSTANT_VERSION));
+            } else if (type == old.getDataType() && type.getStorage() == DBDataType.Storage.VARIABLE_LENGTH
+                    && Objects.equals(old.getScale(), column.getScale()) && old.getLength() != null
+                    && column.getLength() != null && column.getLength() >= old.getLength()
+                    && type.getLengthPrefix(maxSize(migration.before, old)) == type.getLengthPrefix(maxSize(migration.after, column))) {
+                reasons.add("extend " + type + " from " + old.getLength() + " to " + column.getLength());
+                phase = max(phase, Phase.INPLACE);
+            } else {
+                StringBuilder from = DBRoutineGenerator.appendType(new StringBuilder("change type from "), old).append(" to ");
+                reasons.add(DBRoutineGenerator.appendType(from, column).toString());
+                phase = Phase.COPY;
+            }
+        }
+        if (isTextual(column.getDataType()) && !(convert && inherits(old) && inherits(column))
+                && (!Objects.equals(lower(old.getCharset()), lower(column.getCharset()))
+                || !Objects.equals(lower(old.getCollation()), lower(column.getCollation())))) {
+            reasons.add("change character set or collation");
+            phase = Phase.COPY;
+            modify = true;
+        }
+        if ((old.getAutoIncrement() != null) != (column.getAutoIncrement() != null)) {
+            reasons.add(column.getAutoIncrement() != null ? "make AUTO_INCREMENT" : "remove AUTO_INCREMENT");
+            phase = Phase.COPY;
+            modify = true;
+        }
+        if (Boolean.TRUE.equals(old.getNotNull()) != Boolean.TRUE.equals(column.getNotNull())) {
+            boolean notNull = Boolean.TRUE.equals(column.getNotNull());
+            reasons.add(notNull ? "make NOT NULL" : "make nullable");
+            phase = max(phase, Phase.INPLACE);
+            rebuild = true;
+            modify = true;
+            if (notNull) {
+                migration.warnings.add("making " + name + " NOT NULL fails while rows hold NULL in it (strict SQL mode)");
+            }
+        }
+        if (!Objects.equals(old.getComment(), column.getComment()) || !Objects.equals(old.getOnUpdate(), column.getOnUpdate())) {
+            reasons.add("change comment or ON UPDATE");
+            phase = max(phase, Phase.INPLACE);
+            modify = true;
+        }
+        boolean defaultChanged = !Objects.equals(trim(old.getDefaultExpression()), trim(column.getDefaultExpression()));
+        boolean hiddenChanged = Boolean.TRUE.equals(old.getHidden()) != Boolean.TRUE.equals(column.getHidden());
+        if (modify) {
+            if (defaultChanged) {
+                reasons.add("change the default");
+            }
+            if (hiddenChanged) {
+                reasons.add(Boolean.TRUE.equals(column.getHidden()) ? "make invisible" : "make visible");
+            }
+            StringBuilder clause = new StringBuilder("MODIFY COLUMN ");
+            ddlGenerator.appendColumn(column, clause);
+            if (position != null) {
+                clause.append(position);
+            }
+            if (phase == Phase.INPLACE && fulltext && rebuild) {
+                reasons.add("table has a FULLTEXT index");
+            }
+            add(migration, phase, rebuild && phase != Phase.COPY, clause.toString(), name + ": " + String.join(", ", reasons));
+            return;
+        }
+        // seuls la valeur par défaut ou la visibilité changent : ALTER COLUMN, sans toucher à la définition
+        if (defaultChanged) {
+            String clause = "ALTER COLUMN " + name + (column.getDefaultExpression() != null
+                    ? " SET DEFAULT " + column.getDefaultExpression() : " DROP DEFAULT");
+            add(migration, instant(INSTANT_VERSION), false, clause, name + ": change the default");
+        }
+        if (hiddenChanged) {
+            boolean hidden = Boolean.TRUE.equals(column.getHidden());
+            add(migration, Phase.INSTANT, false, "ALTER COLUMN " + name + (hidden ? " SET INVISIBLE" : " SET VISIBLE"),
+                    name + (hidden ? ": make invisible" : ": make visible"));
+        }
+    }
+
+    private void addKey(Migration migration, Map<String, Phase> added, DBKey key, boolean fulltext) {
+        StringBuilder clause = new StringBuilder("ADD ");
+        ddlGenerator.appendKey(key, clause);
+        String description = "add " + describe(key);
+        switch (key.getKeyType()) {
+            case FOREIGN_KEY:
+                addAfterColumns(migration, added, key, Phase.COPY, true, clause.toString(), description
+                        + ", checked row by row (INPLACE only with foreign_key_checks=0, which skips that check)");
+                break;
+            case FULLTEXT_INDEX:
+                addAfterColumns(migration, added, key, Phase.SHARED, !fulltext, clause.toString(), description);
+                break;
+            case SPATIAL_INDEX:
+                addAfterColumns(migration, added, key, Phase.SHARED, false, clause.toString(), description);
+                break;
+            default:
+                addAfterColumns(migration, added, key, Phase.INPLACE, false, clause.toString(), description);
+                if (key.getKeyType() == DBKeyType.UNIQUE_KEY) {
+                    migration.warnings.add("adding " + describe(key) + " fails if rows already hold duplicate values");
+                }
+                break;
+        }
+    }
+
+    // false, avec un avertissement, pour une clé sans nom que MySQL a nommée lui-même
+    private static boolean dropKey(Migration migration, DBKey key, boolean dropped) {
+        if (key.getName() != null) {
+            return true;
+        }
+        migration.warnings.add(describe(key) + " has no name in the DDL: look up the name MySQL gave it and drop it"
+                + (dropped ? "" : " before this migration"));
+        return false;
+    }
+
+    private void diffOptions(Migration migration, DBTable before, DBTable after, boolean convert, String[] charset) {
+        if (before.getEngine() != null && after.getEngine() != null && !before.getEngine().equalsIgnoreCase(after.getEngine())) {
+            add(migration, Phase.COPY, true, "ENGINE=" + after.getEngine(),
+                    "change the engine from " + before.getEngine() + " to " + after.getEngine());
+        }
+        String[] oldCharset = tableCharset(before);
+        if (!Objects.equals(oldCharset[0], charset[0]) || !Objects.equals(oldCharset[1], charset[1])) {
+            StringBuilder clause = new StringBuilder(convert ? "CONVERT TO CHARACTER SET " : "DEFAULT CHARSET=");
+            clause.append(charset[0]);
+            if (charset[1] != null) {
+                clause.append(convert ? " COLLATE " : " COLLATE=").append(charset[1]);
+            }
+            if (convert) {
+                add(migration, Phase.COPY, true, clause.toString(), "convert the text columns to the new default character set");
+            } else {
+                add(migration, Phase.INPLACE, true, clause.toString(), "change the default character set");
+            }
+        }
+        if (!Objects.equals(before.getComment(), after.getComment())) {
+            StringBuilder clause = new StringBuilder("COMMENT=");
+            DBRoutineGenerator.appendString(clause, after.getComment() != null ? after.getComment() : "");
+            add(migration, Phase.INPLACE, false, clause.toString(), "change the table comment");
+        }
+    }
+
+    private void diffPartitioning(Migration migration, DBTable before, DBTable after) {
+        if (samePartitioning(before, after) && before.getPartitions().size() == after.getPartitions().size()
+                && samePartitions(before.getPartitions(), after.getPartitions(), after.getPartitions().size())) {
+            return;
+        }
+        if (after.getPartitionMethod() == null) {
+            add(migration, Phase.PARTITION_BY, true, "REMOVE PARTITIONING", "remove partitioning");
+            return;
+        }
+        List<DBPartition> oldPartitions = before.getPartitions();
+        List<DBPartition> newPartitions = after.getPartitions();
+        String method = after.getPartitionMethod().toUpperCase(Locale.ROOT);
+        if (before.getPartitionMethod() != null && samePartitioning(before, after)
+                && (method.startsWith("RANGE") || method.startsWith("LIST")) && !oldPartitions.isEmpty()) {
+            if (newPartitions.size() > oldPartitions.size()
+                    && samePartitions(oldPartitions, newPartitions, oldPartitions.size())) {
+                StringBuilder clause = new StringBuilder("ADD PARTITION (");
+                List<String> names = new ArrayList<>();
+                for (int i = oldPartitions.size(); i < newPartitions.size(); i++) {
+                    clause.append(i > oldPartitions.size() ? ",\n " : "");
+                    ddlGenerator.appendPartitionDefinition(newPartitions.get(i), clause);
+                    names.add(quote(newPartitions.get(i).getName()));
+                }
+                add(migration, Phase.ADD_PARTITION, false, clause.append(')').toString(),
+                        "add partitions " + String.join(", ", names));
+                return;
+            }
+            List<String> dropped = droppedPartitions(oldPartitions, newPartitions);
+            if (dropped != null) {
+                StringBuilder clause = new StringBuilder("DROP PARTITION ");
+                for (int i = 0; i < dropped.size(); i++) {
+                    DBRoutineGenerator.appendIdentifier(clause.append(i > 0 ? ", " : ""), dropped.get(i));
+                }
+                add(migration, Phase.DROP_PARTITION, false, clause.toString(), "drop partitions, metadata lock only");
+                migration.warnings.add("DROP PARTITION deletes the rows stored in " + String.join(", ", dropped));
+                return;
+            }
+        }
+        StringBuilder clause = new StringBuilder();
+        ddlGenerator.appendPartitioning(after, clause);
+        add(migration, Phase.PARTITION_BY, true, clause.toString(), "repartition the table");
+    }
+
+    // parties supprimées d'une liste dont les autres sont inchangées et dans le même ordre, sinon null
+    private static List<String> droppedPartitions(List<DBPartition> oldPartitions, List<DBPartition> newPartitions) {
+        if (newPartitions.isEmpty() || newPartitions.size() >= oldPartitions.size()) {
+            return null;
+        }
+        List<String> dropped = new ArrayList<>();
+        int j = 0;
+        for (DBPartition partition : oldPartitions) {
+            if (j < newPartitions.size() && samePartition(partition, newPartitions.get(j))) {
+                j++;
+            } else {
+                dropped.add(partition.getName());
+            }
+        }
+        return j == newPartitions.size() ? dropped : null;
+    }
+
+    /*
+     * Plan de copie par morceaux, dans l'esprit de pt-online-schema-change : les déclencheurs remplacent
+     * dans la nouvelle table chaque ligne écrite dans l'ancienne, et la copie, par INSERT IGNORE, ne
+     * remplace jamais une ligne déjà reportée par eux. Chaque tranche lit ses lignes avec FOR SHARE, ce
+     * qui met en attente les écritures concurrentes sur ces seules lignes le temps de la tranche.
+     */
+    private String copyPlan(Migration migration) {
+        DBTable before = migration.before;
+        DBTable after = migration.after;
+        List<DBColumn> key = DBRoutineGenerator.identifierColumns(before);
+        List<DBColumn> sources = new ArrayList<>();
+        List<DBColumn> targets = new ArrayList<>();
+        for (DBColumn column : after.getColumns()) {
+            DBColumn old = before.getColumn(column.getName());
+            if (old != null && kind(column) == DBColumnKind.NORMAL) {
+                sources.add(old);
+                targets.add(column);
+            }
+        }
+        String problem = null;
+        if (key.isEmpty()) {
+            problem = "the table has no primary or unique key to copy it in chunks";
+        } else {
+            for (DBColumn column : key) {
+                if (!contains(before.getPrimaryKey(), column.getName()) && !Boolean.TRUE.equals(column.getNotNull())) {
+                    problem = "key column " + quote(column.getName()) + " is nullable";
+                } else if (!sources.contains(column)) {
+                    problem = "key column " + quote(column.getName()) + " is not copied to the new version";
+                }
+            }
+        }
+        if (problem != null) {
+            migration.warnings.add("no copy-and-swap plan: " + problem);
+            return null;
+        }
+
+        String table = before.getName();
+        String newTable = objectName(table, "new");
+        String oldTable = objectName(table, "old");
+        String copy = objectName(table, "copy");
+        DBTable target = copyOf(after, newTable, migration);
+        for (DBKey unique : after.getKeys()) {
+            if (unique.getKeyType() == DBKeyType.UNIQUE_KEY && matchingKey(before.getKeys(), unique) == null) {
+                migration.warnings.add("the copy skips rows that duplicate values of the new " + describe(unique));
+            }
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("-- copy-and-swap plan for ");
+        DBRoutineGenerator.appendIdentifier(out, table).append(", to run instead of the statements above:\n");
+        out.append("-- triggers apply concurrent writes to ");
+        DBRoutineGenerator.appendIdentifier(out, newTable).append(" while ");
+        DBRoutineGenerator.appendIdentifier(out, copy).append(" copies the rows in key order, chunk by chunk;\n");
+        out.append("-- INSERT IGNORE also turns conversion errors into warnings: check narrowed columns.\n");
+        out.append("-- Foreign keys of other tables that reference ");
+        DBRoutineGenerator.appendIdentifier(out, table).append(" follow it to ");
+        DBRoutineGenerator.appendIdentifier(out, oldTable).append(" and must be recreated.\n");
+        ddlGenerator.appendCreateTable(target, out);
+
+        out.append("\nDELIMITER $$\n");
+        appendTrigger(out, table, "ins", "INSERT").append("REPLACE INTO ");
+        appendRow(out, newTable, targets, sources).append("$$\n");
+        appendTrigger(out, table, "upd", "UPDATE").append("BEGIN\n");
+        out.append(INDENT).append("DELETE IGNORE FROM ");
+        DBRoutineGenerator.appendIdentifier(out, newTable).append(" WHERE NOT (");
+        for (int i = 0; i < key.size(); i++) {
+            out.append(i > 0 ? " AND " : "").append("OLD.");
+            DBRoutineGenerator.appendIdentifier(out, key.get(i).getName()).append(" <=> NEW.");
+            DBRoutineGenerator.appendIdentifier(out, key.get(i).getName());
+        }
+        appendKeyEquals(out.append(") AND "), key, "OLD.").append(";\n");
+        out.append(INDENT).append("REPLACE INTO ");
+        appendRow(out, newTable, targets, sources).append(";\n");
+        out.append("END$$\n");
+        appendTrigger(out, table, "del", "DELETE").append("DELETE IGNORE FROM ");
+        DBRoutineGenerator.appendIdentifier(out, newTable).append(" WHERE ");
+        appendKeyEquals(out, key, "OLD.").append("$$\n\n");
+
+        out.append("CREATE PROCEDURE ");
+        DBRoutineGenerator.appendIdentifier(out, copy).append("(IN p_chunk_size INT UNSIGNED, IN p_pause DOUBLE)\n");
+        out.append("BEGIN\n");
+        out.append(INDENT).append("DECLARE v_found BOOLEAN DEFAULT TRUE;\n");
+        out.append(INDENT).append("DECLARE v_skip INT UNSIGNED DEFAULT GREATEST(p_chunk_size, 1) - 1;\n");
+        for (String prefix : new String[] {"v_last_", "v_next_"}) {
+            for (int i = 0; i < key.size(); i++) {
+                out.append(INDENT).append("DECLARE ").append(prefix).append(i + 1).append(' ');
+                DBRoutineGenerator.appendType(out, key.get(i)).append(";\n");
+            }
+        }
+        out.append(INDENT).append("DECLARE CONTINUE HANDLER FOR NOT FOUND SET v_found = FALSE;\n");
+        out.append(INDENT).append("SELECT ");
+        appendKeySelect(out, key, table, "v_last_", null).append(" LIMIT 1;\n");
+        out.append(INDENT).append("IF v_found THEN\n");
+        appendCopy(out, INDENT + INDENT, newTable, table, targets, sources);
+        appendKeyEquals(out, key, "v_last_").append(" FOR SHARE;\n");
+        out.append(INDENT).append("END IF;\n");
+        out.append(INDENT).append("WHILE v_found DO\n");
+        out.append(INDENT).append(INDENT).append("SELECT ");
+        appendKeySelect(out, key, table, "v_next_", "v_last_").append(" LIMIT v_skip, 1;\n");
+        out.append(INDENT).append(INDENT).append("IF v_found THEN\n");
+        appendCopy(out, INDENT + INDENT + INDENT, newTable, table, targets, sources);
+        appendKeyRange(out, key, "v_last_", '>', false).append(" AND ");
+        appendKeyRange(out, key, "v_next_", '<', true).append(" FOR SHARE;\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("SET ");
+        for (int i = 0; i < key.size(); i++) {
+            out.append(i > 0 ? ", " : "").append("v_last_").append(i + 1).append(" = v_next_").append(i + 1);
+        }
+        out.append(";\n");
+        out.append(INDENT).append(INDENT).append(INDENT).append("DO SLEEP(p_pause);\n");
+        out.append(INDENT).append(INDENT).append("ELSE\n");
+        appendCopy(out, INDENT + INDENT + INDENT, newTable, table, targets, sources);
+        appendKeyRange(out, key, "v_last_", '>', false).append(" FOR SHARE;\n");
+        out.append(INDENT).append(INDENT).append("END IF;\n");
+        out.append(INDENT).append("END WHILE;\n");
+        out.append("END$$\n");
+        out.append("DELIMITER ;\n\n");
+
+        out.append("CALL ");
+        DBRoutineGenerator.appendIdentifier(out, copy).append('(').append(DEFAULT_CHUNK_SIZE).append(", ")
+                .append(DEFAULT_CHUNK_PAUSE).append(");\n\n");
+        out.append("-- both renames happen in one atomic step\n");
+        out.append("RENAME TABLE ");
+        DBRoutineGenerator.appendIdentifier(out, table).append(" TO ");
+        DBRoutineGenerator.appendIdentifier(out, oldTable).append(", ");
+        DBRoutineGenerator.appendIdentifier(out, newTable).append(" TO ");
+        DBRoutineGenerator.appendIdentifier(out, table).append(";\n");
+        for (String suffix : new String[] {"ins", "upd", "del"}) {
+            DBRoutineGenerator.appendIdentifier(out.append("DROP TRIGGER "), objectName(table, suffix)).append(";\n");
+        }
+        DBRoutineGenerator.appendIdentifier(out.append("DROP PROCEDURE "), copy).append(";\n");
+        out.append("-- once the new table is checked:\n-- DROP TABLE ");
+        DBRoutineGenerator.appendIdentifier(out, oldTable).append(";\n");
+        return out.toString();
+    }
+
+    // nouvelle version sous un autre nom; les noms de clés étrangères étant uniques dans un schéma, ils sont préfixés
+    private static DBTable copyOf(DBTable table, String name, Migration migration) {
+        DBTable copy = new DBTable(name);
+        copy.setComment(table.getComment());
+        copy.setEngine(table.getEngine());
+        copy.setCharset(table.getCharset());
+        copy.setCollation(table.getCollation());
+        copy.setColumns(table.getColumns());
+        copy.setPartitionMethod(table.getPartitionMethod());
+        copy.setPartitionExpression(table.getPartitionExpression());
+        copy.setPartitionCount(table.getPartitionCount());
+        copy.setSubPartitionMethod(table.getSubPartitionMethod());
+        copy.setSubPartitionExpression(table.getSubPartitionExpression());
+        copy.setSubPartitionCount(table.getSubPartitionCount());
+        copy.setPartitions(table.getPartitions());
+        List<DBKey> keys = new ArrayList<>(table.getKeys().size());
+        for (DBKey key : table.getKeys()) {
+            if (key.getKeyType() == DBKeyType.FOREIGN_KEY && key.getName() != null) {
+                String renamed = truncate("_" + key.getName());
+                DBKey foreign = new DBKey(key.getKeyType(), renamed, key.getColumns(), key.getReferencedTable(),
+                        key.getReferencedColumns(), key.getOnDelete(), key.getOnUpdate());
+                foreign.setPrefixLengths(key.getPrefixLengths());
+                keys.add(foreign);
+                migration.warnings.add("the copy-and-swap plan renames foreign key " + quote(key.getName()) + " to "
+                        + quote(renamed));
+            } else {
+                keys.add(key);
+            }
+        }
+        copy.setKeys(keys);
+        return copy;
+    }
+
+    private static StringBuilder appendTrigger(StringBuilder out, String table, String suffix, String event) {
+        out.append("CREATE TRIGGER ");
+        DBRoutineGenerator.appendIdentifier(out, objectName(table, suffix)).append(" AFTER ").append(event).append(" ON ");
+        return DBRoutineGenerator.appendIdentifier(out, table).append(" FOR EACH ROW\n");
+    }
+
+    // `table` (cibles) VALUES (NEW.sources)
+    private static StringBuilder appendRow(StringBuilder out, String table, List<DBColumn> targets, List<DBColumn> sources) {
+        DBRoutineGenerator.appendIdentifier(out, table).append(" (");
+        appendNames(out, targets, "").append(") VALUES (");
+        return appendNames(out, sources, "NEW.").append(')');
+    }
+
+    private static void appendCopy(StringBuilder out, String indent, String newTable, String table,
+                                   List<DBColumn> targets, List<DBColumn> sources) {
+        out.append(indent).append("INSERT IGNORE INTO ");
+        DBRoutineGenerator.appendIdentifier(out, newTable).append(" (");
+        appendNames(out, targets, "").append(")\n");
+        out.append(indent).append(INDENT).append("SELECT ");
+        appendNames(out, sources, "").append(" FROM ");
+        DBRoutineGenerator.appendIdentifier(out, table).append(" WHERE ");
+    }
+
+    private static StringBuilder appendNames(StringBuilder out, List<DBColumn> columns, String prefix) {
+        for (int i = 0; i < columns.size(); i++) {
+            DBRoutineGenerator.appendIdentifier(out.append(i > 0 ? ", " : "").append(prefix), columns.get(i).getName());
+        }
+        return out;
+    }
+
+    // colonnes de la clé INTO les variables, dans l'ordre de la clé, après la clé des variables from si non null
+    private static StringBuilder appendKeySelect(StringBuilder out, List<DBColumn> key, String table, String variable,
+                                                 String from) {
+        appendNames(out, key, "").append(" INTO ");
+        for (int i = 0; i < key.size(); i++) {
+            out.append(i > 0 ? ", " : "").append(variable).append(i + 1);
+        }
+        DBRoutineGenerator.appendIdentifier(out.append(" FROM "), table);
+        if (from != null) {
+            appendKeyRange(out.append(" WHERE "), key, from, '>', false);
+        }
+        return appendNames(out.append(" ORDER BY "), key, "");
+    }
+
+    private static StringBuilder appendKeyEquals(StringBuilder out, List<DBColumn> key, String variable) {
+        for (int i = 0; i < key.size(); i++) {
+            DBRoutineGenerator.appendIdentifier(out.append(i > 0 ? " AND " : ""), key.get(i).getName());
+            out.append(" <=> ").append(variable);
+            if (variable.startsWith("OLD.")) {
+                DBRoutineGenerator.appendIdentifier(out, key.get(i).getName());
+            } else {
+                out.append(i + 1);
+            }
+        }
+        return out;
+    }
+
+    /*
+     * Comparaison de la clé aux variables, développée comme le fait pt-online-schema-change pour que
+     * l'optimiseur en tire un intervalle de l'index : (a > v1 OR (a = v1 AND b > v2)). Avec inclusive,
+     * la dernière comparaison accepte l'égalité.
+     */
+    private static StringBuilder appendKeyRange(StringBuilder out, List<DBColumn> key, String variable, char operator,
+                                                boolean inclusive) {
+        out.append('(');
+        for (int i = 0; i < key.size(); i++) {
+            out.append(i > 0 ? " OR (" : "");
+            for (int j = 0; j < i; j++) {
+                DBRoutineGenerator.appendIdentifier(out, key.get(j).getName()).append(" = ").append(variable)
+                        .append(j + 1).append(" AND ");
+            }
+            DBRoutineGenerator.appendIdentifier(out, key.get(i).getName()).append(' ').append(operator)
+                    .append(inclusive && i == key.size() - 1 ? "= " : " ").append(variable).append(i + 1);
+            out.append(i > 0 ? ")" : "");
+        }
+        return out.append(')');
+    }
+
+    private Phase instant(int since) {
+        return serverVersion >= since ? Phase.INSTANT : Phase.INPLACE;
+    }
+
+    private static Phase max(Phase a, Phase b) {
+        return a.ordinal() >= b.ordinal() ? a : b;
+    }
+
+    private static void add(Migration migration, Phase phase, boolean rebuild, String clause, String description) {
+        migration.changes.add(new Change(phase, rebuild, clause, description));
+    }
+
+    /**
+     * Ajoute une clé dans sa phase, ou dans l'instruction qui ajoute la dernière de ses colonnes si
+     * celle-ci vient plus tard : la clé suit alors sa colonne dans le même {@code ALTER TABLE}, ce
+     * qu'exige aussi une colonne {@code AUTO_INCREMENT}, qui ne peut exister sans clé.
+     */
+    private static void addAfterColumns(Migration migration, Map<String, Phase> added, DBKey key, Phase phase,
+                                        boolean rebuild, String clause, String description) {
+        String latest = null;
+        for (int part = 0; part < key.getColumns().size(); part++) {
+            String column = key.getColumns().get(part).toLowerCase(Locale.ROOT);
+            Phase columnPhase = key.isFunctional(part) ? null : added.get(column);
+            if (columnPhase != null && columnPhase.ordinal() > phase.ordinal()) {
+                phase = columnPhase;
+                latest = key.getColumns().get(part);
+            }
+        }
+        add(migration, phase, rebuild, clause, latest == null ? description
+                : description + ", with the column " + quote(latest) + " it indexes");
+    }
+
+    private static String position(List<DBColumn> columns, int index) {
+        return index == 0 ? " FIRST" : " AFTER " + quote(columns.get(index - 1).getName());
+    }
+
+    /*
+     * Marque les positions qui forment la plus longue sous-suite croissante : ces colonnes restent en
+     * place, les autres sont déplacées, ce qui fait le moins de déplacements possible.
+     */
+    private static boolean[] longestIncreasing(List<Integer> positions) {
+        int n = positions.size();
+        int[] length = new int[n];
+        int[] previous = new int[n];
+        int best = -1;
+        for (int i = 0; i < n; i++) {
+            length[i] = 1;
+            previous[i] = -1;
+            for (int j = 0; j < i; j++) {
+                if (positions.get(j) < positions.get(i) && length[j] + 1 > length[i]) {
+                    length[i] = length[j] + 1;
+                    previous[i] = j;
+                }
+            }
+            if (best < 0 || length[i] > length[best]) {
+                best = i;
+            }
+        }
+        boolean[] stable = new boolean[n];
+        for (int i = best; i >= 0; i = previous[i]) {
+            stable[i] = true;
+        }
+        return stable;
+    }
+
+    private static DBKey matchingKey(List<DBKey> keys, DBKey key) {
+        for (DBKey old : keys) {
+            boolean foreign = old.getKeyType() == DBKeyType.FOREIGN_KEY;
+            if (foreign != (key.getKeyType() == DBKeyType.FOREIGN_KEY)) {
+                continue;
+            }
+            if (key.getKeyType() == DBKeyType.PRIMARY_KEY || old.getKeyType() == DBKeyType.PRIMARY_KEY) {
+                if (key.getKeyType() == old.getKeyType()) {
+                    return old;
+                }
+            } else if (key.getName() != null ? key.getName().equalsIgnoreCase(old.getName())
+                    : old.getName() == null && sameKey(old, key)) {
+                return old;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameKey(DBKey a, DBKey b) {
+        if (a.getKeyType() != b.getKeyType() || a.getColumns().size() != b.getColumns().size()) {
+            return false;
+        }
+        for (int part = 0; part < a.getColumns().size(); part++) {
+            if (!a.getColumns().get(part).equalsIgnoreCase(b.getColumns().get(part))
+                    || !Objects.equals(a.getPrefixLength(part), b.getPrefixLength(part))) {
+                return false;
+            }
+        }
+        return Objects.equals(lower(a.getReferencedTable()), lower(b.getReferencedTable()))
+                && Objects.equals(lowerAll(a.getReferencedColumns()), lowerAll(b.getReferencedColumns()))
+                && Objects.equals(lower(a.getOnDelete()), lower(b.getOnDelete()))
+                && Objects.equals(lower(a.getOnUpdate()), lower(b.getOnUpdate()));
+    }
+
+    private static boolean sameType(DBColumn a, DBColumn b) {
+        return a.getDataType() == b.getDataType()
+                && (hasDisplayWidth(a.getDataType()) || Objects.equals(a.getLength(), b.getLength()))
+                && Objects.equals(a.getScale(), b.getScale())
+                && Boolean.TRUE.equals(a.getUnsigned()) == Boolean.TRUE.equals(b.getUnsigned())
+                && Objects.equals(emptyIfNull(a.getValues()), emptyIfNull(b.getValues()));
+    }
+
+    /**
+     * La longueur d'un entier ou d'un YEAR n'est qu'une largeur d'affichage, sans effet sur le stockage :
+     * MySQL 8 ne la rend d'ailleurs plus dans {@code SHOW CREATE TABLE}, {@code INT(11)} devenant {@code INT}.
+     */
+    private static boolean hasDisplayWidth(DBDataType type) {
+        switch (type) {
+            case TINYINT:
+            case BOOL:
+            case BOOLEAN:
+            case SMALLINT:
+            case MEDIUMINT:
+            case INT:
+            case INTEGER:
+            case BIGINT:
+            case YEAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean samePartitioning(DBTable a, DBTable b) {
+        return Objects.equals(lower(a.getPartitionMethod()), lower(b.getPartitionMethod()))
+                && Objects.equals(trim(a.getPartitionExpression()), trim(b.getPartitionExpression()))
+                && Objects.equals(a.getPartitionCount(), b.getPartitionCount())
+                && Objects.equals(lower(a.getSubPartitionMethod()), lower(b.getSubPartitionMethod()))
+                && Objects.equals(trim(a.getSubPartitionExpression()), trim(b.getSubPartitionExpression()))
+                && Objects.equals(a.getSubPartitionCount(), b.getSubPartitionCount());
+    }
+
+    private static boolean samePartitions(List<DBPartition> a, List<DBPartition> b, int count) {
+        for (int i = 0; i < count; i++) {
+            if (!samePartition(a.get(i), b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean samePartition(DBPartition a, DBPartition b) {
+        return a.getName().equalsIgnoreCase(b.getName())
+                && Objects.equals(trim(a.getValues()), trim(b.getValues()))
+                && Objects.equals(trim(a.getOptions()), trim(b.getOptions()))
+                && a.getSubPartitions().size() == b.getSubPartitions().size()
+                && samePartitions(a.getSubPartitions(), b.getSubPartitions(), a.getSubPartitions().size());
+    }
+
+    // jeu de caractères et collation par défaut de la table; sans jeu de caractères déclaré, celui de la
+    // collation (son préfixe, binary excepté), à défaut celui du serveur
+    private static String[] tableCharset(DBTable table) {
+        String charset = lower(table.getCharset());
+        String collation = lower(table.getCollation());
+        if (charset == null && collation != null) {
+            int underscore = collation.indexOf('_');
+            charset = underscore > 0 ? collation.substring(0, underscore) : collation;
+        } else if (charset == null) {
+            charset = DBDataType.DEFAULT_CHARSET;
+        }
+        return new String[] {charset, collation};
+    }
+
+    private static long maxSize(DBTable table, DBColumn column) {
+        String charset = column.getCharset() != null ? column.getCharset() : column.getCollation();
+        if (charset == null) {
+            charset = tableCharset(table)[0];
+        }
+        return column.getDataType().maxSize(column, DBDataType.bytesPerCharacter(charset));
+    }
+
+    private static boolean isTextual(DBDataType type) {
+        switch (type) {
+            case TINYTEXT:
+            case TEXT:
+            case MEDIUMTEXT:
+            case LONGTEXT:
+            case ENUM:
+            case SET:
+                return true;
+            default:
+                return type.isCharacterString();
+        }
+    }
+
+    private static boolean inherits(DBColumn column) {
+        return column.getCharset() == null && column.getCollation() == null;
+    }
+
+    private static boolean hasKey(DBTable table, DBKeyType type) {
+        for (DBKey key : table.getKeys()) {
+            if (key.getKeyType() == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIndexed(DBTable table, String column) {
+        for (DBKey key : table.getKeys()) {
+            if (key.getKeyType() != DBKeyType.FOREIGN_KEY && contains(key, column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsColumn(List<DBKey> keys, String column) {
+        for (DBKey key : keys) {
+            if (contains(key, column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contains(DBKey key, String column) {
+        if (key != null) {
+            for (int part = 0; part < key.getColumns().size(); part++) {
+                if (!key.isFunctional(part) && key.getColumns().get(part).equalsIgnoreCase(column)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(List<String> values, List<String> prefix) {
+        return values != null && prefix != null && values.size() >= prefix.size()
+                && values.subList(0, prefix.size()).equals(prefix);
+    }
+
+    private static String dropClause(DBKey key) {
+        return (key.getKeyType() == DBKeyType.FOREIGN_KEY ? "DROP FOREIGN KEY " : "DROP INDEX ") + quote(key.getName());
+    }
+
+    private static String describe(DBKey key) {
+        StringBuilder out = new StringBuilder();
+        switch (key.getKeyType()) {
+            case PRIMARY_KEY:
+                out.append("primary key");
+                break;
+            case FOREIGN_KEY:
+                out.append("foreign key");
+                break;
+            case UNIQUE_KEY:
+                out.append("unique key");
+                break;
+            default:
+                out.append(key.getKeyType().getKey().toLowerCase(Locale.ROOT));
+                break;
+        }
+        if (key.getName() != null && key.getKeyType() != DBKeyType.PRIMARY_KEY) {
+            DBRoutineGenerator.appendIdentifier(out.append(' '), key.getName());
+        }
+        out.append(" (");
+        for (int part = 0; part < key.getColumns().size(); part++) {
+            out.append(part > 0 ? ", " : "").append(key.getColumns().get(part));
+        }
+        return out.append(')').toString();
+    }
+
+    private static DBColumnKind kind(DBColumn column) {
+        return column.getColumnKind() != null ? column.getColumnKind() : DBColumnKind.NORMAL;
+    }
+
+    // _<table>_<suffixe>, le nom de la table étant tronqué pour tenir dans un identifiant
+    private static String objectName(String table, String suffix) {
+        int room = DBIndexAdvisor.MAX_NAME_LENGTH - suffix.length() - 2;
+        return "_" + (table.length() > room ? table.substring(0, room) : table) + "_" + suffix;
+    }
+
+    private static String truncate(String name) {
+        return name.length() > DBIndexAdvisor.MAX_NAME_LENGTH ? name.substring(0, DBIndexAdvisor.MAX_NAME_LENGTH) : name;
+    }
+
+    private static String quote(String name) {
+        return DBRoutineGenerator.appendIdentifier(new StringBuilder(), name).toString();
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static List<String> lowerAll(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(values.size());
+        for (String value : values) {
+            result.add(lower(value));
+        }
+        return result;
+    }
+
+    private static List<String> emptyIfNull(List<String> values) {
+        return values != null ? values : List.of();
+    }
+
+    /**
+     * Écrit la migration des tables d'un dossier de fichiers {@code .sql} vers celles d'un autre. Une
+     * table nouvelle est créée; une table qui n'existe plus est seulement signalée, jamais supprimée.
+     * <p>
+     * Utilisation : {@code DBSchemaDiff <dossier sql actuel> <dossier sql cible> [<version du serveur>]}
+     * </p>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("usage: DBSchemaDiff <current sql directory> <target sql directory> [<server version>]");
+            System.exit(2);
+        }
+        DBSchemaDiff differ = args.length == 3 ? new DBSchemaDiff(Integer.parseInt(args[2])) : new DBSchemaDiff();
+        GenerateDBFiles reader = new GenerateDBFiles();
+        Map<String, DBTable> current = new LinkedHashMap<>();
+        for (DBTable table : reader.read(Path.of(args[0]))) {
+            current.put(table.getName().toLowerCase(Locale.ROOT), table);
+        }
+        StringBuilder out = new StringBuilder();
+        for (DBTable table : reader.read(Path.of(args[1]))) {
+            DBTable before = current.remove(table.getName().toLowerCase(Locale.ROOT));
+            if (before == null) {
+                out.append("\n-- new table\n");
+                differ.ddlGenerator.appendCreateTable(table, out);
+            } else {
+                differ.diff(before, table).appendTo(out);
+            }
+        }
+        for (DBTable table : current.values()) {
+            out.append("\n-- table ");
+            DBRoutineGenerator.appendIdentifier(out, table.getName()).append(" is no longer defined and is left in place\n");
+        }
+        System.out.print(out);
+    }
+}
@@ -0,0 +1,589 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * <h1>Estimation de la taille d'une table</h1>
+ *
+ * <p>
+ * À partir des types de ses colonnes ({@link DBDataType.Storage}) et d'un nombre de lignes, estime
+ * pour une table InnoDB (format de ligne {@code DYNAMIC}) :
+ * <ul>
+ *     <li>la taille d'une ligne telle que la compte le serveur, limitée à 65 535 octets : une table qui
+ *     la dépasse ne peut pas être créée;</li>
+ *     <li>la taille d'un enregistrement de l'index cluster à la longueur maximale de chaque colonne et
+ *     en moyenne : un enregistrement doit tenir dans une demi-page (8 126 octets pour des pages de
+ *     16 Ko), faute de quoi ses plus longues valeurs variables sont rangées hors de la ligne, dans des
+ *     pages de débordement, et n'y laissent qu'un pointeur de 20 octets;</li>
+ *     <li>le nombre d'enregistrements par page, le nombre de pages et la taille de l'index cluster et de
+ *     chaque index secondaire, niveaux non-feuilles compris.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Les pages d'un index rempli dans l'ordre de sa clé (clé primaire auto-incrémentée) sont remplies aux
+ * 15/16, celles d'un index rempli dans le désordre aux deux tiers environ, ce qu'on observe après des
+ * découpages de pages aléatoires. Sans longueur moyenne fournie, une valeur de longueur variable est
+ * supposée occuper la moitié de sa taille maximale, et une valeur LOB {@link #DEFAULT_LOB_LENGTH}
+ * octets. Les index {@code FULLTEXT} et {@code SPATIAL} et les parties fonctionnelles d'index ne sont
+ * pas estimés.
+ * </p>
+ */
+public class DBStorageEstimator {
+
+    public static final int DEFAULT_PAGE_SIZE = 16 * 1024;
+    /** taille maximale d'une clé d'index pour le format de ligne {@code DYNAMIC} */
+    public static final int MAX_INDEX_KEY_SIZE = 3072;
+    /** longueur moyenne supposée d'une valeur LOB dont la longueur moyenne n'est pas fournie */
+    public static final int DEFAULT_LOB_LENGTH = 256;
+
+    static final double SEQUENTIAL_FILL = 15.0 / 16;
+    static final double RANDOM_FILL = 0.69;
+
+    // en-tête FIL, en-tête de page, enregistrements infimum et supremum, fin FIL
+    private static final int PAGE_OVERHEAD = 38 + 56 + 26 + 8;
+    // une case de 2 octets du répertoire de page pour 4 à 8 enregistrements
+    private static final double DIRECTORY_BYTES_PER_RECORD = 2.0 / 6;
+    private static final int RECORD_HEADER = 5;
+    // DB_TRX_ID et DB_ROLL_PTR
+    private static final int TRANSACTION_FIELDS = 6 + 7;
+    private static final int ROW_ID = 6;
+    private static final int CHILD_POINTER = 4;
+    private static final int OFF_PAGE_POINTER = 20;
+    // une valeur variable de 40 octets ou moins reste toujours dans la ligne
+    private static final int INLINE_LIMIT = 40;
+    // une colonne de largeur fixe d'au moins 768 octets est stockée comme une colonne variable
+    private static final int LONG_FIXED_LENGTH = 768;
+    // en-tête FIL, en-tête de la partie LOB, fin FIL
+    private static final int LOB_PAGE_OVERHEAD = 38 + 8 + 8;
+    // pointeur d'une valeur LOB dans le format de ligne du serveur
+    private static final int LOB_POINTER = 8;
+    private static final int MAX_RECORD_SIZE = 16383;
+
+    /**
+     * Estimation pour une table et un nombre de lignes.
+     */
+    public static final class Estimate {
+
+        private final DBTable table;
+        private final long rows;
+        private long rowSize;
+        private long maxRecordSize;
+        private long averageRecordSize;
+        private int recordsPerPage;
+        private long dataPages;
+        private long offPagePages;
+        private long dataSize;
+        private final Map<String, Long> indexSizes = new LinkedHashMap<>();
+        private final List<DBColumn> offPageColumns = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+
+        private Estimate(DBTable table, long rows) {
+            this.table = table;
+            this.rows = rows;
+        }
+
+        public DBTable getTable() {
+            return table;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * @return la taille maximale d'une ligne telle que la compte le serveur, à comparer à
+         * {@link DBDataType#MAX_ROW_SIZE}
+         */
+        public long getRowSize() {
+            return rowSize;
+        }
+
+        /**
+         * @return la taille maximale d'un enregistrement de l'index cluster, toutes les valeurs étant
+         * dans la ligne
+         */
+        public long getMaxRecordSize() {
+            return maxRecordSize;
+        }
+
+        /**
+         * @return la taille moyenne d'un enregistrement de l'index cluster, valeurs hors de la ligne exclues
+         */
+        public long getAverageRecordSize() {
+            return averageRecordSize;
+        }
+
+        public int getRecordsPerPage() {
+            return recordsPerPage;
+        }
+
+        /**
+         * @return le nombre de pages feuilles de l'index cluster
+         */
+        public long getDataPages() {
+            return dataPages;
+        }
+
+        /**
+         * @return le nombre de pages de débordement des valeurs rangées hors de la ligne, en moyenne
+         */
+        public long getOffPagePages() {
+            return offPagePages;
+        }
+
+        /**
+         * @return la taille de l'index cluster en octets, pages de débordement comprises
+         */
+        public long getDataSize() {
+            return dataSize;
+        }
+
+        /**
+         * @return la taille en octets de chaque index secondaire estimé, par nom
+         */
+        public Map<String, Long> getIndexSizes() {
+            return Collections.unmodifiableMap(indexSizes);
+        }
+
+        public long getIndexSize() {
+            long total = 0;
+            for (long size : indexSizes.values()) {
+                total += size;
+            }
+            return total;
+        }
+
+        public long getTotalSize() {
+            return dataSize + getIndexSize();
+        }
+
+        /**
+         * @return les colonnes rangées hors de la ligne quand toutes les valeurs sont à leur longueur
+         * maximale, vide si un tel enregistrement tient dans une demi-page
+         */
+        public List<DBColumn> getOffPageColumns() {
+            return Collections.unmodifiableList(offPageColumns);
+        }
+
+        public List<String> getWarnings() {
+            return Collections.unmodifiableList(warnings);
+        }
+
+        /**
+         * Ajoute l'estimation en commentaires SQL.
+         */
+        public StringBuilder appendTo(StringBuilder out) {
+            out.append("-- ").append(table.getName()).append(" : ").append(rows).append(" rows\n");
+            out.append("--   row size ").append(rowSize).append(" bytes (limit ").append(DBDataType.MAX_ROW_SIZE)
+                    .append("), clustered record ").append(averageRecordSize).append(" bytes average, ")
+                    .append(maxRecordSize).append(" bytes max\n");
+            out.append("--   ").append(recordsPerPage).append(" records per page, ").append(dataPages)
+                    .append(" data pages");
+            if (offPagePages > 0) {
+                out.append(", ").append(offPagePages).append(" overflow pages");
+            }
+            out.append('\n');
+            out.append("--   data ");
+            appendSize(out, dataSize);
+            for (Map.Entry<String, Long> index : indexSizes.entrySet()) {
+                out.append(", index ").append(index.getKey()).append(' ');
+                appendSize(out, index.getValue());
+            }
+            out.append(", total ");
+            appendSize(out, getTotalSize()).append('\n');
+            for (String warning : warnings) {
+                out.append("-- warning: ").append(warning).append('\n');
+            }
+            return out;
+        }
+    }
+
+    // taille d'une colonne dans un enregistrement InnoDB
+    private static final class Field {
+
+        final DBColumn column;
+        /** octets de la valeur à sa longueur maximale, sans le préfixe de longueur */
+        final long max;
+        final long average;
+        /** longueur variable dans l'enregistrement : octet(s) de longueur dans l'en-tête */
+        final boolean variable;
+        final boolean offPageCapable;
+        final boolean nullable;
+        final int bytesPerCharacter;
+
+        Field(DBColumn column, long max, long average, boolean variable, boolean nullable, int bytesPerCharacter) {
+            this.column = column;
+            this.max = max;
+            this.average = average;
+            this.variable = variable;
+            this.offPageCapable = max > INLINE_LIMIT && (column.getDataType().isOffPageCapable()
+                    || (column.getDataType().getStorage() == DBDataType.Storage.FIXED_LENGTH && max >= LONG_FIXED_LENGTH));
+            this.nullable = nullable;
+            this.bytesPerCharacter = bytesPerCharacter;
+        }
+
+        // octets de longueur dans l'en-tête de l'enregistrement pour une valeur de cette taille
+        int lengthBytes(long size) {
+            return !variable ? 0 : max > 255 && size >= 128 ? 2 : 1;
+        }
+    }
+
+    private final int pageSize;
+    private final int maxRecordSize;
+
+    public DBStorageEstimator() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * @param pageSize {@code innodb_page_size} : 4, 8, 16, 32 ou 64 Ko
+     */
+    public DBStorageEstimator(int pageSize) {
+        if (pageSize < 4096 || pageSize > 65536 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("invalid InnoDB page size " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.maxRecordSize = Math.min((pageSize - PAGE_OVERHEAD - 4) / 2, MAX_RECORD_SIZE);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return la taille maximale d'un enregistrement dans une page, la moitié d'une page vide
+     */
+    public int getMaxRecordSize() {
+        return maxRecordSize;
+    }
+
+    public Estimate estimate(DBTable table, long rows) {
+        return estimate(table, rows, Map.of());
+    }
+
+    /**
+     * @param averageLengths longueur moyenne en octets des valeurs d'une colonne, par nom de colonne;
+     *                       les colonnes absentes prennent la longueur supposée par défaut
+     */
+    public Estimate estimate(DBTable table, long rows, Map<String, Integer> averageLengths) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("negative row count " + rows);
+        }
+        Estimate estimate = new Estimate(table, rows);
+        Map<DBColumn, Field> fields = new HashMap<>();
+        List<DBColumn> clusterKey = clusterKey(table);
+        long nullable = 0;
+        for (DBColumn column : table.getColumns()) {
+            Field field = field(table, column, clusterKey, averageLengths);
+            fields.put(column, field);
+            DBDataType type = column.getDataType();
+            if (field.nullable) {
+                nullable++;
+            }
+            estimate.rowSize += type.getLengthPrefix(field.max)
+                    + (type.getStorage() == DBDataType.Storage.LOB ? LOB_POINTER : field.max);
+        }
+        estimate.rowSize += (nullable + 7) / 8;
+        if (estimate.rowSize > DBDataType.MAX_ROW_SIZE) {
+            estimate.warnings.add("row size " + estimate.rowSize + " exceeds the " + DBDataType.MAX_ROW_SIZE
+                    + "-byte limit: CREATE TABLE fails, change some VARCHAR/VARBINARY columns to TEXT/BLOB");
+        }
+
+        // enregistrement de l'index cluster : clé, champs transactionnels, puis les autres colonnes stockées
+        List<Field> record = new ArrayList<>();
+        for (DBColumn column : clusterKey) {
+            record.add(fields.get(column));
+        }
+        for (DBColumn column : table.getColumns()) {
+            if (!clusterKey.contains(column) && column.getColumnKind() != DBColumnKind.GENERATED_VIRTUAL) {
+                record.add(fields.get(column));
+            }
+        }
+        int fixed = TRANSACTION_FIELDS + (clusterKey.isEmpty() ? ROW_ID : 0);
+        Layout largest = layout(record, clusterKey.size(), fixed, true);
+        Layout average = layout(record, clusterKey.size(), fixed, false);
+        estimate.maxRecordSize = largest.inRow;
+        estimate.offPageColumns.addAll(largest.offPage);
+        if (largest.size > maxRecordSize) {
+            estimate.warnings.add("record of " + largest.size + " bytes even with every long column off-page exceeds "
+                    + maxRecordSize + " bytes: inserts of long rows fail with 'Row size too large'");
+        } else if (!largest.offPage.isEmpty()) {
+            estimate.warnings.add("rows longer than " + maxRecordSize + " bytes are stored partly off-page, "
+                    + "one or more overflow pages per value: " + names(largest.offPage));
+        }
+        estimate.averageRecordSize = average.size;
+        estimate.offPagePages = rows * average.overflowPages;
+        if (!average.offPage.isEmpty()) {
+            estimate.warnings.add("an average row does not fit in " + maxRecordSize + " bytes: "
+                    + names(average.offPage) + " stored off-page");
+        }
+
+        boolean sequential = clusterKey.size() == 1 && clusterKey.get(0).getAutoIncrement() != null;
+        double fill = sequential ? SEQUENTIAL_FILL : RANDOM_FILL;
+        estimate.recordsPerPage = recordsPerPage(average.size, fill);
+        estimate.dataPages = ceil(rows, estimate.recordsPerPage);
+        long clusterKeySize = 0;
+        for (DBColumn column : clusterKey) {
+            Field field = fields.get(column);
+            clusterKeySize += field.average + field.lengthBytes(field.average);
+        }
+        if (clusterKey.isEmpty()) {
+            clusterKeySize = ROW_ID;
+        }
+        estimate.dataSize = (tree(estimate.dataPages, RECORD_HEADER + clusterKeySize + CHILD_POINTER, fill)
+                + estimate.offPagePages) * pageSize;
+
+        for (DBKey key : table.getKeys()) {
+            if (!key.getKeyType().isIndex() || key.getKeyType() == DBKeyType.PRIMARY_KEY) {
+                continue;
+            }
+            String name = key.getName() != null ? key.getName() : String.join("_", key.getColumns());
+            if (!key.getKeyType().isBTree()) {
+                estimate.warnings.add(key.getKeyType() + " index `" + name + "` is not estimated");
+                continue;
+            }
+            long[] size = indexRecord(table, key, fields, clusterKey);
+            if (size == null) {
+                estimate.warnings.add("index `" + name + "` has functional or unknown parts and is not estimated");
+                continue;
+            }
+            if (size[1] > MAX_INDEX_KEY_SIZE) {
+                estimate.warnings.add("index `" + name + "` key of " + size[1] + " bytes exceeds "
+                        + MAX_INDEX_KEY_SIZE + " bytes: CREATE INDEX fails");
+            }
+            long leaves = ceil(rows, recordsPerPage(size[0], RANDOM_FILL));
+            estimate.indexSizes.put(name, tree(leaves, size[0] + CHILD_POINTER, RANDOM_FILL) * pageSize);
+        }
+        return estimate;
+    }
+
+    // clé de l'index cluster : clé primaire, sinon première clé unique sur des colonnes NOT NULL, sinon DB_ROW_ID
+    private static List<DBColumn> clusterKey(DBTable table) {
+        for (DBKeyType type : new DBKeyType[] {DBKeyType.PRIMARY_KEY, DBKeyType.UNIQUE_KEY}) {
+            for (DBKey key : table.getKeys()) {
+                if (key.getKeyType() != type) {
+                    continue;
+                }
+                List<DBColumn> columns = new ArrayList<>();
+                for (int part = 0; part < key.getColumns().size(); part++) {
+                    DBColumn column = table.getColumn(key.getColumns().get(part));
+                    if (column == null || key.isFunctional(part) || key.getPrefixLength(part) != null
+                            || (type == DBKeyType.UNIQUE_KEY && !Boolean.TRUE.equals(column.getNotNull()))) {
+                        columns = null;
+                        break;
+                    }
+                    columns.add(column);
+                }
+                if (columns != null) {
+                    return columns;
+                }
+            }
+        }
+        return List.of();
+    }
+
+    private static Field field(DBTable table, DBColumn column, List<DBColumn> clusterKey,
+                               Map<String, Integer> averageLengths) {
+        DBDataType type = column.getDataType();
+        String charset = column.getCharset() != null ? column.getCharset() : column.getCollation();
+        if (charset == null) {
+            charset = table.getCharset() != null ? table.getCharset() : table.getCollation();
+        }
+        int width = type.isCharacterString() ? DBDataType.bytesPerCharacter(charset) : 1;
+        long max = type.maxSize(column, width);
+        DBDataType.Storage storage = type.getStorage();
+        // un CHAR d'un jeu de caractères multi-octets est stocké sur M à M * largeur octets
+        boolean variable = storage == DBDataType.Storage.VARIABLE_LENGTH || storage == DBDataType.Storage.LOB
+                || (storage == DBDataType.Storage.FIXED_LENGTH && width > 1);
+        long average;
+        Integer given = averageLengths.get(column.getName());
+        if (given != null) {
+            average = Math.min(given, max);
+        } else if (storage == DBDataType.Storage.LOB) {
+            average = Math.min(DEFAULT_LOB_LENGTH, max);
+        } else if (variable) {
+            average = max / 2;
+        } else {
+            average = max;
+        }
+        if (storage == DBDataType.Storage.FIXED_LENGTH) {
+            average = Math.max(average, max / width);
+        }
+        boolean nullable = !Boolean.TRUE.equals(column.getNotNull()) && !clusterKey.contains(column);
+        return new Field(column, max, average, variable, nullable, width);
+    }
+
+    // taille d'un enregistrement et valeurs rangées hors de la ligne pour le faire tenir dans une demi-page
+    private static final class Layout {
+        long inRow;
+        long size;
+        long overflowPages;
+        final List<DBColumn> offPage = new ArrayList<>();
+    }
+
+    private Layout layout(List<Field> record, int keyFields, int fixed, boolean largest) {
+        Layout layout = new Layout();
+        long nullable = 0;
+        long[] sizes = new long[record.size()];
+        long total = RECORD_HEADER + fixed;
+        for (int i = 0; i < record.size(); i++) {
+            Field field = record.get(i);
+            sizes[i] = largest ? field.max : field.average;
+            total += sizes[i] + field.lengthBytes(sizes[i]);
+            if (field.nullable) {
+                nullable++;
+            }
+        }
+        total += (nullable + 7) / 8;
+        layout.inRow = total;
+        // comme InnoDB, range hors de la ligne la plus longue valeur qui peut l'être, jusqu'à ce que l'enregistrement tienne
+        boolean[] moved = new boolean[record.size()];
+        while (total > maxRecordSize) {
+            int longest = -1;
+            for (int i = keyFields; i < record.size(); i++) {
+                Field field = record.get(i);
+                if (!moved[i] && field.offPageCapable && sizes[i] > INLINE_LIMIT && (longest < 0 || sizes[i] > sizes[longest])) {
+                    longest = i;
+                }
+            }
+            if (longest < 0) {
+                break;
+            }
+            Field field = record.get(longest);
+            moved[longest] = true;
+            total += OFF_PAGE_POINTER + 2 - sizes[longest] - field.lengthBytes(sizes[longest]);
+            layout.offPage.add(field.column);
+            layout.overflowPages += ceil(sizes[longest], pageSize - LOB_PAGE_OVERHEAD);
+        }
+        layout.size = total;
+        return layout;
+    }
+
+    // {taille moyenne d'un enregistrement de l'index, taille maximale de sa clé}
+    private static long[] indexRecord(DBTable table, DBKey key, Map<DBColumn, Field> fields, List<DBColumn> clusterKey) {
+        long average = RECORD_HEADER;
+        long keySize = 0;
+        long nullable = 0;
+        List<DBColumn> whole = new ArrayList<>();
+        for (int part = 0; part < key.getColumns().size(); part++) {
+            DBColumn column = key.isFunctional(part) ? null : table.getColumn(key.getColumns().get(part));
+            if (column == null) {
+                return null;
+            }
+            Field field = fields.get(column);
+            long max = field.max;
+            long size = field.average;
+            Integer prefix = key.getPrefixLength(part);
+            if (prefix != null) {
+                long prefixBytes = (long) prefix * field.bytesPerCharacter;
+                max = Math.min(max, prefixBytes);
+                size = Math.min(size, prefixBytes);
+            } else {
+                whole.add(column);
+            }
+            average += size + field.lengthBytes(size);
+            keySize += max;
+            if (field.nullable) {
+                nullable++;
+            }
+        }
+        // un index secondaire contient aussi les colonnes de la clé de l'index cluster
+        for (DBColumn column : clusterKey) {
+            if (!whole.contains(column)) {
+                Field field = fields.get(column);
+                average += field.average + field.lengthBytes(field.average);
+            }
+        }
+        if (clusterKey.isEmpty()) {
+            average += ROW_ID;
+        }
+        return new long[] {average + (nullable + 7) / 8, keySize};
+    }
+
+    private int recordsPerPage(long recordSize, double fill) {
+        return (int) Math.max(1, Math.floor((pageSize - PAGE_OVERHEAD) * fill / (recordSize + DIRECTORY_BYTES_PER_RECORD)));
+    }
+
+    // pages de l'arbre : feuilles, puis chaque niveau de pointeurs jusqu'à la racine
+    private long tree(long leaves, long pointerSize, double fill) {
+        long total = Math.max(leaves, 1);
+        int fanout = Math.max(2, recordsPerPage(pointerSize, fill));
+        for (long level = leaves; level > 1; ) {
+            level = ceil(level, fanout);
+            total += level;
+        }
+        return total;
+    }
+
+    private static long ceil(long value, long divisor) {
+        return (value + divisor - 1) / divisor;
+    }
+
+    private static String names(List<DBColumn> columns) {
+        StringBuilder out = new StringBuilder();
+        for (DBColumn column : columns) {
+            if (out.length() > 0) {
+                out.append(", ");
+            }
+            DBRoutineGenerator.appendIdentifier(out, column.getName());
+        }
+        return out.toString();
+    }
+
+    private static StringBuilder appendSize(StringBuilder out, long bytes) {
+        if (bytes < 1024) {
+            return out.append(bytes).append(" B");
+        }
+        String[] units = {"KiB", "MiB", "GiB", "TiB", "PiB"};
+        double value = bytes / 1024.0;
+        int unit = 0;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return out.append(String.format(Locale.ROOT, "%.1f ", value)).append(units[unit]);
+    }
+
+    /**
+     * Estime la taille des tables des fichiers {@code .sql} d'un dossier.
+     * <p>
+     * Utilisation : {@code DBStorageEstimator <dossier sql> <lignes> [<table>=<lignes> ...]}
+     * </p>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: DBStorageEstimator <sql directory> <rows> [<table>=<rows> ...]");
+            System.exit(2);
+        }
+        Path sqlDirectory = Path.of(args[0]);
+        long rows = Long.parseLong(args[1]);
+        Map<String, Long> tableRows = new HashMap<>();
+        for (int i = 2; i < args.length; i++) {
+            int equals = args[i].lastIndexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("expected <table>=<rows>: " + args[i]);
+            }
+            tableRows.put(args[i].substring(0, equals).toLowerCase(Locale.ROOT),
+                    Long.parseLong(args[i].substring(equals + 1)));
+        }
+        DBStorageEstimator estimator = new DBStorageEstimator();
+        StringBuilder out = new StringBuilder();
+        long total = 0;
+        for (DBTable table : new GenerateDBFiles().read(sqlDirectory)) {
+            Estimate estimate = estimator.estimate(table,
+                    tableRows.getOrDefault(table.getName().toLowerCase(Locale.ROOT), rows));
+            estimate.appendTo(out);
+            total += estimate.getTotalSize();
+        }
+        out.append("-- total ");
+        System.out.print(appendSize(out, total).append('\n'));
+    }
+}
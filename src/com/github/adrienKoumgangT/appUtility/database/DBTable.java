@@ -1,16 +1,241 @@
 package com.github.adrienKoumgangT.appUtility.database;
 
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class DBTable {
     private String name;
     private String comment = null;
     private String engine = "InnoDB";
-    private String collation = "utf8mb4";
+    private String collation = null;
     private String partitionMethod = null;
     private String partitionExpression = null;
     private String subPartitionExpression = null;
 
     private List<DBColumn> columns;
+
+    private String charset = null;
+    private List<DBKey> keys;
+
+    private Integer partitionCount = null;
+    private String subPartitionMethod = null;
+    private Integer subPartitionCount = null;
+    private List<DBPartition> partitions;
+
+    public DBTable(String name) {
+        this.name       = name;
+        this.columns    = new ArrayList<>();
+        this.keys       = new ArrayList<>();
+        this.partitions = new ArrayList<>();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public String getCollation() {
+        return collation;
+    }
+
+    public void setCollation(String collation) {
+        this.collation = collation;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public void setCharset(String charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * @return la méthode de partitionnement ({@code RANGE}, {@code LIST}, {@code HASH}, {@code KEY},
+     * éventuellement précédée de {@code LINEAR} ou suivie de {@code COLUMNS}, et pour {@code KEY} de
+     * l'algorithme : {@code KEY ALGORITHM=2}), {@code null} si la table n'est pas partitionnée
+     */
+    public String getPartitionMethod() {
+        return partitionMethod;
+    }
+
+    public void setPartitionMethod(String partitionMethod) {
+        this.partitionMethod = partitionMethod;
+    }
+
+    /**
+     * @return l'expression ou la liste de colonnes de partitionnement, sans les parenthèses englobantes
+     */
+    public String getPartitionExpression() {
+        return partitionExpression;
+    }
+
+    public void setPartitionExpression(String partitionExpression) {
+        this.partitionExpression = partitionExpression;
+    }
+
+    public String getSubPartitionExpression() {
+        return subPartitionExpression;
+    }
+
+    public void setSubPartitionExpression(String subPartitionExpression) {
+        this.subPartitionExpression = subPartitionExpression;
+    }
+
+    /**
+     * @return le nombre de partitions donné par {@code PARTITIONS n}, {@code null} s'il n'est pas donné
+     */
+    public Integer getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setPartitionCount(Integer partitionCount) {
+        this.partitionCount = partitionCount;
+    }
+
+    /**
+     * @return la méthode de sous-partitionnement ({@code HASH} ou {@code KEY}, éventuellement
+     * {@code LINEAR}), {@code null} sans sous-partitions
+     */
+    public String getSubPartitionMethod() {
+        return subPartitionMethod;
+    }
+
+    public void setSubPartitionMethod(String subPartitionMethod) {
+        this.subPartitionMethod = subPartitionMethod;
+    }
+
+    public Integer getSubPartitionCount() {
+        return subPartitionCount;
+    }
+
+    public void setSubPartitionCount(Integer subPartitionCount) {
+        this.subPartitionCount = subPartitionCount;
+    }
+
+    /**
+     * @return les partitions déclarées, vide si elles ne sont données que par leur nombre
+     */
+    public List<DBPartition> getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(List<DBPartition> partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Colonnes dont dépend le placement d'une ligne : celles nommées dans les expressions de
+     * partitionnement et de sous-partitionnement, ou la clé primaire pour un {@code KEY ()} sans
+     * colonne. Une recherche qui fixe toutes ces colonnes ne lit qu'une partition.
+     *
+     * @return les colonnes de partitionnement dans l'ordre de la table, vide si la table n'est pas partitionnée
+     */
+    public List<DBColumn> getPartitionColumns() {
+        List<DBColumn> result = new ArrayList<>();
+        if (partitionMethod == null) {
+            return result;
+        }
+        boolean primary = DBTableParser.addReferencedColumns(this, partitionMethod, partitionExpression, result);
+        if (subPartitionMethod != null) {
+            primary |= DBTableParser.addReferencedColumns(this, subPartitionMethod, subPartitionExpression, result);
+        }
+        DBKey primaryKey = getPrimaryKey();
+        if (primary && primaryKey != null) {
+            for (String name : primaryKey.getColumns()) {
+                DBColumn column = getColumn(name);
+                if (column != null && !result.contains(column)) {
+                    result.add(column);
+                }
+            }
+        }
+        result.sort((a, b) -> Integer.compare(columns.indexOf(a), columns.indexOf(b)));
+        return result;
+    }
+
+    public List<DBColumn> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<DBColumn> columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * @return la colonne de ce nom (sans tenir compte de la casse, comme MySQL), ou {@code null}
+     */
+    public DBColumn getColumn(String name) {
+        for (DBColumn column : columns) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    public List<DBKey> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<DBKey> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * @return la clé primaire, ou {@code null} si la table n'en a pas
+     */
+    public DBKey getPrimaryKey() {
+        for (DBKey key : keys) {
+            if (key.getKeyType() == DBKeyType.PRIMARY_KEY) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return les clés stockées dans un index (clé primaire, clés uniques, index, y compris
+     * {@code FULLTEXT} et {@code SPATIAL}), dans l'ordre du DDL
+     */
+    public List<DBKey> getIndexes() {
+        List<DBKey> indexes = new ArrayList<>(keys.size());
+        for (DBKey key : keys) {
+            if (key.getKeyType().isIndex()) {
+                indexes.add(key);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * @return l'index de ce nom (sans tenir compte de la casse), ou {@code null}
+     */
+    public DBKey getIndex(String name) {
+        for (DBKey key : keys) {
+            if (key.getKeyType().isIndex() && key.getName() != null && key.getName().equalsIgnoreCase(name)) {
+                return key;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,746 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>Lecture du DDL MySQL</h1>
+ *
+ * <p>
+ * Construit les {@link DBTable} (colonnes, clés, options et partitionnement) décrites par les
+ * instructions {@code CREATE TABLE} d'un fichier SQL au style MySQL, par exemple une sortie de
+ * {@code mysqldump --no-data}. Les autres instructions ({@code DROP}, {@code SET}, {@code INSERT}...)
+ * sont ignorées, de meme que {@code CREATE TABLE ... LIKE} et {@code CREATE TABLE ... AS SELECT}
+ * qui ne décrivent pas leurs colonnes.
+ * </p>
+ *
+ * <p>
+ * L'analyse se fait en une passe descendante sur les lexèmes de {@link DBTokenizer}, qui ne copie
+ * pas le texte : seules les valeurs conservées dans le modèle (noms, commentaires, expressions)
+ * deviennent des chaines. Les expressions ({@code DEFAULT}, {@code ON UPDATE}, colonnes générées,
+ * partitionnement) sont conservées telles qu'écrites dans le DDL.
+ * </p>
+ */
+public final class DBTableParser {
+
+    /** types de données indexés par longueur de leur mot-clé, pour ne comparer que les candidats possibles */
+    private static final DBDataType[][] DATA_TYPES = new DBDataType[32][];
+
+    static {
+        for (DBDataType type : DBDataType.values()) {
+            int length = type.getKey().length();
+            DBDataType[] sameLength = DATA_TYPES[length] == null ? new DBDataType[0] : DATA_TYPES[length];
+            sameLength = Arrays.copyOf(sameLength, sameLength.length + 1);
+            sameLength[sameLength.length - 1] = type;
+            DATA_TYPES[length] = sameLength;
+        }
+    }
+
+    private final DBTokenizer tokens;
+
+    private DBTableParser(CharBuffer sql) {
+        this.tokens = new DBTokenizer(sql);
+    }
+
+    /**
+     * @param file fichier SQL encodé en UTF-8
+     * @return les tables créées par le fichier, dans l'ordre
+     * @throws DBParseException si une instruction {@code CREATE TABLE} est mal formée
+     */
+    public static List<DBTable> parse(Path file) throws IOException {
+        return parse(StandardCharsets.UTF_8.decode(ByteBuffer.wrap(Files.readAllBytes(file))));
+    }
+
+    /**
+     * @return les tables créées par le texte, dans l'ordre
+     * @throws DBParseException si une instruction {@code CREATE TABLE} est mal formée
+     */
+    public static List<DBTable> parse(CharSequence sql) {
+        return parse(CharBuffer.wrap(sql));
+    }
+
+    /**
+     * @param sql texte lu depuis sa position jusqu'à sa limite, qui ne sont pas modifiées
+     * @return les tables créées par le texte, dans l'ordre
+     * @throws DBParseException si une instruction {@code CREATE TABLE} est mal formée
+     */
+    public static List<DBTable> parse(CharBuffer sql) {
+        return new DBTableParser(sql).statements();
+    }
+
+    private List<DBTable> statements() {
+        List<DBTable> tables = new ArrayList<>();
+        tokens.next();
+        while (tokens.kind() != DBTokenizer.EOF) {
+            if (tokens.is("CREATE")) {
+                DBTable table = create();
+                if (table != null) {
+                    tables.add(table);
+                }
+            }
+            skipStatement();
+        }
+        return tables;
+    }
+
+    /**
+     * Découpe le texte en instructions {@code CREATE}, sans les analyser ni copier le texte, pour
+     * qu'elles puissent être analysées séparément (et en parallèle) par {@link #parse(CharBuffer)}.
+     * Chaque morceau partage le contenu de {@code sql} et s'arrête au dernier lexème avant le
+     * {@code ';'}, hors de la fin d'un éventuel commentaire conditionnel englobant.
+     *
+     * @param sql texte lu depuis sa position jusqu'à sa limite, qui ne sont pas modifiées
+     * @return les instructions {@code CREATE}, dans l'ordre, délimitées par leur position et leur limite
+     */
+    static List<CharBuffer> split(CharBuffer sql) {
+        DBTableParser parser = new DBTableParser(sql);
+        List<CharBuffer> statements = new ArrayList<>();
+        parser.tokens.next();
+        while (parser.tokens.kind() != DBTokenizer.EOF) {
+            boolean create = parser.tokens.is("CREATE");
+            int start = parser.tokens.start();
+            int end = parser.skipStatement();
+            if (create) {
+                CharBuffer statement = sql.duplicate();
+                statement.limit(end).position(start);
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    // avance jusqu'après le ';' qui termine l'instruction courante; renvoie la fin du dernier lexème avant lui
+    private int skipStatement() {
+        int depth = 0;
+        int end = tokens.start();
+        while (tokens.kind() != DBTokenizer.EOF) {
+            if (tokens.is('(')) {
+                depth++;
+            } else if (tokens.is(')')) {
+                depth--;
+            } else if (tokens.is(';') && depth <= 0) {
+                tokens.next();
+                return end;
+            }
+            end = tokens.end();
+            tokens.next();
+        }
+        return end;
+    }
+
+    private DBTable create() {
+        tokens.next();
+        accept("TEMPORARY");
+        if (!accept("TABLE")) {
+            return null;
+        }
+        if (accept("IF")) {
+            expect("NOT");
+            expect("EXISTS");
+        }
+        String name = qualifiedName();
+        if (!tokens.is('(')) {
+            return null;
+        }
+        DBTable table = new DBTable(name);
+        expect('(');
+        do {
+            definition(table);
+        } while (accept(','));
+        expect(')');
+        tableOptions(table);
+        return table;
+    }
+
+    private void definition(DBTable table) {
+        String constraint = null;
+        if (accept("CONSTRAINT")) {
+            if (!tokens.is("PRIMARY") && !tokens.is("UNIQUE") && !tokens.is("FOREIGN") && !tokens.is("CHECK")) {
+                constraint = identifier();
+            }
+        }
+        if (accept("PRIMARY")) {
+            expect("KEY");
+            indexType();
+            table.getKeys().add(key(DBKeyType.PRIMARY_KEY, null));
+            skipDefinition();
+        } else if (accept("UNIQUE")) {
+            if (!accept("INDEX")) {
+                accept("KEY");
+            }
+            String name = optionalName();
+            indexType();
+            table.getKeys().add(key(DBKeyType.UNIQUE_KEY, name != null ? name : constraint));
+            skipDefinition();
+        } else if (accept("FOREIGN")) {
+            expect("KEY");
+            String name = optionalName();
+            table.getKeys().add(references(constraint != null ? constraint : name, keyParts()));
+        } else if (tokens.is("CHECK")) {
+            skipDefinition();
+        } else if (constraint != null) {
+            throw tokens.error("PRIMARY, UNIQUE, FOREIGN or CHECK expected");
+        } else if (tokens.is("INDEX") || tokens.is("KEY") || tokens.is("FULLTEXT") || tokens.is("SPATIAL")) {
+            DBKeyType type = accept("FULLTEXT") ? DBKeyType.FULLTEXT_INDEX
+                    : accept("SPATIAL") ? DBKeyType.SPATIAL_INDEX : DBKeyType.INDEX;
+            if (!accept("INDEX")) {
+                accept("KEY");
+            }
+            String name = optionalName();
+            indexType();
+            table.getKeys().add(key(type, name));
+            skipDefinition();
+        } else {
+            column(table);
+        }
+    }
+
+    private void column(DBTable table) {
+        String name = identifier();
+        DBColumnBuilder column = new DBColumnBuilder().setName(name);
+        if (dataType(column)) {
+            column.setNotNull(true).setAutoIncrement(1L);
+            table.getKeys().add(new DBKey(DBKeyType.UNIQUE_KEY, name, List.of(name)));
+        }
+        while (!tokens.is(',') && !tokens.is(')') && tokens.kind() != DBTokenizer.EOF) {
+            if (accept("NOT")) {
+                expect("NULL");
+                column.setNotNull(true);
+            } else if (accept("NULL")) {
+                column.setNotNull(false);
+            } else if (accept("DEFAULT")) {
+                column.setDefaultExpression(expression());
+            } else if (accept("AUTO_INCREMENT")) {
+                column.setAutoIncrement(1L);
+            } else if (accept("UNIQUE")) {
+                accept("KEY");
+                table.getKeys().add(new DBKey(DBKeyType.UNIQUE_KEY, name, List.of(name)));
+            } else if (accept("PRIMARY")) {
+                expect("KEY");
+                table.getKeys().add(new DBKey(DBKeyType.PRIMARY_KEY, null, List.of(name)));
+            } else if (accept("KEY")) {
+                table.getKeys().add(new DBKey(DBKeyType.PRIMARY_KEY, null, List.of(name)));
+            } else if (accept("COMMENT")) {
+                column.setComment(string());
+            } else if (accept("COLLATE")) {
+                column.setCollation(name());
+            } else if (accept("CHARACTER")) {
+                expect("SET");
+                column.setCharset(name());
+            } else if (accept("CHARSET")) {
+                column.setCharset(name());
+            } else if (accept("VISIBLE")) {
+                column.setHidden(false);
+            } else if (accept("INVISIBLE")) {
+                column.setHidden(true);
+            } else if (accept("ON")) {
+                expect("UPDATE");
+                column.setOnUpdate(expression());
+            } else if (accept("GENERATED")) {
+                expect("ALWAYS");
+            } else if (accept("AS")) {
+                column.setGenerationExpression(parenthesized()).setColumnKind(DBColumnKind.GENERATED_VIRTUAL);
+            } else if (accept("VIRTUAL")) {
+                column.setColumnKind(DBColumnKind.GENERATED_VIRTUAL);
+            } else if (accept("STORED")) {
+                column.setColumnKind(DBColumnKind.GENERATED_STORED);
+            } else if (accept("COLUMN_FORMAT") || accept("STORAGE") || accept("SRID")) {
+                tokens.next();
+            } else if (accept("ENGINE_ATTRIBUTE") || accept("SECONDARY_ENGINE_ATTRIBUTE")) {
+                accept('=');
+                string();
+            } else if (accept("CONSTRAINT")) {
+                if (!tokens.is("CHECK")) {
+                    identifier();
+                }
+            } else if (accept("CHECK")) {
+                parenthesized();
+                accept("NOT");
+                accept("ENFORCED");
+            } else if (tokens.is("REFERENCES")) {
+                table.getKeys().add(references(null, List.of(name)));
+            } else {
+                throw tokens.error("column attribute expected");
+            }
+        }
+        table.getColumns().add(column.build());
+    }
+
+    /**
+     * @return {@code true} pour le type {@code SERIAL}, abréviation de
+     * {@code BIGINT UNSIGNED NOT NULL AUTO_INCREMENT UNIQUE}
+     */
+    private boolean dataType(DBColumnBuilder column) {
+        if (tokens.kind() != DBTokenizer.WORD) {
+            throw tokens.error("data type expected");
+        }
+        DBDataType type;
+        if (accept("SERIAL")) {
+            column.setDataType(DBDataType.BIGINT).setUnsigned(true);
+            return true;
+        } else if (accept("DOUBLE")) {
+            type = accept("PRECISION") ? DBDataType.DOUBLE_PRECISION : DBDataType.DOUBLE;
+        } else if (accept("NATIONAL")) {
+            // jeu de caractères national : utf8mb3
+            column.setCharset("utf8mb3");
+            if (accept("VARCHAR")) {
+                type = DBDataType.VARCHAR;
+            } else {
+                if (!accept("CHARACTER")) {
+                    expect("CHAR");
+                }
+                type = accept("VARYING") ? DBDataType.VARCHAR : DBDataType.CHAR;
+            }
+        } else if (accept("NCHAR")) {
+            column.setCharset("utf8mb3");
+            type = accept("VARYING") ? DBDataType.VARCHAR : DBDataType.CHAR;
+        } else if (accept("NVARCHAR")) {
+            column.setCharset("utf8mb3");
+            type = DBDataType.VARCHAR;
+        } else if (accept("CHARACTER") || accept("CHAR")) {
+            type = accept("VARYING") ? DBDataType.VARCHAR : DBDataType.CHAR;
+        } else if (accept("LONG")) {
+            type = accept("VARBINARY") ? DBDataType.MEDIUMBLOB : DBDataType.MEDIUMTEXT;
+            accept("VARCHAR");
+        } else {
+            type = null;
+            int length = tokens.end() - tokens.start();
+            DBDataType[] candidates = length < DATA_TYPES.length ? DATA_TYPES[length] : null;
+            for (int i = 0; candidates != null && i < candidates.length && type == null; i++) {
+                if (tokens.is(candidates[i].getKey())) {
+                    type = candidates[i];
+                }
+            }
+            if (type == null) {
+                throw tokens.error("unknown data type");
+            }
+            tokens.next();
+        }
+        column.setDataType(type);
+
+        if (accept('(')) {
+            if (type == DBDataType.ENUM || type == DBDataType.SET) {
+                List<String> values = new ArrayList<>();
+                do {
+                    values.add(string());
+                } while (accept(','));
+                column.setValues(values);
+            } else {
+                column.setLength((int) number());
+                if (accept(',')) {
+                    column.setScale((int) number());
+                }
+            }
+            expect(')');
+        }
+        while (true) {
+            if (accept("UNSIGNED") || accept("ZEROFILL")) {
+                column.setUnsigned(true);
+            } else if (!accept("SIGNED") && !accept("BINARY")) {
+                return false;
+            }
+        }
+    }
+
+    private DBKey references(String name, List<String> columns) {
+        expect("REFERENCES");
+        String table = qualifiedName();
+        List<String> referenced = keyParts();
+        String onDelete = null;
+        String onUpdate = null;
+        while (true) {
+            if (accept("MATCH")) {
+                tokens.next();
+            } else if (accept("ON")) {
+                if (accept("DELETE")) {
+                    onDelete = referentialAction();
+                } else {
+                    expect("UPDATE");
+                    onUpdate = referentialAction();
+                }
+            } else {
+                return new DBKey(DBKeyType.FOREIGN_KEY, name, columns, table, referenced, onDelete, onUpdate);
+            }
+        }
+    }
+
+    private String referentialAction() {
+        if (accept("RESTRICT")) {
+            return "RESTRICT";
+        } else if (accept("CASCADE")) {
+            return "CASCADE";
+        } else if (accept("SET")) {
+            if (accept("NULL")) {
+                return "SET NULL";
+            }
+            expect("DEFAULT");
+            return "SET DEFAULT";
+        }
+        expect("NO");
+        expect("ACTION");
+        return "NO ACTION";
+    }
+
+    /**
+     * Colonnes d'une clé; une partie fonctionnelle ({@code (expr)}) est gardée avec ses parenthèses,
+     * les longueurs de préfixe et l'ordre de tri sont ignorés.
+     */
+    private DBKey key(DBKeyType type, String name) {
+        List<Integer> prefixLengths = new ArrayList<>(4);
+        List<String> parts = keyParts(prefixLengths);
+        for (Integer length : prefixLengths) {
+            if (length != null) {
+                return new DBKey(type, name, parts, prefixLengths);
+            }
+        }
+        return new DBKey(type, name, parts);
+    }
+
+    private List<String> keyParts() {
+        return keyParts(null);
+    }
+
+    // prefixLengths, si non null, reçoit la longueur indexée de chaque partie (null pour une partie entière)
+    private List<String> keyParts(List<Integer> prefixLengths) {
+        expect('(');
+        List<String> parts = new ArrayList<>(4);
+        do {
+            Integer length = null;
+            if (tokens.is('(')) {
+                int from = tokens.start();
+                parts.add(tokens.source(from, skipBalanced()));
+            } else {
+                parts.add(identifier());
+                if (accept('(')) {
+                    length = (int) number();
+                    expect(')');
+                }
+            }
+            if (prefixLengths != null) {
+                prefixLengths.add(length);
+            }
+            if (!accept("ASC")) {
+                accept("DESC");
+            }
+        } while (accept(','));
+        expect(')');
+        return parts;
+    }
+
+    private void indexType() {
+        if (accept("USING")) {
+            tokens.next();
+        }
+    }
+
+    private String optionalName() {
+        if (tokens.isIdentifier() && !tokens.is("USING")) {
+            return identifier();
+        }
+        return null;
+    }
+
+    // options d'index, CHECK... : avance jusqu'à la ',' ou la ')' qui termine la définition
+    private void skipDefinition() {
+        while (!tokens.is(',') && !tokens.is(')')) {
+            if (tokens.kind() == DBTokenizer.EOF) {
+                throw tokens.error("')' expected");
+            }
+            if (tokens.is('(')) {
+                skipBalanced();
+            } else {
+                tokens.next();
+            }
+        }
+    }
+
+    private void tableOptions(DBTable table) {
+        while (tokens.kind() != DBTokenizer.EOF && !tokens.is(';')) {
+            if (accept(',') || accept("DEFAULT")) {
+                continue;
+            }
+            if (accept("ENGINE")) {
+                accept('=');
+                table.setEngine(name());
+            } else if (accept("CHARACTER")) {
+                expect("SET");
+                accept('=');
+                table.setCharset(name());
+            } else if (accept("CHARSET")) {
+                accept('=');
+                table.setCharset(name());
+            } else if (accept("COLLATE")) {
+                accept('=');
+                table.setCollation(name());
+            } else if (accept("COMMENT")) {
+                accept('=');
+                table.setComment(string());
+            } else if (accept("AUTO_INCREMENT")) {
+                accept('=');
+                long start = number();
+                for (DBColumn column : table.getColumns()) {
+                    if (column.getAutoIncrement() != null) {
+                        column.setAutoIncrement(start);
+                    }
+                }
+            } else if (tokens.is("PARTITION")) {
+                partition(table);
+            } else {
+                // autre option : NOM [=] valeur, ou NOM [=] (liste)
+                tokens.next();
+                accept('=');
+                if (tokens.is('(')) {
+                    skipBalanced();
+                } else if (tokens.kind() != DBTokenizer.EOF && !tokens.is(';')) {
+                    tokens.next();
+                }
+            }
+        }
+    }
+
+    private void partition(DBTable table) {
+        expect("PARTITION");
+        expect("BY");
+        table.setPartitionMethod(partitionMethod());
+        table.setPartitionExpression(parenthesized());
+        if (accept("PARTITIONS")) {
+            table.setPartitionCount((int) number());
+        }
+        if (accept("SUBPARTITION")) {
+            expect("BY");
+            table.setSubPartitionMethod(partitionMethod());
+            table.setSubPartitionExpression(parenthesized());
+            if (accept("SUBPARTITIONS")) {
+                table.setSubPartitionCount((int) number());
+            }
+        }
+        if (accept('(')) {
+            do {
+                table.getPartitions().add(partitionDefinition("PARTITION"));
+            } while (accept(','));
+            expect(')');
+        }
+    }
+
+    // PARTITION nom [VALUES ...] [options] [(SUBPARTITION nom [options], ...)]
+    private DBPartition partitionDefinition(String keyword) {
+        expect(keyword);
+        DBPartition partition = new DBPartition(identifier());
+        if (accept("VALUES")) {
+            int from = tokens.start();
+            int end;
+            if (accept("IN")) {
+                end = skipBalanced();
+            } else {
+                expect("LESS");
+                expect("THAN");
+                if (tokens.is('(')) {
+                    end = skipBalanced();
+                } else {
+                    end = tokens.end();
+                    expect("MAXVALUE");
+                }
+            }
+            partition.setValues(tokens.source(from, end));
+        }
+        int from = tokens.start();
+        int end = from;
+        while (!tokens.is(',') && !tokens.is(')') && !tokens.is('(')) {
+            if (tokens.kind() == DBTokenizer.EOF) {
+                throw tokens.error("')' expected");
+            }
+            end = tokens.end();
+            tokens.next();
+        }
+        if (end > from) {
+            partition.setOptions(tokens.source(from, end));
+        }
+        if (keyword.equals("PARTITION") && accept('(')) {
+            do {
+                partition.getSubPartitions().add(partitionDefinition("SUBPARTITION"));
+            } while (accept(','));
+            expect(')');
+        }
+        return partition;
+    }
+
+    private String partitionMethod() {
+        String linear = accept("LINEAR") ? "LINEAR " : "";
+        if (accept("HASH")) {
+            return linear + "HASH";
+        } else if (accept("KEY")) {
+            if (accept("ALGORITHM")) {
+                expect('=');
+                return linear + "KEY ALGORITHM=" + number();
+            }
+            return linear + "KEY";
+        } else if (accept("RANGE")) {
+            return accept("COLUMNS") ? "RANGE COLUMNS" : "RANGE";
+        } else if (accept("LIST")) {
+            return accept("COLUMNS") ? "LIST COLUMNS" : "LIST";
+        }
+        throw tokens.error("partitioning method expected");
+    }
+
+    /**
+     * Ajoute les colonnes de la table nommées dans une expression de partitionnement, sauf les noms
+     * de fonctions.
+     *
+     * @return {@code true} pour un partitionnement {@code KEY ()} sans colonne, qui porte sur la clé primaire
+     */
+    static boolean addReferencedColumns(DBTable table, String method, String expression, List<DBColumn> columns) {
+        if (expression == null || expression.isBlank()) {
+            return method.contains("KEY");
+        }
+        DBTokenizer tokens = new DBTokenizer(CharBuffer.wrap(expression));
+        DBColumn pending = null;
+        boolean bare = false;
+        for (int kind = tokens.next(); ; kind = tokens.next()) {
+            if (pending != null && !(bare && tokens.is('(')) && !columns.contains(pending)) {
+                columns.add(pending);
+            }
+            if (kind == DBTokenizer.EOF) {
+                return false;
+            }
+            pending = kind == DBTokenizer.WORD || kind == DBTokenizer.QUOTED ? table.getColumn(tokens.value()) : null;
+            bare = kind == DBTokenizer.WORD;
+        }
+    }
+
+    /**
+     * Expression d'un {@code DEFAULT} ou d'un {@code ON UPDATE} : un lexème, les lexèmes qui lui sont
+     * accolés ({@code -1}, {@code b'01'}, {@code _utf8mb4'x'}, {@code CURRENT_TIMESTAMP(3)}) ou une
+     * expression entre parenthèses.
+     */
+    private String expression() {
+        int from = tokens.start();
+        if (tokens.kind() == DBTokenizer.EOF) {
+            throw tokens.error("expression expected");
+        }
+        if (tokens.is('(')) {
+            return tokens.source(from, skipBalanced());
+        }
+        int end = tokens.end();
+        boolean adjacent = tokens.nextIsAdjacent();
+        tokens.next();
+        while (adjacent && tokens.kind() != DBTokenizer.EOF && !tokens.is(',') && !tokens.is(')')) {
+            if (tokens.is('(')) {
+                end = skipBalanced();
+                break;
+            }
+            end = tokens.end();
+            adjacent = tokens.nextIsAdjacent();
+            tokens.next();
+        }
+        return tokens.source(from, end);
+    }
+
+    /**
+     * @return le texte entre une parenthèse ouvrante et sa fermante, sans ces parenthèses
+     */
+    private String parenthesized() {
+        if (!tokens.is('(')) {
+            throw tokens.error("'(' expected");
+        }
+        int from = tokens.end();
+        int end = skipBalanced();
+        return tokens.source(from, end - 1).trim();
+    }
+
+    /**
+     * @return la position qui suit la parenthèse fermante, le lexème courant étant celui d'après
+     */
+    private int skipBalanced() {
+        int depth = 0;
+        while (true) {
+            if (tokens.kind() == DBTokenizer.EOF) {
+                throw tokens.error("')' expected");
+            }
+            if (tokens.is('(')) {
+                depth++;
+            } else if (tokens.is(')') && --depth == 0) {
+                int end = tokens.end();
+                tokens.next();
+                return end;
+            }
+            tokens.next();
+        }
+    }
+
+    private String qualifiedName() {
+        String name = identifier();
+        while (accept('.')) {
+            name = identifier();
+        }
+        return name;
+    }
+
+    private String identifier() {
+        if (!tokens.isIdentifier()) {
+            throw tokens.error("identifier expected");
+        }
+        String value = tokens.value();
+        tokens.next();
+        return value;
+    }
+
+    // nom de jeu de caractères, de collation ou de moteur, éventuellement entre apostrophes
+    private String name() {
+        if (!tokens.isIdentifier() && tokens.kind() != DBTokenizer.STRING) {
+            throw tokens.error("name expected");
+        }
+        String value = tokens.value();
+        tokens.next();
+        return value;
+    }
+
+    private String string() {
+        if (tokens.kind() != DBTokenizer.STRING) {
+            throw tokens.error("string expected");
+        }
+        String value = tokens.value();
+        tokens.next();
+        return value;
+    }
+
+    private long number() {
+        long value = tokens.longValue();
+        tokens.next();
+        return value;
+    }
+
+    private boolean accept(String keyword) {
+        if (tokens.is(keyword)) {
+            tokens.next();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean accept(char symbol) {
+        if (tokens.is(symbol)) {
+            tokens.next();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String keyword) {
+        if (!accept(keyword)) {
+            throw tokens.error(keyword + " expected");
+        }
+    }
+
+    private void expect(char symbol) {
+        if (!accept(symbol)) {
+            throw tokens.error("'" + symbol + "' expected");
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * <h1>Gabarit SQL précompilé</h1>
+ *
+ * <p>
+ * Un gabarit est compilé une seule fois en un arbre de nœuds : textes littéraux, emplacements,
+ * répétitions et conditions. Chaque nom du gabarit est résolu à la compilation vers la fonction
+ * déclarée dans les {@link Bindings}, de sorte que le rendu n'est plus qu'un parcours de l'arbre
+ * qui écrit directement dans le {@link StringBuilder} de sortie, sans recherche par nom, sans
+ * expression régulière et sans chaine intermédiaire.
+ * </p>
+ *
+ * <h3>Syntaxe :</h3>
+ * <ul>
+ *     <li>{@code {{nom}}} : emplacement, remplacé par ce qu'écrit le {@link Slot} du même nom.</li>
+ *     <li>
+ *         {@code {{#liste}}...{{|}}...{{/liste}}} : répétition du corps pour chaque colonne de la liste,
+ *         qui devient la colonne courante ({@link Context#getColumn()}); la partie après {@code {{|}}},
+ *         facultative, est écrite entre deux éléments.
+ *     </li>
+ *     <li>{@code {{?condition}}...{{/condition}}} : corps écrit si la condition est vraie.</li>
+ *     <li>{@code {{^condition}}...{{/condition}}} : corps écrit si la condition est fausse.</li>
+ * </ul>
+ *
+ * @param <C> contexte de rendu
+ */
+public final class DBTemplate<C extends DBTemplate.Context> {
+
+    /**
+     * Contexte de rendu : la table et, dans une répétition, la colonne courante. Un générateur
+     * l'étend pour y ranger ce qu'il calcule une fois par table.
+     */
+    public static class Context {
+
+        private final DBTable table;
+        private DBColumn column;
+        private int index;
+
+        public Context(DBTable table) {
+            this.table = table;
+        }
+
+        public DBTable getTable() {
+            return table;
+        }
+
+        /**
+         * @return la colonne de la répétition la plus proche, {@code null} hors répétition
+         */
+        public DBColumn getColumn() {
+            return column;
+        }
+
+        /**
+         * @return le rang (à partir de 0) de la colonne courante dans sa répétition
+         */
+        public int getIndex() {
+            return index;
+        }
+    }
+
+    /**
+     * Écrit la valeur d'un emplacement.
+     */
+    @FunctionalInterface
+    public interface Slot<C> {
+        void emit(C context, StringBuilder out);
+    }
+
+    /**
+     * Noms utilisables dans un gabarit.
+     */
+    public static final class Bindings<C extends Context> {
+
+        private final Map<String, Slot<? super C>> slots = new HashMap<>();
+        private final Map<String, Function<? super C, List<DBColumn>>> lists = new HashMap<>();
+        private final Map<String, Predicate<? super C>> conditions = new HashMap<>();
+
+        public Bindings<C> setSlot(String name, Slot<? super C> slot) {
+            slots.put(name, slot);
+            return this;
+        }
+
+        public Bindings<C> setList(String name, Function<? super C, List<DBColumn>> list) {
+            lists.put(name, list);
+            return this;
+        }
+
+        public Bindings<C> setCondition(String name, Predicate<? super C> condition) {
+            conditions.put(name, condition);
+            return this;
+        }
+    }
+
+    private interface Node<C extends Context> {
+        void render(C context, StringBuilder out);
+    }
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String source;
+    private final Node<C> root;
+
+    private DBTemplate(String source, Node<C> root) {
+        this.source = source;
+        this.root = root;
+    }
+
+    /**
+     * @throws IllegalArgumentException si le gabarit est mal formé ou utilise un nom absent des liaisons
+     */
+    public static <C extends Context> DBTemplate<C> compile(String source, Bindings<C> bindings) {
+        Compiler<C> compiler = new Compiler<>(source, bindings);
+        Node<C> root = compiler.sequence(null);
+        return new DBTemplate<>(source, root);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void render(C context, StringBuilder out) {
+        root.render(context, out);
+    }
+
+    private static final class Compiler<C extends Context> {
+
+        private final String source;
+        private final Bindings<C> bindings;
+        private int position;
+        /** vrai si la dernière séquence s'est arrêtée sur un séparateur {@code {{|}}} */
+        private boolean atSeparator;
+
+        Compiler(String source, Bindings<C> bindings) {
+            this.source = source;
+            this.bindings = bindings;
+        }
+
+        // lit jusqu'à {{/section}} (ou {{|}} dans une répétition), ou jusqu'à la fin si section est null
+        Node<C> sequence(String section) {
+            List<Node<C>> nodes = new ArrayList<>();
+            atSeparator = false;
+            while (true) {
+                int open = source.indexOf(OPEN, position);
+                int literalEnd = open < 0 ? source.length() : open;
+                if (literalEnd > position) {
+                    String text = source.substring(position, literalEnd);
+                    nodes.add((context, out) -> out.append(text));
+                }
+                if (open < 0) {
+                    if (section != null) {
+                        throw error(source.length(), "missing {{/" + section + "}}");
+                    }
+                    position = source.length();
+                    return join(nodes);
+                }
+                int close = source.indexOf(CLOSE, open + OPEN.length());
+                if (close < 0) {
+                    throw error(open, "unterminated tag");
+                }
+                String tag = source.substring(open + OPEN.length(), close).trim();
+                position = close + CLOSE.length();
+                if (tag.isEmpty()) {
+                    throw error(open, "empty tag");
+                }
+                char sigil = tag.charAt(0);
+                String name = tag.substring(1).trim();
+                if (sigil == '/') {
+                    if (!name.equals(section)) {
+                        throw error(open, "unexpected {{/" + name + "}}");
+                    }
+                    return join(nodes);
+                } else if (tag.equals("|")) {
+                    if (section == null) {
+                        throw error(open, "{{|}} outside a repetition");
+                    }
+                    atSeparator = true;
+                    return join(nodes);
+                } else if (sigil == '#') {
+                    nodes.add(repeat(open, name));
+                } else if (sigil == '?' || sigil == '^') {
+                    nodes.add(condition(open, name, sigil == '^'));
+                } else {
+                    Slot<? super C> slot = bindings.slots.get(tag);
+                    if (slot == null) {
+                        throw error(open, "unknown slot '" + tag + "'");
+                    }
+                    nodes.add(slot::emit);
+                }
+            }
+        }
+
+        private Node<C> repeat(int at, String name) {
+            Function<? super C, List<DBColumn>> list = bindings.lists.get(name);
+            if (list == null) {
+                throw error(at, "unknown list '" + name + "'");
+            }
+            Node<C> body = sequence(name);
+            Node<C> separator = null;
+            if (atSeparator) {
+                separator = sequence(name);
+                if (atSeparator) {
+                    throw error(position, "more than one {{|}} in {{#" + name + "}}");
+                }
+            }
+            Node<C> between = separator;
+            return (context, out) -> {
+                List<DBColumn> columns = list.apply(context);
+                Context frame = context;
+                DBColumn outerColumn = frame.column;
+                int outerIndex = frame.index;
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i > 0 && between != null) {
+                        between.render(context, out);
+                    }
+                    frame.column = columns.get(i);
+                    frame.index = i;
+                    body.render(context, out);
+                }
+                frame.column = outerColumn;
+                frame.index = outerIndex;
+            };
+        }
+
+        private Node<C> condition(int at, String name, boolean negated) {
+            Predicate<? super C> condition = bindings.conditions.get(name);
+            if (condition == null) {
+                throw error(at, "unknown condition '" + name + "'");
+            }
+            Node<C> body = sequence(name);
+            if (atSeparator) {
+                throw error(position, "{{|}} outside a repetition");
+            }
+            return (context, out) -> {
+                if (condition.test(context) != negated) {
+                    body.render(context, out);
+                }
+            };
+        }
+
+        private static <C extends Context> Node<C> join(List<Node<C>> nodes) {
+            if (nodes.size() == 1) {
+                return nodes.get(0);
+            }
+            List<Node<C>> children = List.copyOf(nodes);
+            return (context, out) -> {
+                for (int i = 0; i < children.size(); i++) {
+                    children.get(i).render(context, out);
+                }
+            };
+        }
+
+        private IllegalArgumentException error(int at, String message) {
+            int line = 1;
+            for (int i = 0; i < at; i++) {
+                if (source.charAt(i) == '\n') {
+                    line++;
+                }
+            }
+            return new IllegalArgumentException(message + " at line " + line + " of template");
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import java.nio.CharBuffer;
+
+/**
+ * <p>
+ * Découpe un texte SQL au style MySQL en lexèmes, sans copier le texte : le lexème courant
+ * n'est décrit que par sa nature, son début et sa longueur dans le {@link CharBuffer} d'entrée.
+ * Une chaine n'est créée que lorsque l'analyseur en a besoin ({@link #text()}, {@link #value()}).
+ * </p>
+ * <p>
+ * Les commentaires ({@code -- }, {@code #}, {@code /* *}{@code /}) sont ignorés. Le contenu des
+ * commentaires conditionnels de {@code mysqldump} ({@code /*!50100 ... *}{@code /}) est en revanche
+ * lu comme du SQL ordinaire, car il porte souvent les clauses de partitionnement.
+ * </p>
+ * <p>
+ * Les positions sont des indices du {@link CharBuffer} (et non de sa partie restante) : une
+ * instruction découpée dans un fichier se lit à sa place, et les erreurs donnent la ligne du fichier.
+ * </p>
+ */
+final class DBTokenizer {
+
+    static final int EOF = 0;
+    /** mot nu : mot-clé ou identifiant */
+    static final int WORD = 1;
+    /** identifiant entre accents graves */
+    static final int QUOTED = 2;
+    /** chaine entre apostrophes ou guillemets */
+    static final int STRING = 3;
+    static final int NUMBER = 4;
+    /** un seul caractère de ponctuation ou d'opérateur */
+    static final int SYMBOL = 5;
+
+    private static final byte BLANK = 1;
+    private static final byte WORD_PART = 2;
+    private static final byte DIGIT = 4;
+    /** classes des caractères ASCII; tout caractère non ASCII peut faire partie d'un mot */
+    private static final byte[] CLASSES = new byte[128];
+
+    static {
+        for (char c : " \t\n\r\f".toCharArray()) {
+            CLASSES[c] = BLANK;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CLASSES[c] = WORD_PART;
+            CLASSES[c - 'a' + 'A'] = WORD_PART;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            CLASSES[c] = WORD_PART | DIGIT;
+        }
+        CLASSES['_'] = WORD_PART;
+        CLASSES['$'] = WORD_PART;
+    }
+
+    private final CharBuffer input;
+    private final char[] chars;
+    private final int offset;
+    private final int limit;
+
+    private int position;
+    private int conditional;
+
+    private int kind;
+    private int start;
+    private int length;
+
+    /**
+     * @param input texte lu depuis sa position jusqu'à sa limite, qui ne sont pas modifiées
+     */
+    DBTokenizer(CharBuffer input) {
+        this.input = input.duplicate();
+        this.input.clear();
+        this.chars = this.input.hasArray() ? this.input.array() : null;
+        this.offset = this.input.hasArray() ? this.input.arrayOffset() : 0;
+        this.position = input.position();
+        this.limit = input.limit();
+    }
+
+    private char at(int i) {
+        return chars != null ? chars[offset + i] : input.get(i);
+    }
+
+    /**
+     * Avance au lexème suivant.
+     *
+     * @return la nature du nouveau lexème courant
+     */
+    int next() {
+        skipBlanks();
+        start = position;
+        if (position >= limit) {
+            length = 0;
+            return kind = EOF;
+        }
+        char c = at(position);
+        if (c == '`') {
+            position = closing('`', position + 1);
+            kind = QUOTED;
+        } else if (c == '\'' || c == '"') {
+            position = closing(c, position + 1);
+            kind = STRING;
+        } else if (c >= '0' && c <= '9' || c == '.' && position + 1 < limit && isDigit(at(position + 1))) {
+            position++;
+            while (position < limit) {
+                char d = at(position);
+                if (isWordPart(d) || d == '.') {
+                    position++;
+                } else if ((d == '+' || d == '-') && (at(position - 1) == 'e' || at(position - 1) == 'E')) {
+                    position++;
+                } else {
+                    break;
+                }
+            }
+            kind = NUMBER;
+        } else if (isWordPart(c)) {
+            position++;
+            while (position < limit && isWordPart(at(position))) {
+                position++;
+            }
+            kind = WORD;
+        } else {
+            position++;
+            kind = SYMBOL;
+        }
+        length = position - start;
+        return kind;
+    }
+
+    private void skipBlanks() {
+        while (position < limit) {
+            char c = at(position);
+            if (c < 128 && CLASSES[c] == BLANK) {
+                position++;
+            } else if (c == '#' || c == '-' && position + 2 < limit && at(position + 1) == '-'
+                    && Character.isWhitespace(at(position + 2))) {
+                while (position < limit && at(position) != '\n') {
+                    position++;
+                }
+            } else if (c == '/' && position + 1 < limit && at(position + 1) == '*') {
+                if (position + 2 < limit && at(position + 2) == '!') {
+                    position += 3;
+                    while (position < limit && isDigit(at(position))) {
+                        position++;
+                    }
+                    conditional++;
+                } else {
+                    int end = position + 2;
+                    while (end + 1 < limit && !(at(end) == '*' && at(end + 1) == '/')) {
+                        end++;
+                    }
+                    if (end + 1 >= limit) {
+                        throw error(position, "unterminated comment");
+                    }
+                    position = end + 2;
+                }
+            } else if (c == '*' && conditional > 0 && position + 1 < limit && at(position + 1) == '/') {
+                position += 2;
+                conditional--;
+            } else {
+                return;
+            }
+        }
+    }
+
+    // position après le délimiteur fermant; un délimiteur doublé ou échappé par \ ne ferme pas
+    private int closing(char quote, int from) {
+        int i = from;
+        while (i < limit) {
+            char c = at(i);
+            if (c == '\\' && quote != '`') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < limit && at(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        throw error(from - 1, "unterminated " + (quote == '`' ? "identifier" : "string"));
+    }
+
+    private static boolean isDigit(char c) {
+        return c < 128 && (CLASSES[c] & DIGIT) != 0;
+    }
+
+    private static boolean isWordPart(char c) {
+        return c >= 128 || (CLASSES[c] & WORD_PART) != 0;
+    }
+
+    int kind() {
+        return kind;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int end() {
+        return start + length;
+    }
+
+    /**
+     * @return {@code true} si le lexème courant est le mot-clé donné (en majuscules), sans tenir compte de la casse
+     */
+    boolean is(String keyword) {
+        if (kind != WORD || length != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = at(start + i);
+            if (c >= 'a' && c <= 'z') {
+                c -= 'a' - 'A';
+            }
+            if (c != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean is(char symbol) {
+        return kind == SYMBOL && at(start) == symbol;
+    }
+
+    boolean isIdentifier() {
+        return kind == WORD || kind == QUOTED || kind == NUMBER;
+    }
+
+    /**
+     * @return le texte brut du lexème courant
+     */
+    String text() {
+        return source(start, start + length);
+    }
+
+    /**
+     * @return le texte brut entre deux positions de l'entrée
+     */
+    String source(int from, int to) {
+        if (chars != null) {
+            return new String(chars, offset + from, to - from);
+        }
+        return input.subSequence(from, to).toString();
+    }
+
+    /**
+     * @return la valeur du lexème courant : sans délimiteurs ni échappements pour un identifiant
+     * entre accents graves ou une chaine, le texte brut sinon
+     */
+    String value() {
+        if (kind != QUOTED && kind != STRING) {
+            return text();
+        }
+        char quote = at(start);
+        int from = start + 1;
+        int to = start + length - 1;
+        boolean plain = true;
+        for (int i = from; i < to && plain; i++) {
+            char c = at(i);
+            plain = c != quote && (c != '\\' || quote == '`');
+        }
+        if (plain) {
+            return source(from, to);
+        }
+        StringBuilder sb = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char c = at(i);
+            if (c == quote) {
+                i++;
+            } else if (c == '\\' && quote != '`') {
+                c = unescape(at(++i));
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static char unescape(char c) {
+        switch (c) {
+            case '0':
+                return '\0';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'Z':
+                return '\032';
+            default:
+                return c;
+        }
+    }
+
+    /**
+     * @return la valeur entière du lexème courant, lue sans créer de chaine
+     */
+    long longValue() {
+        if (kind != NUMBER) {
+            throw error(start, "number expected");
+        }
+        long value = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = at(i);
+            if (!isDigit(c) || value > (Long.MAX_VALUE - 9) / 10) {
+                throw error(start, "integer expected");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * @return {@code true} si le lexème suivant commence juste après le courant, sans blanc
+     */
+    boolean nextIsAdjacent() {
+        return position < limit && !Character.isWhitespace(at(position));
+    }
+
+    DBParseException error(int at, String message) {
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i < at && i < limit; i++) {
+            if (at(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        return new DBParseException(message, line, column);
+    }
+
+    DBParseException error(String message) {
+        String found = kind == EOF ? "end of input" : "'" + text() + "'";
+        return error(start, message + ", found " + found);
+    }
+}
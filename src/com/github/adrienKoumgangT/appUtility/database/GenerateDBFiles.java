@@ -1,5 +1,22 @@
 package com.github.adrienKoumgangT.appUtility.database;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 /**
  * <p>
  * Cette classe permet de lire un fichier SQL de création d'une table
@@ -37,6 +54,21 @@ package com.github.adrienKoumgangT.appUtility.database;
  *     </li>
  * </ul>
  * </p>
+ * <p>
+ * La génération se fait pour tout un dossier de fichiers {@code .sql} à la fois, sur un
+ * {@link ForkJoinPool} : chaque fichier est découpé en instructions {@code CREATE}, chaque
+ * instruction est analysée par une tâche, puis chaque table produit par une tâche son fichier
+ * {@code <table>.sql} (vue et procédures, voir {@link DBRoutineGenerator}) et son script de
+ * chargement en masse {@code <table>.load.sql} (voir {@link DBLoadGenerator}). Le texte est produit
+ * dans les tampons réutilisés de {@link DBFileWriter} et écrit d'un bloc par fichier.
+ * </p>
+ * <p>
+ * Le dossier de sortie garde un manifeste ({@link DBManifest}) des empreintes de chaque table et du
+ * générateur. En mode incrémental ({@link #regenerate(Path, Path)}), seules les tables dont le modèle
+ * ou le générateur a changé sont régénérées, et un fichier dont le texte n'a pas changé n'est pas
+ * réécrit : les fichiers inchangés gardent leur date de modification, ce qui préserve les caches des
+ * étapes de construction suivantes. Dans les deux modes, les fichiers des tables disparues sont supprimés.
+ * </p>
  * <br>
  *
  * @author Adrien Koumgang Tegantchouang
@@ -45,4 +77,233 @@ package com.github.adrienKoumgangT.appUtility.database;
  */
 public class GenerateDBFiles {
 
+    public static final String SQL_EXTENSION = ".sql";
+
+    private final DBRoutineGenerator generator;
+    private final DBLoadGenerator loader;
+    private final ForkJoinPool pool;
+
+    public GenerateDBFiles() {
+        this(new DBRoutineGenerator(), ForkJoinPool.commonPool());
+    }
+
+    public GenerateDBFiles(DBRoutineGenerator generator, ForkJoinPool pool) {
+        this(generator, new DBLoadGenerator(), pool);
+    }
+
+    public GenerateDBFiles(DBRoutineGenerator generator, DBLoadGenerator loader, ForkJoinPool pool) {
+        this.generator = generator;
+        this.loader = loader;
+        this.pool = pool;
+    }
+
+    /**
+     * Génère les fichiers de toutes les tables créées par les fichiers {@code .sql} du dossier.
+     *
+     * @return le nombre de tables générées
+     * @throws DBParseException         si un fichier contient une instruction {@code CREATE TABLE} mal formée
+     * @throws IllegalArgumentException si deux tables produiraient le même fichier
+     */
+    public int generate(Path sqlDirectory, Path outputDirectory) throws IOException {
+        List<DBTable> tables = read(sqlDirectory);
+        write(tables, outputDirectory, false);
+        return tables.size();
+    }
+
+    /**
+     * Comme {@link #generate(Path, Path)}, mais ne régénère que les tables dont le modèle ou le
+     * générateur a changé depuis la génération précédente dans le même dossier de sortie.
+     *
+     * @return le nombre de fichiers écrits ou supprimés
+     * @throws DBParseException         si un fichier contient une instruction {@code CREATE TABLE} mal formée
+     * @throws IllegalArgumentException si deux tables produiraient le même fichier
+     */
+    public int regenerate(Path sqlDirectory, Path outputDirectory) throws IOException {
+        return write(read(sqlDirectory), outputDirectory, true);
+    }
+
+    /**
+     * @return les tables créées par les fichiers {@code .sql} du dossier, par ordre de nom de fichier
+     * puis d'apparition
+     * @throws DBParseException         si un fichier contient une instruction {@code CREATE TABLE} mal formée
+     * @throws IllegalArgumentException si deux tables produiraient le même fichier
+     */
+    public List<DBTable> read(Path sqlDirectory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(sqlDirectory, "*" + SQL_EXTENSION)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+
+        List<DBTable> tables = invoke(() -> {
+            List<ForkJoinTask<List<DBTable>>> tasks = new ArrayList<>(files.size());
+            for (Path file : files) {
+                tasks.add(ForkJoinTask.adapt(() -> readFile(file)));
+            }
+            return joinAll(tasks);
+        });
+
+        Map<String, DBTable> byFile = new HashMap<>();
+        for (DBTable table : tables) {
+            for (String fileName : List.of(fileName(table), DBLoadGenerator.loadFileName(table))) {
+                DBTable other = byFile.put(fileName.toLowerCase(Locale.ROOT), table);
+                if (other != null) {
+                    throw new IllegalArgumentException("tables " + other.getName() + " and " + table.getName()
+                            + " map to the same output file");
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static List<DBTable> readFile(Path file) {
+        CharBuffer sql;
+        try {
+            sql = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        List<CharBuffer> statements = DBTableParser.split(sql);
+        List<ForkJoinTask<List<DBTable>>> tasks = new ArrayList<>(statements.size());
+        for (CharBuffer statement : statements) {
+            tasks.add(ForkJoinTask.adapt(() -> DBTableParser.parse(statement)));
+        }
+        try {
+            return joinAll(tasks);
+        } catch (DBParseException e) {
+            throw new DBParseException(file, e);
+        }
+    }
+
+    /**
+     * Écrit les fichiers de chaque table dans le dossier, créé au besoin, supprime ceux des tables
+     * qui n'y sont plus et met à jour le manifeste.
+     *
+     * @param incremental {@code true} pour ne régénérer que les tables dont l'empreinte ou celle du
+     *                    générateur a changé, et ne réécrire que les fichiers dont le texte a changé
+     * @return le nombre de fichiers écrits ou supprimés
+     */
+    public int write(List<DBTable> tables, Path outputDirectory, boolean incremental) throws IOException {
+        Files.createDirectories(outputDirectory);
+        DBManifest previous = DBManifest.read(outputDirectory);
+        DBManifest next = new DBManifest(DBManifest.digest(generator.fingerprint() + ' ' + loader.fingerprint()));
+        boolean sameGenerator = next.generator().equals(previous.generator());
+
+        String[] hashes = new String[tables.size()];
+        int changed = invoke(() -> {
+            List<ForkJoinTask<Integer>> tasks = new ArrayList<>(tables.size());
+            for (int i = 0; i < tables.size(); i++) {
+                int index = i;
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    DBTable table = tables.get(index);
+                    hashes[index] = DBManifest.hash(table);
+                    int written = 0;
+                    for (String fileName : List.of(fileName(table), DBLoadGenerator.loadFileName(table))) {
+                        Path file = outputDirectory.resolve(fileName);
+                        if (incremental && sameGenerator && hashes[index].equals(previous.hash(fileName))
+                                && Files.exists(file)) {
+                            continue;
+                        }
+                        StringBuilder out = DBFileWriter.buffer();
+                        if (fileName.equals(fileName(table))) {
+                            generator.generate(table, out);
+                        } else {
+                            loader.generate(table, out);
+                        }
+                        written += write(file, out, incremental) ? 1 : 0;
+                    }
+                    return written;
+                }));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            int written = 0;
+            for (ForkJoinTask<Integer> task : tasks) {
+                written += task.join();
+            }
+            return written;
+        });
+
+        for (int i = 0; i < tables.size(); i++) {
+            next.put(fileName(tables.get(i)), hashes[i]);
+            next.put(DBLoadGenerator.loadFileName(tables.get(i)), hashes[i]);
+        }
+        for (String fileName : previous.fileNames()) {
+            if (next.hash(fileName) == null && Files.deleteIfExists(outputDirectory.resolve(fileName))) {
+                changed++;
+            }
+        }
+        if (!next.equals(previous)) {
+            next.write(outputDirectory);
+        }
+        return changed;
+    }
+
+    private static boolean write(Path file, StringBuilder out, boolean ifChanged) {
+        try {
+            if (ifChanged) {
+                return DBFileWriter.writeIfChanged(file, out);
+            }
+            DBFileWriter.write(file, out);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return le nom du fichier généré pour la table, dont les caractères interdits dans un nom de
+     * fichier sont remplacés par {@code _}
+     */
+    public static String fileName(DBTable table) {
+        StringBuilder name = new StringBuilder(table.getName().length() + SQL_EXTENSION.length());
+        for (int i = 0; i < table.getName().length(); i++) {
+            char c = table.getName().charAt(i);
+            name.append(c < ' ' || "/\\:*?\"<>|".indexOf(c) >= 0 ? '_' : c);
+        }
+        return name.append(SQL_EXTENSION).toString();
+    }
+
+    // appelé dans le pool : les tâches sont lancées ensemble puis leurs listes concaténées dans l'ordre
+    private static List<DBTable> joinAll(List<ForkJoinTask<List<DBTable>>> tasks) {
+        ForkJoinTask.invokeAll(tasks);
+        List<DBTable> tables = new ArrayList<>();
+        for (ForkJoinTask<List<DBTable>> task : tasks) {
+            tables.addAll(task.join());
+        }
+        return tables;
+    }
+
+    private <T> T invoke(Callable<T> work) throws IOException {
+        try {
+            return pool.invoke(ForkJoinTask.adapt(work));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Usage : {@code GenerateDBFiles [--incremental] <dossier des fichiers .sql> <dossier de sortie>}
+     */
+    public static void main(String[] args) throws IOException {
+        boolean incremental = args.length == 3 && args[0].equals("--incremental");
+        if (args.length != (incremental ? 3 : 2)) {
+            System.err.println("usage: GenerateDBFiles [--incremental] <sql directory> <output directory>");
+            System.exit(2);
+        }
+        Path sqlDirectory = Path.of(args[args.length - 2]);
+        Path outputDirectory = Path.of(args[args.length - 1]);
+        long start = System.nanoTime();
+        GenerateDBFiles generateDBFiles = new GenerateDBFiles();
+        if (incremental) {
+            int count = generateDBFiles.regenerate(sqlDirectory, outputDirectory);
+            System.out.printf(Locale.ROOT, "%d files changed in %d ms%n", count, (System.nanoTime() - start) / 1_000_000);
+        } else {
+            int count = generateDBFiles.generate(sqlDirectory, outputDirectory);
+            System.out.printf(Locale.ROOT, "%d tables generated in %d ms%n", count, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
 }
@@ -0,0 +1,306 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>Graphe d'ordonnancement gelé (CSR)</h1>
+ *
+ * <p>
+ * Vue immuable et compacte d'un {@link GraphSchedule}. Chaque identifiant de tache
+ * est associé à un indice dense {@code 0..size()-1}; les durées sont rangées dans un
+ * {@code long[]} et les arcs de précédence au format CSR (<i>compressed sparse row</i>) :
+ * les successeurs de la tache {@code i} sont {@code succTargets[succOffsets[i] .. succOffsets[i + 1])},
+ * et symétriquement pour les prédécesseurs.
+ * </p>
+ * <p>
+ * Chaque ligne d'adjacence est triée et sans doublon. Une tache et un arc coutent
+ * respectivement environ 8 + 8 + 8 + 8 octets (identifiant, durée, deux offsets, table d'index)
+ * et 8 octets (cible dans les deux sens), contre plusieurs objets {@code Long},
+ * entrées de {@code HashMap} et {@code ArrayList} dans la vue mutable.
+ * </p>
+ * <p>
+ * {@link GraphSchedule} reste la vue de construction; les algorithmes d'ordonnancement
+ * travaillent sur cette représentation.
+ * </p>
+ */
+public final class CompactGraphSchedule {
+
+    final long[] ids;
+    final long[] durees;
+    final int[] succOffsets;
+    final int[] succTargets;
+    final int[] predOffsets;
+    final int[] predTargets;
+
+    private final LongIndexMap index;
+
+    /**
+     * @param ids         identifiants des taches, indexés par indice dense (le tableau est repris tel quel)
+     * @param index       table identifiant --> indice cohérente avec {@code ids}
+     * @param durees      durées indexées par indice dense (le tableau est repris tel quel)
+     * @param succOffsets offsets CSR des successeurs, de taille {@code ids.length + 1}
+     * @param succTargets successeurs, chaque ligne triée et sans doublon
+     */
+    CompactGraphSchedule(long[] ids, LongIndexMap index, long[] durees, int[] succOffsets, int[] succTargets) {
+        int n = ids.length;
+        if (durees.length != n || succOffsets.length != n + 1) {
+            throw new IllegalArgumentException("array lengths do not match task count " + n);
+        }
+        this.ids = ids;
+        this.index = index;
+        this.durees = durees;
+        this.succOffsets = succOffsets;
+        this.succTargets = succTargets;
+
+        // transposition : parcourir les sources dans l'ordre donne des lignes déjà triées
+        int m = succTargets.length;
+        int[] pOffsets = new int[n + 1];
+        for (int k = 0; k < m; k++) {
+            pOffsets[succTargets[k] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            pOffsets[i + 1] += pOffsets[i];
+        }
+        int[] pTargets = new int[m];
+        int[] pCursor = Arrays.copyOf(pOffsets, n);
+        for (int u = 0; u < n; u++) {
+            for (int k = succOffsets[u]; k < succOffsets[u + 1]; k++) {
+                pTargets[pCursor[succTargets[k]]++] = u;
+            }
+        }
+        this.predOffsets = pOffsets;
+        this.predTargets = pTargets;
+    }
+
+    /**
+     * Construit la vue à partir d'une liste d'arcs quelconque (non triée, doublons permis).
+     *
+     * @param ids    identifiants des taches, indexés par indice dense (le tableau est repris tel quel)
+     * @param index  table identifiant --> indice cohérente avec {@code ids}
+     * @param durees durées indexées par indice dense (le tableau est repris tel quel)
+     * @param from   indices source des arcs
+     * @param to     indices cible des arcs
+     * @param m      nombre d'arcs valides dans {@code from}/{@code to}
+     */
+    static CompactGraphSchedule fromEdges(long[] ids, LongIndexMap index, long[] durees, int[] from, int[] to, int m) {
+        int n = ids.length;
+        // comptage des degrés sortants puis remplissage (tri par paquets sur la source)
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            offsets[from[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] targets = new int[m];
+        int[] cursor = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            targets[cursor[from[e]]++] = to[e];
+        }
+
+        // tri de chaque ligne et suppression des arcs dupliqués, en place
+        int write = 0;
+        for (int i = 0; i < n; i++) {
+            int start = offsets[i];
+            int end = offsets[i + 1];
+            offsets[i] = write;
+            Arrays.sort(targets, start, end);
+            for (int k = start; k < end; k++) {
+                if (k == start || targets[k] != targets[k - 1]) {
+                    targets[write++] = targets[k];
+                }
+            }
+        }
+        offsets[n] = write;
+        return new CompactGraphSchedule(ids, index, durees, offsets, write == m ? targets : Arrays.copyOf(targets, write));
+    }
+
+    /**
+     * <p>
+     * Gèle un {@link GraphSchedule}. Les arcs sont l'union de ceux décrits par
+     * {@code successeurs} et par {@code predecesseurs}; une tache absente de
+     * {@code tachesDuree} a une durée nulle.
+     * </p>
+     *
+     * @param graph graphe mutable à geler
+     * @return la vue compacte du graphe
+     * @throws IllegalArgumentException si une tache est dupliquée, a une durée négative,
+     *                                  ou si un arc référence une tache inconnue
+     */
+    public static CompactGraphSchedule of(GraphSchedule graph) {
+        List<Long> taches = graph.taches != null ? graph.taches : List.of();
+        int n = taches.size();
+        long[] ids = new long[n];
+        long[] durees = new long[n];
+        LongIndexMap index = new LongIndexMap(n);
+        int i = 0;
+        for (Long tache : taches) {
+            long id = tache;
+            if (index.putIfAbsent(id, i) >= 0) {
+                throw new IllegalArgumentException("duplicate task " + id);
+            }
+            ids[i] = id;
+            Long duree = graph.tachesDuree != null ? graph.tachesDuree.get(tache) : null;
+            if (duree != null) {
+                if (duree < 0) {
+                    throw new IllegalArgumentException("negative duration " + duree + " for task " + id);
+                }
+                durees[i] = duree;
+            }
+            i++;
+        }
+
+        int m = countEdges(graph.successeurs) + countEdges(graph.predecesseurs);
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int e = 0;
+        if (graph.successeurs != null) {
+            for (Map.Entry<Long, List<Long>> entry : graph.successeurs.entrySet()) {
+                int u = indexOrFail(index, entry.getKey());
+                for (Long succ : entry.getValue()) {
+                    from[e] = u;
+                    to[e] = indexOrFail(index, succ);
+                    e++;
+                }
+            }
+        }
+        if (graph.predecesseurs != null) {
+            for (Map.Entry<Long, List<Long>> entry : graph.predecesseurs.entrySet()) {
+                int v = indexOrFail(index, entry.getKey());
+                for (Long pred : entry.getValue()) {
+                    from[e] = indexOrFail(index, pred);
+                    to[e] = v;
+                    e++;
+                }
+            }
+        }
+        return fromEdges(ids, index, durees, from, to, e);
+    }
+
+    /**
+     * @return le nombre de taches
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return le nombre d'arcs de précédence distincts
+     */
+    public int edgeCount() {
+        return succTargets.length;
+    }
+
+    /**
+     * @param index indice dense d'une tache
+     * @return l'identifiant de la tache
+     */
+    public long id(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @param id identifiant d'une tache
+     * @return l'indice dense de la tache, ou {@code -1} si elle est inconnue
+     */
+    public int indexOf(long id) {
+        return index.get(id);
+    }
+
+    /**
+     * @param index indice dense d'une tache
+     * @return la durée de la tache
+     */
+    public long duree(int index) {
+        return durees[index];
+    }
+
+    public int outDegree(int index) {
+        return succOffsets[index + 1] - succOffsets[index];
+    }
+
+    /**
+     * @return l'indice du {@code k}-ième successeur (par indice croissant) de la tache {@code index}
+     */
+    public int successor(int index, int k) {
+        return succTargets[succOffsets[index] + k];
+    }
+
+    public int inDegree(int index) {
+        return predOffsets[index + 1] - predOffsets[index];
+    }
+
+    /**
+     * @return l'indice du {@code k}-ième prédécesseur (par indice croissant) de la tache {@code index}
+     */
+    public int predecessor(int index, int k) {
+        return predTargets[predOffsets[index] + k];
+    }
+
+    /**
+     * @return une estimation du nombre d'octets occupés par les tableaux de cette vue
+     */
+    public long footprintBytes() {
+        return 8L * ids.length + 8L * durees.length
+                + 4L * (succOffsets.length + succTargets.length + predOffsets.length + predTargets.length)
+                + index.footprintBytes();
+    }
+
+    /**
+     * @return une nouvelle vue mutable équivalente, avec des listes d'adjacence cohérentes
+     */
+    public GraphSchedule toGraphSchedule() {
+        int n = ids.length;
+        GraphSchedule graph = new GraphSchedule();
+        graph.taches = new ArrayList<>(n);
+        graph.tachesDuree = new HashMap<>(capacityFor(n));
+        graph.predecesseurs = new HashMap<>(capacityFor(n));
+        graph.successeurs = new HashMap<>(capacityFor(n));
+        for (int i = 0; i < n; i++) {
+            Long id = ids[i];
+            graph.taches.add(id);
+            graph.tachesDuree.put(id, durees[i]);
+            graph.predecesseurs.put(id, toIds(predTargets, predOffsets[i], predOffsets[i + 1]));
+            graph.successeurs.put(id, toIds(succTargets, succOffsets[i], succOffsets[i + 1]));
+        }
+        return graph;
+    }
+
+    private List<Long> toIds(int[] targets, int start, int end) {
+        List<Long> list = new ArrayList<>(end - start);
+        for (int k = start; k < end; k++) {
+            list.add(ids[targets[k]]);
+        }
+        return list;
+    }
+
+    private static int countEdges(Map<Long, List<Long>> adjacency) {
+        if (adjacency == null) {
+            return 0;
+        }
+        long count = 0;
+        for (List<Long> list : adjacency.values()) {
+            count += list.size();
+        }
+        if (count > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("too many edges: " + count);
+        }
+        return (int) count;
+    }
+
+    private static int indexOrFail(LongIndexMap index, Long id) {
+        int i = index.get(id);
+        if (i < 0) {
+            throw new IllegalArgumentException("unknown task " + id);
+        }
+        return i;
+    }
+
+    static int capacityFor(int expectedSize) {
+        return (int) Math.min(Integer.MAX_VALUE, expectedSize / 0.75d + 1);
+    }
+}
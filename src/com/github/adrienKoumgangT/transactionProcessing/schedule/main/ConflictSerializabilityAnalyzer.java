@@ -0,0 +1,590 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * <h1>Sérialisabilité par conflits</h1>
+ *
+ * <p>
+ * Analyse en flux un ordonnancement de transactions (lectures, écritures, validations, annulations)
+ * et décide s'il est sérialisable par conflits : son graphe de précédence (graphe des conflits) doit
+ * etre acyclique. Deux opérations sont en conflit si elles portent sur le meme élément, viennent de
+ * transactions différentes et l'une au moins est une écriture; l'arc va de la transaction de la
+ * première opération vers celle de la seconde. Seule la projection sur les transactions validées
+ * compte : une transaction annulée est retirée du graphe.
+ * </p>
+ *
+ * <p>
+ * Le graphe suit le modèle d'adjacence de {@link GraphSchedule} (transaction --> prédécesseurs,
+ * transaction --> successeurs) et peut etre exporté par {@link #toGraphSchedule()}.
+ * Les cycles sont détectés à l'ajout de chaque arc en maintenant un ordre topologique dynamique
+ * (Pearce-Kelly), qui ne réordonne que les transactions situées entre les deux extrémités.
+ * </p>
+ *
+ * <p>
+ * La mémoire reste bornée : une transaction validée sans prédécesseur vivant ne peut plus
+ * participer à un cycle (aucun arc ne peut plus y entrer), elle est donc retirée et émise dans
+ * l'ordre sériel. Pour chaque élément, seuls les segments (écrivain, lecteurs qui le suivent)
+ * postérieurs au dernier écrivain validé sont conservés; les conflits plus anciens sont impliqués
+ * par transitivité le long de cette chaine.
+ * </p>
+ *
+ * <p>
+ * Un arc qui fermerait un cycle n'est pas ajouté au graphe : il est mis en attente avec le cycle
+ * qu'il ferme, et ses extrémités ne sont pas émises tant qu'il attend. Le cycle ne devient un verdict
+ * définitif (les opérations suivantes étant alors ignorées) que lorsque toutes ses transactions sont
+ * validées; l'annulation de l'une d'elles retire la transaction puis remet à l'essai les arcs en
+ * attente, qui rejoignent le graphe si leur cycle a disparu.
+ * Les identifiants de transactions ne doivent pas etre réutilisés.
+ * </p>
+ */
+public class ConflictSerializabilityAnalyzer {
+
+    private final LongConsumer serialOrder;
+    private final Map<Long, Transaction> live = new HashMap<>();
+    private final Map<Long, Item> items = new HashMap<>();
+
+    private long nextOrder;
+    private int epoch;
+    private long emitted;
+    private List<Long> cycle;
+    private final List<Deferred> deferred = new ArrayList<>();
+
+    /**
+     * @param serialOrder reçoit les transactions validées dans un ordre sériel équivalent, au fur et
+     *                    à mesure qu'elles ne peuvent plus participer à un cycle
+     */
+    public ConflictSerializabilityAnalyzer(LongConsumer serialOrder) {
+        this.serialOrder = serialOrder;
+    }
+
+    public ConflictSerializabilityAnalyzer() {
+        this(id -> { });
+    }
+
+    /**
+     * Analyse un flux complet, puis appelle {@link #finish()}.
+     *
+     * @return {@code true} si l'ordonnancement est sérialisable par conflits
+     */
+    public boolean analyze(Stream<TransactionOperation> operations) {
+        operations.forEachOrdered(this::accept);
+        return finish();
+    }
+
+    public void accept(TransactionOperation operation) {
+        switch (operation.getKind()) {
+            case READ:
+                read(operation.getTransaction(), operation.getItem());
+                break;
+            case WRITE:
+                write(operation.getTransaction(), operation.getItem());
+                break;
+            case COMMIT:
+                commit(operation.getTransaction());
+                break;
+            default:
+                abort(operation.getTransaction());
+                break;
+        }
+    }
+
+    public void read(long transaction, long item) {
+        if (cycle != null) {
+            return;
+        }
+        Transaction t = active(transaction);
+        Item state = items.computeIfAbsent(item, Item::new);
+        Segment last = state.last();
+        if (last.writer == t) {
+            return;
+        }
+        if (last.writer != null) {
+            addEdge(last.writer, t);
+        }
+        last.readers.add(t);
+        t.items.add(state);
+    }
+
+    public void write(long transaction, long item) {
+        if (cycle != null) {
+            return;
+        }
+        Transaction t = active(transaction);
+        Item state = items.computeIfAbsent(item, Item::new);
+        Segment last = state.last();
+        for (Transaction reader : last.readers) {
+            if (reader != t) {
+                addEdge(reader, t);
+            }
+        }
+        if (last.writer != t) {
+            if (last.writer != null) {
+                addEdge(last.writer, t);
+            }
+            state.segments.addLast(new Segment(t));
+        }
+        t.items.add(state);
+    }
+
+    public void commit(long transaction) {
+        if (cycle != null) {
+            return;
+        }
+        Transaction t = active(transaction);
+        t.committed = true;
+        for (Item state : t.items) {
+            state.prune();
+        }
+        collect(t);
+        settle();
+    }
+
+    public void abort(long transaction) {
+        if (cycle != null) {
+            return;
+        }
+        Transaction t = active(transaction);
+        t.removed = true;
+        live.remove(t.id);
+        List<Transaction> successors = new ArrayList<>(t.succ);
+        for (Transaction p : t.pred) {
+            p.succ.remove(t);
+        }
+        for (Transaction s : successors) {
+            s.pred.remove(t);
+        }
+        t.pred.clear();
+        t.succ.clear();
+        for (Item state : t.items) {
+            state.removeAborted(t);
+        }
+        t.items.clear();
+        retryDeferred();
+        for (Transaction s : successors) {
+            collect(s);
+        }
+        settle();
+    }
+
+    /**
+     * Fin du flux : les transactions encore actives sont considérées comme annulées,
+     * et les transactions validées restantes sont émises dans l'ordre sériel.
+     *
+     * @return {@code true} si l'ordonnancement est sérialisable par conflits
+     */
+    public boolean finish() {
+        if (cycle != null) {
+            return false;
+        }
+        List<Transaction> remaining = new ArrayList<>(live.values());
+        remaining.sort(Comparator.comparingLong(t -> t.order));
+        for (Transaction t : remaining) {
+            if (!t.committed && !t.removed) {
+                abort(t.id);
+            }
+        }
+        for (Transaction t : remaining) {
+            collect(t);
+        }
+        // seules des transactions validées restent : tout arc encore en attente ferme un cycle définitif
+        settle();
+        return cycle == null;
+    }
+
+    /**
+     * @return {@code false} dès qu'un cycle entre transactions validées est certain; un cycle qui
+     * passe par une transaction encore active ne compte pas avant sa validation
+     */
+    public boolean isSerializable() {
+        return cycle == null;
+    }
+
+    /**
+     * @return le cycle qui a rendu le verdict définitif, dans le sens des arcs, ou une liste vide
+     */
+    public List<Long> getCycle() {
+        return cycle == null ? List.of() : cycle;
+    }
+
+    /**
+     * @return le nombre de transactions émises dans l'ordre sériel
+     */
+    public long serializedCount() {
+        return emitted;
+    }
+
+    /**
+     * @return le nombre de transactions encore présentes dans le graphe
+     */
+    public int liveTransactions() {
+        return live.size();
+    }
+
+    /**
+     * @return le nombre d'éléments dont l'historique est encore conservé
+     */
+    public int trackedItems() {
+        return items.size();
+    }
+
+    /**
+     * @return le graphe des conflits courant, les transactions rangées dans l'ordre topologique maintenu
+     */
+    public GraphSchedule toGraphSchedule() {
+        List<Transaction> transactions = new ArrayList<>(live.values());
+        transactions.sort(Comparator.comparingLong(t -> t.order));
+        GraphSchedule graph = new GraphSchedule();
+        graph.taches = new ArrayList<>(transactions.size());
+        graph.tachesDuree = new HashMap<>(CompactGraphSchedule.capacityFor(transactions.size()));
+        graph.predecesseurs = new HashMap<>(CompactGraphSchedule.capacityFor(transactions.size()));
+        graph.successeurs = new HashMap<>(CompactGraphSchedule.capacityFor(transactions.size()));
+        for (Transaction t : transactions) {
+            graph.taches.add(t.id);
+            graph.tachesDuree.put(t.id, 0L);
+            graph.predecesseurs.put(t.id, ids(t.pred));
+            graph.successeurs.put(t.id, ids(t.succ));
+        }
+        return graph;
+    }
+
+    private static List<Long> ids(Iterable<Transaction> transactions) {
+        List<Long> list = new ArrayList<>();
+        for (Transaction t : transactions) {
+            list.add(t.id);
+        }
+        return list;
+    }
+
+    private Transaction active(long id) {
+        Transaction t = live.get(id);
+        if (t == null) {
+            t = new Transaction(id, nextOrder++);
+            live.put(id, t);
+        } else if (t.committed) {
+            throw new IllegalStateException("transaction " + id + " already committed");
+        }
+        return t;
+    }
+
+    private void addEdge(Transaction u, Transaction v) {
+        if (u == v || u.removed || v.removed || cycle != null || u.succ.contains(v) || u.deferredSucc.contains(v)) {
+            return;
+        }
+        if (u.order > v.order) {
+            List<Transaction> closed = reorder(u, v);
+            if (closed != null) {
+                u.deferredSucc.add(v);
+                v.deferredPred++;
+                deferred.add(new Deferred(u, v, closed));
+                return;
+            }
+        }
+        u.succ.add(v);
+        v.pred.add(u);
+    }
+
+    /**
+     * Remet à l'essai les arcs en attente après une annulation : ceux dont une extrémité est retirée
+     * disparaissent, les autres rejoignent le graphe ou attendent de nouveau, avec le cycle qu'ils
+     * ferment désormais.
+     */
+    private void retryDeferred() {
+        if (deferred.isEmpty()) {
+            return;
+        }
+        List<Deferred> retry = new ArrayList<>(deferred);
+        deferred.clear();
+        for (Deferred edge : retry) {
+            edge.from.deferredSucc.remove(edge.to);
+            edge.to.deferredPred--;
+        }
+        for (Deferred edge : retry) {
+            addEdge(edge.from, edge.to);
+        }
+        for (Deferred edge : retry) {
+            collect(edge.to);
+        }
+    }
+
+    /**
+     * Rend le verdict définitif si un arc en attente ferme un cycle de transactions toutes validées :
+     * aucune ne pouvant plus etre annulée, ce cycle ne disparaitra pas.
+     */
+    private void settle() {
+        if (cycle != null) {
+            return;
+        }
+        for (Deferred edge : deferred) {
+            boolean committed = true;
+            for (Transaction t : edge.cycle) {
+                committed &= t.committed;
+            }
+            if (committed) {
+                cycle = ids(edge.cycle);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retire en cascade les transactions validées sans prédécesseur, arcs en attente compris.
+     */
+    private void collect(Transaction start) {
+        ArrayDeque<Transaction> work = new ArrayDeque<>();
+        work.add(start);
+        while (!work.isEmpty()) {
+            Transaction t = work.poll();
+            if (t.removed || !t.committed || !t.pred.isEmpty() || t.deferredPred > 0) {
+                continue;
+            }
+            t.removed = true;
+            live.remove(t.id);
+            emitted++;
+            serialOrder.accept(t.id);
+            for (Transaction s : t.succ) {
+                s.pred.remove(t);
+                work.add(s);
+            }
+            t.succ.clear();
+            for (Item state : t.items) {
+                state.forget(t);
+            }
+            t.items.clear();
+        }
+    }
+
+    /**
+     * Pearce-Kelly pour l'arc {@code u --> v} avec {@code order(v) < order(u)}.
+     *
+     * @return le cycle que fermerait l'arc, l'ordre étant alors inchangé, ou {@code null} s'il n'en ferme pas
+     */
+    private List<Transaction> reorder(Transaction u, Transaction v) {
+        long lower = v.order;
+        long upper = u.order;
+
+        int forwardMark = ++epoch;
+        List<Transaction> deltaForward = new ArrayList<>();
+        ArrayDeque<Transaction> stack = new ArrayDeque<>();
+        v.mark = forwardMark;
+        v.parent = null;
+        stack.push(v);
+        while (!stack.isEmpty()) {
+            Transaction x = stack.pop();
+            deltaForward.add(x);
+            for (Transaction y : x.succ) {
+                if (y == u) {
+                    return cycleThrough(u, v, x);
+                }
+                if (y.order < upper && y.mark != forwardMark) {
+                    y.mark = forwardMark;
+                    y.parent = x;
+                    stack.push(y);
+                }
+            }
+        }
+
+        int backwardMark = ++epoch;
+        List<Transaction> deltaBackward = new ArrayList<>();
+        u.mark = backwardMark;
+        stack.push(u);
+        while (!stack.isEmpty()) {
+            Transaction x = stack.pop();
+            deltaBackward.add(x);
+            for (Transaction y : x.pred) {
+                if (y.order > lower && y.mark != backwardMark) {
+                    y.mark = backwardMark;
+                    stack.push(y);
+                }
+            }
+        }
+
+        Comparator<Transaction> byOrder = Comparator.comparingLong(t -> t.order);
+        deltaBackward.sort(byOrder);
+        deltaForward.sort(byOrder);
+        long[] pool = new long[deltaBackward.size() + deltaForward.size()];
+        int p = 0;
+        for (Transaction t : deltaBackward) {
+            pool[p++] = t.order;
+        }
+        for (Transaction t : deltaForward) {
+            pool[p++] = t.order;
+        }
+        Arrays.sort(pool);
+        p = 0;
+        for (Transaction t : deltaBackward) {
+            t.order = pool[p++];
+        }
+        for (Transaction t : deltaForward) {
+            t.order = pool[p++];
+        }
+        return null;
+    }
+
+    // cycle u --> v --> ... --> last --> u, reconstitué par les parents du parcours depuis v
+    private static List<Transaction> cycleThrough(Transaction u, Transaction v, Transaction last) {
+        List<Transaction> path = new ArrayList<>();
+        for (Transaction x = last; x != null; x = x.parent) {
+            path.add(x);
+            if (x == v) {
+                break;
+            }
+        }
+        path.add(u);
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static final class Transaction {
+
+        final long id;
+        long order;
+        boolean committed;
+        boolean removed;
+        final LinkedHashSet<Transaction> pred = new LinkedHashSet<>();
+        final LinkedHashSet<Transaction> succ = new LinkedHashSet<>();
+        final LinkedHashSet<Item> items = new LinkedHashSet<>();
+        /** successeurs par des arcs en attente, et nombre d'arcs en attente qui entrent */
+        final LinkedHashSet<Transaction> deferredSucc = new LinkedHashSet<>();
+        int deferredPred;
+
+        int mark;
+        Transaction parent;
+
+        Transaction(long id, long order) {
+            this.id = id;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Arc qui fermerait un cycle, tenu hors du graphe pour garder l'ordre topologique.
+     */
+    private static final class Deferred {
+
+        final Transaction from;
+        final Transaction to;
+        final List<Transaction> cycle;
+
+        Deferred(Transaction from, Transaction to, List<Transaction> cycle) {
+            this.from = from;
+            this.to = to;
+            this.cycle = cycle;
+        }
+    }
+
+    /**
+     * Écrivain d'un élément et transactions qui ont lu sa valeur ({@code writer} nul : valeur initiale).
+     */
+    private static final class Segment {
+
+        Transaction writer;
+        final LinkedHashSet<Transaction> readers = new LinkedHashSet<>();
+
+        Segment(Transaction writer) {
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * Historique compressé d'un élément : chaine des segments depuis le dernier écrivain validé.
+     */
+    private final class Item {
+
+        final long item;
+        final ArrayDeque<Segment> segments = new ArrayDeque<>();
+
+        Item(long item) {
+            this.item = item;
+        }
+
+        Segment last() {
+            if (segments.isEmpty()) {
+                segments.add(new Segment(null));
+            }
+            return segments.peekLast();
+        }
+
+        /**
+         * Un segment ne sert qu'à reconnecter la chaine si l'écrivain suivant est annulé :
+         * dès que cet écrivain est validé, il devient inutile.
+         */
+        void prune() {
+            while (segments.size() >= 2) {
+                Iterator<Segment> it = segments.iterator();
+                it.next();
+                if (!it.next().writer.committed) {
+                    break;
+                }
+                segments.pollFirst();
+            }
+            if (segments.size() == 1) {
+                Segment only = segments.peekFirst();
+                if ((only.writer == null || only.writer.removed) && only.readers.isEmpty()) {
+                    items.remove(item, this);
+                }
+            }
+        }
+
+        void forget(Transaction t) {
+            for (Segment segment : segments) {
+                segment.readers.remove(t);
+            }
+            prune();
+        }
+
+        /**
+         * Retire les lectures et les écritures de {@code t} : chaque segment qu'il a écrit fusionne avec
+         * le précédent, et les conflits qui passaient par {@code t} sont rétablis entre ses voisins
+         * (écrivain précédent --> lecteurs repris, lecteurs et écrivain précédent --> écrivain suivant).
+         */
+        void removeAborted(Transaction t) {
+            List<Segment> kept = new ArrayList<>(segments.size());
+            boolean merged = false;
+            for (Segment segment : segments) {
+                segment.readers.remove(t);
+                if (segment.writer == t) {
+                    if (kept.isEmpty()) {
+                        segment.writer = null;
+                        kept.add(segment);
+                    } else {
+                        Segment previous = kept.get(kept.size() - 1);
+                        for (Transaction reader : segment.readers) {
+                            if (previous.writer != null) {
+                                addEdge(previous.writer, reader);
+                            }
+                            previous.readers.add(reader);
+                        }
+                        merged = true;
+                    }
+                    continue;
+                }
+                if (merged) {
+                    Segment previous = kept.get(kept.size() - 1);
+                    for (Transaction reader : previous.readers) {
+                        addEdge(reader, segment.writer);
+                    }
+                    if (previous.writer != null) {
+                        addEdge(previous.writer, segment.writer);
+                    }
+                    merged = false;
+                }
+                kept.add(segment);
+            }
+            segments.clear();
+            segments.addAll(kept);
+            prune();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Levée lorsque le graphe de précédence n'est pas acyclique (DAG) : aucun
+ * ordonnancement ne peut alors respecter les contraintes d'enchainement.
+ * </p>
+ * <p>
+ * Le cycle fautif est fourni dans le sens des arcs : chaque tache précède la suivante
+ * et la dernière précède la première.
+ * </p>
+ */
+public class CyclicScheduleException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Long> cycle;
+
+    public CyclicScheduleException(List<Long> cycle) {
+        super("precedence graph is not a DAG, cycle: " + describe(cycle));
+        this.cycle = List.copyOf(cycle);
+    }
+
+    /**
+     * @return les identifiants des taches du cycle, dans le sens des arcs
+     */
+    public List<Long> getCycle() {
+        return cycle;
+    }
+
+    private static String describe(List<Long> cycle) {
+        StringBuilder sb = new StringBuilder();
+        for (Long id : cycle) {
+            sb.append(id).append(" -> ");
+        }
+        return cycle.isEmpty() ? "" : sb.append(cycle.get(0)).toString();
+    }
+}
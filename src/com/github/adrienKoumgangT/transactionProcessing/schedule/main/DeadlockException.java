@@ -0,0 +1,47 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Levée dans la transaction choisie comme victime pour rompre un interblocage détecté
+ * par {@link LockManager}. La demande de verrou en attente est retirée, mais les verrous
+ * déjà détenus le restent : la transaction doit etre annulée par {@link LockManager#releaseAll(long)}.
+ * </p>
+ * <p>
+ * Le cycle est fourni dans le sens du graphe d'attente : chaque transaction attend la suivante
+ * et la dernière attend la première.
+ * </p>
+ */
+public class DeadlockException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long transaction;
+    private final List<Long> cycle;
+
+    public DeadlockException(long transaction, List<Long> cycle) {
+        super("transaction " + transaction + " chosen as deadlock victim, wait-for cycle: " + describe(cycle));
+        this.transaction = transaction;
+        this.cycle = List.copyOf(cycle);
+    }
+
+    public long getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * @return les transactions du cycle d'attente, dans le sens des arcs
+     */
+    public List<Long> getCycle() {
+        return cycle;
+    }
+
+    private static String describe(List<Long> cycle) {
+        StringBuilder sb = new StringBuilder();
+        for (Long id : cycle) {
+            sb.append(id).append(" -> ");
+        }
+        return cycle.isEmpty() ? "" : sb.append(cycle.get(0)).toString();
+    }
+}
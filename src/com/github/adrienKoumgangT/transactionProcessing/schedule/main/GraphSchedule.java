@@ -21,4 +21,15 @@ public class GraphSchedule {
     public Map<Long, List<Long>> successeurs;
 
 
+    /**
+     * Gèle ce graphe dans sa représentation compacte (indices denses, tableaux primitifs, CSR).
+     * Les modifications ultérieures de ce graphe ne sont pas reportées sur la vue compacte.
+     *
+     * @return la vue compacte de ce graphe
+     * @see CompactGraphSchedule#of(GraphSchedule)
+     */
+    public CompactGraphSchedule compact() {
+        return CompactGraphSchedule.of(this);
+    }
+
 }
@@ -0,0 +1,405 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <h1>Recalcul incrémental du chemin critique</h1>
+ *
+ * <p>
+ * Maintient les dates d'un ordonnancement pendant que l'on modifie une durée ou un arc
+ * de précédence, sans tout recalculer :
+ * <ul>
+ *     <li>
+ *         les dates au plus tot ne sont recalculées que dans le cone aval de la modification,
+ *         via une file de taches "sales" ordonnée par rang topologique croissant;
+ *     </li>
+ *     <li>
+ *         les dates au plus tard sont dérivées de la "queue" de chaque tache (plus long chemin
+ *         de son début à la fin du projet), recalculée uniquement dans le cone amont,
+ *         par rang topologique décroissant.
+ *     </li>
+ * </ul>
+ * La propagation s'arrete dès qu'une date ne change plus. Le rang topologique est maintenu
+ * lors de l'ajout d'un arc par l'algorithme de Pearce-Kelly, qui ne réordonne que les taches
+ * comprises entre les rangs des deux extrémités et détecte les cycles.
+ * </p>
+ * <p>
+ * Les modifications sont faites sur la copie interne du graphe; le {@link GraphSchedule}
+ * ou le {@link CompactGraphSchedule} d'origine n'est pas modifié.
+ * Les accesseurs prennent l'indice dense de la tache (voir {@link #indexOf(long)}).
+ * </p>
+ */
+public class IncrementalScheduleHandler {
+
+    private final CompactGraphSchedule graph;
+    private final int n;
+    private final long[] durees;
+
+    private final int[][] succ;
+    private final int[] succSize;
+    private final int[][] pred;
+    private final int[] predSize;
+
+    private final long[] earliestStart;
+    // plus long chemin du début de la tache à la fin du projet, durée de la tache comprise
+    private final long[] tail;
+    private final long[] rank;
+    private long makespan;
+    private boolean makespanStale;
+
+    private final IndexHeap forward;
+    private final IndexHeap backward;
+
+    // parcours de Pearce-Kelly : marquage par époque pour éviter de tout remettre à zéro
+    private final int[] mark;
+    private final int[] parent;
+    private int epoch;
+    private int[] stack;
+
+    public IncrementalScheduleHandler(GraphSchedule graph) {
+        this(graph.compact());
+    }
+
+    /**
+     * Calcule l'ordonnancement initial par un passage complet de {@link ScheduleHandler}.
+     *
+     * @throws CyclicScheduleException si le graphe de précédence contient un cycle
+     */
+    public IncrementalScheduleHandler(CompactGraphSchedule graph) {
+        this.graph = graph;
+        this.n = graph.size();
+        this.durees = graph.durees.clone();
+
+        this.succ = new int[n][];
+        this.succSize = new int[n];
+        this.pred = new int[n][];
+        this.predSize = new int[n];
+        for (int i = 0; i < n; i++) {
+            succ[i] = Arrays.copyOfRange(graph.succTargets, graph.succOffsets[i], graph.succOffsets[i + 1]);
+            succSize[i] = succ[i].length;
+            pred[i] = Arrays.copyOfRange(graph.predTargets, graph.predOffsets[i], graph.predOffsets[i + 1]);
+            predSize[i] = pred[i].length;
+        }
+
+        ScheduleResult initial = new ScheduleHandler(graph).compute();
+        this.earliestStart = initial.earliestStarts().clone();
+        this.makespan = initial.getMakespan();
+        this.tail = new long[n];
+        this.rank = new long[n];
+        long[] latestStart = initial.latestStarts();
+        int[] order = initial.order();
+        for (int r = 0; r < n; r++) {
+            rank[order[r]] = r;
+        }
+        for (int i = 0; i < n; i++) {
+            tail[i] = makespan - latestStart[i];
+        }
+
+        this.forward = new IndexHeap(rank, false);
+        this.backward = new IndexHeap(rank, true);
+        this.mark = new int[n];
+        this.parent = new int[n];
+        this.stack = new int[16];
+    }
+
+    /**
+     * @return l'indice dense de la tache, ou {@code -1} si elle est inconnue
+     */
+    public int indexOf(long id) {
+        return graph.indexOf(id);
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public long getMakespan() {
+        if (makespanStale) {
+            long max = 0;
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, earliestStart[i] + durees[i]);
+            }
+            makespan = max;
+            makespanStale = false;
+        }
+        return makespan;
+    }
+
+    public long duree(int index) {
+        return durees[index];
+    }
+
+    public long earliestStart(int index) {
+        return earliestStart[index];
+    }
+
+    public long earliestFinish(int index) {
+        return earliestStart[index] + durees[index];
+    }
+
+    public long latestStart(int index) {
+        return getMakespan() - tail[index];
+    }
+
+    public long latestFinish(int index) {
+        return latestStart(index) + durees[index];
+    }
+
+    public long slack(int index) {
+        return latestStart(index) - earliestStart[index];
+    }
+
+    /**
+     * Modifie la durée d'une tache et propage le changement.
+     *
+     * @throws IllegalArgumentException si la tache est inconnue ou la durée négative
+     */
+    public void setDuree(long id, long duree) {
+        int i = indexOrFail(id);
+        if (duree < 0) {
+            throw new IllegalArgumentException("negative duration " + duree + " for task " + id);
+        }
+        long oldFinish = earliestStart[i] + durees[i];
+        if (duree == durees[i]) {
+            return;
+        }
+        durees[i] = duree;
+        finishChanged(oldFinish, earliestStart[i] + duree);
+        for (int k = 0; k < succSize[i]; k++) {
+            forward.add(succ[i][k]);
+        }
+        backward.add(i);
+        propagate();
+    }
+
+    /**
+     * Ajoute l'arc de précédence {@code predecessor --> successor} et propage le changement.
+     *
+     * @return {@code false} si l'arc existait déjà
+     * @throws CyclicScheduleException si l'arc créerait un cycle (le graphe n'est alors pas modifié)
+     */
+    public boolean addPrecedence(long predecessor, long successor) {
+        int u = indexOrFail(predecessor);
+        int v = indexOrFail(successor);
+        if (indexOf(succ[u], succSize[u], v) >= 0) {
+            return false;
+        }
+        if (u == v) {
+            throw new CyclicScheduleException(List.of(predecessor));
+        }
+        if (rank[v] < rank[u]) {
+            reorder(u, v);
+        }
+        append(succ, succSize, u, v);
+        append(pred, predSize, v, u);
+        forward.add(v);
+        backward.add(u);
+        propagate();
+        return true;
+    }
+
+    /**
+     * Retire l'arc de précédence {@code predecessor --> successor} et propage le changement.
+     *
+     * @return {@code false} si l'arc n'existait pas
+     */
+    public boolean removePrecedence(long predecessor, long successor) {
+        int u = indexOrFail(predecessor);
+        int v = indexOrFail(successor);
+        int k = indexOf(succ[u], succSize[u], v);
+        if (k < 0) {
+            return false;
+        }
+        succ[u][k] = succ[u][--succSize[u]];
+        int j = indexOf(pred[v], predSize[v], u);
+        pred[v][j] = pred[v][--predSize[v]];
+        forward.add(v);
+        backward.add(u);
+        propagate();
+        return true;
+    }
+
+    private void propagate() {
+        // cone aval, par rang croissant : chaque tache est recalculée après ses prédécesseurs sales
+        while (!forward.isEmpty()) {
+            int x = forward.poll();
+            long start = 0;
+            for (int k = 0; k < predSize[x]; k++) {
+                int p = pred[x][k];
+                start = Math.max(start, earliestStart[p] + durees[p]);
+            }
+            if (start != earliestStart[x]) {
+                long oldFinish = earliestStart[x] + durees[x];
+                earliestStart[x] = start;
+                finishChanged(oldFinish, start + durees[x]);
+                for (int k = 0; k < succSize[x]; k++) {
+                    forward.add(succ[x][k]);
+                }
+            }
+        }
+        // cone amont, par rang décroissant
+        while (!backward.isEmpty()) {
+            int x = backward.poll();
+            long longest = 0;
+            for (int k = 0; k < succSize[x]; k++) {
+                longest = Math.max(longest, tail[succ[x][k]]);
+            }
+            long value = longest + durees[x];
+            if (value != tail[x]) {
+                tail[x] = value;
+                for (int k = 0; k < predSize[x]; k++) {
+                    backward.add(pred[x][k]);
+                }
+            }
+        }
+    }
+
+    private void finishChanged(long oldFinish, long newFinish) {
+        if (makespanStale) {
+            return;
+        }
+        if (newFinish > makespan) {
+            makespan = newFinish;
+        } else if (oldFinish == makespan && newFinish < oldFinish) {
+            // la tache qui fixait la fin du projet a avancé : rebalayage paresseux
+            makespanStale = true;
+        }
+    }
+
+    /**
+     * Pearce-Kelly : l'arc {@code u --> v} viole l'ordre courant ({@code rank[v] < rank[u]}).
+     * Seules les taches de rang compris entre {@code rank[v]} et {@code rank[u]} sont visitées,
+     * puis redistribuées sur leurs propres rangs.
+     */
+    private void reorder(int u, int v) {
+        long lower = rank[v];
+        long upper = rank[u];
+
+        int forwardMark = nextEpoch();
+        int[] deltaForward = collect(v, forwardMark, succ, succSize, lower, upper, true, u);
+        if (deltaForward == null) {
+            throw new CyclicScheduleException(cycleThrough(u, v));
+        }
+        int backwardMark = nextEpoch();
+        int[] deltaBackward = collect(u, backwardMark, pred, predSize, lower, upper, false, -1);
+
+        long[] pool = new long[deltaForward.length + deltaBackward.length];
+        long[] packedBackward = packByRank(deltaBackward);
+        long[] packedForward = packByRank(deltaForward);
+        int p = 0;
+        for (long packed : packedBackward) {
+            pool[p++] = packed >>> 32;
+        }
+        for (long packed : packedForward) {
+            pool[p++] = packed >>> 32;
+        }
+        Arrays.sort(pool);
+        // le cone amont de u passe avant le cone aval de v, chacun gardant son ordre relatif
+        p = 0;
+        for (long packed : packedBackward) {
+            rank[(int) packed] = pool[p++];
+        }
+        for (long packed : packedForward) {
+            rank[(int) packed] = pool[p++];
+        }
+    }
+
+    /**
+     * Parcours en profondeur itératif depuis {@code start}, limité aux rangs de {@code [lower, upper]}.
+     *
+     * @return les taches visitées, ou {@code null} si {@code target} est atteinte
+     */
+    private int[] collect(int start, int stamp, int[][] adjacency, int[] sizes,
+                          long lower, long upper, boolean downward, int target) {
+        int[] visited = new int[8];
+        int count = 0;
+        int top = 0;
+        stack[top++] = start;
+        mark[start] = stamp;
+        parent[start] = -1;
+        while (top > 0) {
+            int x = stack[--top];
+            if (count == visited.length) {
+                visited = Arrays.copyOf(visited, count * 2);
+            }
+            visited[count++] = x;
+            for (int k = 0; k < sizes[x]; k++) {
+                int y = adjacency[x][k];
+                if (y == target) {
+                    parent[y] = x;
+                    return null;
+                }
+                boolean inWindow = downward ? rank[y] < upper : rank[y] > lower;
+                if (inWindow && mark[y] != stamp) {
+                    mark[y] = stamp;
+                    parent[y] = x;
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = y;
+                }
+            }
+        }
+        return Arrays.copyOf(visited, count);
+    }
+
+    // cycle u --> v --> ... --> u, reconstitué par les parents du parcours aval depuis v
+    private List<Long> cycleThrough(int u, int v) {
+        List<Long> path = new ArrayList<>();
+        for (int x = parent[u]; x != -1; x = parent[x]) {
+            path.add(graph.ids[x]);
+            if (x == v) {
+                break;
+            }
+        }
+        List<Long> cycle = new ArrayList<>(path.size() + 1);
+        cycle.add(graph.ids[u]);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            cycle.add(path.get(i));
+        }
+        return cycle;
+    }
+
+    private long[] packByRank(int[] tasks) {
+        long[] packed = new long[tasks.length];
+        for (int i = 0; i < tasks.length; i++) {
+            packed[i] = rank[tasks[i]] << 32 | tasks[i];
+        }
+        Arrays.sort(packed);
+        return packed;
+    }
+
+    private int nextEpoch() {
+        if (++epoch == 0) {
+            Arrays.fill(mark, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+
+    private int indexOrFail(long id) {
+        int i = graph.indexOf(id);
+        if (i < 0) {
+            throw new IllegalArgumentException("unknown task " + id);
+        }
+        return i;
+    }
+
+    private static int indexOf(int[] list, int size, int value) {
+        for (int k = 0; k < size; k++) {
+            if (list[k] == value) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private static void append(int[][] lists, int[] sizes, int owner, int value) {
+        if (sizes[owner] == lists[owner].length) {
+            lists[owner] = Arrays.copyOf(lists[owner], Math.max(4, sizes[owner] * 2));
+        }
+        lists[owner][sizes[owner]++] = value;
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Tas binaire d'indices de taches {@code 0..capacity-1}, ordonnés par une table de clés
+ * {@code long[]} externe (plus petite clé en tete, ou plus grande si {@code descending}).
+ * À clé égale, l'indice le plus petit sort en premier, ce qui rend l'ordre de sortie déterministe.
+ * </p>
+ * <p>
+ * Un indice n'est présent qu'une fois : {@link #add(int)} d'un indice déjà présent est sans effet.
+ * Les clés d'un indice présent dans le tas ne doivent pas être modifiées.
+ * </p>
+ */
+final class IndexHeap {
+
+    private final long[] keys;
+    private final boolean descending;
+    private final int[] heap;
+    private final int[] position;
+    private int size;
+
+    IndexHeap(long[] keys, boolean descending) {
+        this.keys = keys;
+        this.descending = descending;
+        this.heap = new int[keys.length];
+        this.position = new int[keys.length];
+        Arrays.fill(this.position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int index) {
+        return position[index] >= 0;
+    }
+
+    void add(int index) {
+        if (position[index] >= 0) {
+            return;
+        }
+        heap[size] = index;
+        position[index] = size;
+        siftUp(size++);
+    }
+
+    int peek() {
+        return heap[0];
+    }
+
+    int poll() {
+        int top = heap[0];
+        position[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private boolean before(int a, int b) {
+        long ka = keys[a];
+        long kb = keys[b];
+        if (ka != kb) {
+            return descending ? ka > kb : ka < kb;
+        }
+        return a < b;
+    }
+
+    private void siftUp(int slot) {
+        int index = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!before(index, heap[parent])) {
+                break;
+            }
+            heap[slot] = heap[parent];
+            position[heap[slot]] = slot;
+            slot = parent;
+        }
+        heap[slot] = index;
+        position[index] = slot;
+    }
+
+    private void siftDown(int slot) {
+        int index = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], index)) {
+                break;
+            }
+            heap[slot] = heap[child];
+            position[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = index;
+        position[index] = slot;
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Histogramme de durées à classes logarithmiques : la classe {@code b} compte les durées
+ * de {@code [2^(b-1), 2^b)} nanosecondes (la classe 0 compte les durées nulles).
+ * L'enregistrement ne prend aucun verrou et n'alloue rien; chaque classe est un {@link LongAdder},
+ * ce qui supporte des milliers de fils qui enregistrent en meme temps.
+ * </p>
+ * <p>
+ * Les quantiles sont donc approchés à un facteur 2 près, ce qui suffit pour comparer des politiques.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets[b] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param nanos durée à enregistrer, les valeurs négatives comptent comme nulles
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        total.add(value);
+    }
+
+    /**
+     * @return le nombre de durées enregistrées
+     */
+    public long count() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return la durée moyenne en nanosecondes, ou 0 si rien n'a été enregistré
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0 : (double) total.sum() / count;
+    }
+
+    /**
+     * @param bucket indice de classe, entre 0 et 63
+     * @return le nombre de durées enregistrées dans cette classe
+     */
+    public long bucketCount(int bucket) {
+        return buckets[bucket].sum();
+    }
+
+    /**
+     * @param bucket indice de classe, entre 0 et 63
+     * @return la borne supérieure (exclue) de la classe, en nanosecondes
+     */
+    public static long bucketUpperBound(int bucket) {
+        return bucket >= BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * @param quantile entre 0 et 1, par exemple {@code 0.99}
+     * @return la borne supérieure de la classe qui contient ce quantile, en nanosecondes
+     */
+    public long quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile " + quantile + " not in [0, 1]");
+        }
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] = buckets[b].sum();
+            count += counts[b];
+        }
+        long rank = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (counts[b] > 0 && seen >= rank) {
+                return bucketUpperBound(b);
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        total.reset();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "count=%d mean=%.0fns p50<%dns p99<%dns p999<%dns",
+                count(), mean(), quantile(0.5), quantile(0.99), quantile(0.999)));
+        for (int b = 0; b < BUCKETS; b++) {
+            long c = buckets[b].sum();
+            if (c > 0) {
+                sb.append(String.format(Locale.ROOT, "%n  < %19d ns : %d", bucketUpperBound(b), c));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,546 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <h1>Gestionnaire de verrous à deux phases strict</h1>
+ *
+ * <p>
+ * Une transaction acquiert des verrous partagés ou exclusifs sur des éléments au fil de ses
+ * opérations ({@link #acquire(long, long, LockMode)}) et ne les relache tous qu'à sa validation
+ * ou son annulation ({@link #releaseAll(long)}). Les demandes incompatibles attendent dans
+ * une file par élément, servie dans l'ordre d'arrivée; la conversion d'un verrou partagé en
+ * verrou exclusif passe en tete de file.
+ * </p>
+ *
+ * <p>
+ * La table des verrous est répartie sur plusieurs partitions, chacune protégée par son propre
+ * {@link ReentrantLock} : deux transactions qui verrouillent des éléments de partitions différentes
+ * ne se gènent pas. Chaque demande en attente a sa propre {@link Condition}, réveillée seulement
+ * quand elle est accordée. Aucune attente ne se fait dans un bloc {@code synchronized}, ce qui ne
+ * bloque pas le fil porteur des fils virtuels.
+ * </p>
+ *
+ * <p>
+ * Les interblocages sont recherchés périodiquement sur le graphe d'attente (transaction en attente
+ * --> transactions qui la bloquent) par un fil démon, lancé à la première attente et arreté dès
+ * qu'aucune demande n'attend : les fils en attente ne se réveillent que lorsque leur demande est
+ * accordée ou rejetée, et non à chaque période. Pour chaque cycle, la transaction de plus grand identifiant (la plus
+ * jeune si les identifiants sont croissants) est choisie comme victime : sa demande échoue avec
+ * une {@link DeadlockException}.
+ * </p>
+ *
+ * <p>
+ * Les opérations d'une meme transaction doivent etre émises l'une après l'autre.
+ * </p>
+ */
+public class LockManager {
+
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long detectionIntervalNanos;
+    private final ReentrantLock detection = new ReentrantLock();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicBoolean detectorRunning = new AtomicBoolean();
+
+    private final ConcurrentHashMap<Long, Transaction> transactions = new ConcurrentHashMap<>();
+
+    private final LatencyHistogram waitLatency = new LatencyHistogram();
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder deadlocks = new LongAdder();
+
+    /**
+     * @param stripes nombre de partitions de la table des verrous, arrondi à la puissance de deux supérieure
+     */
+    public LockManager(int stripes) {
+        this(stripes, Duration.ofMillis(10));
+    }
+
+    /**
+     * @param stripes           nombre de partitions de la table des verrous, arrondi à la puissance de deux supérieure
+     * @param detectionInterval intervalle minimal entre deux recherches d'interblocage
+     */
+    public LockManager(int stripes, Duration detectionInterval) {
+        if (stripes < 1 || stripes > 1 << 24) {
+            throw new IllegalArgumentException("stripe count " + stripes + " not in [1, 2^24]");
+        }
+        if (detectionInterval.isNegative() || detectionInterval.isZero()) {
+            throw new IllegalArgumentException("detection interval must be positive: " + detectionInterval);
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int s = 0; s < size; s++) {
+            this.stripes[s] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.detectionIntervalNanos = detectionInterval.toNanos();
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * <p>
+     * Pose un verrou pour la transaction, en attendant si nécessaire. Redemander un verrou déjà
+     * détenu dans le meme mode, ou un verrou partagé alors que l'exclusif est détenu, ne fait rien.
+     * </p>
+     *
+     * @return {@code true} si la demande a du attendre
+     * @throws DeadlockException    si la transaction est choisie comme victime d'un interblocage
+     * @throws InterruptedException si le fil est interrompu pendant l'attente; la demande est alors retirée
+     */
+    public boolean acquire(long transaction, long item, LockMode mode) throws InterruptedException {
+        Transaction tx = transactions.computeIfAbsent(transaction, Transaction::new);
+        Stripe stripe = stripe(item);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.computeIfAbsent(item, Entry::new);
+            LockMode held = entry.holders.get(transaction);
+            if (held == LockMode.EXCLUSIVE || held == mode) {
+                return false;
+            }
+            Request request = new Request(tx, entry, mode, held != null, stripe.lock.newCondition());
+            if (entry.queue.isEmpty() || request.upgrade) {
+                if (entry.grantable(request)) {
+                    entry.grant(request);
+                    granted.increment();
+                    return false;
+                }
+            }
+            if (request.upgrade) {
+                entry.queue.addFirst(request);
+            } else {
+                entry.queue.addLast(request);
+            }
+            waited.increment();
+            waiting.incrementAndGet();
+            startDetector();
+            long start = System.nanoTime();
+            try {
+                await(entry, request);
+                granted.increment();
+            } finally {
+                waiting.decrementAndGet();
+                waitLatency.record(System.nanoTime() - start);
+                stripe.release(entry);
+            }
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // appelé avec le verrou de la partition tenu, que Condition#await relache pendant l'attente
+    private void await(Entry entry, Request request) throws InterruptedException {
+        try {
+            while (!request.done) {
+                if (request.victim != null) {
+                    deadlocks.increment();
+                    throw new DeadlockException(request.tx.id, request.victim);
+                }
+                request.wakeup.await();
+            }
+        } catch (InterruptedException e) {
+            if (!request.done) {
+                entry.queue.remove(request);
+                entry.grantWaiters();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Relache tous les verrous de la transaction (validation ou annulation) et réveille les
+     * demandes qui deviennent compatibles.
+     *
+     * @return le nombre de verrous relachés
+     */
+    public int releaseAll(long transaction) {
+        Transaction tx = transactions.remove(transaction);
+        if (tx == null) {
+            return 0;
+        }
+        // regroupe les éléments par partition pour ne prendre chaque verrou qu'une fois
+        long[] items = Arrays.copyOf(tx.items, tx.count);
+        long[] keys = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            keys[i] = (long) stripeIndex(items[i]) << 32 | i;
+        }
+        Arrays.sort(keys);
+        int k = 0;
+        while (k < keys.length) {
+            int s = (int) (keys[k] >>> 32);
+            Stripe stripe = stripes[s];
+            stripe.lock.lock();
+            try {
+                for (; k < keys.length && (int) (keys[k] >>> 32) == s; k++) {
+                    long item = items[(int) keys[k]];
+                    Entry entry = stripe.entries.get(item);
+                    if (entry != null && entry.holders.remove(transaction) != null) {
+                        entry.exclusive = false;
+                        entry.grantWaiters();
+                        stripe.release(entry);
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return items.length;
+    }
+
+    /**
+     * @return le mode dans lequel la transaction détient l'élément, ou {@code null}
+     */
+    public LockMode heldMode(long transaction, long item) {
+        Stripe stripe = stripe(item);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(item);
+            return entry == null ? null : entry.holders.get(transaction);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return le nombre de transactions qui détiennent ou attendent un verrou
+     */
+    public int activeTransactions() {
+        return transactions.size();
+    }
+
+    /**
+     * @return les durées d'attente des demandes qui n'ont pas été accordées immédiatement
+     */
+    public LatencyHistogram getWaitLatency() {
+        return waitLatency;
+    }
+
+    public long grantedCount() {
+        return granted.sum();
+    }
+
+    public long waitCount() {
+        return waited.sum();
+    }
+
+    public long deadlockCount() {
+        return deadlocks.sum();
+    }
+
+    private void startDetector() {
+        if (!detectorRunning.get() && detectorRunning.compareAndSet(false, true)) {
+            Thread detector = new Thread(this::runDetector, "lock-manager-deadlock-detector");
+            detector.setDaemon(true);
+            detector.start();
+        }
+    }
+
+    private void runDetector() {
+        while (true) {
+            LockSupport.parkNanos(detectionIntervalNanos);
+            if (waiting.get() == 0) {
+                detectorRunning.set(false);
+                // une attente a pu commencer entre la lecture et l'arret : le détecteur reprend alors
+                if (waiting.get() == 0 || !detectorRunning.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+            detectDeadlocks();
+        }
+    }
+
+    /**
+     * <p>
+     * Recherche les interblocages sur un instantané cohérent du graphe d'attente (toutes les
+     * partitions sont verrouillées pendant la recherche) et désigne une victime par cycle.
+     * Appelée périodiquement par le fil de détection; peut aussi etre appelée directement.
+     * </p>
+     *
+     * @return le nombre de victimes désignées
+     */
+    public int detectDeadlocks() {
+        detection.lock();
+        try {
+            return detect();
+        } finally {
+            detection.unlock();
+        }
+    }
+
+    // une seule recherche à la fois : c'est le seul endroit qui tient plusieurs partitions
+    private int detect() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+        }
+        try {
+            WaitForGraph waits = new WaitForGraph();
+            for (Stripe stripe : stripes) {
+                for (Entry entry : stripe.entries.values()) {
+                    int position = 0;
+                    for (Request request : entry.queue) {
+                        int waiter = waits.node(request);
+                        for (Map.Entry<Long, LockMode> holder : entry.holders.entrySet()) {
+                            if (holder.getKey() != request.tx.id
+                                    && !request.mode.isCompatibleWith(holder.getValue())) {
+                                waits.edge(waiter, waits.node(holder.getKey()));
+                            }
+                        }
+                        // file servie dans l'ordre : une demande attend aussi celles, incompatibles, qui la précèdent
+                        Iterator<Request> ahead = entry.queue.iterator();
+                        for (int p = 0; p < position; p++) {
+                            Request before = ahead.next();
+                            if (before.tx != request.tx && !request.mode.isCompatibleWith(before.mode)) {
+                                waits.edge(waiter, waits.node(before.tx.id));
+                            }
+                        }
+                        position++;
+                    }
+                }
+            }
+            int victims = 0;
+            for (Request victim : waits.breakCycles()) {
+                victim.entry.queue.remove(victim);
+                victim.entry.grantWaiters();
+                victim.wakeup.signal();
+                victims++;
+            }
+            return victims;
+        } finally {
+            for (int s = stripes.length - 1; s >= 0; s--) {
+                stripes[s].lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * Graphe d'attente construit dans le meme modèle compact que les graphes de précédence
+     * ({@link CompactGraphSchedule}, indices denses et lignes CSR).
+     * </p>
+     * <p>
+     * Les cycles sont rompus par un seul parcours en profondeur : à chaque arc retour, la transaction
+     * de plus grand identifiant du cycle devient victime et ses arcs sortants sont ignorés. Les
+     * sommets déjà terminés ne mènent à aucun cycle et le restent, car retirer des arcs n'en crée pas;
+     * seuls les sommets de la pile en cours sont revisités.
+     * </p>
+     */
+    private static final class WaitForGraph {
+
+        private final LongIndexMap index = new LongIndexMap(16);
+        private long[] ids = new long[16];
+        private Request[] requests = new Request[16];
+        private int n;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private int m;
+
+        int node(Request request) {
+            int i = node(request.tx.id);
+            requests[i] = request;
+            return i;
+        }
+
+        int node(long id) {
+            int i = index.get(id);
+            if (i >= 0) {
+                return i;
+            }
+            if (n == ids.length) {
+                ids = Arrays.copyOf(ids, n * 2);
+                requests = Arrays.copyOf(requests, n * 2);
+            }
+            ids[n] = id;
+            index.putIfAbsent(id, n);
+            return n++;
+        }
+
+        void edge(int waiter, int blocker) {
+            if (m == from.length) {
+                from = Arrays.copyOf(from, m * 2);
+                to = Arrays.copyOf(to, m * 2);
+            }
+            from[m] = waiter;
+            to[m++] = blocker;
+        }
+
+        List<Request> breakCycles() {
+            List<Request> victims = new ArrayList<>();
+            if (m == 0) {
+                return victims;
+            }
+            CompactGraphSchedule graph = CompactGraphSchedule.fromEdges(
+                    Arrays.copyOf(ids, n), index, new long[n], from, to, m);
+            byte[] state = new byte[n];   // 0 : non visité, 1 : sur la pile, 2 : terminé, 3 : victime
+            int[] stack = new int[n];
+            int[] cursor = new int[n];
+            for (int root = 0; root < n; root++) {
+                int top = 0;
+                if (state[root] == 0) {
+                    state[root] = 1;
+                    stack[top++] = root;
+                }
+                while (top > 0) {
+                    int u = stack[top - 1];
+                    if (state[u] == 3 || cursor[u] == graph.outDegree(u)) {
+                        if (state[u] == 1) {
+                            state[u] = 2;
+                        }
+                        top--;
+                        continue;
+                    }
+                    int v = graph.successor(u, cursor[u]++);
+                    if (state[v] == 0) {
+                        state[v] = 1;
+                        stack[top++] = v;
+                    } else if (state[v] == 1) {
+                        int first = top - 1;
+                        while (stack[first] != v) {
+                            first--;
+                        }
+                        List<Long> cycle = new ArrayList<>(top - first);
+                        int victim = v;
+                        for (int k = first; k < top; k++) {
+                            cycle.add(ids[stack[k]]);
+                            if (ids[stack[k]] > ids[victim]) {
+                                victim = stack[k];
+                            }
+                        }
+                        state[victim] = 3;
+                        requests[victim].victim = cycle;
+                        victims.add(requests[victim]);
+                        // la pile au-dessus de la victime est reprise : ses sommets peuvent encore mener à un cycle
+                        int keep = first;
+                        while (stack[keep] != victim) {
+                            keep++;
+                        }
+                        for (int k = keep + 1; k < top; k++) {
+                            state[stack[k]] = 0;
+                            cursor[stack[k]] = 0;
+                        }
+                        top = keep + 1;
+                    }
+                }
+            }
+            return victims;
+        }
+    }
+
+    private Stripe stripe(long item) {
+        return stripes[stripeIndex(item)];
+    }
+
+    private int stripeIndex(long item) {
+        return LongIndexMap.mix(item) & mask;
+    }
+
+    private static final class Stripe {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final HashMap<Long, Entry> entries = new HashMap<>();
+
+        void release(Entry entry) {
+            if (entry.holders.isEmpty() && entry.queue.isEmpty()) {
+                entries.remove(entry.item);
+            }
+        }
+    }
+
+    /**
+     * Verrou d'un élément : détenteurs et file des demandes en attente.
+     */
+    private static final class Entry {
+
+        final long item;
+        final HashMap<Long, LockMode> holders = new HashMap<>(4);
+        final ArrayDeque<Request> queue = new ArrayDeque<>(2);
+        boolean exclusive;
+
+        Entry(long item) {
+            this.item = item;
+        }
+
+        boolean grantable(Request request) {
+            if (request.upgrade) {
+                return holders.size() == 1;
+            }
+            return request.mode == LockMode.SHARED ? !exclusive : holders.isEmpty();
+        }
+
+        void grant(Request request) {
+            holders.put(request.tx.id, request.mode);
+            if (request.mode == LockMode.EXCLUSIVE) {
+                exclusive = true;
+            }
+            if (!request.upgrade) {
+                request.tx.add(item);
+            }
+            request.done = true;
+        }
+
+        void grantWaiters() {
+            while (!queue.isEmpty() && grantable(queue.peekFirst())) {
+                Request request = queue.pollFirst();
+                grant(request);
+                request.wakeup.signal();
+            }
+        }
+    }
+
+    private static final class Request {
+
+        final Transaction tx;
+        final Entry entry;
+        final LockMode mode;
+        final boolean upgrade;
+        final Condition wakeup;
+        boolean done;
+        List<Long> victim;
+
+        Request(Transaction tx, Entry entry, LockMode mode, boolean upgrade, Condition wakeup) {
+            this.tx = tx;
+            this.entry = entry;
+            this.mode = mode;
+            this.upgrade = upgrade;
+            this.wakeup = wakeup;
+        }
+    }
+
+    /**
+     * Éléments verrouillés par une transaction, libérés d'un bloc à la fin.
+     */
+    private static final class Transaction {
+
+        final long id;
+        long[] items = new long[8];
+        int count;
+
+        Transaction(long id) {
+            this.id = id;
+        }
+
+        void add(long item) {
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+            }
+            items[count++] = item;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+/**
+ * <p>
+ * Mode d'un verrou posé par {@link LockManager} : plusieurs transactions peuvent partager
+ * un verrou {@link #SHARED} (lecture), un verrou {@link #EXCLUSIVE} (écriture) n'en admet qu'une.
+ * </p>
+ */
+public enum LockMode {
+    SHARED,
+    EXCLUSIVE;
+
+    /**
+     * @return {@code true} si deux transactions distinctes peuvent détenir ces deux modes en meme temps
+     */
+    public boolean isCompatibleWith(LockMode other) {
+        return this == SHARED && other == SHARED;
+    }
+}
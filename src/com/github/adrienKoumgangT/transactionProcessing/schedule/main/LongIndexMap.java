@@ -0,0 +1,127 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Table de hachage à adressage ouvert (sondage linéaire) associant un identifiant
+ * de tache {@code long} à son indice dense {@code int}, sans aucune boite
+ * ({@code Long}/{@code Integer}) ni objet d'entrée.
+ * </p>
+ * <p>
+ * Seules les insertions sont supportées : la table sert à geler un graphe. La capacité, une puissance
+ * de 2 chargée au plus à moitié, est bornée par {@link #MAXIMUM_CAPACITY} : la table contient au plus
+ * {@link #MAXIMUM_SIZE} clés.
+ * </p>
+ */
+final class LongIndexMap {
+
+    private static final int ABSENT = -1;
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+    static final int MAXIMUM_SIZE = MAXIMUM_CAPACITY / 2;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIndexMap(int expectedSize) {
+        int capacity = tableSizeFor(Math.max(4, expectedSize));
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(this.values, ABSENT);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return l'indice associé à {@code key}, ou {@code -1} si la clé est absente.
+     */
+    int get(long key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            int value = values[slot];
+            if (value == ABSENT) {
+                return ABSENT;
+            }
+            if (keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Associe {@code key} à {@code value} si la clé est absente.
+     *
+     * @return l'indice déjà associé à {@code key}, ou {@code -1} si l'insertion a eu lieu.
+     * @throws IllegalStateException si la clé est absente et que la table contient déjà {@link #MAXIMUM_SIZE} clés
+     */
+    int putIfAbsent(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("negative index: " + value);
+        }
+        int slot = mix(key) & mask;
+        while (true) {
+            int current = values[slot];
+            if (current == ABSENT) {
+                if (size == MAXIMUM_SIZE) {
+                    throw new IllegalStateException("index map is full: at most " + MAXIMUM_SIZE + " keys");
+                }
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size * 2 > values.length) {
+                    rehash(values.length << 1);
+                }
+                return ABSENT;
+            }
+            if (keys[slot] == key) {
+                return current;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long footprintBytes() {
+        return 8L * keys.length + 4L * values.length;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != ABSENT) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (values[slot] != ABSENT) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // facteur de charge <= 0.5 : capacité = puissance de 2 >= 2 * expectedSize
+    private static int tableSizeFor(int expectedSize) {
+        long wanted = 2L * expectedSize;
+        if (wanted > MAXIMUM_CAPACITY) {
+            return MAXIMUM_CAPACITY;
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+
+    // finaliseur de SplitMix64 : les identifiants séquentiels restent bien dispersés
+    static int mix(long key) {
+        long h = key;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) (h ^ (h >>> 33));
+    }
+}
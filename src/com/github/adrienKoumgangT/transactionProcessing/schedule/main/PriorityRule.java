@@ -0,0 +1,22 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+/**
+ * <p>
+ * Règle de priorité d'un schéma de génération d'ordonnancement : parmi les taches
+ * éligibles, celle de plus petite priorité est placée en premier
+ * (à égalité, celle d'indice le plus petit).
+ * </p>
+ *
+ * @see PriorityRules
+ * @see ResourceScheduleHandler
+ */
+public interface PriorityRule {
+
+    /**
+     * @param graph le graphe à ordonnancer
+     * @param cpm   les dates du chemin critique, sans contraintes de ressources
+     * @param task  l'indice dense de la tache
+     * @return la priorité de la tache, plus petite = plus prioritaire
+     */
+    long priority(CompactGraphSchedule graph, ScheduleResult cpm, int task);
+}
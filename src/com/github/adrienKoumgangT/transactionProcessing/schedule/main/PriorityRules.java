@@ -0,0 +1,35 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+/**
+ * Règles de priorité classiques pour les schémas de génération série et parallèle.
+ */
+public enum PriorityRules implements PriorityRule {
+
+    /**
+     * <i>Latest Finish Time</i> : la plus petite date de fin au plus tard d'abord.
+     */
+    LFT {
+        @Override
+        public long priority(CompactGraphSchedule graph, ScheduleResult cpm, int task) {
+            return cpm.latestFinish(task);
+        }
+    },
+    /**
+     * <i>Minimum Slack</i> : la plus petite marge totale d'abord.
+     */
+    MIN_SLACK {
+        @Override
+        public long priority(CompactGraphSchedule graph, ScheduleResult cpm, int task) {
+            return cpm.slack(task);
+        }
+    },
+    /**
+     * <i>Most Successors</i> : le plus grand nombre de successeurs immédiats d'abord.
+     */
+    MOST_SUCCESSORS {
+        @Override
+        public long priority(CompactGraphSchedule graph, ScheduleResult cpm, int task) {
+            return -graph.outDegree(task);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+/**
+ * <p>
+ * Ressource renouvelable (moyen technique ou humain) disponible en quantité limitée,
+ * sa capacité, à chaque instant.
+ * </p>
+ */
+public class Resource {
+
+    private final String name;
+    private final int capacity;
+
+    public Resource(String name, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("negative capacity " + capacity + " for resource " + name);
+        }
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + capacity + ")";
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Contraintes de ressources d'un projet : les ressources et leur capacité,
+ * et la quantité de chaque ressource consommée par une tache pendant toute sa durée.
+ * </p>
+ * <p>
+ * Comme {@link GraphSchedule}, c'est une vue de construction : les demandes sont
+ * compilées en tableaux indexés par tache au moment de l'ordonnancement.
+ * </p>
+ */
+public class ResourceConstraints {
+
+    private final List<Resource> resources = new ArrayList<>();
+
+    private long[] demandTasks = new long[16];
+    private int[] demandResources = new int[16];
+    private int[] demandAmounts = new int[16];
+    private int demandCount;
+
+    /**
+     * @return l'indice de la ressource ajoutée
+     */
+    public int addResource(String name, int capacity) {
+        resources.add(new Resource(name, capacity));
+        return resources.size() - 1;
+    }
+
+    public int resourceCount() {
+        return resources.size();
+    }
+
+    public Resource getResource(int index) {
+        return resources.get(index);
+    }
+
+    /**
+     * Fixe la quantité de la ressource {@code resource} consommée par la tache {@code taskId};
+     * un appel ultérieur pour la meme tache et la meme ressource remplace la valeur.
+     */
+    public void setDemand(long taskId, int resource, int amount) {
+        if (resource < 0 || resource >= resources.size()) {
+            throw new IllegalArgumentException("unknown resource " + resource);
+        }
+        if (amount < 0) {
+            throw new IllegalArgumentException("negative demand " + amount + " for task " + taskId);
+        }
+        if (demandCount == demandTasks.length) {
+            int capacity = demandCount * 2;
+            demandTasks = Arrays.copyOf(demandTasks, capacity);
+            demandResources = Arrays.copyOf(demandResources, capacity);
+            demandAmounts = Arrays.copyOf(demandAmounts, capacity);
+        }
+        demandTasks[demandCount] = taskId;
+        demandResources[demandCount] = resource;
+        demandAmounts[demandCount] = amount;
+        demandCount++;
+    }
+
+    /**
+     * <p>
+     * Compile les demandes au format CSR sur les indices de {@code graph} : les demandes
+     * non nulles de la tache {@code i} sont {@code [offsets[i], offsets[i + 1])} dans
+     * {@code resourcesOut}/{@code amountsOut}.
+     * </p>
+     *
+     * @return {@code {offsets, resources, amounts}}
+     */
+    int[][] compile(CompactGraphSchedule graph) {
+        int n = graph.size();
+        int[] taskOf = new int[demandCount];
+        boolean[] kept = new boolean[demandCount];
+        int[] offsets = new int[n + 1];
+        // parcours à rebours : la dernière valeur fixée pour (tache, ressource) l'emporte
+        LongIndexMap seen = new LongIndexMap(demandCount);
+        for (int d = demandCount - 1; d >= 0; d--) {
+            int task = graph.indexOf(demandTasks[d]);
+            if (task < 0) {
+                throw new IllegalArgumentException("unknown task " + demandTasks[d]);
+            }
+            taskOf[d] = task;
+            long slot = (long) task * resources.size() + demandResources[d];
+            if (seen.putIfAbsent(slot, d) >= 0 || demandAmounts[d] == 0) {
+                continue;
+            }
+            Resource resource = resources.get(demandResources[d]);
+            if (demandAmounts[d] > resource.getCapacity()) {
+                throw new IllegalArgumentException("task " + demandTasks[d] + " demands " + demandAmounts[d]
+                        + " of " + resource + ": it can never be scheduled");
+            }
+            kept[d] = true;
+            offsets[task + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] cursor = Arrays.copyOf(offsets, n);
+        int[] resourcesOut = new int[offsets[n]];
+        int[] amountsOut = new int[offsets[n]];
+        for (int d = 0; d < demandCount; d++) {
+            if (kept[d]) {
+                int k = cursor[taskOf[d]]++;
+                resourcesOut[k] = demandResources[d];
+                amountsOut[k] = demandAmounts[d];
+            }
+        }
+        return new int[][] {offsets, resourcesOut, amountsOut};
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Profil d'utilisation d'une ressource au cours du temps : arbre de segments creux
+ * sur l'horizon {@code [0, horizon)}, avec ajout sur un intervalle, recherche de la
+ * dernière date dépassant un seuil et de la première date revenant sous un seuil,
+ * chacune en O(log horizon).
+ * </p>
+ * <p>
+ * Les noeuds ne sont créés que le long des intervalles réservés; un noeud absent vaut 0.
+ * Chaque noeud porte l'ajout appliqué à tout son intervalle ({@code add}) et le minimum et
+ * le maximum de son sous-arbre, ajout compris ({@code min}, {@code max}) : aucune propagation
+ * paresseuse n'est nécessaire.
+ * Les noeuds sont rangés dans des tableaux primitifs, l'indice 0 étant le noeud vide.
+ * </p>
+ */
+final class ResourceProfile {
+
+    private final long horizon;
+
+    private int[] left;
+    private int[] right;
+    private int[] add;
+    private int[] min;
+    private int[] max;
+    private int nodes;
+
+    /**
+     * @param bound borne supérieure des dates utilisées (arrondie à la puissance de 2 supérieure)
+     */
+    ResourceProfile(long bound) {
+        long h = 1;
+        while (h < bound) {
+            h <<= 1;
+        }
+        this.horizon = h;
+        int capacity = 64;
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.add = new int[capacity];
+        this.min = new int[capacity];
+        this.max = new int[capacity];
+        this.nodes = 2; // 0 : noeud vide, 1 : racine
+    }
+
+    /**
+     * Ajoute {@code amount} à l'utilisation sur {@code [from, to)}.
+     */
+    void reserve(long from, long to, int amount) {
+        if (from < to) {
+            reserve(1, 0, horizon, from, to, amount);
+        }
+    }
+
+    /**
+     * @return la dernière date de {@code [from, to)} où l'utilisation dépasse {@code limit},
+     * ou {@code -1} s'il n'y en a pas
+     */
+    long lastAbove(long from, long to, int limit) {
+        if (from >= to) {
+            return -1;
+        }
+        return lastAbove(1, 0, horizon, from, to, limit, 0);
+    }
+
+    /**
+     * @return la première date {@code >= from} où l'utilisation est au plus {@code limit},
+     * ou {@code -1} si l'utilisation dépasse {@code limit} jusqu'à la fin de l'horizon
+     */
+    long firstAtMost(long from, int limit) {
+        return firstAtMost(1, 0, horizon, from, limit, 0);
+    }
+
+    private void reserve(int node, long lo, long hi, long from, long to, int amount) {
+        if (from <= lo && hi <= to) {
+            add[node] += amount;
+            min[node] += amount;
+            max[node] += amount;
+            return;
+        }
+        long middle = (lo + hi) >>> 1;
+        if (from < middle) {
+            if (left[node] == 0) {
+                int child = newNode();
+                left[node] = child;
+            }
+            reserve(left[node], lo, middle, from, to, amount);
+        }
+        if (to > middle) {
+            if (right[node] == 0) {
+                int child = newNode();
+                right[node] = child;
+            }
+            reserve(right[node], middle, hi, from, to, amount);
+        }
+        min[node] = add[node] + Math.min(min[left[node]], min[right[node]]);
+        max[node] = add[node] + Math.max(max[left[node]], max[right[node]]);
+    }
+
+    private long lastAbove(int node, long lo, long hi, long from, long to, int limit, int inherited) {
+        if (hi <= from || to <= lo) {
+            return -1;
+        }
+        if (node == 0) {
+            // intervalle jamais réservé : utilisation constante égale aux ajouts des ancetres
+            return inherited > limit ? Math.min(hi, to) - 1 : -1;
+        }
+        if (inherited + max[node] <= limit) {
+            return -1;
+        }
+        if (hi - lo == 1) {
+            return lo;
+        }
+        long middle = (lo + hi) >>> 1;
+        int below = inherited + add[node];
+        long found = lastAbove(right[node], middle, hi, from, to, limit, below);
+        if (found >= 0) {
+            return found;
+        }
+        return lastAbove(left[node], lo, middle, from, to, limit, below);
+    }
+
+    private long firstAtMost(int node, long lo, long hi, long from, int limit, int inherited) {
+        if (hi <= from) {
+            return -1;
+        }
+        if (node == 0) {
+            return inherited <= limit ? Math.max(lo, from) : -1;
+        }
+        if (inherited + min[node] > limit) {
+            return -1;
+        }
+        if (hi - lo == 1) {
+            return lo;
+        }
+        long middle = (lo + hi) >>> 1;
+        int below = inherited + add[node];
+        long found = firstAtMost(left[node], lo, middle, from, limit, below);
+        if (found >= 0) {
+            return found;
+        }
+        return firstAtMost(right[node], middle, hi, from, limit, below);
+    }
+
+    private int newNode() {
+        if (nodes == left.length) {
+            int capacity = nodes * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            add = Arrays.copyOf(add, capacity);
+            min = Arrays.copyOf(min, capacity);
+            max = Arrays.copyOf(max, capacity);
+        }
+        return nodes++;
+    }
+}
@@ -0,0 +1,266 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+/**
+ * <h1>Ordonnancement sous contraintes de ressources (RCPSP)</h1>
+ *
+ * <p>
+ * Heuristiques de liste : les taches éligibles (dont tous les prédécesseurs sont ordonnancés)
+ * sont rangées dans un tas binaire selon une {@link PriorityRule}, puis placées une à une.
+ * Dans le schéma série, l'utilisation de chaque ressource est suivie par un {@link ResourceProfile}
+ * (arbre de segments indexé par le temps) : vérifier et réserver une tache coute O(log T) par
+ * ressource demandée, au lieu d'un balayage de son intervalle.
+ * </p>
+ * <ul>
+ *     <li>
+ *         {@link #serial(PriorityRule)} : schéma série, chaque tache est placée à la première date
+ *         compatible avec ses prédécesseurs et les ressources restantes;
+ *     </li>
+ *     <li>
+ *         {@link #parallel(PriorityRule)} : schéma parallèle, le temps avance d'une fin de tache à la
+ *         suivante et l'on démarre à chaque date toutes les taches éligibles qui tiennent.
+ *     </li>
+ * </ul>
+ */
+public class ResourceScheduleHandler {
+
+    private final CompactGraphSchedule graph;
+    private final ResourceConstraints constraints;
+    private final int[] demandOffsets;
+    private final int[] demandResources;
+    private final int[] demandAmounts;
+    private final ScheduleResult cpm;
+    private final long horizon;
+
+    public ResourceScheduleHandler(GraphSchedule graph, ResourceConstraints constraints) {
+        this(graph.compact(), constraints);
+    }
+
+    /**
+     * @throws CyclicScheduleException  si le graphe de précédence contient un cycle
+     * @throws IllegalArgumentException si une tache demande plus qu'une ressource n'offre
+     */
+    public ResourceScheduleHandler(CompactGraphSchedule graph, ResourceConstraints constraints) {
+        this.graph = graph;
+        this.constraints = constraints;
+        int[][] demands = constraints.compile(graph);
+        this.demandOffsets = demands[0];
+        this.demandResources = demands[1];
+        this.demandAmounts = demands[2];
+        this.cpm = new ScheduleHandler(graph).compute();
+
+        // aucune tache ne commence après la somme des durées : placée après toutes les autres, elle tient
+        long total = 0;
+        for (long duree : graph.durees) {
+            total += duree;
+            if (total < 0) {
+                throw new IllegalArgumentException("total duration overflows");
+            }
+        }
+        this.horizon = total + 1;
+    }
+
+    /**
+     * @return les dates du chemin critique sans contraintes de ressources (borne inférieure)
+     */
+    public ScheduleResult getCriticalPath() {
+        return cpm;
+    }
+
+    /**
+     * Schéma de génération série.
+     */
+    public ResourceScheduleResult serial(PriorityRule rule) {
+        int n = graph.size();
+        long[] keys = priorities(rule);
+        IndexHeap eligible = new IndexHeap(keys, false);
+        int[] remaining = new int[n];
+        for (int i = 0; i < n; i++) {
+            remaining[i] = graph.inDegree(i);
+            if (remaining[i] == 0) {
+                eligible.add(i);
+            }
+        }
+        ResourceProfile[] profiles = newProfiles();
+        long[] start = new long[n];
+        long makespan = 0;
+        while (!eligible.isEmpty()) {
+            int j = eligible.poll();
+            long duree = graph.durees[j];
+            long t = 0;
+            for (int k = graph.predOffsets[j]; k < graph.predOffsets[j + 1]; k++) {
+                int p = graph.predTargets[k];
+                t = Math.max(t, start[p] + graph.durees[p]);
+            }
+            if (duree > 0) {
+                t = firstFit(profiles, j, t, duree);
+                reserve(profiles, j, t, duree);
+            }
+            start[j] = t;
+            makespan = Math.max(makespan, t + duree);
+            for (int k = graph.succOffsets[j]; k < graph.succOffsets[j + 1]; k++) {
+                int s = graph.succTargets[k];
+                if (--remaining[s] == 0) {
+                    eligible.add(s);
+                }
+            }
+        }
+        return new ResourceScheduleResult(graph, start, makespan);
+    }
+
+    /**
+     * <p>
+     * Schéma de génération parallèle.
+     * </p>
+     * <p>
+     * Toutes les taches démarrées l'ont été à la date courante ou avant : l'utilisation future ne
+     * peut que décroitre, il suffit donc de connaitre la disponibilité instantanée de chaque
+     * ressource, tenue à jour à chaque démarrage et à chaque fin de tache. Les taches éligibles
+     * restent triées par priorité dans un tableau, fusionné avec les taches nouvellement libérées
+     * (extraites triées d'un tas binaire) à chaque date de décision.
+     * </p>
+     */
+    public ResourceScheduleResult parallel(PriorityRule rule) {
+        int n = graph.size();
+        long[] keys = priorities(rule);
+        IndexHeap released = new IndexHeap(keys, false);
+        long[] finish = new long[n];
+        IndexHeap active = new IndexHeap(finish, false);
+        int[] remaining = new int[n];
+        for (int i = 0; i < n; i++) {
+            remaining[i] = graph.inDegree(i);
+            if (remaining[i] == 0) {
+                released.add(i);
+            }
+        }
+        int[] available = new int[constraints.resourceCount()];
+        for (int r = 0; r < available.length; r++) {
+            available[r] = constraints.getResource(r).getCapacity();
+        }
+        long[] start = new long[n];
+        int[] eligible = new int[n];
+        int[] merged = new int[n];
+        int eligibleCount = 0;
+        long t = 0;
+        long makespan = 0;
+        int done = 0;
+        while (done < n) {
+            // fusion des taches libérées (déjà triées par le tas) dans la liste éligible
+            int count = 0;
+            int e = 0;
+            while (!released.isEmpty()) {
+                int j = released.poll();
+                while (e < eligibleCount && before(keys, eligible[e], j)) {
+                    merged[count++] = eligible[e++];
+                }
+                merged[count++] = j;
+            }
+            while (e < eligibleCount) {
+                merged[count++] = eligible[e++];
+            }
+            int[] swap = eligible;
+            eligible = merged;
+            merged = swap;
+
+            // démarre dans l'ordre de priorité tout ce qui tient, en compactant le reste
+            eligibleCount = 0;
+            for (int p = 0; p < count; p++) {
+                int j = eligible[p];
+                if (graph.durees[j] == 0) {
+                    start[j] = t;
+                    finish[j] = t;
+                    active.add(j);
+                } else if (fits(available, j)) {
+                    for (int k = demandOffsets[j]; k < demandOffsets[j + 1]; k++) {
+                        available[demandResources[k]] -= demandAmounts[k];
+                    }
+                    start[j] = t;
+                    finish[j] = t + graph.durees[j];
+                    makespan = Math.max(makespan, finish[j]);
+                    active.add(j);
+                } else {
+                    eligible[eligibleCount++] = j;
+                }
+            }
+
+            // avance à la prochaine fin de tache, rend ses ressources et libère ses successeurs
+            t = finish[active.peek()];
+            while (!active.isEmpty() && finish[active.peek()] == t) {
+                int j = active.poll();
+                done++;
+                if (graph.durees[j] > 0) {
+                    for (int k = demandOffsets[j]; k < demandOffsets[j + 1]; k++) {
+                        available[demandResources[k]] += demandAmounts[k];
+                    }
+                }
+                for (int k = graph.succOffsets[j]; k < graph.succOffsets[j + 1]; k++) {
+                    int s = graph.succTargets[k];
+                    if (--remaining[s] == 0) {
+                        released.add(s);
+                    }
+                }
+            }
+        }
+        return new ResourceScheduleResult(graph, start, makespan);
+    }
+
+    private static boolean before(long[] keys, int a, int b) {
+        return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private boolean fits(int[] available, int j) {
+        for (int k = demandOffsets[j]; k < demandOffsets[j + 1]; k++) {
+            if (demandAmounts[k] > available[demandResources[k]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] priorities(PriorityRule rule) {
+        long[] keys = new long[graph.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = rule.priority(graph, cpm, i);
+        }
+        return keys;
+    }
+
+    private ResourceProfile[] newProfiles() {
+        ResourceProfile[] profiles = new ResourceProfile[constraints.resourceCount()];
+        for (int r = 0; r < profiles.length; r++) {
+            profiles[r] = new ResourceProfile(horizon + 1);
+        }
+        return profiles;
+    }
+
+    /**
+     * Première date {@code >= t} où la tache {@code j} tient sur toutes ses ressources pendant
+     * {@code duree} : tant qu'une ressource déborde sur la fenetre, on repart juste après
+     * le dernier instant en débordement.
+     */
+    private long firstFit(ResourceProfile[] profiles, int j, long t, long duree) {
+        int from = demandOffsets[j];
+        int to = demandOffsets[j + 1];
+        int checked = 0;
+        int k = from;
+        while (checked < to - from) {
+            int r = demandResources[k];
+            long conflict = profiles[r].lastAbove(t, t + duree,
+                    constraints.getResource(r).getCapacity() - demandAmounts[k]);
+            if (conflict >= 0) {
+                // saute d'un coup toute la plage saturée qui suit le conflit
+                t = profiles[r].firstAtMost(conflict + 1, constraints.getResource(r).getCapacity() - demandAmounts[k]);
+                checked = 0;
+            } else {
+                checked++;
+                k = k + 1 < to ? k + 1 : from;
+            }
+        }
+        return t;
+    }
+
+    private void reserve(ResourceProfile[] profiles, int j, long t, long duree) {
+        for (int k = demandOffsets[j]; k < demandOffsets[j + 1]; k++) {
+            profiles[demandResources[k]].reserve(t, t + duree, demandAmounts[k]);
+        }
+    }
+}
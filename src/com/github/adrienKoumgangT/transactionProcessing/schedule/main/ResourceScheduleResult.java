@@ -0,0 +1,37 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+/**
+ * <p>
+ * Ordonnancement réalisable sous contraintes de ressources : date de début de chaque tache
+ * et durée totale du projet.
+ * Les accesseurs prennent l'indice dense de la tache (voir {@link CompactGraphSchedule#indexOf(long)}).
+ * </p>
+ */
+public final class ResourceScheduleResult {
+
+    private final CompactGraphSchedule graph;
+    private final long[] start;
+    private final long makespan;
+
+    ResourceScheduleResult(CompactGraphSchedule graph, long[] start, long makespan) {
+        this.graph = graph;
+        this.start = start;
+        this.makespan = makespan;
+    }
+
+    public CompactGraphSchedule getGraph() {
+        return graph;
+    }
+
+    public long getMakespan() {
+        return makespan;
+    }
+
+    public long start(int index) {
+        return start[index];
+    }
+
+    public long finish(int index) {
+        return start[index] + graph.durees[index];
+    }
+}
@@ -1,4 +1,234 @@
 package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
 
+import com.github.adrienKoumgangT.utils.Fichier;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+/**
+ * <p>
+ * Construction d'un graphe d'ordonnancement. Les taches et les arcs sont accumulés dans
+ * des tableaux primitifs pré-dimensionnés, puis {@link #build()} produit un {@link GraphSchedule}
+ * validé dont les collections sont immuables et dont {@code predecesseurs} et {@code successeurs}
+ * sont cohérents par construction; {@link #buildCompact()} produit directement la vue compacte,
+ * sans passer par les collections.
+ * </p>
+ * <p>
+ * Les arcs peuvent référencer des taches ajoutées plus tard : ils ne sont résolus qu'à la construction.
+ * </p>
+ */
 public class ScheduleBuilder {
+
+    private long[] ids;
+    private long[] durees;
+    private int taskCount;
+    private LongIndexMap index;
+    // la table d'index est partagée avec le dernier graphe construit : copie à la prochaine écriture
+    private boolean indexShared;
+
+    private long[] edgeFrom;
+    private long[] edgeTo;
+    private int edgeCount;
+
+    public ScheduleBuilder() {
+        this(16, 16);
+    }
+
+    /**
+     * @param expectedTasks nombre de taches attendu
+     * @param expectedEdges nombre d'arcs de précédence attendu
+     */
+    public ScheduleBuilder(int expectedTasks, int expectedEdges) {
+        int tasks = Math.max(1, expectedTasks);
+        int edges = Math.max(1, expectedEdges);
+        this.ids = new long[tasks];
+        this.durees = new long[tasks];
+        this.index = new LongIndexMap(tasks);
+        this.edgeFrom = new long[edges];
+        this.edgeTo = new long[edges];
+    }
+
+    /**
+     * @throws IllegalArgumentException si la tache existe déjà ou si la durée est négative
+     */
+    public ScheduleBuilder addTask(long id, long duree) {
+        if (duree < 0) {
+            throw new IllegalArgumentException("negative duration " + duree + " for task " + id);
+        }
+        if (taskCount == ids.length) {
+            int capacity = grow(taskCount);
+            ids = Arrays.copyOf(ids, capacity);
+            durees = Arrays.copyOf(durees, capacity);
+        }
+        if (indexShared) {
+            LongIndexMap copy = new LongIndexMap(Math.max(ids.length, taskCount + 1));
+            for (int i = 0; i < taskCount; i++) {
+                copy.putIfAbsent(ids[i], i);
+            }
+            index = copy;
+            indexShared = false;
+        }
+        if (index.putIfAbsent(id, taskCount) >= 0) {
+            throw new IllegalArgumentException("duplicate task " + id);
+        }
+        ids[taskCount] = id;
+        durees[taskCount] = duree;
+        taskCount++;
+        return this;
+    }
+
+    /**
+     * Ajoute les taches {@code ids[i]} de durée {@code durees[i]}.
+     */
+    public ScheduleBuilder addTasks(long[] ids, long[] durees) {
+        if (ids.length != durees.length) {
+            throw new IllegalArgumentException("ids length " + ids.length + " != durations length " + durees.length);
+        }
+        ensureTaskCapacity(taskCount + ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            addTask(ids[i], durees[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Ajoute les taches de {@code ids}, de durée {@code duree.applyAsLong(id)}.
+     */
+    public ScheduleBuilder addTasks(LongStream ids, LongUnaryOperator duree) {
+        ids.forEachOrdered(id -> addTask(id, duree.applyAsLong(id)));
+        return this;
+    }
+
+    /**
+     * Ajoute l'arc de précédence {@code predecessor --> successor}; les doublons sont ignorés.
+     */
+    public ScheduleBuilder addPrecedence(long predecessor, long successor) {
+        if (edgeCount == edgeFrom.length) {
+            int capacity = grow(edgeCount);
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+        }
+        edgeFrom[edgeCount] = predecessor;
+        edgeTo[edgeCount] = successor;
+        edgeCount++;
+        return this;
+    }
+
+    /**
+     * Ajoute les arcs {@code predecessors[i] --> successors[i]}.
+     */
+    public ScheduleBuilder addPrecedences(long[] predecessors, long[] successors) {
+        if (predecessors.length != successors.length) {
+            throw new IllegalArgumentException("predecessors length " + predecessors.length
+                    + " != successors length " + successors.length);
+        }
+        ensureEdgeCapacity(edgeCount + predecessors.length);
+        System.arraycopy(predecessors, 0, edgeFrom, edgeCount, predecessors.length);
+        System.arraycopy(successors, 0, edgeTo, edgeCount, successors.length);
+        edgeCount += predecessors.length;
+        return this;
+    }
+
+    /**
+     * Ajoute les arcs {@code predecessor --> s} pour chaque {@code s} de {@code successors}.
+     */
+    public ScheduleBuilder addPrecedences(long predecessor, LongStream successors) {
+        successors.forEachOrdered(successor -> addPrecedence(predecessor, successor));
+        return this;
+    }
+
+    /**
+     * Charge les taches d'un fichier {@code tache,duree} (voir {@link Fichier#lirePaires}).
+     */
+    public ScheduleBuilder loadTasks(Path file) throws IOException {
+        Fichier.lirePaires(file, this::addTask);
+        return this;
+    }
+
+    /**
+     * Charge les arcs d'un fichier {@code predecesseur,successeur} (voir {@link Fichier#lirePaires}).
+     */
+    public ScheduleBuilder loadPrecedences(Path file) throws IOException {
+        Fichier.lirePaires(file, this::addPrecedence);
+        return this;
+    }
+
+    public int taskCount() {
+        return taskCount;
+    }
+
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return la vue compacte du graphe
+     * @throws IllegalArgumentException si un arc référence une tache inconnue
+     * @throws CyclicScheduleException  si le graphe de précédence contient un cycle
+     */
+    public CompactGraphSchedule buildCompact() {
+        int[] from = new int[edgeCount];
+        int[] to = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            from[e] = resolve(edgeFrom[e]);
+            to[e] = resolve(edgeTo[e]);
+        }
+        indexShared = true;
+        CompactGraphSchedule graph = CompactGraphSchedule.fromEdges(
+                Arrays.copyOf(ids, taskCount), index, Arrays.copyOf(durees, taskCount), from, to, edgeCount);
+        ScheduleHandler.forwardPass(graph, new long[graph.size()]);
+        return graph;
+    }
+
+    /**
+     * @return un graphe validé, dont les listes et tables sont immuables
+     * @throws IllegalArgumentException si un arc référence une tache inconnue
+     * @throws CyclicScheduleException  si le graphe de précédence contient un cycle
+     */
+    public GraphSchedule build() {
+        GraphSchedule graph = buildCompact().toGraphSchedule();
+        graph.taches = Collections.unmodifiableList(graph.taches);
+        graph.tachesDuree = Collections.unmodifiableMap(graph.tachesDuree);
+        freeze(graph.predecesseurs);
+        freeze(graph.successeurs);
+        graph.predecesseurs = Collections.unmodifiableMap(graph.predecesseurs);
+        graph.successeurs = Collections.unmodifiableMap(graph.successeurs);
+        return graph;
+    }
+
+    private static void freeze(Map<Long, List<Long>> adjacency) {
+        adjacency.replaceAll((id, list) -> Collections.unmodifiableList(list));
+    }
+
+    private int resolve(long id) {
+        int i = index.get(id);
+        if (i < 0) {
+            throw new IllegalArgumentException("unknown task " + id);
+        }
+        return i;
+    }
+
+    private void ensureTaskCapacity(int capacity) {
+        if (capacity > ids.length) {
+            ids = Arrays.copyOf(ids, capacity);
+            durees = Arrays.copyOf(durees, capacity);
+        }
+    }
+
+    private void ensureEdgeCapacity(int capacity) {
+        if (capacity > edgeFrom.length) {
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+        }
+    }
+
+    private static int grow(int size) {
+        return Math.max(16, size + (size >> 1));
+    }
 }
@@ -1,4 +1,249 @@
 package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
 
-public class ScheduleController {
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <h1>Exécution d'un graphe d'ordonnancement</h1>
+ *
+ * <p>
+ * Exécute un {@link GraphSchedule} comme un graphe de travaux : à chaque tache est associée
+ * une action ({@link Runnable}), et une tache est lancée dès que tous ses prédécesseurs sont terminés.
+ * Chaque tache a un compteur atomique de prédécesseurs restants; le prédécesseur qui le fait tomber
+ * à zéro lance la tache. Le suivi de l'exécution ne prend aucun verrou.
+ * </p>
+ * <p>
+ * Lorsqu'une tache en libère plusieurs, la première est exécutée directement sur le meme fil
+ * et les autres sont soumises à l'{@link Executor}, ce qui évite un passage par la file de
+ * l'exécuteur pour les chaines de taches courtes.
+ * </p>
+ * <p>
+ * Deux exécuteurs sont proposés :
+ * <ul>
+ *     <li>{@link #virtualThreadExecutor()} (par défaut) pour les taches bloquantes (entrées/sorties);</li>
+ *     <li>{@link #cpuBoundExecutor(int)} pour les taches de calcul.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Un controleur construit sans exécuteur crée le sien et l'arrete à {@link #close()}; un exécuteur
+ * fourni par l'appelant reste à la charge de celui-ci.
+ * </p>
+ */
+public class ScheduleController implements AutoCloseable {
+
+    /** fils système par coeur de l'exécuteur de repli de {@link #virtualThreadExecutor()} */
+    public static final int FALLBACK_THREADS_PER_CORE = 8;
+
+    private final CompactGraphSchedule graph;
+    private final Executor executor;
+    private final ExecutorService owned;
+
+    /**
+     * @throws CyclicScheduleException si le graphe de précédence contient un cycle; aucun exécuteur
+     * n'est alors créé
+     */
+    public ScheduleController(GraphSchedule graph) {
+        // les arguments sont évalués dans l'ordre : le cycle est refusé avant la création de l'exécuteur
+        this(acyclic(graph.compact()), virtualThreadExecutor(), true);
+    }
+
+    public ScheduleController(GraphSchedule graph, Executor executor) {
+        this(graph.compact(), executor);
+    }
+
+    /**
+     * @throws CyclicScheduleException si le graphe de précédence contient un cycle
+     */
+    public ScheduleController(CompactGraphSchedule graph, Executor executor) {
+        this(acyclic(graph), executor, false);
+    }
+
+    private ScheduleController(CompactGraphSchedule graph, Executor executor, boolean owned) {
+        this.graph = graph;
+        this.executor = executor;
+        this.owned = owned ? (ExecutorService) executor : null;
+    }
+
+    // un cycle bloquerait l'exécution sans jamais la terminer : on le refuse d'emblée
+    private static CompactGraphSchedule acyclic(CompactGraphSchedule graph) {
+        ScheduleHandler.forwardPass(graph, new long[graph.size()]);
+        return graph;
+    }
+
+    public CompactGraphSchedule getGraph() {
+        return graph;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * <p>
+     * Exécuteur à un fil virtuel par tache si la JVM en dispose (Java 21 et plus).
+     * </p>
+     * <p>
+     * Sinon, un pool d'au plus {@link #FALLBACK_THREADS_PER_CORE} fils système par coeur, créés à la
+     * demande et arretés après une minute d'inactivité; les taches prêtes au-delà attendent dans la
+     * file du pool. Un pool non borné créerait un fil système par tache bloquée, sans limite.
+     * </p>
+     */
+    public static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = FALLBACK_THREADS_PER_CORE * Runtime.getRuntime().availableProcessors();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                    new LinkedBlockingQueue<>());
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /**
+     * @param threads nombre de fils système, en général le nombre de coeurs
+     * @return un pool borné de fils système pour les taches de calcul
+     */
+    public static ExecutorService cpuBoundExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * <p>
+     * Lance l'exécution du graphe. Une tache sans action associée est un jalon : elle
+     * se termine immédiatement.
+     * </p>
+     * <p>
+     * Si une action lève une exception, ses successeurs ne sont pas lancés et le résultat est
+     * terminé en erreur avec cette exception; les actions déjà lancées vont à leur terme.
+     * Annuler le résultat empeche le lancement des taches suivantes.
+     * </p>
+     *
+     * @param actions identifiant de tache --> action à exécuter
+     * @return un résultat terminé lorsque toutes les taches sont terminées
+     */
+    public CompletableFuture<Void> execute(Map<Long, Runnable> actions) {
+        int n = graph.size();
+        Runnable[] resolved = new Runnable[n];
+        for (Map.Entry<Long, Runnable> entry : actions.entrySet()) {
+            int index = graph.indexOf(entry.getKey());
+            if (index < 0) {
+                throw new IllegalArgumentException("unknown task " + entry.getKey());
+            }
+            resolved[index] = entry.getValue();
+        }
+        Execution execution = new Execution(resolved);
+        execution.start();
+        return execution.done;
+    }
+
+    /**
+     * Exécute le graphe et attend la fin de toutes les taches.
+     *
+     * @throws CompletionException si une action a levé une exception
+     */
+    public void run(Map<Long, Runnable> actions) {
+        execute(actions).join();
+    }
+
+    /**
+     * Arrete l'exécuteur créé par le controleur, s'il y en a un : les taches déjà soumises vont à
+     * leur terme, les exécutions suivantes sont refusées. Un exécuteur fourni n'est pas touché.
+     */
+    @Override
+    public void close() {
+        if (owned != null) {
+            owned.shutdown();
+        }
+    }
+
+    private final class Execution {
+
+        private final Runnable[] actions;
+        private final AtomicIntegerArray remaining;
+        private final AtomicInteger pending;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Execution(Runnable[] actions) {
+            int n = graph.size();
+            this.actions = actions;
+            this.remaining = new AtomicIntegerArray(n);
+            for (int i = 0; i < n; i++) {
+                remaining.set(i, graph.inDegree(i));
+            }
+            this.pending = new AtomicInteger(n);
+        }
+
+        void start() {
+            int n = graph.size();
+            if (n == 0) {
+                done.complete(null);
+                return;
+            }
+            for (int i = 0; i < n && !done.isDone(); i++) {
+                if (graph.inDegree(i) == 0) {
+                    submit(i);
+                }
+            }
+        }
+
+        private void submit(int task) {
+            try {
+                executor.execute(() -> runFrom(task));
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+            }
+        }
+
+        private void runFrom(int task) {
+            int current = task;
+            while (current >= 0 && !done.isDone()) {
+                Runnable action = actions[current];
+                if (action != null) {
+                    try {
+                        action.run();
+                    } catch (Throwable t) {
+                        done.completeExceptionally(t);
+                        return;
+                    }
+                }
+                current = release(current);
+            }
+        }
+
+        /**
+         * Termine {@code task} : décrémente les compteurs de ses successeurs, soumet ceux qui
+         * deviennent prets sauf un, renvoyé pour etre exécuté sur le fil courant.
+         *
+         * @return le successeur à exécuter ensuite sur ce fil, ou {@code -1}
+         */
+        private int release(int task) {
+            int next = -1;
+            for (int k = graph.succOffsets[task]; k < graph.succOffsets[task + 1]; k++) {
+                int s = graph.succTargets[k];
+                if (remaining.decrementAndGet(s) == 0) {
+                    if (next < 0) {
+                        next = s;
+                    } else {
+                        submit(s);
+                    }
+                }
+            }
+            if (pending.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+            return next;
+        }
+    }
 }
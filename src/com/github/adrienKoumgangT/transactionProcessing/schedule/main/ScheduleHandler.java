@@ -1,6 +1,13 @@
 package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
 
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 
 /**
@@ -106,4 +113,360 @@ package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
  */
 public class ScheduleHandler {
 
+    // en dessous de ce nombre de taches, une vague (ou une portion de vague) est traitée sans découpage
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private final CompactGraphSchedule graph;
+
+    public ScheduleHandler(GraphSchedule graph) {
+        this(graph.compact());
+    }
+
+    public ScheduleHandler(CompactGraphSchedule graph) {
+        this.graph = graph;
+    }
+
+    public CompactGraphSchedule getGraph() {
+        return graph;
+    }
+
+    /**
+     * <h3> Tri topologique </h3>
+     *
+     * @return les indices des taches dans un ordre compatible avec les précédences (Kahn, O(V + E))
+     * @throws CyclicScheduleException si le graphe de précédence contient un cycle
+     */
+    public int[] topologicalOrder() {
+        return forwardPass(graph, new long[graph.size()]);
+    }
+
+    /**
+     * <h3> Méthode du chemin critique (CPM) </h3>
+     *
+     * <p>
+     * Un seul parcours de Kahn calcule l'ordre topologique et les dates au plus tot;
+     * un parcours inverse de cet ordre calcule les dates au plus tard.
+     * Complexité O(V + E), sans récursion.
+     * </p>
+     *
+     * @return les dates, marges et la durée totale du projet
+     * @throws CyclicScheduleException si le graphe de précédence contient un cycle
+     */
+    public ScheduleResult compute() {
+        int n = graph.size();
+        long[] earliestStart = new long[n];
+        int[] order = forwardPass(graph, earliestStart);
+
+        long makespan = 0;
+        for (int i = 0; i < n; i++) {
+            makespan = Math.max(makespan, earliestStart[i] + graph.durees[i]);
+        }
+        long[] latestStart = new long[n];
+        backwardPass(graph, order, makespan, latestStart);
+        return new ScheduleResult(graph, order, earliestStart, latestStart, makespan);
+    }
+
+    /**
+     * <h3> Méthode du chemin critique, en parallèle par vagues </h3>
+     *
+     * <p>
+     * Les taches d'une meme profondeur topologique (une vague) sont indépendantes :
+     * chaque vague est traitée en parallèle sur {@code pool}. Une tache lit les dates de
+     * ses prédécesseurs (vagues précédentes, déjà terminées), puis décrémente le compteur
+     * atomique de prédécesseurs restants de chacun de ses successeurs; le dernier à le faire
+     * l'inscrit dans la vague suivante. Aucun verrou global n'est pris.
+     * Les dates au plus tard sont calculées de la meme façon en remontant les vagues.
+     * </p>
+     * <p>
+     * Chaque date est un maximum (ou minimum) exact sur les memes valeurs que le calcul
+     * séquentiel : le résultat est identique à celui de {@link #compute()}, seul l'ordre
+     * topologique renvoyé peut différer à l'intérieur d'une vague.
+     * </p>
+     *
+     * @param pool le pool sur lequel traiter les vagues
+     * @return les dates, marges et la durée totale du projet
+     * @throws CyclicScheduleException si le graphe de précédence contient un cycle
+     */
+    public ScheduleResult compute(ForkJoinPool pool) {
+        int n = graph.size();
+        long[] earliestStart = new long[n];
+        long[] latestStart = new long[n];
+        int[] order = new int[n];
+        AtomicIntegerArray remaining = new AtomicIntegerArray(n);
+        AtomicInteger tail = new AtomicInteger();
+
+        int sources = 0;
+        for (int i = 0; i < n; i++) {
+            int degree = graph.predOffsets[i + 1] - graph.predOffsets[i];
+            remaining.set(i, degree);
+            if (degree == 0) {
+                order[sources++] = i;
+            }
+        }
+        tail.set(sources);
+
+        // bornes des vagues dans order : la vague w occupe [levels[w], levels[w + 1])
+        int[] levels = new int[16];
+        int levelCount = 0;
+        int start = 0;
+        int end = sources;
+        while (start < end) {
+            if (levelCount + 2 > levels.length) {
+                levels = Arrays.copyOf(levels, levels.length * 2);
+            }
+            levels[levelCount++] = start;
+            run(pool, new ForwardWave(graph, order, earliestStart, remaining, tail, start, end));
+            start = end;
+            end = tail.get();
+        }
+        levels[levelCount] = end;
+
+        if (end < n) {
+            int[] left = new int[n];
+            for (int i = 0; i < n; i++) {
+                left[i] = remaining.get(i);
+            }
+            throw new CyclicScheduleException(findCycle(graph, left));
+        }
+
+        long makespan = 0;
+        for (int i = 0; i < n; i++) {
+            makespan = Math.max(makespan, earliestStart[i] + graph.durees[i]);
+        }
+        for (int w = levelCount - 1; w >= 0; w--) {
+            run(pool, new BackwardWave(graph, order, latestStart, makespan, levels[w], levels[w + 1]));
+        }
+        return new ScheduleResult(graph, order, earliestStart, latestStart, makespan);
+    }
+
+    private static void run(ForkJoinPool pool, Wave wave) {
+        if (wave.width() <= PARALLEL_THRESHOLD) {
+            wave.process(wave.start, wave.end);
+        } else {
+            pool.invoke(wave);
+        }
+    }
+
+    /**
+     * Portion {@code [start, end)} d'une vague, découpée récursivement jusqu'au seuil.
+     */
+    private abstract static class Wave extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        final int start;
+        final int end;
+
+        Wave(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        int width() {
+            return end - start;
+        }
+
+        abstract Wave slice(int start, int end);
+
+        abstract void process(int start, int end);
+
+        @Override
+        protected void compute() {
+            if (width() <= PARALLEL_THRESHOLD) {
+                process(start, end);
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(slice(start, middle), slice(middle, end));
+            }
+        }
+    }
+
+    private static final class ForwardWave extends Wave {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CompactGraphSchedule graph;
+        private final int[] order;
+        private final long[] earliestStart;
+        private final AtomicIntegerArray remaining;
+        private final AtomicInteger tail;
+
+        ForwardWave(CompactGraphSchedule graph, int[] order, long[] earliestStart,
+                    AtomicIntegerArray remaining, AtomicInteger tail, int start, int end) {
+            super(start, end);
+            this.graph = graph;
+            this.order = order;
+            this.earliestStart = earliestStart;
+            this.remaining = remaining;
+            this.tail = tail;
+        }
+
+        @Override
+        Wave slice(int start, int end) {
+            return new ForwardWave(graph, order, earliestStart, remaining, tail, start, end);
+        }
+
+        @Override
+        void process(int start, int end) {
+            int[] predOffsets = graph.predOffsets;
+            int[] predTargets = graph.predTargets;
+            int[] succOffsets = graph.succOffsets;
+            int[] succTargets = graph.succTargets;
+            long[] durees = graph.durees;
+            // taches libérées par cette portion, réservées en bloc dans order
+            int[] ready = new int[16];
+            int count = 0;
+            for (int r = start; r < end; r++) {
+                int u = order[r];
+                long date = 0;
+                for (int k = predOffsets[u]; k < predOffsets[u + 1]; k++) {
+                    int p = predTargets[k];
+                    date = Math.max(date, earliestStart[p] + durees[p]);
+                }
+                earliestStart[u] = date;
+                for (int k = succOffsets[u]; k < succOffsets[u + 1]; k++) {
+                    int v = succTargets[k];
+                    if (remaining.decrementAndGet(v) == 0) {
+                        if (count == ready.length) {
+                            ready = Arrays.copyOf(ready, count * 2);
+                        }
+                        ready[count++] = v;
+                    }
+                }
+            }
+            if (count > 0) {
+                System.arraycopy(ready, 0, order, tail.getAndAdd(count), count);
+            }
+        }
+    }
+
+    private static final class BackwardWave extends Wave {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient CompactGraphSchedule graph;
+        private final int[] order;
+        private final long[] latestStart;
+        private final long makespan;
+
+        BackwardWave(CompactGraphSchedule graph, int[] order, long[] latestStart, long makespan, int start, int end) {
+            super(start, end);
+            this.graph = graph;
+            this.order = order;
+            this.latestStart = latestStart;
+            this.makespan = makespan;
+        }
+
+        @Override
+        Wave slice(int start, int end) {
+            return new BackwardWave(graph, order, latestStart, makespan, start, end);
+        }
+
+        @Override
+        void process(int start, int end) {
+            int[] offsets = graph.succOffsets;
+            int[] targets = graph.succTargets;
+            for (int r = start; r < end; r++) {
+                int u = order[r];
+                long latestFinish = makespan;
+                for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                    latestFinish = Math.min(latestFinish, latestStart[targets[k]]);
+                }
+                latestStart[u] = latestFinish - graph.durees[u];
+            }
+        }
+    }
+
+    /**
+     * Tri topologique de Kahn combiné au calcul des dates de début au plus tot.
+     *
+     * @return l'ordre topologique des indices de taches
+     * @throws CyclicScheduleException si le graphe contient un cycle
+     */
+    static int[] forwardPass(CompactGraphSchedule graph, long[] earliestStart) {
+        int n = graph.size();
+        int[] offsets = graph.succOffsets;
+        int[] targets = graph.succTargets;
+        long[] durees = graph.durees;
+
+        int[] remaining = new int[n];
+        int[] order = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            remaining[i] = graph.predOffsets[i + 1] - graph.predOffsets[i];
+            if (remaining[i] == 0) {
+                order[tail++] = i;
+            }
+        }
+        // order sert aussi de file : [head, tail) sont les taches prêtes
+        for (int head = 0; head < tail; head++) {
+            int u = order[head];
+            long finish = earliestStart[u] + durees[u];
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                int v = targets[k];
+                if (finish > earliestStart[v]) {
+                    earliestStart[v] = finish;
+                }
+                if (--remaining[v] == 0) {
+                    order[tail++] = v;
+                }
+            }
+        }
+        if (tail < n) {
+            throw new CyclicScheduleException(findCycle(graph, remaining));
+        }
+        return order;
+    }
+
+    /**
+     * Dates de début au plus tard, en parcourant l'ordre topologique à l'envers.
+     */
+    static void backwardPass(CompactGraphSchedule graph, int[] order, long makespan, long[] latestStart) {
+        int[] offsets = graph.succOffsets;
+        int[] targets = graph.succTargets;
+        long[] durees = graph.durees;
+        for (int r = order.length - 1; r >= 0; r--) {
+            int u = order[r];
+            long latestFinish = makespan;
+            for (int k = offsets[u]; k < offsets[u + 1]; k++) {
+                latestFinish = Math.min(latestFinish, latestStart[targets[k]]);
+            }
+            latestStart[u] = latestFinish - durees[u];
+        }
+    }
+
+    /**
+     * Extrait un cycle parmi les taches que le tri de Kahn n'a pas pu ordonner :
+     * chacune a au moins un prédécesseur lui aussi non ordonné, il suffit donc de
+     * remonter les prédécesseurs jusqu'à revisiter une tache.
+     */
+    private static List<Long> findCycle(CompactGraphSchedule graph, int[] remaining) {
+        int n = graph.size();
+        int start = 0;
+        while (remaining[start] == 0) {
+            start++;
+        }
+        int[] visitedAt = new int[n];
+        List<Integer> walk = new ArrayList<>();
+        int current = start;
+        while (visitedAt[current] == 0) {
+            walk.add(current);
+            visitedAt[current] = walk.size();
+            int next = -1;
+            for (int k = graph.predOffsets[current]; k < graph.predOffsets[current + 1]; k++) {
+                int p = graph.predTargets[k];
+                if (remaining[p] > 0) {
+                    next = p;
+                    break;
+                }
+            }
+            current = next;
+        }
+        List<Long> cycle = new ArrayList<>(walk.size() - visitedAt[current] + 1);
+        // la remontée suit les arcs à l'envers : la parcourir à rebours donne le sens des arcs
+        for (int i = walk.size() - 1; i >= visitedAt[current] - 1; i--) {
+            cycle.add(graph.ids[walk.get(i)]);
+        }
+        return cycle;
+    }
 }
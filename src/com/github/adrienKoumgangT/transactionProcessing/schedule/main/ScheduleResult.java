@@ -0,0 +1,123 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Résultat de la méthode du chemin critique (CPM) sur un {@link CompactGraphSchedule} :
+ * dates au plus tot / au plus tard de chaque tache, marges et durée totale du projet.
+ * </p>
+ * <p>
+ * Les accesseurs prennent l'indice dense de la tache
+ * (voir {@link CompactGraphSchedule#indexOf(long)}).
+ * Les dates de fin se déduisent des dates de début et des durées.
+ * </p>
+ */
+public final class ScheduleResult {
+
+    private final CompactGraphSchedule graph;
+    private final int[] order;
+    private final long[] earliestStart;
+    private final long[] latestStart;
+    private final long makespan;
+
+    ScheduleResult(CompactGraphSchedule graph, int[] order, long[] earliestStart, long[] latestStart, long makespan) {
+        this.graph = graph;
+        this.order = order;
+        this.earliestStart = earliestStart;
+        this.latestStart = latestStart;
+        this.makespan = makespan;
+    }
+
+    public CompactGraphSchedule getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return la durée totale du projet (date de fin au plus tot de la dernière tache)
+     */
+    public long getMakespan() {
+        return makespan;
+    }
+
+    /**
+     * @return l'indice de la tache de rang {@code rank} dans l'ordre topologique calculé
+     */
+    public int taskAt(int rank) {
+        return order[rank];
+    }
+
+    public long earliestStart(int index) {
+        return earliestStart[index];
+    }
+
+    public long earliestFinish(int index) {
+        return earliestStart[index] + graph.durees[index];
+    }
+
+    public long latestStart(int index) {
+        return latestStart[index];
+    }
+
+    public long latestFinish(int index) {
+        return latestStart[index] + graph.durees[index];
+    }
+
+    /**
+     * @return la marge totale de la tache : le retard qu'elle peut prendre sans retarder le projet
+     */
+    public long slack(int index) {
+        return latestStart[index] - earliestStart[index];
+    }
+
+    public boolean isCritical(int index) {
+        return latestStart[index] == earliestStart[index];
+    }
+
+    /**
+     * <p>
+     * Un chemin critique : une chaine de taches de marge nulle, chacune commençant
+     * à la fin de la précédente, de la date 0 à la fin du projet.
+     * En cas d'égalité, la tache d'indice le plus petit est retenue.
+     * </p>
+     *
+     * @return les identifiants des taches du chemin critique, dans l'ordre d'exécution
+     */
+    public List<Long> criticalPath() {
+        List<Long> path = new ArrayList<>();
+        int current = -1;
+        for (int i = 0; i < earliestStart.length; i++) {
+            if (earliestStart[i] == 0 && isCritical(i)) {
+                current = i;
+                break;
+            }
+        }
+        while (current >= 0) {
+            path.add(graph.ids[current]);
+            long finish = earliestFinish(current);
+            int next = -1;
+            for (int k = graph.succOffsets[current]; k < graph.succOffsets[current + 1]; k++) {
+                int s = graph.succTargets[k];
+                if (earliestStart[s] == finish && isCritical(s)) {
+                    next = s;
+                    break;
+                }
+            }
+            current = next;
+        }
+        return path;
+    }
+
+    long[] earliestStarts() {
+        return earliestStart;
+    }
+
+    long[] latestStarts() {
+        return latestStart;
+    }
+
+    int[] order() {
+        return order;
+    }
+}
@@ -0,0 +1,294 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <h1>Instantané binaire d'un ordonnancement</h1>
+ *
+ * <p>
+ * Sauvegarde et restaure un {@link CompactGraphSchedule} et, s'il est fourni, son
+ * {@link ScheduleResult}, sans réanalyser ni recalculer. Format (petit-boutiste) :
+ * <pre>
+ * int   magic 'GSNP'
+ * int   version
+ * int   flags            (bit 0 : dates présentes)
+ * int   n                (taches)
+ * int   m                (arcs)
+ * long  makespan
+ * n     identifiants     varint zigzag de l'écart avec l'identifiant précédent
+ * n     durées           varint
+ * n     lignes CSR       varint degré, puis varint des écarts entre successeurs triés
+ * si dates présentes :
+ * n     int  ordre topologique
+ * n     long dates de début au plus tot
+ * n     long dates de début au plus tard
+ * </pre>
+ * Les tableaux de taille fixe sont copiés en bloc par des vues {@code IntBuffer}/{@code LongBuffer};
+ * seules les colonnes à forte redondance (identifiants, durées, arcs) sont encodées en varint.
+ * </p>
+ * <p>
+ * L'écriture passe par un fichier temporaire voisin qui remplace l'instantané d'un seul coup : une
+ * sauvegarde interrompue laisse l'ancien instantané intact.
+ * </p>
+ */
+public final class ScheduleSnapshot {
+
+    private static final int MAGIC = 'G' | 'S' << 8 | 'N' << 16 | 'P' << 24;
+    private static final int VERSION = 1;
+    private static final int FLAG_DATES = 1;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES + Long.BYTES;
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final CompactGraphSchedule graph;
+    private final ScheduleResult result;
+
+    private ScheduleSnapshot(CompactGraphSchedule graph, ScheduleResult result) {
+        this.graph = graph;
+        this.result = result;
+    }
+
+    public CompactGraphSchedule getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return les dates sauvegardées, ou {@code null} si l'instantané n'en contient pas
+     */
+    public ScheduleResult getResult() {
+        return result;
+    }
+
+    /**
+     * Sauvegarde le graphe seul.
+     */
+    public static void write(Path path, CompactGraphSchedule graph) throws IOException {
+        write(path, graph, null);
+    }
+
+    /**
+     * Sauvegarde le graphe et les dates calculées.
+     */
+    public static void write(Path path, ScheduleResult result) throws IOException {
+        write(path, result.getGraph(), result);
+    }
+
+    private static void write(Path path, CompactGraphSchedule graph, ScheduleResult result) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            writeTo(temporary, graph, result);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private static void writeTo(Path path, CompactGraphSchedule graph, ScheduleResult result) throws IOException {
+        int n = graph.size();
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.ensure(HEADER_BYTES);
+            out.buffer.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(result != null ? FLAG_DATES : 0)
+                    .putInt(n)
+                    .putInt(graph.edgeCount())
+                    .putLong(result != null ? result.getMakespan() : 0);
+
+            long previous = 0;
+            for (long id : graph.ids) {
+                out.varint(zigzag(id - previous));
+                previous = id;
+            }
+            for (long duree : graph.durees) {
+                out.varint(duree);
+            }
+            for (int i = 0; i < n; i++) {
+                int start = graph.succOffsets[i];
+                int end = graph.succOffsets[i + 1];
+                out.varint(end - start);
+                int last = 0;
+                for (int k = start; k < end; k++) {
+                    out.varint(graph.succTargets[k] - last);
+                    last = graph.succTargets[k];
+                }
+            }
+            if (result != null) {
+                out.ints(result.order());
+                out.longs(result.earliestStarts());
+                out.longs(result.latestStarts());
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * @throws IOException si le fichier ne peut etre lu ou n'est pas un instantané valide
+     */
+    public static ScheduleSnapshot read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + ": snapshot larger than 2 GB");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        try {
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException(path + ": not a schedule snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException(path + ": unsupported snapshot version " + version);
+            }
+            int flags = buffer.getInt();
+            int n = buffer.getInt();
+            int m = buffer.getInt();
+            long makespan = buffer.getLong();
+            if (n < 0 || m < 0) {
+                throw new IOException(path + ": corrupted header");
+            }
+
+            long[] ids = new long[n];
+            LongIndexMap index = new LongIndexMap(n);
+            long previous = 0;
+            for (int i = 0; i < n; i++) {
+                previous += unzigzag(varint(buffer));
+                ids[i] = previous;
+                if (index.putIfAbsent(previous, i) >= 0) {
+                    throw new IOException(path + ": duplicate task " + previous);
+                }
+            }
+            long[] durees = new long[n];
+            for (int i = 0; i < n; i++) {
+                durees[i] = varint(buffer);
+            }
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[m];
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                int degree = (int) varint(buffer);
+                if (degree < 0 || k + degree > m) {
+                    throw new IOException(path + ": corrupted adjacency");
+                }
+                int last = 0;
+                for (int d = 0; d < degree; d++) {
+                    last += (int) varint(buffer);
+                    if (last >= n) {
+                        throw new IOException(path + ": corrupted adjacency");
+                    }
+                    targets[k++] = last;
+                }
+                offsets[i + 1] = k;
+            }
+            if (k != m) {
+                throw new IOException(path + ": corrupted adjacency");
+            }
+            CompactGraphSchedule graph = new CompactGraphSchedule(ids, index, durees, offsets, targets);
+
+            ScheduleResult result = null;
+            if ((flags & FLAG_DATES) != 0) {
+                int[] order = new int[n];
+                buffer.asIntBuffer().get(order);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                long[] earliestStart = new long[n];
+                buffer.asLongBuffer().get(earliestStart);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                long[] latestStart = new long[n];
+                buffer.asLongBuffer().get(latestStart);
+                result = new ScheduleResult(graph, order, earliestStart, latestStart, makespan);
+            }
+            return new ScheduleSnapshot(graph, result);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(path + ": truncated snapshot", e);
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long varint(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    /**
+     * Tampon d'écriture réutilisé, vidé dans le canal lorsqu'il est plein.
+     */
+    private static final class Output {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void varint(long value) throws IOException {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        void ints(int[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                ensure(Integer.BYTES);
+                int count = Math.min(values.length - done, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, done, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                done += count;
+            }
+        }
+
+        void longs(long[] values) throws IOException {
+            int done = 0;
+            while (done < values.length) {
+                ensure(Long.BYTES);
+                int count = Math.min(values.length - done, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(values, done, count);
+                buffer.position(buffer.position() + count * Long.BYTES);
+                done += count;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
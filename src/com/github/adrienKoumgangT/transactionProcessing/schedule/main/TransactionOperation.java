@@ -0,0 +1,72 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+/**
+ * <p>
+ * Opération élémentaire d'un ordonnancement de transactions (au sens des bases de données) :
+ * lecture ou écriture d'un élément, validation ou annulation d'une transaction.
+ * </p>
+ */
+public final class TransactionOperation {
+
+    public enum Kind {
+        READ,
+        WRITE,
+        COMMIT,
+        ABORT
+    }
+
+    private final Kind kind;
+    private final long transaction;
+    private final long item;
+
+    private TransactionOperation(Kind kind, long transaction, long item) {
+        this.kind = kind;
+        this.transaction = transaction;
+        this.item = item;
+    }
+
+    public static TransactionOperation read(long transaction, long item) {
+        return new TransactionOperation(Kind.READ, transaction, item);
+    }
+
+    public static TransactionOperation write(long transaction, long item) {
+        return new TransactionOperation(Kind.WRITE, transaction, item);
+    }
+
+    public static TransactionOperation commit(long transaction) {
+        return new TransactionOperation(Kind.COMMIT, transaction, 0);
+    }
+
+    public static TransactionOperation abort(long transaction) {
+        return new TransactionOperation(Kind.ABORT, transaction, 0);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getTransaction() {
+        return transaction;
+    }
+
+    /**
+     * @return l'élément lu ou écrit (sans objet pour une validation ou une annulation)
+     */
+    public long getItem() {
+        return item;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case READ:
+                return "r" + transaction + "(" + item + ")";
+            case WRITE:
+                return "w" + transaction + "(" + item + ")";
+            case COMMIT:
+                return "c" + transaction;
+            default:
+                return "a" + transaction;
+        }
+    }
+}
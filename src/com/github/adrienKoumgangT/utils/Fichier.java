@@ -1,5 +1,221 @@
 package com.github.adrienKoumgangT.utils;
 
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * Classe d'utilité pour la lecture de fichiers volumineux.
+ * </p>
+ *
+ * <p>
+ * Les fichiers sont projetés en mémoire ({@link FileChannel#map}) par fenetres successives
+ * et analysés octet par octet : aucune {@code String} n'est créée par ligne ou par champ,
+ * les nombres sont accumulés directement à partir des chiffres ASCII.
+ * </p>
+ *
+ * <p>
+ * Format reconnu par {@link #lirePaires(Path, LongPairConsumer)} : une paire d'entiers par ligne,
+ * séparés par une virgule, un point-virgule, des espaces ou des tabulations
+ * (par exemple {@code tache,duree} ou {@code predecesseur;successeur}).
+ * <ul>
+ *     <li>les lignes vides et celles commençant par {@code #} sont ignorées;</li>
+ *     <li>
+ *         une première ligne non numérique, après les éventuelles lignes vides et commentaires, est
+ *         considérée comme un en-tete et ignorée;
+ *     </li>
+ *     <li>les fins de lignes UNIX (LF) et Windows (CR LF) sont acceptées.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Adrien Koumgang Tegantchouang
+ * @version Décembre 2022
+ * @since 1.0
+ */
 public class Fichier {
 
+    /**
+     * Taille maximale d'une fenetre de projection (un {@link MappedByteBuffer} est limité à 2 Go).
+     */
+    private static final int FENETRE = 1 << 30;
+
+    /**
+     * Reçoit chaque paire lue.
+     */
+    @FunctionalInterface
+    public interface LongPairConsumer {
+        void accept(long first, long second);
+    }
+
+    /**
+     * <h3> Lire Paires </h3>
+     *
+     * antecedent : le fichier respecte le format décrit ci-haut.
+     * <br>
+     * consequent : appelle {@code consumer} pour chaque paire, dans l'ordre du fichier.
+     *
+     * @param path     le fichier à lire
+     * @param consumer le destinataire des paires
+     * @return le nombre de paires lues
+     * @throws IOException si le fichier ne peut etre lu ou si une ligne est mal formée
+     */
+    public static long lirePaires(Path path, LongPairConsumer consumer) throws IOException {
+        return lirePaires(path, consumer, FENETRE);
+    }
+
+    static long lirePaires(Path path, LongPairConsumer consumer, int fenetre) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long count = 0;
+            long ligne = 1;
+            boolean enTete = true;
+            while (position < size) {
+                int length = (int) Math.min(fenetre, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                // la fenetre s'arrete après le dernier LF pour ne jamais couper une ligne
+                int end = length;
+                if (position + length < size) {
+                    while (end > 0 && buffer.get(end - 1) != '\n') {
+                        end--;
+                    }
+                    if (end == 0) {
+                        throw new IOException(path + ":" + ligne + ": line longer than " + fenetre + " bytes");
+                    }
+                }
+                LineParser parser = new LineParser(buffer, path, ligne, enTete);
+                count += parser.parse(end, consumer);
+                ligne = parser.ligne;
+                enTete = parser.enTete;
+                position += end;
+            }
+            return count;
+        }
+    }
+
+    private static final class LineParser {
+
+        private final MappedByteBuffer buffer;
+        private final Path path;
+        private long ligne;
+        /** vrai tant qu'aucune ligne autre que vide ou commentaire n'a été lue */
+        private boolean enTete;
+        private int cursor;
+        private long value;
+
+        LineParser(MappedByteBuffer buffer, Path path, long ligne, boolean enTete) {
+            this.buffer = buffer;
+            this.path = path;
+            this.ligne = ligne;
+            this.enTete = enTete;
+        }
+
+        long parse(int end, LongPairConsumer consumer) throws IOException {
+            long count = 0;
+            while (cursor < end) {
+                skipBlanks(end);
+                if (cursor == end) {
+                    break;
+                }
+                byte b = buffer.get(cursor);
+                if (b == '\n' || b == '\r' || b == '#') {
+                    skipLine(end);
+                    continue;
+                }
+                boolean header = enTete && !startsNumber(b);
+                enTete = false;
+                if (header) {
+                    skipLine(end);
+                    continue;
+                }
+                readNumber(end);
+                long first = value;
+                skipSeparator(end);
+                readNumber(end);
+                long second = value;
+                skipBlanks(end);
+                if (cursor < end && buffer.get(cursor) == '\r') {
+                    cursor++;
+                }
+                if (cursor < end && buffer.get(cursor) != '\n') {
+                    throw error("unexpected character '" + (char) buffer.get(cursor) + "'");
+                }
+                consumer.accept(first, second);
+                count++;
+                skipLine(end);
+            }
+            return count;
+        }
+
+        private void readNumber(int end) throws IOException {
+            boolean negative = false;
+            if (cursor < end && (buffer.get(cursor) == '-' || buffer.get(cursor) == '+')) {
+                negative = buffer.get(cursor) == '-';
+                cursor++;
+            }
+            int start = cursor;
+            // accumulation en négatif : Long.MIN_VALUE est représentable
+            long result = 0;
+            while (cursor < end) {
+                int digit = buffer.get(cursor) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                if (result < (Long.MIN_VALUE + digit) / 10) {
+                    throw error("number out of range");
+                }
+                result = result * 10 - digit;
+                cursor++;
+            }
+            if (cursor == start) {
+                throw error("number expected");
+            }
+            if (!negative) {
+                if (result == Long.MIN_VALUE) {
+                    throw error("number out of range");
+                }
+                result = -result;
+            }
+            value = result;
+        }
+
+        private void skipSeparator(int end) throws IOException {
+            int start = cursor;
+            skipBlanks(end);
+            if (cursor < end && (buffer.get(cursor) == ',' || buffer.get(cursor) == ';')) {
+                cursor++;
+                skipBlanks(end);
+            }
+            if (cursor == start) {
+                throw error("separator expected");
+            }
+        }
+
+        private void skipBlanks(int end) {
+            while (cursor < end && (buffer.get(cursor) == ' ' || buffer.get(cursor) == '\t')) {
+                cursor++;
+            }
+        }
+
+        private void skipLine(int end) {
+            while (cursor < end && buffer.get(cursor) != '\n') {
+                cursor++;
+            }
+            if (cursor < end) {
+                cursor++;
+                ligne++;
+            }
+        }
+
+        private static boolean startsNumber(byte b) {
+            return (b >= '0' && b <= '9') || b == '-' || b == '+';
+        }
+
+        private IOException error(String message) {
+            return new IOException(path + ":" + ligne + ": " + message);
+        }
+    }
 }
@@ -0,0 +1,129 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBDDLGeneratorTest {
+
+    private static String generate(DBTable table) {
+        StringBuilder out = new StringBuilder();
+        new DBDDLGenerator().appendCreateTable(table, out);
+        return out.toString();
+    }
+
+    @Test
+    void tableWithoutCollateHasNoCollation() {
+        DBTable table = DBTableParser.parse("CREATE TABLE t (id INT NOT NULL, PRIMARY KEY (id)) ENGINE=InnoDB;").get(0);
+        assertNull(table.getCollation());
+        assertNull(table.getCharset());
+        assertEquals("CREATE TABLE `t` (\n  `id` INT NOT NULL,\n  PRIMARY KEY (`id`)\n) ENGINE=InnoDB;\n", generate(table));
+    }
+
+    @Test
+    void charsetAndCollationAreWrittenAsDeclared() {
+        DBTable table = DBTableParser.parse("CREATE TABLE t (id INT) ENGINE=InnoDB DEFAULT CHARSET=latin1"
+                + " COLLATE=latin1_bin;").get(0);
+        assertEquals("latin1_bin", table.getCollation());
+        String ddl = generate(table);
+        assertEquals(ddl, generate(DBTableParser.parse(ddl).get(0)));
+        assertTrue(ddl.contains(" DEFAULT CHARSET=latin1 COLLATE=latin1_bin;"));
+    }
+
+    private static final String EVENTS = "CREATE TABLE events (id BIGINT NOT NULL, day DATE NOT NULL,"
+            + " region VARCHAR(8) NOT NULL, PRIMARY KEY (id, day, region)) ";
+
+    private static DBTable partitioned(String partitioning) {
+        DBTable table = DBTableParser.parse(EVENTS + partitioning + ";").get(0);
+        // le DDL généré se relit en un modèle identique
+        String ddl = generate(table);
+        assertEquals(ddl, generate(DBTableParser.parse(ddl).get(0)));
+        return table;
+    }
+
+    private static String partitioning(DBTable table) {
+        StringBuilder out = new StringBuilder();
+        new DBDDLGenerator().appendPartitioning(table, out);
+        return out.toString();
+    }
+
+    private static List<String> partitionColumns(DBTable table) {
+        List<String> names = new ArrayList<>();
+        for (DBColumn column : table.getPartitionColumns()) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+
+    @Test
+    void rangeColumnsPartitioning() {
+        DBTable table = partitioned("PARTITION BY RANGE COLUMNS(region, day) ("
+                + "PARTITION p0 VALUES LESS THAN ('m', '2024-01-01') ENGINE = InnoDB,"
+                + " PARTITION p1 VALUES LESS THAN (MAXVALUE, MAXVALUE))");
+        assertEquals("RANGE COLUMNS", table.getPartitionMethod());
+        assertEquals("region, day", table.getPartitionExpression());
+        assertEquals(List.of("day", "region"), partitionColumns(table));
+        assertEquals("PARTITION BY RANGE COLUMNS (region, day)\n"
+                + "(PARTITION `p0` VALUES LESS THAN ('m', '2024-01-01') ENGINE = InnoDB,\n"
+                + " PARTITION `p1` VALUES LESS THAN (MAXVALUE, MAXVALUE))", partitioning(table));
+    }
+
+    @Test
+    void listColumnsPartitioning() {
+        DBTable table = partitioned("PARTITION BY LIST COLUMNS (region) ("
+                + "PARTITION pe VALUES IN ('fr', 'de'), PARTITION pa VALUES IN ('us'))");
+        assertEquals("LIST COLUMNS", table.getPartitionMethod());
+        assertEquals("IN ('fr', 'de')", table.getPartitions().get(0).getValues());
+        assertNull(table.getPartitions().get(0).getOptions());
+        assertEquals(List.of("region"), partitionColumns(table));
+    }
+
+    @Test
+    void hashAndKeyPartitioningByCount() {
+        DBTable hash = partitioned("PARTITION BY LINEAR HASH (YEAR(day)) PARTITIONS 4");
+        assertEquals("LINEAR HASH", hash.getPartitionMethod());
+        assertEquals(4, hash.getPartitionCount());
+        assertTrue(hash.getPartitions().isEmpty());
+        // YEAR est une fonction, pas une colonne
+        assertEquals(List.of("day"), partitionColumns(hash));
+        assertEquals("PARTITION BY LINEAR HASH (YEAR(day))\nPARTITIONS 4", partitioning(hash));
+
+        // KEY () sans colonne porte sur la clé primaire
+        DBTable key = partitioned("PARTITION BY KEY ALGORITHM=2 () PARTITIONS 8");
+        assertEquals("KEY ALGORITHM=2", key.getPartitionMethod());
+        assertEquals(List.of("id", "day", "region"), partitionColumns(key));
+        assertEquals("PARTITION BY KEY ALGORITHM=2 ()\nPARTITIONS 8", partitioning(key));
+    }
+
+    @Test
+    void subpartitionsByCountAndByName() {
+        DBTable counted = partitioned("PARTITION BY RANGE (YEAR(day)) SUBPARTITION BY HASH (id) SUBPARTITIONS 2"
+                + " (PARTITION p0 VALUES LESS THAN (2024), PARTITION p1 VALUES LESS THAN MAXVALUE)");
+        assertEquals("HASH", counted.getSubPartitionMethod());
+        assertEquals("id", counted.getSubPartitionExpression());
+        assertEquals(2, counted.getSubPartitionCount());
+        assertEquals(List.of("id", "day"), partitionColumns(counted));
+
+        DBTable named = partitioned("PARTITION BY LIST (TO_DAYS(day)) SUBPARTITION BY KEY (region) ("
+                + "PARTITION p0 VALUES IN (1, 2) (SUBPARTITION s0 ENGINE = InnoDB, SUBPARTITION s1),"
+                + " PARTITION p1 VALUES IN (3) (SUBPARTITION s2, SUBPARTITION s3))");
+        DBPartition p0 = named.getPartitions().get(0);
+        assertEquals(2, p0.getSubPartitions().size());
+        assertEquals("ENGINE = InnoDB", p0.getSubPartitions().get(0).getOptions());
+        assertNull(p0.getSubPartitions().get(0).getValues());
+        assertEquals("s3", named.getPartitions().get(1).getSubPartitions().get(1).getName());
+        assertEquals("PARTITION BY LIST (TO_DAYS(day))\n"
+                + "SUBPARTITION BY KEY (region)\n"
+                + "(PARTITION `p0` VALUES IN (1, 2)\n"
+                + " (SUBPARTITION `s0` ENGINE = InnoDB,\n"
+                + "  SUBPARTITION `s1`),\n"
+                + " PARTITION `p1` VALUES IN (3)\n"
+                + " (SUBPARTITION `s2`,\n"
+                + "  SUBPARTITION `s3`))", partitioning(named));
+    }
+}
@@ -0,0 +1,314 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBDaoGeneratorTest {
+
+    private static final String PACKAGE = "generated.dao";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generatedIdDaoRunsCrudAgainstTheMemoryTable() throws Exception {
+        DBMemoryTable table = new DBMemoryTable(DBTableParser.parse("CREATE TABLE user_account ("
+                + "id BIGINT NOT NULL AUTO_INCREMENT, name VARCHAR(20) NOT NULL, age INT, PRIMARY KEY (id));").get(0));
+        Dao dao = compile(table);
+
+        // insertion : l'identifiant nul reçoit la valeur générée
+        Object ann = dao.row("name", "ann", "age", null);
+        assertEquals(1, dao.call("set", ann));
+        assertEquals(1L, dao.field(ann, "id"));
+        Object read = dao.call("get", 1L);
+        assertEquals("ann", dao.field(read, "name"));
+        assertNull(dao.field(read, "age"));
+        assertNull(dao.call("get", 9L));
+
+        // mise à jour par identifiant
+        dao.set(ann, "age", 30);
+        assertEquals(1, dao.call("set", ann));
+        assertEquals(30, dao.field(dao.call("get", 1L), "age"));
+
+        // lot : deux insertions et une mise à jour, comptes rendus dans l'ordre des lignes
+        Object bob = dao.row("name", "bob", "age", 41);
+        Object cid = dao.row("name", "cid", "age", null);
+        dao.set(ann, "age", 31);
+        assertArrayEquals(new int[] {1, 1, 1}, (int[]) dao.call("setBatch", List.of(bob, ann, cid)));
+        assertEquals(2L, dao.field(bob, "id"));
+        assertEquals(3L, dao.field(cid, "id"));
+        assertEquals(List.of("ann", "bob", "cid"), dao.names((List<?>) dao.call("list")));
+
+        // pagination par clé primaire
+        List<?> first = (List<?>) dao.call("listPage", null, 2);
+        assertEquals(List.of("ann", "bob"), dao.names(first));
+        assertEquals(List.of("cid"), dao.names((List<?>) dao.call("listPage", first.get(1), 2)));
+
+        // suppression
+        assertEquals(1, dao.call("delete", 2L));
+        assertEquals(0, dao.call("delete", 2L));
+        assertArrayEquals(new int[] {1, 0}, (int[]) dao.call("deleteBatch", List.of(ann, bob)));
+        assertEquals(List.of("cid"), dao.names((List<?>) dao.call("list")));
+        dao.call("close");
+    }
+
+    @Test
+    void upsertDaoCountsAffectedRowsLikeMysql() throws Exception {
+        DBMemoryTable table = new DBMemoryTable(DBTableParser.parse("CREATE TABLE setting ("
+                + "name VARCHAR(20) NOT NULL, level INT NOT NULL, PRIMARY KEY (name));").get(0));
+        Dao dao = compile(table);
+
+        Object timeout = dao.row("name", "timeout", "level", 5);
+        assertEquals(1, dao.call("set", timeout));
+        assertEquals(0, dao.call("set", timeout));
+        dao.set(timeout, "level", 7);
+        assertEquals(2, dao.call("set", timeout));
+        assertEquals(7, dao.field(dao.call("get", "timeout"), "level"));
+
+        Object retries = dao.row("name", "retries", "level", 3);
+        assertArrayEquals(new int[] {1, 0}, (int[]) dao.call("setBatch", List.of(retries, timeout)));
+        assertEquals(List.of("retries", "timeout"), dao.names((List<?>) dao.call("list")));
+        dao.call("close");
+    }
+
+    @Test
+    void constraintViolationReachesTheCaller() throws Exception {
+        DBMemoryTable table = new DBMemoryTable(DBTableParser.parse("CREATE TABLE setting ("
+                + "name VARCHAR(4) NOT NULL, level INT NOT NULL, PRIMARY KEY (name));").get(0));
+        Dao dao = compile(table);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> dao.call("set", dao.row("name", "too long", "level", 1)));
+        assertTrue(e.getMessage().contains("Data too long"), e.getMessage());
+        assertEquals(0, table.size());
+    }
+
+    // ---- compilation du source généré
+
+    private Dao compile(DBMemoryTable table) throws Exception {
+        StringBuilder source = new StringBuilder();
+        new DBDaoGenerator(PACKAGE).generate(table.getTable(), source);
+        Path file = directory.resolve(DBDaoGenerator.fileName(table.getTable()));
+        Files.writeString(file, source);
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull(compiler, "tests need a JDK");
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int status = compiler.run(null, null, errors, "-d", classes.toString(), file.toString());
+        assertEquals(0, status, () -> errors.toString(StandardCharsets.UTF_8) + "\n" + source);
+
+        ClassLoader loader = new URLClassLoader(new URL[] {classes.toUri().toURL()}, getClass().getClassLoader());
+        String name = PACKAGE + "." + DBDaoGenerator.className(table.getTable());
+        Class<?> type = loader.loadClass(name);
+        Class<?> row = loader.loadClass(name + "$Row");
+        Connection connection = MemoryConnection.open(table);
+        return new Dao(type.getConstructor(Connection.class).newInstance(connection), row);
+    }
+
+    /** accès par réflexion à une instance du DAO compilé et à ses lignes */
+    private static final class Dao {
+
+        final Object instance;
+        final Class<?> row;
+
+        Dao(Object instance, Class<?> row) {
+            this.instance = instance;
+            this.row = row;
+        }
+
+        Object row(Object... fieldsAndValues) throws Exception {
+            Object result = row.getConstructor().newInstance();
+            for (int i = 0; i < fieldsAndValues.length; i += 2) {
+                set(result, (String) fieldsAndValues[i], fieldsAndValues[i + 1]);
+            }
+            return result;
+        }
+
+        void set(Object target, String field, Object value) throws Exception {
+            row.getField(field).set(target, value);
+        }
+
+        Object field(Object target, String field) throws Exception {
+            return row.getField(field).get(target);
+        }
+
+        List<Object> names(List<?> rows) throws Exception {
+            List<Object> names = new ArrayList<>();
+            for (Object value : rows) {
+                names.add(field(value, "name"));
+            }
+            return names;
+        }
+
+        Object call(String name, Object... arguments) throws Exception {
+            for (Method method : instance.getClass().getMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == arguments.length) {
+                    try {
+                        return method.invoke(instance, arguments);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    }
+                }
+            }
+            throw new NoSuchMethodException(name);
+        }
+    }
+
+    /**
+     * Connexion JDBC de substitution : chaque instruction préparée par le DAO est reconnue à son texte et
+     * exécutée par la procédure correspondante de {@link DBMemoryTable}.
+     */
+    private static final class MemoryConnection {
+
+        static Connection open(DBMemoryTable table) {
+            return proxy(Connection.class, (method, arguments) -> {
+                if (method.getName().equals("prepareStatement")) {
+                    return statement(table, (String) arguments[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        }
+
+        private static PreparedStatement statement(DBMemoryTable table, String sql) {
+            Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+            List<Object[]> batch = new ArrayList<>();
+            List<Object[]> keys = new ArrayList<>();
+            return proxy(PreparedStatement.class, (method, arguments) -> {
+                String name = method.getName();
+                if (name.equals("setNull")) {
+                    parameters[(Integer) arguments[0] - 1] = null;
+                } else if (name.startsWith("set") && arguments.length == 2) {
+                    parameters[(Integer) arguments[0] - 1] = arguments[1];
+                } else if (name.equals("executeQuery")) {
+                    return resultSet(query(table, sql, parameters));
+                } else if (name.equals("executeUpdate")) {
+                    keys.clear();
+                    return update(table, sql, parameters.clone(), keys);
+                } else if (name.equals("addBatch")) {
+                    batch.add(parameters.clone());
+                } else if (name.equals("executeBatch")) {
+                    keys.clear();
+                    int[] counts = new int[batch.size()];
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] = update(table, sql, batch.get(i), keys);
+                    }
+                    batch.clear();
+                    return counts;
+                } else if (name.equals("getGeneratedKeys")) {
+                    return resultSet(new ArrayList<>(keys));
+                } else if (!name.equals("close")) {
+                    throw new UnsupportedOperationException(name);
+                }
+                return null;
+            });
+        }
+
+        private static List<Object[]> query(DBMemoryTable table, String sql, Object[] parameters) {
+            if (sql.endsWith(" LIMIT ?")) {
+                int limit = (Integer) parameters[parameters.length - 1];
+                Object[] after = sql.contains(" WHERE (") ? Arrays.copyOf(parameters, parameters.length - 1) : null;
+                return table.listPage(after, limit);
+            }
+            if (sql.contains(" WHERE ")) {
+                Object[] row = table.get(parameters);
+                return row == null ? List.of() : List.<Object[]>of(row);
+            }
+            return table.list();
+        }
+
+        private static int update(DBMemoryTable table, String sql, Object[] parameters, List<Object[]> keys) {
+            if (sql.startsWith("DELETE ")) {
+                return table.delete(parameters);
+            }
+            boolean generatedId = new DBRoutineGenerator.RoutineContext(table.getTable()).isGeneratedId();
+            if (sql.startsWith("UPDATE ")) {
+                // UPDATE lie les valeurs puis l'identifiant, SET prend l'identifiant d'abord
+                Object[] arguments = new Object[parameters.length];
+                arguments[0] = parameters[parameters.length - 1];
+                System.arraycopy(parameters, 0, arguments, 1, parameters.length - 1);
+                return table.set(arguments);
+            }
+            if (!generatedId) {
+                return table.set(parameters);
+            }
+            Object[] arguments = new Object[parameters.length + 1];
+            System.arraycopy(parameters, 0, arguments, 1, parameters.length);
+            int count = table.set(arguments);
+            keys.add(new Object[] {table.getLastInsertId()});
+            return count;
+        }
+
+        private static ResultSet resultSet(List<Object[]> rows) {
+            int[] cursor = {-1};
+            boolean[] wasNull = {false};
+            return proxy(ResultSet.class, (method, arguments) -> {
+                String name = method.getName();
+                if (name.equals("next")) {
+                    return ++cursor[0] < rows.size();
+                } else if (name.equals("wasNull")) {
+                    return wasNull[0];
+                } else if (name.equals("close")) {
+                    return null;
+                } else if (name.startsWith("get") && arguments != null && arguments.length == 1
+                        && arguments[0] instanceof Integer) {
+                    Object value = rows.get(cursor[0])[(Integer) arguments[0] - 1];
+                    wasNull[0] = value == null;
+                    return convert(value, method.getReturnType());
+                }
+                throw new UnsupportedOperationException(name);
+            });
+        }
+
+        private static Object convert(Object value, Class<?> type) {
+            if (type == int.class) {
+                return value == null ? 0 : ((Number) value).intValue();
+            } else if (type == long.class) {
+                return value == null ? 0L : ((Number) value).longValue();
+            } else if (type == String.class) {
+                return value == null ? null : value.toString();
+            }
+            throw new UnsupportedOperationException(type.getName());
+        }
+
+        private interface Handler {
+            Object invoke(Method method, Object[] arguments) throws Exception;
+        }
+
+        private static <T> T proxy(Class<T> type, Handler handler) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, method, arguments) -> {
+                        if (method.getDeclaringClass() == Object.class) {
+                            return method.getName().equals("equals") ? proxy == arguments[0]
+                                    : method.getName().equals("hashCode") ? System.identityHashCode(proxy)
+                                    : type.getSimpleName();
+                        }
+                        return handler.invoke(method, arguments == null ? new Object[0] : arguments);
+                    }));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBInsertWriterTest {
+
+    private static final DBTable TABLE = DBTableParser.parse(
+            "CREATE TABLE items (id INT NOT NULL, label VARCHAR(100), PRIMARY KEY (id));").get(0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void statementsLeaveRoomForTheCommandByte() throws IOException {
+        int maxAllowedPacket = 1024;
+        try (DBInsertWriter writer = new DBInsertWriter(TABLE, directory, maxAllowedPacket, Long.MAX_VALUE)) {
+            for (int i = 0; i < 500; i++) {
+                writer.add(i, "label " + i);
+            }
+        }
+        String text = Files.readString(directory.resolve("items.data.00001.sql"), StandardCharsets.UTF_8);
+        int statements = 0;
+        for (String statement : text.split("(?<=;\n)")) {
+            if (statement.startsWith("INSERT")) {
+                statements++;
+                assertTrue(statement.getBytes(StandardCharsets.UTF_8).length <= maxAllowedPacket - 1);
+            }
+        }
+        assertTrue(statements > 1);
+    }
+
+    @Test
+    void eachFileRestoresTheSessionSettings() throws IOException {
+        DBInsertWriter writer = new DBInsertWriter(TABLE, directory, 1024, 1);
+        try (writer) {
+            writer.add(1, "a");
+            writer.add(2, "b");
+        }
+        List<Path> files = writer.getFiles();
+        assertEquals(1, files.size());
+        String text = Files.readString(files.get(0), StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("SET @saved_autocommit = @@autocommit"));
+        assertTrue(text.endsWith("COMMIT;\nSET autocommit = @saved_autocommit, unique_checks = @saved_unique_checks,"
+                + " foreign_key_checks = @saved_foreign_key_checks;\n"));
+    }
+}
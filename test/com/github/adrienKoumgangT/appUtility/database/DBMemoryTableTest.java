@@ -0,0 +1,157 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DBMemoryTableTest {
+
+    private static DBMemoryTable table(String ddl) {
+        return new DBMemoryTable(DBTableParser.parse(ddl).get(0));
+    }
+
+    private static DBMemoryTable users() {
+        return table("CREATE TABLE users (id INT NOT NULL AUTO_INCREMENT, name VARCHAR(10) NOT NULL,"
+                + " age TINYINT, PRIMARY KEY (id));");
+    }
+
+    private static List<Object> column(List<Object[]> rows, int position) {
+        List<Object> values = new ArrayList<>();
+        for (Object[] row : rows) {
+            values.add(row[position]);
+        }
+        return values;
+    }
+
+    @Test
+    void insertGeneratesTheIdentifierAndSetsLastInsertId() {
+        DBMemoryTable table = users();
+        assertEquals(0, table.getLastInsertId());
+        assertEquals(1, table.set(null, "ann", 30));
+        assertEquals(1, table.set(null, "bob", null));
+        assertEquals(2, table.getLastInsertId());
+        assertArrayEquals(new Object[] {1L, "ann", 30L}, table.get(1));
+        assertArrayEquals(new Object[] {2L, "bob", null}, table.get(2));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void batchLastInsertIdIsTheFirstGeneratedValue() {
+        DBMemoryTable table = users();
+        // un identifiant explicite fait avancer le compteur; 0 et NULL en reçoivent la valeur suivante
+        assertEquals(3, table.setBatch(List.of(new Object[] {10, "ann", null}, new Object[] {0, "bob", null},
+                new Object[] {null, "cid", null})));
+        assertEquals(11, table.getLastInsertId());
+        assertEquals(List.of(10L, 11L, 12L), column(table.list(), 0));
+    }
+
+    @Test
+    void updateCountsAffectedRowsLikeMysql() {
+        DBMemoryTable table = users();
+        table.set(null, "ann", 30);
+        assertEquals(1, table.set(1, "ann", 31));
+        assertEquals(0, table.set(1, "ann", 31));
+        // un identifiant généré inconnu ne crée pas de ligne
+        assertEquals(0, table.set(7, "bob", 20));
+        assertEquals(1, table.size());
+
+        DBMemoryTable settings = table("CREATE TABLE settings (name VARCHAR(10) NOT NULL, level INT,"
+                + " PRIMARY KEY (name));");
+        assertEquals(1, settings.set("timeout", 5));
+        assertEquals(2, settings.set("timeout", 7));
+        assertEquals(0, settings.set("timeout", 7));
+        assertArrayEquals(new Object[] {"timeout", 7L}, settings.get("timeout"));
+    }
+
+    @Test
+    void deleteMovesTheLastRowAndKeepsLookupsAndOrder() {
+        DBMemoryTable table = users();
+        for (String name : List.of("ann", "bob", "cid", "dan")) {
+            table.set(null, name, null);
+        }
+        assertEquals(1, table.delete(2));
+        assertEquals(0, table.delete(2));
+        assertNull(table.get(2));
+        assertEquals("dan", table.get(4)[1]);
+        assertEquals(List.of(1L, 3L, 4L), column(table.list(), 0));
+        assertEquals(List.of(3L, 4L), column(table.listPage(new Object[] {1}, 5), 0));
+        table.truncate();
+        assertEquals(0, table.size());
+        table.set(null, "eve", null);
+        assertEquals(1, table.getLastInsertId());
+    }
+
+    @Test
+    void duplicateIdentifierWithoutValuesIsRejected() {
+        DBMemoryTable tags = table("CREATE TABLE tags (name VARCHAR(10) NOT NULL, PRIMARY KEY (name));");
+        tags.set("red");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> tags.set("red"));
+        assertEquals("Duplicate entry 'red' for key 'PRIMARY'", e.getMessage());
+
+        DBMemoryTable codes = table("CREATE TABLE codes (code VARCHAR(5), UNIQUE KEY uk_code (code));");
+        e = assertThrows(IllegalArgumentException.class,
+                () -> codes.setBatch(List.of(new Object[] {"a"}, new Object[] {"a"})));
+        assertEquals("Duplicate entry 'a' for key 'uk_code'", e.getMessage());
+        assertEquals(0, codes.size());
+    }
+
+    @Test
+    void failedBatchWritesNothing() {
+        DBMemoryTable table = table("CREATE TABLE counters (id TINYINT NOT NULL AUTO_INCREMENT, hits INT,"
+                + " PRIMARY KEY (id));");
+        table.setBatch(List.of(new Object[] {1, 5}, new Object[] {127, 0}));
+        // la mise à jour de la ligne 1 est annulée lorsque l'identifiant suivant dépasse TINYINT
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> table.setBatch(List.of(new Object[] {1, 6}, new Object[] {null, 7})));
+        assertEquals("Out of range value for column 'id'", e.getMessage());
+        assertArrayEquals(new Object[] {1L, 5L}, table.get(1));
+        assertEquals(2, table.size());
+        assertEquals(0, table.getLastInsertId());
+
+        // une valeur refusée arrête le lot avant toute écriture
+        e = assertThrows(IllegalArgumentException.class,
+                () -> table.setBatch(List.of(new Object[] {null, 1}, new Object[] {2, "many"})));
+        assertEquals("Incorrect integer value for column 'hits'", e.getMessage());
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void nullsFollowStrictModeAndNeverMatch() {
+        DBMemoryTable table = users();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> table.set(null, null, 1));
+        assertEquals("Column 'name' cannot be null", e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> table.set(null, "ann", 300));
+        assertEquals("Out of range value for column 'age'", e.getMessage());
+        assertEquals(0, table.size());
+        assertNull(table.get((Object) null));
+        assertEquals(0, table.delete((Object) null));
+
+        // une clé unique admet plusieurs NULL, qu'aucune recherche ne retrouve
+        DBMemoryTable codes = table("CREATE TABLE codes (code VARCHAR(5), label VARCHAR(10),"
+                + " UNIQUE KEY uk_code (code));");
+        assertEquals(1, codes.set(null, "first"));
+        assertEquals(1, codes.set(null, "second"));
+        assertEquals(2, codes.size());
+        assertNull(codes.get((Object) null));
+        assertEquals(List.of("first", "second"), column(codes.list(), 1));
+    }
+
+    @Test
+    void missingProcedureAndWrongArityAreRejected() {
+        DBMemoryTable log = table("CREATE TABLE log (message VARCHAR(20));");
+        IllegalStateException missing = assertThrows(IllegalStateException.class, () -> log.get("x"));
+        assertEquals("PROCEDURE " + DBRoutineGenerator.GET_PREFIX + "log does not exist", missing.getMessage());
+        assertThrows(IllegalStateException.class, () -> log.listPage(null, 1));
+
+        DBMemoryTable table = users();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> table.set(null, "ann"));
+        assertEquals("Incorrect number of arguments for PROCEDURE " + DBRoutineGenerator.SET_PREFIX
+                + "users; expected 3, got 2", e.getMessage());
+    }
+}
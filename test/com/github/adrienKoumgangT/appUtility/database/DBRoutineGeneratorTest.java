@@ -0,0 +1,95 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBRoutineGeneratorTest {
+
+    @Test
+    void parametersOfUnusualColumnNamesAreQuoted() {
+        DBTable table = DBTableParser.parse("CREATE TABLE orders (`order id` INT NOT NULL, `qty-1` INT,"
+                + " `we``ird` INT, PRIMARY KEY (`order id`));").get(0);
+        StringBuilder out = new StringBuilder();
+        new DBRoutineGenerator().generate(table, out);
+        String script = out.toString();
+        assertTrue(script.contains("IN `p_order id` INT"));
+        assertTrue(script.contains("`order id` = `p_order id`"));
+        assertTrue(script.contains("IN `p_qty-1` INT"));
+        assertTrue(script.contains("IN `p_we``ird` INT"));
+        assertTrue(script.contains("IN `p_after_order id` INT"));
+        assertTrue(script.contains("IF `p_after_order id` IS NULL THEN"));
+        assertFalse(script.contains(" p_order id"));
+    }
+
+    @Test
+    void indexAdviceIsOnlyCommented() {
+        // la clé primaire sur un préfixe ne sert pas la recherche par identifiant
+        DBTable table = DBTableParser.parse("CREATE TABLE docs (code VARCHAR(40) NOT NULL, body TEXT,"
+                + " PRIMARY KEY (code(10)));").get(0);
+        StringBuilder out = new StringBuilder();
+        new DBRoutineGenerator().generate(table, out);
+        String script = out.toString();
+        assertTrue(script.contains("-- ALTER TABLE `docs` ADD INDEX `idx_docs_code` (`code`)"));
+        for (String line : script.split("\n")) {
+            assertFalse(line.startsWith("ALTER TABLE"), line);
+        }
+    }
+
+    @Test
+    void foreignKeyCountsItsImplicitIndex() {
+        DBTable table = DBTableParser.parse("CREATE TABLE lines (id INT NOT NULL, order_id INT, pos INT,"
+                + " PRIMARY KEY (id), KEY idx_order (order_id),"
+                + " CONSTRAINT fk_order FOREIGN KEY (order_id, pos) REFERENCES orders (id, pos));").get(0);
+        DBIndexAdvisor.Advice advice = new DBIndexAdvisor().advise(table);
+        // InnoDB crée l'index de la clé étrangère : rien à proposer, mais idx_order en devient un préfixe
+        assertTrue(advice.getIndexes().isEmpty());
+        assertEquals(1, advice.getWarnings().size());
+        assertTrue(advice.getWarnings().get(0).startsWith("index `idx_order` (`order_id`) is a prefix of `fk_order`"),
+                advice.getWarnings().get(0));
+    }
+
+    // corps de la procédure, de CREATE PROCEDURE à END
+    private static String procedure(String script, String name) {
+        int from = script.indexOf("CREATE PROCEDURE `" + name + "`");
+        assertTrue(from >= 0, name);
+        return script.substring(from, script.indexOf("END$$", from));
+    }
+
+    @Test
+    void getAndDelCompareThePartitionColumnsForPruning() {
+        DBTable table = DBTableParser.parse("CREATE TABLE events (id BIGINT NOT NULL, day DATE NOT NULL,"
+                + " region VARCHAR(8) NOT NULL, PRIMARY KEY (id))"
+                + " PARTITION BY LIST COLUMNS (region) SUBPARTITION BY HASH (TO_DAYS(day)) SUBPARTITIONS 4"
+                + " (PARTITION pe VALUES IN ('fr'), PARTITION pa VALUES IN ('us'));").get(0);
+        StringBuilder out = new StringBuilder();
+        new DBRoutineGenerator().generate(table, out);
+        String script = out.toString();
+        String where = "WHERE `id` = `p_id` AND `day` = `p_day` AND `region` = `p_region`;";
+        for (String name : new String[] {"get_events", "del_events"}) {
+            String routine = procedure(script, name);
+            assertTrue(routine.contains(where), routine);
+            assertTrue(routine.contains("IN `p_day` DATE"), routine);
+            assertTrue(routine.contains("IN `p_region` VARCHAR(8)"), routine);
+        }
+        // SET retrouve la ligne par son identifiant seul : une mise à jour peut la changer de partition
+        String set = procedure(script, "set_events");
+        assertTrue(set.contains("ON DUPLICATE KEY UPDATE `day` = VALUES(`day`),\n        `region` = VALUES(`region`);"), set);
+        assertFalse(set.contains("WHERE"), set);
+    }
+
+    @Test
+    void identifierHoldingThePartitionColumnsIsUnchanged() {
+        String ddl = "CREATE TABLE events (id BIGINT NOT NULL, day DATE NOT NULL, PRIMARY KEY (id, day))";
+        StringBuilder plain = new StringBuilder();
+        new DBRoutineGenerator().generate(DBTableParser.parse(ddl + ";").get(0), plain);
+        StringBuilder partitioned = new StringBuilder();
+        new DBRoutineGenerator().generate(DBTableParser.parse(ddl + " PARTITION BY RANGE (YEAR(day))"
+                + " (PARTITION p0 VALUES LESS THAN (2024), PARTITION p1 VALUES LESS THAN MAXVALUE);").get(0), partitioned);
+        assertEquals(procedure(plain.toString(), "get_events"), procedure(partitioned.toString(), "get_events"));
+        assertEquals(procedure(plain.toString(), "del_events"), procedure(partitioned.toString(), "del_events"));
+        assertTrue(procedure(plain.toString(), "get_events").contains("WHERE `id` = `p_id` AND `day` = `p_day`;"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBScanTest {
+
+    private static DBMemoryTable table(String ddl) {
+        return new DBMemoryTable(DBTableParser.parse(ddl).get(0));
+    }
+
+    private static DBMemoryTable accounts() {
+        DBMemoryTable table = table("CREATE TABLE accounts (id INT NOT NULL, status ENUM('zz','active','alpha','c'),"
+                + " tags SET('x','b','a'), PRIMARY KEY (id)) DEFAULT CHARSET=utf8mb4;");
+        table.set(1, "active", "x");
+        table.set(2, "alpha", "a,b");
+        table.set(3, "zz", "b");
+        table.set(4, "c", null);
+        table.set(5, "ACTIVE", "x,a");
+        return table;
+    }
+
+    @Test
+    void enumEqualityUsesCollation() {
+        assertEquals(2, new DBScan(accounts()).where("status", "ACTIVE").count());
+    }
+
+    @Test
+    void enumRangeComparesStrings() {
+        // par rang, tout membre suivrait "b", absent de l'ENUM
+        assertEquals(3, new DBScan(accounts()).where("status", DBScan.Comparison.LT, "b").count());
+        assertEquals(2, new DBScan(accounts()).where("status", DBScan.Comparison.GE, "c").count());
+    }
+
+    @Test
+    void setComparesStrings() {
+        assertEquals(2, new DBScan(accounts()).where("tags", DBScan.Comparison.LT, "c").count());
+    }
+
+    @Test
+    void whereInUsesCollation() {
+        assertEquals(3, new DBScan(accounts()).whereIn("status", List.of("Active", "ZZ")).count());
+    }
+
+    @Test
+    void minAndMaxCompareEnumAndSetAsStrings() {
+        DBMemoryTable table = accounts();
+        assertEquals("active", new DBScan(table).min("status"));
+        assertEquals("zz", new DBScan(table).max("status"));
+        assertEquals("b", new DBScan(table).min("tags"));
+        assertEquals("x,a", new DBScan(table).max("tags"));
+    }
+
+    @Test
+    void sumLongIsExactAcrossIntermediateOverflow() {
+        DBMemoryTable table = table("CREATE TABLE numbers (id INT NOT NULL, n BIGINT, PRIMARY KEY (id));");
+        table.set(1, Long.MAX_VALUE);
+        table.set(2, 1);
+        table.set(3, -1);
+        assertEquals(Long.MAX_VALUE, new DBScan(table).sumLong("n"));
+        table.set(4, 1);
+        assertThrows(ArithmeticException.class, () -> new DBScan(table).sumLong("n"));
+    }
+
+    @Test
+    void sumAndAvgWidenLikeMysql() {
+        DBMemoryTable table = table("CREATE TABLE numbers (id INT NOT NULL, n BIGINT, PRIMARY KEY (id));");
+        table.set(1, Long.MAX_VALUE);
+        table.set(2, Long.MAX_VALUE);
+        table.set(3, null);
+        assertEquals(2.0 * Long.MAX_VALUE, new DBScan(table).sum("n"));
+        assertEquals((double) Long.MAX_VALUE, new DBScan(table).avg("n"));
+    }
+
+    @Test
+    void sumByIsNullForGroupsWithoutValues() {
+        DBMemoryTable table = table("CREATE TABLE sales (id INT NOT NULL, region VARCHAR(10), amount INT,"
+                + " PRIMARY KEY (id));");
+        table.set(1, "north", 5);
+        table.set(2, "south", null);
+        table.set(3, "NORTH", 2);
+        Map<String, Double> sums = new DBScan(table).sumBy("region", "amount");
+        assertEquals(7.0, sums.get("north"));
+        assertTrue(sums.containsKey("south"));
+        assertNull(sums.get("south"));
+    }
+
+    @Test
+    void sumLongRejectsUnsignedColumns() {
+        DBMemoryTable table = table("CREATE TABLE numbers (id INT NOT NULL, n BIGINT UNSIGNED, PRIMARY KEY (id));");
+        table.set(1, 1);
+        assertThrows(IllegalArgumentException.class, () -> new DBScan(table).sumLong("n"));
+        assertEquals(1.0, new DBScan(table).sum("n"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBSchemaDiffTest {
+
+    private static DBSchemaDiff.Migration diff(String before, String after) {
+        return new DBSchemaDiff().diff(DBTableParser.parse(before).get(0), DBTableParser.parse(after).get(0));
+    }
+
+    @Test
+    void integerDisplayWidthIsNotATypeChange() {
+        assertTrue(diff("CREATE TABLE t (id INT(11) NOT NULL, y YEAR(4), b TINYINT(1) UNSIGNED, PRIMARY KEY (id));",
+                "CREATE TABLE t (id INT NOT NULL, y YEAR, b TINYINT UNSIGNED, PRIMARY KEY (id));").isEmpty());
+    }
+
+    @Test
+    void lengthStillMattersForOtherTypes() {
+        assertFalse(diff("CREATE TABLE t (id INT NOT NULL, d DECIMAL(10,2), PRIMARY KEY (id));",
+                "CREATE TABLE t (id INT NOT NULL, d DECIMAL(12,2), PRIMARY KEY (id));").isEmpty());
+        assertFalse(diff("CREATE TABLE t (id BIGINT NOT NULL, PRIMARY KEY (id));",
+                "CREATE TABLE t (id INT NOT NULL, PRIMARY KEY (id));").isEmpty());
+    }
+
+    @Test
+    void missingCharsetIsTheServerDefault() {
+        assertTrue(diff("CREATE TABLE t (id INT NOT NULL, s VARCHAR(10), PRIMARY KEY (id));",
+                "CREATE TABLE t (id INT NOT NULL, s VARCHAR(10), PRIMARY KEY (id)) DEFAULT CHARSET=utf8mb4;").isEmpty());
+        assertFalse(diff("CREATE TABLE t (id INT NOT NULL, PRIMARY KEY (id));",
+                "CREATE TABLE t (id INT NOT NULL, PRIMARY KEY (id)) COLLATE=utf8mb4_bin;").isEmpty());
+    }
+
+    @Test
+    void keyOnStoredColumnIsAddedWithTheColumn() {
+        String alters = diff("CREATE TABLE t (id INT NOT NULL, a INT, PRIMARY KEY (id));",
+                "CREATE TABLE t (id INT NOT NULL, a INT, g INT AS (a * 2) STORED, PRIMARY KEY (id), KEY kg (g));")
+                .appendAlters(new StringBuilder()).toString();
+        assertEquals("ALTER TABLE `t`\n"
+                + "  ADD COLUMN `g` INT GENERATED ALWAYS AS (a * 2) STORED,\n"
+                + "  ADD KEY `kg` (`g`),\n"
+                + "  ALGORITHM=COPY, LOCK=SHARED;\n", statements(alters));
+    }
+
+    @Test
+    void primaryKeyOnAutoIncrementColumnIsAddedWithTheColumn() {
+        String alters = diff("CREATE TABLE t (a INT);",
+                "CREATE TABLE t (id INT NOT NULL AUTO_INCREMENT, a INT, PRIMARY KEY (id));")
+                .appendAlters(new StringBuilder()).toString();
+        assertEquals("ALTER TABLE `t`\n"
+                + "  ADD COLUMN `id` INT NOT NULL AUTO_INCREMENT FIRST,\n"
+                + "  ADD PRIMARY KEY (`id`),\n"
+                + "  ALGORITHM=INPLACE, LOCK=SHARED;\n", statements(alters));
+    }
+
+    @Test
+    void keyOnInstantColumnStaysInplace() {
+        DBSchemaDiff.Migration migration = diff("CREATE TABLE t (id INT NOT NULL, PRIMARY KEY (id));",
+                "CREATE TABLE t (id INT NOT NULL, b INT, PRIMARY KEY (id), KEY kb (b));");
+        assertEquals(DBSchemaDiff.Algorithm.INSTANT, migration.getChanges().get(0).getAlgorithm());
+        assertEquals(DBSchemaDiff.Algorithm.INPLACE, migration.getChanges().get(1).getAlgorithm());
+    }
+
+    // instructions seules, sans les commentaires qui les décrivent
+    private static String statements(String alters) {
+        StringBuilder out = new StringBuilder();
+        for (String line : alters.split("\n")) {
+            if (!line.startsWith("--")) {
+                out.append(line).append('\n');
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBStorageEstimatorTest {
+
+    private final DBStorageEstimator estimator = new DBStorageEstimator();
+
+    private static DBTable table(String ddl) {
+        return DBTableParser.parse(ddl).get(0);
+    }
+
+    private static DBColumn column(String ddl) {
+        return table("CREATE TABLE t (" + ddl + ");").getColumns().get(0);
+    }
+
+    private static boolean warns(DBStorageEstimator.Estimate estimate, String text) {
+        for (String warning : estimate.getWarnings()) {
+            if (warning.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void typeStorageSizes() {
+        assertEquals(1, DBDataType.bytesPerCharacter("latin1"));
+        assertEquals(3, DBDataType.bytesPerCharacter("utf8mb3_general_ci"));
+        assertEquals(4, DBDataType.bytesPerCharacter("utf8mb4_bin"));
+        assertEquals(4, DBDataType.bytesPerCharacter(null));
+        assertEquals(4, DBDataType.INT.maxSize(column("a INT"), 4));
+        // 8 chiffres entiers sur 4 octets, 2 chiffres décimaux sur 1
+        assertEquals(5, DBDataType.DECIMAL.maxSize(column("a DECIMAL(10,2)"), 4));
+        assertEquals(7, DBDataType.DATETIME.maxSize(column("a DATETIME(3)"), 4));
+        assertEquals(400, DBDataType.VARCHAR.maxSize(column("a VARCHAR(100)"), 4));
+        assertEquals(100, DBDataType.VARBINARY.maxSize(column("a VARBINARY(100)"), 4));
+        assertEquals(2, DBDataType.VARCHAR.getLengthPrefix(400));
+        assertEquals(1, DBDataType.VARCHAR.getLengthPrefix(255));
+        assertEquals(65535, DBDataType.TEXT.maxSize(column("a TEXT"), 4));
+        assertTrue(DBDataType.TEXT.isOffPageCapable());
+        assertFalse(DBDataType.CHAR.isOffPageCapable());
+    }
+
+    @Test
+    void rowSizeDependsOnTheCharset() {
+        String ddl = "CREATE TABLE t (id INT NOT NULL, name VARCHAR(100), PRIMARY KEY (id))";
+        // INT, préfixe et valeur du VARCHAR, un octet de bits NULL
+        assertEquals(4 + 1 + 100 + 1, estimator.estimate(table(ddl + " DEFAULT CHARSET=latin1;"), 0).getRowSize());
+        assertEquals(4 + 2 + 400 + 1, estimator.estimate(table(ddl + ";"), 0).getRowSize());
+        // la collation de la colonne l'emporte sur le jeu de la table
+        DBTable collated = table("CREATE TABLE t (id INT NOT NULL, name VARCHAR(100) COLLATE latin1_bin,"
+                + " PRIMARY KEY (id)) DEFAULT CHARSET=utf8mb4;");
+        assertEquals(106, estimator.estimate(collated, 0).getRowSize());
+        // une colonne LOB ne compte que pour son préfixe et son pointeur
+        assertEquals(4 + 2 + 8 + 1, estimator.estimate(table("CREATE TABLE t (id INT NOT NULL, body TEXT,"
+                + " PRIMARY KEY (id));"), 0).getRowSize());
+    }
+
+    @Test
+    void rowOverTheServerLimitIsFlagged() {
+        DBStorageEstimator.Estimate estimate = estimator.estimate(table("CREATE TABLE t (id INT NOT NULL,"
+                + " a VARCHAR(10000), b VARCHAR(10000), PRIMARY KEY (id)) DEFAULT CHARSET=utf8mb4;"), 10);
+        assertEquals(4 + 2 * (2 + 40000) + 1, estimate.getRowSize());
+        assertTrue(warns(estimate, "exceeds the 65535-byte limit"), estimate.getWarnings().toString());
+
+        DBStorageEstimator.Estimate texts = estimator.estimate(table("CREATE TABLE t (id INT NOT NULL,"
+                + " a LONGTEXT, b LONGTEXT, PRIMARY KEY (id));"), 10);
+        assertFalse(warns(texts, "limit"), texts.getWarnings().toString());
+    }
+
+    @Test
+    void longVariableColumnsGoOffPage() {
+        DBStorageEstimator.Estimate estimate = estimator.estimate(table("CREATE TABLE t (id INT NOT NULL,"
+                + " a VARCHAR(6000), b VARCHAR(3000), c VARCHAR(20), PRIMARY KEY (id)) DEFAULT CHARSET=latin1;"), 1000);
+        assertEquals(8126, estimator.getMaxRecordSize());
+        assertTrue(estimate.getMaxRecordSize() > 8126);
+        // la plus longue valeur sort la première, et suffit à faire tenir l'enregistrement
+        assertEquals(1, estimate.getOffPageColumns().size());
+        assertEquals("a", estimate.getOffPageColumns().get(0).getName());
+        assertTrue(warns(estimate, "stored partly off-page"), estimate.getWarnings().toString());
+        // à mi-longueur, 4 500 octets par ligne tiennent dans la ligne
+        assertEquals(0, estimate.getOffPagePages());
+
+        DBStorageEstimator.Estimate full = estimator.estimate(estimate.getTable(), 1000, Map.of("a", 6000, "b", 3000));
+        assertTrue(warns(full, "an average row does not fit"), full.getWarnings().toString());
+        assertEquals(1000, full.getOffPagePages());
+        assertTrue(full.getDataSize() > estimate.getDataSize());
+    }
+
+    @Test
+    void fixedColumnsThatCannotMoveMakeTheRecordTooLarge() {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE t (id INT NOT NULL");
+        for (int i = 0; i < 40; i++) {
+            ddl.append(", c").append(i).append(" CHAR(255) NOT NULL");
+        }
+        ddl.append(", PRIMARY KEY (id)) DEFAULT CHARSET=latin1;");
+        DBStorageEstimator.Estimate estimate = estimator.estimate(table(ddl.toString()), 1);
+        assertTrue(estimate.getOffPageColumns().isEmpty());
+        assertTrue(warns(estimate, "Row size too large"), estimate.getWarnings().toString());
+        assertFalse(warns(estimate, "limit"), estimate.getWarnings().toString());
+    }
+
+    @Test
+    void pagesOfASequentialClusteredIndex() {
+        DBTable table = table("CREATE TABLE t (id INT NOT NULL AUTO_INCREMENT, PRIMARY KEY (id));");
+        DBStorageEstimator.Estimate estimate = estimator.estimate(table, 1_000_000);
+        // en-tête 5, DB_TRX_ID et DB_ROLL_PTR 13, clé 4 : 15/16 de 16 256 octets utiles pour 22 octets et 1/3 de case
+        assertEquals(22, estimate.getAverageRecordSize());
+        assertEquals(682, estimate.getRecordsPerPage());
+        assertEquals(1467, estimate.getDataPages());
+        // deux pages de pointeurs, puis la racine
+        assertEquals((1467 + 2 + 1) * 16384L, estimate.getDataSize());
+        assertEquals(estimate.getDataSize(), estimate.getTotalSize());
+
+        DBTable random = table("CREATE TABLE t (id INT NOT NULL, PRIMARY KEY (id));");
+        assertTrue(estimator.estimate(random, 1_000_000).getRecordsPerPage() < estimate.getRecordsPerPage());
+        assertEquals(16384, estimator.estimate(table, 0).getDataSize());
+    }
+
+    @Test
+    void secondaryIndexesAreSizedByName() {
+        DBTable table = table("CREATE TABLE t (id BIGINT NOT NULL AUTO_INCREMENT, code VARCHAR(1000) NOT NULL,"
+                + " name VARCHAR(40), body TEXT, PRIMARY KEY (id), KEY idx_name (name), KEY idx_code (code),"
+                + " KEY idx_prefix (code(100)), FULLTEXT KEY ft_body (body));");
+        DBStorageEstimator.Estimate estimate = estimator.estimate(table, 100_000);
+        assertEquals(List.of("idx_name", "idx_code", "idx_prefix"), List.copyOf(estimate.getIndexSizes().keySet()));
+        assertTrue(estimate.getIndexSizes().get("idx_prefix") < estimate.getIndexSizes().get("idx_code"));
+        assertEquals(estimate.getDataSize() + estimate.getIndexSize(), estimate.getTotalSize());
+        // 1 000 caractères utf8mb4 : 4 000 octets de clé
+        assertTrue(warns(estimate, "index `idx_code` key of 4000 bytes exceeds 3072 bytes"), estimate.getWarnings().toString());
+        assertFalse(warns(estimate, "idx_prefix"), estimate.getWarnings().toString());
+        assertTrue(warns(estimate, "FULLTEXT_INDEX index `ft_body` is not estimated"), estimate.getWarnings().toString());
+    }
+
+    @Test
+    void reportAndArguments() {
+        DBTable table = table("CREATE TABLE t (id INT NOT NULL AUTO_INCREMENT, PRIMARY KEY (id));");
+        String report = estimator.estimate(table, 1_000_000).appendTo(new StringBuilder()).toString();
+        assertTrue(report.startsWith("-- t : 1000000 rows\n--   row size 4 bytes (limit 65535)"), report);
+        assertTrue(report.contains("682 records per page, 1467 data pages\n"), report);
+        assertTrue(report.endsWith("total 23.0 MiB\n"), report);
+
+        assertEquals(1982, new DBStorageEstimator(4096).getMaxRecordSize());
+        assertThrows(IllegalArgumentException.class, () -> new DBStorageEstimator(12 * 1024));
+        assertThrows(IllegalArgumentException.class, () -> estimator.estimate(table, -1));
+    }
+}
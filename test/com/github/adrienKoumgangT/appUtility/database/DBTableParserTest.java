@@ -0,0 +1,125 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBTableParserTest {
+
+    // extrait de mysqldump : commentaires, instructions ignorées et clause conditionnelle
+    private static final String DUMP = "-- MySQL dump 10.13\n"
+            + "/*!40101 SET NAMES utf8mb4 */;\n"
+            + "DROP TABLE IF EXISTS `order`;\n"
+            + "# table des commandes\n"
+            + "CREATE TABLE `order` (\n"
+            + "  `id` int unsigned NOT NULL AUTO_INCREMENT,\n"
+            + "  `the``name` varchar(20) DEFAULT 'l''an; 2' COMMENT 'nom /* pas un commentaire */',\n"
+            + "  /* colonne */ `year` smallint NOT NULL,\n"
+            + "  PRIMARY KEY (`id`,`year`)\n"
+            + ") ENGINE=InnoDB AUTO_INCREMENT=42 DEFAULT CHARSET=utf8mb4\n"
+            + "/*!50100 PARTITION BY RANGE (`year`)\n"
+            + "(PARTITION p0 VALUES LESS THAN (2024) ENGINE = InnoDB,\n"
+            + " PARTITION p1 VALUES LESS THAN MAXVALUE ENGINE = InnoDB) */;\n"
+            + "INSERT INTO `order` VALUES (1,'a;b',2024);\n"
+            + "CREATE TABLE copy LIKE `order`;\n"
+            + "CREATE TABLE summary AS SELECT COUNT(*) FROM `order`;\n"
+            + "CREATE INDEX by_year ON `order` (`year`);\n"
+            + "CREATE TABLE IF NOT EXISTS db.`item` (sku CHAR(8) PRIMARY KEY);\n";
+
+    @Test
+    void dumpKeepsOnlyTheCreatedTables() {
+        List<DBTable> tables = DBTableParser.parse(DUMP);
+        assertEquals(2, tables.size());
+        assertEquals("item", tables.get(1).getName());
+        assertEquals(List.of("sku"), tables.get(1).getPrimaryKey().getColumns());
+
+        DBTable order = tables.get(0);
+        assertEquals("order", order.getName());
+        assertEquals("InnoDB", order.getEngine());
+        assertEquals("utf8mb4", order.getCharset());
+        assertEquals(3, order.getColumns().size());
+        DBColumn id = order.getColumns().get(0);
+        assertEquals(DBDataType.INT, id.getDataType());
+        assertTrue(id.getUnsigned());
+        assertEquals(42, id.getAutoIncrement());
+        DBColumn name = order.getColumns().get(1);
+        assertEquals("the`name", name.getName());
+        assertEquals(20, name.getLength());
+        assertEquals("'l''an; 2'", name.getDefaultExpression());
+        assertEquals("nom /* pas un commentaire */", name.getComment());
+        assertEquals(List.of("id", "year"), order.getPrimaryKey().getColumns());
+    }
+
+    @Test
+    void versionCommentCarriesThePartitioning() {
+        DBTable order = DBTableParser.parse(DUMP).get(0);
+        assertEquals("RANGE", order.getPartitionMethod());
+        assertEquals("`year`", order.getPartitionExpression());
+        List<DBPartition> partitions = order.getPartitions();
+        assertEquals(2, partitions.size());
+        assertEquals("p0", partitions.get(0).getName());
+        assertEquals("LESS THAN (2024)", partitions.get(0).getValues());
+        assertEquals("ENGINE = InnoDB", partitions.get(0).getOptions());
+        assertEquals("LESS THAN MAXVALUE", partitions.get(1).getValues());
+    }
+
+    @Test
+    void splitDelimitsEachCreateStatementInPlace() {
+        CharBuffer sql = CharBuffer.wrap(DUMP);
+        List<CharBuffer> statements = DBTableParser.split(sql);
+        List<String> heads = new ArrayList<>();
+        for (CharBuffer statement : statements) {
+            String text = statement.toString();
+            heads.add(text.substring(0, text.indexOf(' ', 7)));
+            assertTrue(!text.endsWith(";") && !text.endsWith("*/"), text);
+        }
+        assertEquals(List.of("CREATE TABLE", "CREATE TABLE", "CREATE TABLE", "CREATE INDEX", "CREATE TABLE"), heads);
+        assertEquals(0, sql.position());
+
+        // chaque morceau s'analyse seul, avec les positions du texte entier
+        List<DBTable> tables = new ArrayList<>();
+        for (CharBuffer statement : statements) {
+            tables.addAll(DBTableParser.parse(statement));
+        }
+        assertEquals(2, tables.size());
+        assertEquals(2, tables.get(0).getPartitions().size());
+    }
+
+    @Test
+    void errorGivesTheLineAndColumnOfTheToken() {
+        DBParseException e = assertThrows(DBParseException.class,
+                () -> DBTableParser.parse("CREATE TABLE t (\n  id INT,\n  name VARCHAR(10) BOGUS\n);"));
+        assertEquals(3, e.getLine());
+        assertEquals(20, e.getColumn());
+        assertEquals("column attribute expected, found 'BOGUS' at line 3, column 20", e.getMessage());
+
+        DBParseException partition = assertThrows(DBParseException.class,
+                () -> DBTableParser.parse("CREATE TABLE t (id INT) /*!50100 PARTITION BY SPLIT (id) */;"));
+        assertEquals(47, partition.getColumn());
+    }
+
+    @Test
+    void fileIsReadAsUtf8(@TempDir Path directory) throws IOException {
+        Path file = Files.writeString(directory.resolve("schema.sql"), "CREATE TABLE `été` (prénom VARCHAR(5));\n");
+        DBTable table = DBTableParser.parse(file).get(0);
+        assertEquals("été", table.getName());
+        assertEquals("prénom", table.getColumns().get(0).getName());
+        assertNull(table.getPartitionMethod());
+
+        Path broken = Files.writeString(directory.resolve("broken.sql"), "CREATE TABLE t (id INT,\n`x\n");
+        DBParseException e = assertThrows(DBParseException.class, () -> DBTableParser.parse(broken));
+        assertEquals(2, e.getLine());
+        assertTrue(e.getMessage().startsWith("unterminated identifier"), e.getMessage());
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.adrienKoumgangT.appUtility.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DBTokenizerTest {
+
+    // nature et valeur de chaque lexème, jusqu'à la fin du texte
+    private static List<String> tokens(String sql) {
+        DBTokenizer tokenizer = new DBTokenizer(CharBuffer.wrap(sql));
+        List<String> tokens = new ArrayList<>();
+        while (tokenizer.next() != DBTokenizer.EOF) {
+            tokens.add(tokenizer.kind() + ":" + tokenizer.value());
+        }
+        return tokens;
+    }
+
+    @Test
+    void quotedIdentifiersAndStringsAreUnescaped() {
+        assertEquals(List.of("2:order", "2:a`b", "2:x\\n", "3:it's", "3:it's", "3:say \"hi\"", "3:a\nb"),
+                tokens("`order` `a``b` `x\\n` 'it''s' 'it\\'s' \"say \"\"hi\"\"\" 'a\\nb'"));
+    }
+
+    @Test
+    void wordsNumbersAndSymbols() {
+        assertEquals(List.of("1:DECIMAL", "5:(", "4:10", "5:,", "4:2", "5:)", "4:1.5e-3", "4:.5", "1:_a$1", "1:été"),
+                tokens("DECIMAL(10,2) 1.5e-3 .5 _a$1 été"));
+        DBTokenizer tokenizer = new DBTokenizer(CharBuffer.wrap("create"));
+        tokenizer.next();
+        assertTrue(tokenizer.is("CREATE"));
+        assertEquals(DBTokenizer.WORD, tokenizer.kind());
+    }
+
+    @Test
+    void commentsAreSkipped() {
+        // "--" n'ouvre un commentaire que suivi d'un blanc
+        assertEquals(List.of("1:a", "1:b", "1:c", "5:-", "5:-", "1:d", "1:e"),
+                tokens("a -- commentaire\nb # commentaire\n/* bloc\n*/ c --d\ne"));
+    }
+
+    @Test
+    void versionCommentContentIsRead() {
+        assertEquals(List.of("1:PARTITION", "1:BY", "1:HASH", "5:(", "1:id", "5:)", "5:;"),
+                tokens("/*!50100 PARTITION BY HASH (id) */;"));
+        assertEquals(List.of("1:a", "1:b", "1:c"), tokens("/*!40101 a /* interne */ b */ c"));
+    }
+
+    @Test
+    void positionsAreReadFromTheBufferStart() {
+        CharBuffer buffer = CharBuffer.wrap("skip\n  `x`");
+        buffer.position(5);
+        DBTokenizer tokenizer = new DBTokenizer(buffer);
+        tokenizer.next();
+        assertEquals(7, tokenizer.start());
+        assertEquals(10, tokenizer.end());
+        assertEquals("`x`", tokenizer.text());
+        assertEquals(5, buffer.position());
+    }
+
+    @Test
+    void unterminatedTokensReportTheirLineAndColumn() {
+        DBParseException comment = assertThrows(DBParseException.class, () -> tokens("a\n  /* b"));
+        assertEquals(2, comment.getLine());
+        assertEquals(3, comment.getColumn());
+        assertTrue(comment.getMessage().startsWith("unterminated comment"), comment.getMessage());
+
+        DBParseException string = assertThrows(DBParseException.class, () -> tokens("x 'a\\'"));
+        assertEquals(1, string.getLine());
+        assertEquals(3, string.getColumn());
+        assertTrue(string.getMessage().startsWith("unterminated string"), string.getMessage());
+
+        assertThrows(DBParseException.class, () -> tokens("`a``"));
+    }
+}
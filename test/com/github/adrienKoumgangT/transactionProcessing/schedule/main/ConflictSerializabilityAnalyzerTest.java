@@ -0,0 +1,165 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static com.github.adrienKoumgangT.transactionProcessing.schedule.main.TransactionOperation.abort;
+import static com.github.adrienKoumgangT.transactionProcessing.schedule.main.TransactionOperation.commit;
+import static com.github.adrienKoumgangT.transactionProcessing.schedule.main.TransactionOperation.read;
+import static com.github.adrienKoumgangT.transactionProcessing.schedule.main.TransactionOperation.write;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConflictSerializabilityAnalyzerTest {
+
+    @Test
+    void abortAfterCycleKeepsScheduleSerializable() {
+        // r1(10) w2(10) w2(20) r1(20) a2 c1
+        List<Long> order = new ArrayList<>();
+        ConflictSerializabilityAnalyzer analyzer = new ConflictSerializabilityAnalyzer(order::add);
+        assertTrue(analyzer.analyze(List.of(
+                read(1, 10), write(2, 10), write(2, 20), read(1, 20), abort(2), commit(1)).stream()));
+        assertEquals(List.of(1L), order);
+        assertTrue(analyzer.getCycle().isEmpty());
+    }
+
+    @Test
+    void abortOfThirdTransactionBreaksCycle() {
+        // 1 -> 2 -> 3 -> 1, puis 3 annulée : reste 1 -> 2
+        ConflictSerializabilityAnalyzer analyzer = new ConflictSerializabilityAnalyzer();
+        assertTrue(analyzer.analyze(List.of(
+                read(1, 10), write(2, 10), read(2, 20), write(3, 20), read(3, 30), write(1, 30),
+                commit(1), commit(2), abort(3)).stream()));
+    }
+
+    @Test
+    void cycleIsPendingUntilAllTransactionsCommit() {
+        ConflictSerializabilityAnalyzer analyzer = new ConflictSerializabilityAnalyzer();
+        analyzer.read(1, 10);
+        analyzer.write(2, 10);
+        analyzer.write(2, 20);
+        analyzer.read(1, 20);
+        analyzer.commit(1);
+        assertTrue(analyzer.isSerializable());
+        analyzer.commit(2);
+        assertFalse(analyzer.isSerializable());
+        assertEquals(Set.of(1L, 2L), new HashSet<>(analyzer.getCycle()));
+        assertFalse(analyzer.finish());
+    }
+
+    @Test
+    void committedCycleIsNotSerializable() {
+        ConflictSerializabilityAnalyzer analyzer = new ConflictSerializabilityAnalyzer();
+        assertFalse(analyzer.analyze(List.of(
+                read(1, 10), write(2, 10), write(2, 20), read(1, 20), commit(2), commit(1)).stream()));
+    }
+
+    @Test
+    void activeTransactionInCycleIsAbortedAtFinish() {
+        ConflictSerializabilityAnalyzer analyzer = new ConflictSerializabilityAnalyzer();
+        assertTrue(analyzer.analyze(List.of(
+                read(1, 10), write(2, 10), write(2, 20), read(1, 20), commit(1)).stream()));
+    }
+
+    @Test
+    void abortReconnectsEverySegmentOfTheAbortedWriter() {
+        // w2(7) w1(7) w2(7) w0(7) r1(7) c0 c1 a2 : la projection validée w1 w0 r1 a le cycle 1 -> 0 -> 1
+        assertFalse(new ConflictSerializabilityAnalyzer().analyze(List.of(
+                write(2, 7), write(1, 7), write(2, 7), write(0, 7), read(1, 7),
+                commit(0), commit(1), abort(2)).stream()));
+    }
+
+    @Test
+    void matchesCommittedProjectionOnRandomSchedules() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50_000; round++) {
+            List<TransactionOperation> schedule = randomSchedule(random);
+            assertEquals(expected(schedule), new ConflictSerializabilityAnalyzer().analyze(schedule.stream()),
+                    schedule::toString);
+        }
+    }
+
+    private static List<TransactionOperation> randomSchedule(Random random) {
+        int transactions = 2 + random.nextInt(4);
+        List<TransactionOperation> schedule = new ArrayList<>();
+        Set<Long> ended = new HashSet<>();
+        for (int step = 0; step < 20 && ended.size() < transactions; step++) {
+            long t = 1 + random.nextInt(transactions);
+            if (ended.contains(t)) {
+                continue;
+            }
+            int choice = random.nextInt(10);
+            long item = random.nextInt(3);
+            if (choice < 4) {
+                schedule.add(read(t, item));
+            } else if (choice < 8) {
+                schedule.add(write(t, item));
+            } else {
+                schedule.add(choice == 8 ? commit(t) : abort(t));
+                ended.add(t);
+            }
+        }
+        return schedule;
+    }
+
+    /**
+     * Graphe des conflits complet de la projection sur les transactions validées, puis recherche de cycle.
+     */
+    private static boolean expected(List<TransactionOperation> schedule) {
+        Set<Long> committed = new HashSet<>();
+        for (TransactionOperation operation : schedule) {
+            if (operation.getKind() == TransactionOperation.Kind.COMMIT) {
+                committed.add(operation.getTransaction());
+            }
+        }
+        List<TransactionOperation> projection = new ArrayList<>();
+        for (TransactionOperation operation : schedule) {
+            boolean access = operation.getKind() == TransactionOperation.Kind.READ
+                    || operation.getKind() == TransactionOperation.Kind.WRITE;
+            if (access && committed.contains(operation.getTransaction())) {
+                projection.add(operation);
+            }
+        }
+        Map<Long, Set<Long>> succ = new HashMap<>();
+        for (int i = 0; i < projection.size(); i++) {
+            for (int j = i + 1; j < projection.size(); j++) {
+                TransactionOperation a = projection.get(i);
+                TransactionOperation b = projection.get(j);
+                if (a.getTransaction() != b.getTransaction() && a.getItem() == b.getItem()
+                        && (a.getKind() == TransactionOperation.Kind.WRITE || b.getKind() == TransactionOperation.Kind.WRITE)) {
+                    succ.computeIfAbsent(a.getTransaction(), k -> new HashSet<>()).add(b.getTransaction());
+                }
+            }
+        }
+        Map<Long, Integer> state = new HashMap<>();
+        for (Long t : committed) {
+            if (hasCycle(t, succ, state)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasCycle(Long t, Map<Long, Set<Long>> succ, Map<Long, Integer> state) {
+        Integer s = state.get(t);
+        if (s != null) {
+            return s == 1;
+        }
+        state.put(t, 1);
+        for (Long next : succ.getOrDefault(t, Set.of())) {
+            if (hasCycle(next, succ, state)) {
+                return true;
+            }
+        }
+        state.put(t, 2);
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalScheduleHandlerTest {
+
+    private static final int TASKS = 200;
+
+    /** graphe de référence : durées et arcs, recalculé entièrement après chaque modification */
+    private static final class Reference {
+
+        final long[] durees = new long[TASKS];
+        final List<long[]> edges = new ArrayList<>();
+
+        ScheduleBuilder builder() {
+            ScheduleBuilder builder = new ScheduleBuilder();
+            for (int i = 0; i < TASKS; i++) {
+                builder.addTask(id(i), durees[i]);
+            }
+            for (long[] edge : edges) {
+                builder.addPrecedence(edge[0], edge[1]);
+            }
+            return builder;
+        }
+
+        int find(long predecessor, long successor) {
+            for (int e = 0; e < edges.size(); e++) {
+                if (edges.get(e)[0] == predecessor && edges.get(e)[1] == successor) {
+                    return e;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // identifiants non contigus, pour ne pas confondre identifiant et indice
+    private static long id(int i) {
+        return 1000 + 7L * i;
+    }
+
+    private static void assertSameDates(Reference reference, IncrementalScheduleHandler incremental, String step) {
+        CompactGraphSchedule graph = reference.builder().buildCompact();
+        ScheduleResult full = new ScheduleHandler(graph).compute();
+        assertEquals(full.getMakespan(), incremental.getMakespan(), step);
+        for (int i = 0; i < TASKS; i++) {
+            int expected = graph.indexOf(id(i));
+            int actual = incremental.indexOf(id(i));
+            assertEquals(full.earliestStart(expected), incremental.earliestStart(actual), step + ", task " + id(i));
+            assertEquals(full.latestStart(expected), incremental.latestStart(actual), step + ", task " + id(i));
+            assertEquals(full.slack(expected), incremental.slack(actual), step + ", task " + id(i));
+        }
+    }
+
+    @Test
+    void randomEditsMatchAFullRecompute() {
+        SplittableRandom random = new SplittableRandom(7);
+        Reference reference = new Reference();
+        for (int i = 0; i < TASKS; i++) {
+            reference.durees[i] = random.nextInt(1, 20);
+        }
+        for (int i = 0; i < 2 * TASKS; i++) {
+            int u = random.nextInt(TASKS - 1);
+            int v = random.nextInt(u + 1, TASKS);
+            if (reference.find(id(u), id(v)) < 0) {
+                reference.edges.add(new long[] {id(u), id(v)});
+            }
+        }
+        IncrementalScheduleHandler incremental = new IncrementalScheduleHandler(reference.builder().buildCompact());
+        assertSameDates(reference, incremental, "initial");
+
+        for (int step = 0; step < 2000; step++) {
+            int operation = random.nextInt(3);
+            if (operation == 0) {
+                int i = random.nextInt(TASKS);
+                long duree = random.nextInt(0, 30);
+                incremental.setDuree(id(i), duree);
+                reference.durees[i] = duree;
+            } else if (operation == 1) {
+                // arcs dans les deux sens : ceux qui fermeraient un cycle sont refusés sans rien changer
+                long u = id(random.nextInt(TASKS));
+                long v = id(random.nextInt(TASKS));
+                boolean existed = reference.find(u, v) >= 0;
+                try {
+                    assertEquals(!existed, incremental.addPrecedence(u, v));
+                    if (!existed) {
+                        reference.edges.add(new long[] {u, v});
+                    }
+                } catch (CyclicScheduleException e) {
+                    assertFalse(existed);
+                }
+            } else if (!reference.edges.isEmpty()) {
+                long[] edge = reference.edges.remove(random.nextInt(reference.edges.size()));
+                assertTrue(incremental.removePrecedence(edge[0], edge[1]));
+            }
+            assertSameDates(reference, incremental, "step " + step);
+        }
+    }
+
+    @Test
+    void cyclicEdgeIsRefusedWithoutChangingTheSchedule() {
+        CompactGraphSchedule graph = new ScheduleBuilder()
+                .addTask(1, 2).addTask(2, 3).addTask(3, 4)
+                .addPrecedence(1, 2).addPrecedence(2, 3)
+                .buildCompact();
+        IncrementalScheduleHandler incremental = new IncrementalScheduleHandler(graph);
+        CyclicScheduleException e = assertThrows(CyclicScheduleException.class, () -> incremental.addPrecedence(3, 1));
+        assertTrue(e.getCycle().containsAll(List.of(1L, 2L, 3L)), e.getCycle().toString());
+        assertThrows(CyclicScheduleException.class, () -> incremental.addPrecedence(2, 2));
+        assertEquals(9, incremental.getMakespan());
+        assertEquals(5, incremental.earliestStart(incremental.indexOf(3)));
+        // le graphe d'origine n'est pas modifié
+        assertFalse(incremental.addPrecedence(1, 2));
+        assertTrue(incremental.removePrecedence(1, 2));
+        assertEquals(7, incremental.getMakespan());
+        assertEquals(2, graph.inDegree(graph.indexOf(3)) + graph.inDegree(graph.indexOf(2)));
+        assertFalse(incremental.removePrecedence(1, 2));
+    }
+
+    @Test
+    void unknownTaskAndNegativeDurationAreRejected() {
+        IncrementalScheduleHandler incremental = new IncrementalScheduleHandler(
+                new ScheduleBuilder().addTask(1, 2).buildCompact());
+        assertThrows(IllegalArgumentException.class, () -> incremental.setDuree(9, 1));
+        assertThrows(IllegalArgumentException.class, () -> incremental.setDuree(1, -1));
+        assertThrows(IllegalArgumentException.class, () -> incremental.addPrecedence(1, 9));
+        assertEquals(2, incremental.getMakespan());
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockManagerTest {
+
+    // détection périodique repoussée : les tests appellent detectDeadlocks() eux-memes
+    private final LockManager manager = new LockManager(4, Duration.ofHours(1));
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        threads.shutdownNow();
+    }
+
+    private Future<Boolean> acquireLater(long transaction, long item, LockMode mode) {
+        return threads.submit(() -> manager.acquire(transaction, item, mode));
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void sharedLocksAreCompatible() throws InterruptedException {
+        assertTrue(LockMode.SHARED.isCompatibleWith(LockMode.SHARED));
+        assertFalse(LockMode.SHARED.isCompatibleWith(LockMode.EXCLUSIVE));
+        assertFalse(LockMode.EXCLUSIVE.isCompatibleWith(LockMode.SHARED));
+        assertFalse(manager.acquire(1, 10, LockMode.SHARED));
+        assertFalse(manager.acquire(2, 10, LockMode.SHARED));
+        assertEquals(LockMode.SHARED, manager.heldMode(1, 10));
+        assertEquals(LockMode.SHARED, manager.heldMode(2, 10));
+        assertEquals(0, manager.waitCount());
+    }
+
+    @Test
+    void exclusiveWaitsUntilTheHoldersRelease() throws Exception {
+        manager.acquire(1, 10, LockMode.SHARED);
+        manager.acquire(2, 10, LockMode.SHARED);
+        Future<Boolean> writer = acquireLater(3, 10, LockMode.EXCLUSIVE);
+        awaitUntil(() -> manager.waitCount() == 1);
+        assertEquals(1, manager.releaseAll(1));
+        Thread.sleep(20);
+        assertFalse(writer.isDone());
+        manager.releaseAll(2);
+        assertTrue(writer.get(10, TimeUnit.SECONDS));
+        assertEquals(LockMode.EXCLUSIVE, manager.heldMode(3, 10));
+
+        // un lecteur attend à son tour l'écrivain
+        Future<Boolean> reader = acquireLater(4, 10, LockMode.SHARED);
+        awaitUntil(() -> manager.waitCount() == 2);
+        manager.releaseAll(3);
+        assertTrue(reader.get(10, TimeUnit.SECONDS));
+        assertEquals(2, manager.getWaitLatency().count());
+    }
+
+    @Test
+    void requestingAWeakerOrTheSameModeIsANoOp() throws InterruptedException {
+        manager.acquire(1, 10, LockMode.EXCLUSIVE);
+        assertFalse(manager.acquire(1, 10, LockMode.SHARED));
+        assertFalse(manager.acquire(1, 10, LockMode.EXCLUSIVE));
+        assertEquals(LockMode.EXCLUSIVE, manager.heldMode(1, 10));
+        assertEquals(1, manager.releaseAll(1));
+    }
+
+    @Test
+    void soleReaderUpgradesAtOnce() throws InterruptedException {
+        manager.acquire(1, 10, LockMode.SHARED);
+        assertFalse(manager.acquire(1, 10, LockMode.EXCLUSIVE));
+        assertEquals(LockMode.EXCLUSIVE, manager.heldMode(1, 10));
+    }
+
+    @Test
+    void upgradeGoesAheadOfQueuedRequests() throws Exception {
+        manager.acquire(1, 10, LockMode.SHARED);
+        manager.acquire(2, 10, LockMode.SHARED);
+        Future<Boolean> writer = acquireLater(3, 10, LockMode.EXCLUSIVE);
+        awaitUntil(() -> manager.waitCount() == 1);
+        Future<Boolean> upgrade = acquireLater(1, 10, LockMode.EXCLUSIVE);
+        awaitUntil(() -> manager.waitCount() == 2);
+
+        manager.releaseAll(2);
+        assertTrue(upgrade.get(10, TimeUnit.SECONDS));
+        assertEquals(LockMode.EXCLUSIVE, manager.heldMode(1, 10));
+        assertFalse(writer.isDone());
+        manager.releaseAll(1);
+        assertTrue(writer.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void deadlockVictimIsTheYoungestTransaction() throws Exception {
+        manager.acquire(1, 10, LockMode.EXCLUSIVE);
+        manager.acquire(2, 20, LockMode.EXCLUSIVE);
+        Future<Boolean> older = acquireLater(1, 20, LockMode.EXCLUSIVE);
+        Future<Boolean> younger = acquireLater(2, 10, LockMode.EXCLUSIVE);
+        awaitUntil(() -> manager.waitCount() == 2);
+
+        assertEquals(1, manager.detectDeadlocks());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> younger.get(10, TimeUnit.SECONDS));
+        DeadlockException deadlock = assertInstanceOf(DeadlockException.class, e.getCause());
+        assertEquals(2, deadlock.getTransaction());
+        assertTrue(deadlock.getCycle().containsAll(List.of(1L, 2L)), deadlock.getCycle().toString());
+        assertEquals(1, manager.deadlockCount());
+
+        // la victime est annulée : ses verrous libèrent l'autre transaction
+        manager.releaseAll(2);
+        assertTrue(older.get(10, TimeUnit.SECONDS));
+        assertEquals(LockMode.EXCLUSIVE, manager.heldMode(1, 20));
+        assertEquals(0, manager.detectDeadlocks());
+    }
+
+    @Test
+    void releaseOnCommitOrAbortFreesEveryItem() throws InterruptedException {
+        for (long item = 0; item < 50; item++) {
+            manager.acquire(1, item, item % 2 == 0 ? LockMode.SHARED : LockMode.EXCLUSIVE);
+        }
+        manager.acquire(2, 0, LockMode.SHARED);
+        assertEquals(2, manager.activeTransactions());
+        assertEquals(50, manager.releaseAll(1));
+        assertEquals(0, manager.releaseAll(1));
+        for (long item = 0; item < 50; item++) {
+            assertNull(manager.heldMode(1, item));
+        }
+        assertEquals(LockMode.SHARED, manager.heldMode(2, 0));
+        assertFalse(manager.acquire(3, 1, LockMode.EXCLUSIVE));
+        assertEquals(2, manager.activeTransactions());
+    }
+
+    @Test
+    void interruptedRequestIsWithdrawn() throws Exception {
+        manager.acquire(1, 10, LockMode.EXCLUSIVE);
+        Future<Boolean> waiter = acquireLater(2, 10, LockMode.SHARED);
+        awaitUntil(() -> manager.waitCount() == 1);
+        waiter.cancel(true);
+        awaitUntil(() -> manager.getWaitLatency().count() == 1);
+        manager.releaseAll(1);
+        assertNull(manager.heldMode(2, 10));
+        assertFalse(manager.acquire(3, 10, LockMode.EXCLUSIVE));
+    }
+
+    @Test
+    void stripeCountIsRoundedToAPowerOfTwo() {
+        assertEquals(4, new LockManager(3).stripeCount());
+        assertEquals(1, new LockManager(1).stripeCount());
+        assertThrows(IllegalArgumentException.class, () -> new LockManager(0));
+        assertThrows(IllegalArgumentException.class, () -> new LockManager(2, Duration.ZERO));
+    }
+}
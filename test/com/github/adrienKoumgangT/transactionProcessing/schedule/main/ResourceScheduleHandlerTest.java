@@ -0,0 +1,125 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceScheduleHandlerTest {
+
+    @Test
+    void serialSchemePlacesEachTaskAtItsFirstFeasibleDate() {
+        // équipe de 2 : 1 (3 jours, 2 personnes) -> 4 (1 jour, 2 personnes); 2 et 3 (2 jours, 1 personne)
+        CompactGraphSchedule graph = new ScheduleBuilder()
+                .addTask(1, 3).addTask(2, 2).addTask(3, 2).addTask(4, 1)
+                .addPrecedence(1, 4)
+                .buildCompact();
+        ResourceConstraints constraints = new ResourceConstraints();
+        int crew = constraints.addResource("crew", 2);
+        constraints.setDemand(1, crew, 2);
+        constraints.setDemand(2, crew, 1);
+        constraints.setDemand(3, crew, 1);
+        constraints.setDemand(4, crew, 2);
+        ResourceScheduleHandler handler = new ResourceScheduleHandler(graph, constraints);
+        assertEquals(4, handler.getCriticalPath().getMakespan());
+
+        // LFT : 1 (fin au plus tard 3) passe d'abord, puis 2, 3 et 4 à égalité, par indice
+        ResourceScheduleResult result = handler.serial(PriorityRules.LFT);
+        long[][] expected = {{1, 0, 3}, {2, 3, 5}, {3, 3, 5}, {4, 5, 6}};
+        for (long[] task : expected) {
+            int index = graph.indexOf(task[0]);
+            assertEquals(task[1], result.start(index), "start of " + task[0]);
+            assertEquals(task[2], result.finish(index), "finish of " + task[0]);
+        }
+        assertEquals(6, result.getMakespan());
+    }
+
+    @Test
+    void randomProjectsRespectCapacitiesAndPrecedences() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int round = 0; round < 200; round++) {
+            int n = random.nextInt(1, 40);
+            int resources = random.nextInt(1, 4);
+            ScheduleBuilder builder = new ScheduleBuilder();
+            for (int i = 0; i < n; i++) {
+                builder.addTask(i, random.nextInt(0, 8));
+            }
+            for (int e = 0; e < n; e++) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                if (u < v) {
+                    builder.addPrecedence(u, v);
+                }
+            }
+            CompactGraphSchedule graph = builder.buildCompact();
+            ResourceConstraints constraints = new ResourceConstraints();
+            int[] capacity = new int[resources];
+            int[][] demand = new int[graph.size()][resources];
+            for (int r = 0; r < resources; r++) {
+                capacity[r] = random.nextInt(1, 6);
+                constraints.addResource("r" + r, capacity[r]);
+            }
+            for (int i = 0; i < n; i++) {
+                for (int r = 0; r < resources; r++) {
+                    int amount = random.nextInt(0, capacity[r] + 1);
+                    constraints.setDemand(i, r, amount);
+                    demand[graph.indexOf(i)][r] = amount;
+                }
+            }
+            ResourceScheduleHandler handler = new ResourceScheduleHandler(graph, constraints);
+            for (PriorityRules rule : PriorityRules.values()) {
+                assertFeasible(graph, capacity, demand, handler.getCriticalPath(), handler.serial(rule));
+                assertFeasible(graph, capacity, demand, handler.getCriticalPath(), handler.parallel(rule));
+            }
+        }
+    }
+
+    private static void assertFeasible(CompactGraphSchedule graph, int[] capacity, int[][] demand,
+                                       ScheduleResult cpm, ResourceScheduleResult result) {
+        int n = graph.size();
+        long makespan = 0;
+        for (int i = 0; i < n; i++) {
+            assertTrue(result.start(i) >= 0);
+            assertEquals(result.start(i) + graph.durees[i], result.finish(i));
+            makespan = Math.max(makespan, result.finish(i));
+            for (int k = graph.succOffsets[i]; k < graph.succOffsets[i + 1]; k++) {
+                assertTrue(result.start(graph.succTargets[k]) >= result.finish(i),
+                        graph.ids[graph.succTargets[k]] + " starts before " + graph.ids[i] + " ends");
+            }
+        }
+        assertEquals(makespan, result.getMakespan());
+        assertTrue(makespan >= cpm.getMakespan());
+        // l'utilisation ne change qu'au début d'une tache : il suffit de la vérifier à ces dates
+        for (int i = 0; i < n; i++) {
+            long t = result.start(i);
+            for (int r = 0; r < capacity.length; r++) {
+                int used = 0;
+                for (int j = 0; j < n; j++) {
+                    if (result.start(j) <= t && t < result.finish(j)) {
+                        used += demand[j][r];
+                    }
+                }
+                assertTrue(used <= capacity[r], "resource r" + r + " over capacity at " + t);
+            }
+        }
+    }
+
+    @Test
+    void impossibleDemandAndUnknownTaskAreRejected() {
+        CompactGraphSchedule graph = new ScheduleBuilder().addTask(1, 2).buildCompact();
+        ResourceConstraints constraints = new ResourceConstraints();
+        int crew = constraints.addResource("crew", 2);
+        assertThrows(IllegalArgumentException.class, () -> constraints.setDemand(1, crew + 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> constraints.setDemand(1, crew, -1));
+        constraints.setDemand(1, crew, 3);
+        assertThrows(IllegalArgumentException.class, () -> new ResourceScheduleHandler(graph, constraints));
+        // la dernière demande fixée pour la tache et la ressource l'emporte
+        constraints.setDemand(1, crew, 2);
+        assertEquals(2, new ResourceScheduleHandler(graph, constraints).serial(PriorityRules.MIN_SLACK).getMakespan());
+        constraints.setDemand(9, crew, 1);
+        assertThrows(IllegalArgumentException.class, () -> new ResourceScheduleHandler(graph, constraints));
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleBuilderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void duplicateTaskIsRejected() {
+        ScheduleBuilder builder = new ScheduleBuilder().addTask(1, 3);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> builder.addTask(1, 4));
+        assertEquals("duplicate task 1", e.getMessage());
+        assertEquals(1, builder.taskCount());
+        assertEquals(3, builder.buildCompact().durees[0]);
+    }
+
+    @Test
+    void negativeDurationIsRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new ScheduleBuilder().addTask(1, -1));
+        assertEquals("negative duration -1 for task 1", e.getMessage());
+    }
+
+    @Test
+    void precedenceOnUnknownTaskIsRejectedAtBuild() {
+        // un arc peut nommer une tache ajoutée plus tard : il n'est résolu qu'à la construction
+        ScheduleBuilder builder = new ScheduleBuilder().addTask(1, 1).addPrecedence(1, 2);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, builder::buildCompact);
+        assertEquals("unknown task 2", e.getMessage());
+        assertThrows(IllegalArgumentException.class, builder::build);
+        CompactGraphSchedule graph = builder.addTask(2, 1).buildCompact();
+        assertEquals(1, graph.inDegree(graph.indexOf(2)));
+    }
+
+    @Test
+    void duplicatePrecedencesAreIgnored() {
+        CompactGraphSchedule graph = new ScheduleBuilder()
+                .addTasks(new long[] {1, 2}, new long[] {1, 1})
+                .addPrecedence(1, 2).addPrecedence(1, 2).addPrecedences(1, LongStream.of(2))
+                .buildCompact();
+        assertEquals(1, graph.inDegree(graph.indexOf(2)));
+        assertEquals(1, graph.outDegree(graph.indexOf(1)));
+    }
+
+    @Test
+    void cycleIsRejected() {
+        ScheduleBuilder builder = new ScheduleBuilder().addTasks(LongStream.rangeClosed(1, 3), id -> 1)
+                .addPrecedences(new long[] {1, 2, 3}, new long[] {2, 3, 1});
+        CyclicScheduleException e = assertThrows(CyclicScheduleException.class, builder::buildCompact);
+        assertEquals(3, e.getCycle().size());
+    }
+
+    @Test
+    void builtGraphIsImmutableAndConsistent() {
+        GraphSchedule graph = new ScheduleBuilder().addTask(1, 2).addTask(2, 3).addTask(3, 4)
+                .addPrecedence(1, 3).addPrecedence(2, 3)
+                .build();
+        assertEquals(List.of(1L, 2L, 3L), graph.taches);
+        assertEquals(4L, graph.tachesDuree.get(3L));
+        assertEquals(List.of(3L), graph.successeurs.get(1L));
+        assertEquals(2, graph.predecesseurs.get(3L).size());
+        assertTrue(graph.predecesseurs.get(3L).containsAll(List.of(1L, 2L)));
+        assertThrows(UnsupportedOperationException.class, () -> graph.taches.add(4L));
+        assertThrows(UnsupportedOperationException.class, () -> graph.successeurs.get(1L).add(2L));
+        assertThrows(UnsupportedOperationException.class, () -> graph.tachesDuree.put(4L, 1L));
+    }
+
+    @Test
+    void addingTasksAfterABuildLeavesTheBuiltGraphUnchanged() {
+        ScheduleBuilder builder = new ScheduleBuilder(1, 1).addTask(1, 1);
+        CompactGraphSchedule first = builder.buildCompact();
+        for (long id = 2; id <= 100; id++) {
+            builder.addTask(id, 1).addPrecedence(id - 1, id);
+        }
+        CompactGraphSchedule second = builder.buildCompact();
+        assertEquals(1, first.size());
+        assertEquals(-1, first.indexOf(2));
+        assertEquals(100, second.size());
+        assertEquals(99, second.indexOf(100));
+        assertEquals(100, new ScheduleHandler(second).compute().getMakespan());
+        assertThrows(IllegalArgumentException.class, () -> builder.addTask(50, 1));
+    }
+
+    @Test
+    void tasksAndPrecedencesLoadFromFiles() throws IOException {
+        Path tasks = Files.writeString(directory.resolve("tasks.csv"), "tache,duree\n1,3\n# commentaire\n2,4\n");
+        Path precedences = Files.writeString(directory.resolve("precedences.csv"), "1;2\r\n");
+        CompactGraphSchedule graph = new ScheduleBuilder().loadTasks(tasks).loadPrecedences(precedences).buildCompact();
+        assertEquals(2, graph.size());
+        assertEquals(7, new ScheduleHandler(graph).compute().getMakespan());
+
+        Path duplicate = Files.writeString(directory.resolve("duplicate.csv"), "1,3\n1,4\n");
+        assertThrows(IllegalArgumentException.class, () -> new ScheduleBuilder().loadTasks(duplicate));
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleControllerTest {
+
+    // 1 -> 2, 1 -> 3, 2 -> 4, 3 -> 4, 4 -> 5
+    private static CompactGraphSchedule diamond() {
+        return new ScheduleBuilder()
+                .addTask(1, 1).addTask(2, 1).addTask(3, 1).addTask(4, 1).addTask(5, 1)
+                .addPrecedence(1, 2).addPrecedence(1, 3).addPrecedence(2, 4).addPrecedence(3, 4).addPrecedence(4, 5)
+                .buildCompact();
+    }
+
+    @Test
+    void everyTaskRunsAfterItsPredecessors() {
+        CompactGraphSchedule graph = diamond();
+        ExecutorService executor = ScheduleController.cpuBoundExecutor(4);
+        try (ScheduleController controller = new ScheduleController(graph, executor)) {
+            for (int round = 0; round < 200; round++) {
+                Set<Long> finished = ConcurrentHashMap.newKeySet();
+                List<String> violations = new ArrayList<>();
+                Map<Long, Runnable> actions = new HashMap<>();
+                for (int i = 0; i < graph.size(); i++) {
+                    long id = graph.ids[i];
+                    List<Long> predecessors = new ArrayList<>();
+                    for (int k = graph.predOffsets[i]; k < graph.predOffsets[i + 1]; k++) {
+                        predecessors.add(graph.ids[graph.predTargets[k]]);
+                    }
+                    actions.put(id, () -> {
+                        if (!finished.containsAll(predecessors)) {
+                            synchronized (violations) {
+                                violations.add(id + " before " + predecessors);
+                            }
+                        }
+                        finished.add(id);
+                    });
+                }
+                controller.run(actions);
+                assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), finished);
+                assertTrue(violations.isEmpty(), violations.toString());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failureStopsTheSuccessors() {
+        ExecutorService executor = ScheduleController.cpuBoundExecutor(2);
+        try (ScheduleController controller = new ScheduleController(diamond(), executor)) {
+            IllegalStateException failure = new IllegalStateException("task 2 failed");
+            AtomicInteger after = new AtomicInteger();
+            Map<Long, Runnable> actions = new HashMap<>();
+            actions.put(2L, () -> {
+                throw failure;
+            });
+            actions.put(4L, after::incrementAndGet);
+            actions.put(5L, after::incrementAndGet);
+            CompletionException e = assertThrows(CompletionException.class, () -> controller.run(actions));
+            assertSame(failure, e.getCause());
+            assertEquals(0, after.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void milestonesWithoutActionComplete() {
+        try (ScheduleController controller = new ScheduleController(diamond().toGraphSchedule())) {
+            AtomicInteger ran = new AtomicInteger();
+            controller.run(Map.of(5L, ran::incrementAndGet));
+            assertEquals(1, ran.get());
+        }
+    }
+
+    @Test
+    void unknownTaskIsRejected() {
+        try (ScheduleController controller = new ScheduleController(diamond().toGraphSchedule())) {
+            assertThrows(IllegalArgumentException.class, () -> controller.execute(Map.of(9L, () -> { })));
+        }
+    }
+
+    @Test
+    void cycleIsRejectedBeforeAnyExecution() {
+        // 1 -> 2 -> 3 -> 2 : le graphe est monté à la main, le builder refusant les cycles
+        GraphSchedule graph = new GraphSchedule();
+        graph.taches = List.of(1L, 2L, 3L);
+        graph.tachesDuree = Map.of(1L, 1L, 2L, 1L, 3L, 1L);
+        graph.successeurs = Map.of(1L, List.of(2L), 2L, List.of(3L), 3L, List.of(2L));
+        graph.predecesseurs = Map.of(1L, List.of(), 2L, List.of(1L, 3L), 3L, List.of(2L));
+        CyclicScheduleException e = assertThrows(CyclicScheduleException.class, () -> new ScheduleController(graph));
+        assertTrue(e.getCycle().containsAll(List.of(2L, 3L)), e.getCycle().toString());
+    }
+}
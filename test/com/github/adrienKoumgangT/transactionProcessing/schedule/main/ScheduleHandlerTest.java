@@ -0,0 +1,148 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleHandlerTest {
+
+    // 1 (3) -> 2 (2) -> 4 (1) -> 5 (2), 1 -> 3 (4) -> 4, et 6 (1) isolée
+    private static CompactGraphSchedule project() {
+        return new ScheduleBuilder()
+                .addTask(1, 3).addTask(2, 2).addTask(3, 4).addTask(4, 1).addTask(5, 2).addTask(6, 1)
+                .addPrecedence(1, 2).addPrecedence(1, 3).addPrecedence(2, 4).addPrecedence(3, 4).addPrecedence(4, 5)
+                .buildCompact();
+    }
+
+    // 1 -> 2 -> 3 -> 2 : le graphe est monté à la main, le builder refusant les cycles
+    static CompactGraphSchedule cyclic() {
+        GraphSchedule graph = new GraphSchedule();
+        graph.taches = List.of(1L, 2L, 3L);
+        graph.tachesDuree = Map.of(1L, 1L, 2L, 1L, 3L, 1L);
+        graph.successeurs = Map.of(1L, List.of(2L), 2L, List.of(3L), 3L, List.of(2L));
+        graph.predecesseurs = Map.of(1L, List.of(), 2L, List.of(1L, 3L), 3L, List.of(2L));
+        return graph.compact();
+    }
+
+    @Test
+    void earliestAndLatestDatesFollowThePrecedences() {
+        CompactGraphSchedule graph = project();
+        ScheduleResult result = new ScheduleHandler(graph).compute();
+        assertEquals(10, result.getMakespan());
+        long[][] expected = {
+                // id, début au plus tot, début au plus tard, marge
+                {1, 0, 0, 0}, {2, 3, 5, 2}, {3, 3, 3, 0}, {4, 7, 7, 0}, {5, 8, 8, 0}, {6, 0, 9, 9}
+        };
+        for (long[] task : expected) {
+            int index = graph.indexOf(task[0]);
+            assertEquals(task[1], result.earliestStart(index), "earliest start of " + task[0]);
+            assertEquals(task[2], result.latestStart(index), "latest start of " + task[0]);
+            assertEquals(task[3], result.slack(index), "slack of " + task[0]);
+            assertEquals(result.earliestStart(index) + graph.durees[index], result.earliestFinish(index));
+            assertEquals(result.latestStart(index) + graph.durees[index], result.latestFinish(index));
+        }
+        assertFalse(result.isCritical(graph.indexOf(2)));
+        assertTrue(result.isCritical(graph.indexOf(3)));
+    }
+
+    @Test
+    void criticalPathChainsZeroSlackTasks() {
+        assertEquals(List.of(1L, 3L, 4L, 5L), new ScheduleHandler(project()).compute().criticalPath());
+    }
+
+    @Test
+    void topologicalOrderPlacesEveryTaskAfterItsPredecessors() {
+        CompactGraphSchedule graph = project();
+        int[] order = new ScheduleHandler(graph).topologicalOrder();
+        assertEquals(graph.size(), order.length);
+        int[] rank = new int[graph.size()];
+        for (int r = 0; r < order.length; r++) {
+            rank[order[r]] = r;
+        }
+        for (int i = 0; i < graph.size(); i++) {
+            for (int k = graph.succOffsets[i]; k < graph.succOffsets[i + 1]; k++) {
+                assertTrue(rank[i] < rank[graph.succTargets[k]]);
+            }
+        }
+    }
+
+    @Test
+    void emptyGraphHasNoMakespan() {
+        ScheduleResult result = new ScheduleHandler(new ScheduleBuilder().buildCompact()).compute();
+        assertEquals(0, result.getMakespan());
+        assertTrue(result.criticalPath().isEmpty());
+    }
+
+    @Test
+    void cycleIsReportedInEdgeOrder() {
+        CyclicScheduleException e = assertThrows(CyclicScheduleException.class,
+                () -> new ScheduleHandler(cyclic()).compute());
+        assertEquals(2, e.getCycle().size());
+        assertEquals(Set.of(2L, 3L), Set.copyOf(e.getCycle()));
+        assertThrows(CyclicScheduleException.class, () -> new ScheduleHandler(cyclic()).topologicalOrder());
+    }
+
+    @Test
+    void parallelWavesGiveTheSequentialDates() {
+        // 20 couches de 2500 taches : chaque vague dépasse le seuil de découpage entre les fils du pool
+        SplittableRandom random = new SplittableRandom(11);
+        int width = 2500;
+        int n = 20 * width;
+        ScheduleBuilder builder = new ScheduleBuilder(n, 3 * n);
+        for (int i = 0; i < n; i++) {
+            builder.addTask(3L * i + 1, random.nextInt(0, 100));
+        }
+        for (int v = width; v < n; v++) {
+            int layer = v / width;
+            for (int k = 0; k < 3; k++) {
+                int u = (layer - 1 - random.nextInt(Math.min(layer, 2))) * width + random.nextInt(width);
+                builder.addPrecedence(3L * u + 1, 3L * v + 1);
+            }
+        }
+        CompactGraphSchedule graph = builder.buildCompact();
+        ScheduleHandler handler = new ScheduleHandler(graph);
+        ScheduleResult sequential = handler.compute();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int round = 0; round < 5; round++) {
+                ScheduleResult parallel = handler.compute(pool);
+                assertEquals(sequential.getMakespan(), parallel.getMakespan());
+                long[] expected = new long[2 * n];
+                long[] actual = new long[2 * n];
+                for (int i = 0; i < n; i++) {
+                    expected[2 * i] = sequential.earliestStart(i);
+                    expected[2 * i + 1] = sequential.latestStart(i);
+                    actual[2 * i] = parallel.earliestStart(i);
+                    actual[2 * i + 1] = parallel.latestStart(i);
+                }
+                assertArrayEquals(expected, actual);
+                assertEquals(sequential.criticalPath(), parallel.criticalPath());
+                // l'ordre peut différer dans une vague, mais reste topologique
+                int[] rank = new int[n];
+                for (int r = 0; r < n; r++) {
+                    rank[parallel.taskAt(r)] = r;
+                }
+                for (int i = 0; i < n; i++) {
+                    for (int k = graph.succOffsets[i]; k < graph.succOffsets[i + 1]; k++) {
+                        assertTrue(rank[i] < rank[graph.succTargets[k]]);
+                    }
+                }
+            }
+            CyclicScheduleException e = assertThrows(CyclicScheduleException.class,
+                    () -> new ScheduleHandler(cyclic()).compute(pool));
+            assertEquals(Set.of(2L, 3L), Set.copyOf(e.getCycle()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.adrienKoumgangT.transactionProcessing.schedule.main;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScheduleSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private static CompactGraphSchedule graph() {
+        return new ScheduleBuilder().addTask(1, 3).addTask(2, 4).addPrecedence(1, 2).buildCompact();
+    }
+
+    @Test
+    void writeReplacesTheSnapshotWithoutLeavingATemporaryFile() throws IOException {
+        Path path = directory.resolve("schedule.snp");
+        Files.write(path, new byte[] {1, 2, 3});
+        CompactGraphSchedule graph = graph();
+        ScheduleSnapshot.write(path, graph);
+        assertArrayEquals(graph.ids, ScheduleSnapshot.read(path).getGraph().ids);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of(path), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void readRejectsDuplicateTaskIds() throws IOException {
+        Path path = directory.resolve("schedule.snp");
+        ScheduleSnapshot.write(path, graph());
+        byte[] bytes = Files.readAllBytes(path);
+        // après l'en-tête de 28 octets, les identifiants 1 et 2 sont deux écarts zigzag valant 2;
+        // un second écart nul répète l'identifiant 1
+        assertEquals(2, bytes[29]);
+        bytes[29] = 0;
+        Files.write(path, bytes);
+        IOException e = assertThrows(IOException.class, () -> ScheduleSnapshot.read(path));
+        assertTrue(e.getMessage().contains("duplicate task 1"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.adrienKoumgangT.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FichierTest {
+
+    @TempDir
+    Path directory;
+
+    private List<Long> read(String content) throws IOException {
+        Path path = directory.resolve("pairs.csv");
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        List<Long> values = new ArrayList<>();
+        Fichier.lirePaires(path, (first, second) -> {
+            values.add(first);
+            values.add(second);
+        });
+        return values;
+    }
+
+    @Test
+    void headerAfterBlankAndCommentLinesIsSkipped() throws IOException {
+        assertEquals(List.of(1L, 2L, 3L, 4L), read("\n# exported tasks\r\n  \ntache,duree\n1,2\n3;4\n"));
+    }
+
+    @Test
+    void headerIsOnlyAcceptedBeforeTheFirstPair() throws IOException {
+        assertEquals(List.of(1L, 2L), read("tache,duree\n1,2\n"));
+        assertThrows(IOException.class, () -> read("1,2\ntache,duree\n"));
+        assertThrows(IOException.class, () -> read("tache,duree\nautre,entete\n1,2\n"));
+    }
+}